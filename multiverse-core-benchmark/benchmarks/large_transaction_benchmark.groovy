@@ -0,0 +1,32 @@
+import org.benchy.Benchmark
+import org.benchy.GroovyTestCase
+import org.multiverse.stms.gamma.benchmarks.LargeTransactionDriver
+
+def benchmark = new Benchmark();
+benchmark.name = "large_transaction"
+
+for (def refCount in [16, 64, 256, 1024, 4096, 16384]) {
+    def testCase = new GroovyTestCase()
+    testCase.name = "large_transaction_update_with_${refCount}_refs"
+    testCase.threadCount = 1
+    testCase.refCount = refCount
+    testCase.readonly = false
+    testCase.transactionsPerThread = (1000 * 1000 * 20) / refCount
+    testCase.warmupRunIterationCount = 1
+    testCase.driver = LargeTransactionDriver.class
+    benchmark.add(testCase)
+}
+
+for (def refCount in [16, 64, 256, 1024, 4096, 16384]) {
+    def testCase = new GroovyTestCase()
+    testCase.name = "large_transaction_read_with_${refCount}_refs"
+    testCase.threadCount = 1
+    testCase.refCount = refCount
+    testCase.readonly = true
+    testCase.transactionsPerThread = (1000 * 1000 * 20) / refCount
+    testCase.warmupRunIterationCount = 1
+    testCase.driver = LargeTransactionDriver.class
+    benchmark.add(testCase)
+}
+
+benchmark
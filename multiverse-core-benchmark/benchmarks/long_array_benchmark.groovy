@@ -0,0 +1,20 @@
+import org.benchy.Benchmark
+import org.benchy.GroovyTestCase
+import org.multiverse.stms.gamma.benchmarks.LongArrayDriver
+
+def benchmark = new Benchmark();
+benchmark.name = "long_array"
+
+for (def stripeSize in [0, 8, 32, 128]) {
+    def testCase = new GroovyTestCase()
+    testCase.name = stripeSize == 0 ? "long_array_unstriped" : "long_array_with_stripe_size_${stripeSize}"
+    testCase.length = 1000 * 1000
+    testCase.striped = stripeSize > 0
+    testCase.stripeSize = stripeSize > 0 ? stripeSize : 1
+    testCase.transactionCount = 1000 * 1000 * 10
+    testCase.warmupRunIterationCount = 0
+    testCase.driver = LongArrayDriver.class
+    benchmark.add(testCase)
+}
+
+benchmark
@@ -0,0 +1,22 @@
+import org.benchy.Benchmark
+import org.benchy.GroovyTestCase
+import org.multiverse.stms.gamma.benchmarks.PaddedRefDriver
+
+def benchmark = new Benchmark();
+benchmark.name = "padded_ref"
+
+for (def padded in [false, true]) {
+    for (def k in 1..processorCount) {
+        def testCase = new GroovyTestCase()
+        testCase.name = "padded_ref_${padded}_with_${k}_threads"
+        testCase.threadCount = k
+        testCase.refsPerThread = 4
+        testCase.padded = padded
+        testCase.transactionsPerThread = 1000 * 1000 * 20
+        testCase.driver = PaddedRefDriver.class
+        testCase.warmupRunIterationCount = k == 1 ? 1 : 0;
+        benchmark.add(testCase)
+    }
+}
+
+benchmark
@@ -0,0 +1,22 @@
+import org.benchy.Benchmark
+import org.benchy.GroovyTestCase
+import org.multiverse.stms.gamma.benchmarks.StructUpdateDriver
+
+def benchmark = new Benchmark();
+benchmark.name = "struct_update"
+
+for (def struct in [false, true]) {
+    for (def k in 1..processorCount) {
+        def testCase = new GroovyTestCase()
+        testCase.name = "struct_update_${struct}_with_${k}_threads"
+        testCase.threadCount = k
+        testCase.fieldCount = 5
+        testCase.struct = struct
+        testCase.transactionsPerThread = 1000 * 1000 * 10
+        testCase.driver = StructUpdateDriver.class
+        testCase.warmupRunIterationCount = k == 1 ? 1 : 0;
+        benchmark.add(testCase)
+    }
+}
+
+benchmark
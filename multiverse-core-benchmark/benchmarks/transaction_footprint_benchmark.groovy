@@ -0,0 +1,19 @@
+import org.benchy.Benchmark
+import org.benchy.GroovyTestCase
+import org.multiverse.stms.gamma.benchmarks.TransactionFootprintDriver
+
+def benchmark = new Benchmark();
+benchmark.name = "transaction_footprint"
+
+for (def refCount in [10, 100, 10000]) {
+    def testCase = new GroovyTestCase()
+    testCase.name = "transaction_footprint_with_${refCount}_refs"
+    testCase.refCount = refCount
+    testCase.transactionCount = refCount == 10000 ? 20 : 1000
+    testCase.iterations = (1000 * 1000 * 10) / refCount
+    testCase.warmupRunIterationCount = 0
+    testCase.driver = TransactionFootprintDriver.class
+    benchmark.add(testCase)
+}
+
+benchmark
@@ -9,6 +9,7 @@ import org.multiverse.api.callables.TxnDoubleCallable;
 import org.multiverse.api.callables.TxnVoidCallable;
 import org.multiverse.api.references.TxnDouble;
 import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.GammaStmConfig;
 
 import java.util.Random;
 
@@ -27,10 +28,13 @@ public class AccountDriver extends BenchmarkDriver {
     private BenchmarkThread[] threads;
     private int readFrequency;
     private int writeFrequency;
+    private boolean adaptiveScheduling;
 
     @Override
     public void setUp() {
-        stm = new GammaStm();
+        GammaStmConfig config = new GammaStmConfig();
+        config.adaptiveSchedulingEnabled = adaptiveScheduling;
+        stm = new GammaStm(config);
         bank = new Bank(accountCount);
 
         threads = new BenchmarkThread[threadCount];
@@ -0,0 +1,100 @@
+package org.multiverse.stms.gamma.benchmarks;
+
+import org.benchy.BenchmarkDriver;
+import org.benchy.TestCaseResult;
+import org.multiverse.TestThread;
+import org.multiverse.stms.gamma.BenchmarkUtils;
+import org.multiverse.stms.gamma.GlobalConflictCounter;
+
+import static org.benchy.BenchyUtils.format;
+import static org.multiverse.TestUtils.joinAll;
+import static org.multiverse.TestUtils.startAll;
+
+/**
+ * A benchmark that hammers a single {@link GlobalConflictCounter} from all threads. Every thread signals a conflict
+ * once every 'signalInterval' operations and checks the counter for a change on every operation, just like a
+ * richmans conflict scanning transaction does on every read.
+ * <p/>
+ * Run it with different values for 'stripes' to see how the striped counter scales compared to the single one.
+ */
+public class ContendedConflictCounterDriver extends BenchmarkDriver {
+
+    private int threadCount;
+    private int stripes = 1;
+    private int signalInterval = 1;
+    private long operationsPerThread;
+    private GlobalConflictCounter counter;
+    private CounterThread[] threads;
+
+    @Override
+    public void setUp() {
+        System.out.printf("Multiverse > Thread count %s\n", threadCount);
+        System.out.printf("Multiverse > Operations per thread %s\n", operationsPerThread);
+        System.out.printf("Multiverse > Stripes %s\n", stripes);
+        System.out.printf("Multiverse > Signal interval %s\n", signalInterval);
+
+        counter = new GlobalConflictCounter(stripes);
+        threads = new CounterThread[threadCount];
+        for (int k = 0; k < threads.length; k++) {
+            threads[k] = new CounterThread(k);
+        }
+    }
+
+    @Override
+    public void run(TestCaseResult testCaseResult) {
+        startAll(threads);
+        joinAll(threads);
+    }
+
+    @Override
+    public void processResults(TestCaseResult testCaseResult) {
+        long totalDurationMs = 0;
+        for (CounterThread t : threads) {
+            totalDurationMs += t.durationMs;
+        }
+
+        double operationsPerSecondPerThread = BenchmarkUtils.transactionsPerSecondPerThread(
+                operationsPerThread, totalDurationMs, threadCount);
+        double operationsPerSecond = BenchmarkUtils.transactionsPerSecond(
+                operationsPerThread, totalDurationMs, threadCount);
+        System.out.printf("Multiverse > Performance %s operations/second/thread with %s threads and %s stripes\n",
+                format(operationsPerSecondPerThread), threadCount, counter.getStripeCount());
+        System.out.printf("Multiverse > Performance %s operations/second with %s threads and %s stripes\n",
+                format(operationsPerSecond), threadCount, counter.getStripeCount());
+
+        testCaseResult.put("transactionsPerSecondPerThread", operationsPerSecondPerThread);
+        testCaseResult.put("transactionsPerSecond", operationsPerSecond);
+    }
+
+    class CounterThread extends TestThread {
+        private long durationMs;
+
+        public CounterThread(int id) {
+            super("CounterThread-" + id);
+        }
+
+        @Override
+        public void doRun() {
+            final long _operationsPerThread = operationsPerThread;
+            final int _signalInterval = signalInterval;
+            final GlobalConflictCounter _counter = counter;
+
+            long startMs = System.currentTimeMillis();
+            long localCount = _counter.count();
+            long changes = 0;
+            for (long k = 0; k < _operationsPerThread; k++) {
+                if (k % _signalInterval == 0) {
+                    _counter.signalConflict();
+                }
+
+                if (_counter.hasChangedSince(localCount)) {
+                    localCount = _counter.count();
+                    changes++;
+                }
+            }
+
+            durationMs = System.currentTimeMillis() - startMs;
+            System.out.printf("Multiverse > %s is finished in %s ms and saw %s changes\n", getName(), durationMs, changes);
+        }
+    }
+}
@@ -9,6 +9,7 @@ import org.multiverse.api.LockMode;
 import org.multiverse.api.callables.TxnVoidCallable;
 import org.multiverse.stms.gamma.BenchmarkUtils;
 import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.GammaStmConfig;
 import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
 
 import static org.benchy.BenchyUtils.format;
@@ -21,6 +22,7 @@ public class ContendedCounterDriver extends BenchmarkDriver {
     private LockMode lockLevel = LockMode.None;
     private long transactionsPerThread;
     private boolean dirtyCheck;
+    private boolean adaptiveScheduling;
     private GammaStm stm;
     private GammaTxnLong ref;
     private IncThread[] threads;
@@ -31,8 +33,11 @@ public class ContendedCounterDriver extends BenchmarkDriver {
         System.out.printf("Multiverse > Transactions per thread %s\n", transactionsPerThread);
         System.out.printf("Multiverse > Dirty check %s \n", dirtyCheck);
         System.out.printf("Multiverse > Pessimistic lock level %s \n", lockLevel);
+        System.out.printf("Multiverse > Adaptive scheduling %s \n", adaptiveScheduling);
 
-        stm = new GammaStm();
+        GammaStmConfig config = new GammaStmConfig();
+        config.adaptiveSchedulingEnabled = adaptiveScheduling;
+        stm = new GammaStm(config);
         ref = stm.getTxRefFactoryBuilder().build().newTxnLong(0);
         threads = new IncThread[threadCount];
         for (int k = 0; k < threads.length; k++) {
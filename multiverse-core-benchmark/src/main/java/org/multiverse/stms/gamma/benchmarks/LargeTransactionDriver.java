@@ -0,0 +1,127 @@
+package org.multiverse.stms.gamma.benchmarks;
+
+import org.benchy.BenchmarkDriver;
+import org.benchy.TestCaseResult;
+import org.multiverse.TestThread;
+import org.multiverse.stms.gamma.BenchmarkUtils;
+import org.multiverse.stms.gamma.GammaConstants;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
+import org.multiverse.stms.gamma.transactions.fat.FatVariableLengthGammaTxn;
+
+import static org.benchy.BenchyUtils.format;
+import static org.multiverse.TestUtils.joinAll;
+import static org.multiverse.TestUtils.startAll;
+
+/**
+ * A benchmark for transactions that touch a lot of transactional objects. Every thread has its own refs (so there is
+ * no contention) and executes transactions on a {@link FatVariableLengthGammaTxn} that open all of them, so the
+ * lookup, the growing and the commit/abort of the transaction log dominate.
+ * <p/>
+ * Run it with increasing values for 'refCount' to see how the time per ref scales with the size of the transaction.
+ * If the transaction log scales, the time per ref stays roughly the same.
+ */
+public class LargeTransactionDriver extends BenchmarkDriver implements GammaConstants {
+
+    private int threadCount = 1;
+    private int refCount = 1024;
+    private long transactionsPerThread = 10 * 1000;
+    private boolean readonly = false;
+    //if every ref is opened a second time, to measure the lookup of an already opened ref.
+    private boolean reopen = true;
+    private GammaStm stm;
+    private UpdateThread[] threads;
+
+    @Override
+    public void setUp() {
+        System.out.printf("Multiverse > Thread count %s\n", threadCount);
+        System.out.printf("Multiverse > Ref count %s\n", refCount);
+        System.out.printf("Multiverse > Transactions per thread %s\n", transactionsPerThread);
+        System.out.printf("Multiverse > Readonly %s\n", readonly);
+        System.out.printf("Multiverse > Reopen %s\n", reopen);
+
+        stm = new GammaStm();
+        threads = new UpdateThread[threadCount];
+        for (int k = 0; k < threads.length; k++) {
+            threads[k] = new UpdateThread(k);
+        }
+    }
+
+    @Override
+    public void run(TestCaseResult testCaseResult) {
+        startAll(threads);
+        joinAll(threads);
+    }
+
+    @Override
+    public void processResults(TestCaseResult testCaseResult) {
+        long totalDurationMs = 0;
+        for (UpdateThread t : threads) {
+            totalDurationMs += t.durationMs;
+        }
+
+        double transactionsPerSecondPerThread = BenchmarkUtils.transactionsPerSecondPerThread(
+                transactionsPerThread, totalDurationMs, threadCount);
+        double transactionsPerSecond = BenchmarkUtils.transactionsPerSecond(
+                transactionsPerThread, totalDurationMs, threadCount);
+        double nsPerRef = (1000d * 1000 * 1000) / (transactionsPerSecondPerThread * refCount);
+        System.out.printf("Multiverse > Performance %s transactions/second/thread with %s refs per transaction\n",
+                format(transactionsPerSecondPerThread), refCount);
+        System.out.printf("Multiverse > Performance %s transactions/second with %s threads\n",
+                format(transactionsPerSecond), threadCount);
+        System.out.printf("Multiverse > Performance %s ns per ref\n", format(nsPerRef));
+
+        testCaseResult.put("transactionsPerSecondPerThread", transactionsPerSecondPerThread);
+        testCaseResult.put("transactionsPerSecond", transactionsPerSecond);
+        testCaseResult.put("nsPerRef", nsPerRef);
+    }
+
+    class UpdateThread extends TestThread {
+        private long durationMs;
+
+        public UpdateThread(int id) {
+            super("UpdateThread-" + id);
+        }
+
+        @Override
+        public void doRun() {
+            final GammaTxnLong[] refs = new GammaTxnLong[refCount];
+            for (int k = 0; k < refs.length; k++) {
+                refs[k] = new GammaTxnLong(stm);
+            }
+
+            final GammaTxnConfig config = new GammaTxnConfig(stm)
+                    .setMaximumPoorMansConflictScanLength(0)
+                    .setReadonly(readonly)
+                    .setDirtyCheckEnabled(false);
+            final FatVariableLengthGammaTxn tx = new FatVariableLengthGammaTxn(config);
+            final long _transactionsPerThread = transactionsPerThread;
+            final boolean _readonly = readonly;
+            final boolean _reopen = reopen;
+
+            final long startMs = System.currentTimeMillis();
+            for (long iteration = 0; iteration < _transactionsPerThread; iteration++) {
+                for (GammaTxnLong ref : refs) {
+                    if (_readonly) {
+                        ref.openForRead(tx, LOCKMODE_NONE);
+                    } else {
+                        ref.openForWrite(tx, LOCKMODE_NONE).long_value++;
+                    }
+                }
+
+                if (_reopen) {
+                    for (GammaTxnLong ref : refs) {
+                        ref.openForRead(tx, LOCKMODE_NONE);
+                    }
+                }
+
+                tx.commit();
+                tx.hardReset();
+            }
+
+            durationMs = System.currentTimeMillis() - startMs;
+            System.out.printf("Multiverse > %s is finished in %s ms\n", getName(), durationMs);
+        }
+    }
+}
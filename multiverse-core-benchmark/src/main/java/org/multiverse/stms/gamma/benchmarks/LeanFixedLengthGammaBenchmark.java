@@ -94,4 +94,33 @@ public class LeanFixedLengthGammaBenchmark implements GammaConstants {
 
         System.out.println(ref1.toDebugString());
     }
+
+    @Test
+    public void testRead10() {
+        final long txCount = 100 * 1000 * 1000;
+        GammaTxnRef<String>[] refs = new GammaTxnRef[10];
+        for (int k = 0; k < refs.length; k++) {
+            refs[k] = new GammaTxnRef<String>(stm);
+        }
+        LeanFixedLengthGammaTxn tx = new LeanFixedLengthGammaTxn(stm);
+
+        long startMs = System.currentTimeMillis();
+
+        for (long k = 0; k < txCount; k++) {
+            for (GammaTxnRef<String> ref : refs) {
+                ref.openForRead(tx, LOCKMODE_NONE);
+            }
+            tx.commit();
+            tx.hardReset();
+        }
+
+        long durationMs = System.currentTimeMillis() - startMs;
+
+        String s = BenchyUtils.operationsPerSecondPerThreadAsString(txCount, durationMs, 1);
+
+        System.out.printf("Performance is %s transactions/second/thread\n", s);
+
+
+        System.out.println(refs[0].toDebugString());
+    }
 }
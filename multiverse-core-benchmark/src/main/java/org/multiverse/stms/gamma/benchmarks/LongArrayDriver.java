@@ -0,0 +1,99 @@
+package org.multiverse.stms.gamma.benchmarks;
+
+import org.benchy.BenchmarkDriver;
+import org.benchy.TestCaseResult;
+import org.multiverse.stms.gamma.GammaConstants;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLongArray;
+import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
+import org.multiverse.stms.gamma.transactions.fat.FatMonoGammaTxn;
+
+import static org.benchy.BenchyUtils.format;
+
+/**
+ * A benchmark for a large transactional array of longs. It measures the heap retained by an array of 'length'
+ * elements and the performance of transactions that increment an element, for an array of GammaTxnLongs and for a
+ * {@link GammaTxnLongArray} with the given 'stripeSize'.
+ */
+public class LongArrayDriver extends BenchmarkDriver implements GammaConstants {
+
+    private int length = 1000 * 1000;
+    private int stripeSize = GammaTxnLongArray.DEFAULT_STRIPE_SIZE;
+    private long transactionCount = 10 * 1000 * 1000;
+    //if a GammaTxnLongArray is used instead of a GammaTxnLong[].
+    private boolean striped = false;
+
+    private GammaStm stm;
+    private long footprintBytes;
+    private long durationMs;
+
+    @Override
+    public void setUp() {
+        System.out.printf("Multiverse > Length %s\n", length);
+        System.out.printf("Multiverse > Stripe size %s\n", stripeSize);
+        System.out.printf("Multiverse > Transaction count %s\n", transactionCount);
+        System.out.printf("Multiverse > Striped %s\n", striped);
+
+        stm = new GammaStm();
+    }
+
+    @Override
+    public void run(TestCaseResult testCaseResult) {
+        final FatMonoGammaTxn tx = new FatMonoGammaTxn(new GammaTxnConfig(stm).setDirtyCheckEnabled(false));
+        final long _transactionCount = transactionCount;
+        //a cheap pseudo random walk over the elements.
+        final int step = 7919;
+
+        final long usedBeforeBytes = usedHeap();
+        if (striped) {
+            final GammaTxnLongArray array = new GammaTxnLongArray(stm, length, stripeSize);
+            footprintBytes = usedHeap() - usedBeforeBytes;
+
+            final long startMs = System.currentTimeMillis();
+            int index = 0;
+            for (long k = 0; k < _transactionCount; k++) {
+                array.incrementAndGet(tx, index, 1);
+                tx.commit();
+                tx.hardReset();
+                index = (index + step) % length;
+            }
+            durationMs = System.currentTimeMillis() - startMs;
+        } else {
+            final GammaTxnLong[] array = new GammaTxnLong[length];
+            for (int k = 0; k < length; k++) {
+                array[k] = new GammaTxnLong(stm);
+            }
+            footprintBytes = usedHeap() - usedBeforeBytes;
+
+            final long startMs = System.currentTimeMillis();
+            int index = 0;
+            for (long k = 0; k < _transactionCount; k++) {
+                array[index].openForWrite(tx, LOCKMODE_NONE).long_value++;
+                tx.commit();
+                tx.hardReset();
+                index = (index + step) % length;
+            }
+            durationMs = System.currentTimeMillis() - startMs;
+        }
+    }
+
+    private static long usedHeap() {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int k = 0; k < 5; k++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    @Override
+    public void processResults(TestCaseResult testCaseResult) {
+        double footprintBytesPerElement = footprintBytes / (double) length;
+        double transactionsPerSecond = (1000d * transactionCount) / durationMs;
+        System.out.printf("Multiverse > Footprint %s bytes/element\n", format(footprintBytesPerElement));
+        System.out.printf("Multiverse > Performance %s transactions/second\n", format(transactionsPerSecond));
+
+        testCaseResult.put("footprintBytesPerElement", footprintBytesPerElement);
+        testCaseResult.put("transactionsPerSecond", transactionsPerSecond);
+    }
+}
@@ -4,20 +4,36 @@ import org.benchy.BenchmarkDriver;
 import org.benchy.TestCaseResult;
 import org.multiverse.TestThread;
 import org.multiverse.api.LockMode;
+import org.multiverse.stms.clock.ClockTxnLong;
 import org.multiverse.stms.gamma.BenchmarkUtils;
 import org.multiverse.stms.gamma.GammaConstants;
 import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.transactionalobjects.BaseGammaTxnRef;
 import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnRef;
 import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
 import org.multiverse.stms.gamma.transactions.fat.FatMonoGammaTxn;
+import org.multiverse.stms.gamma.transactions.fat.FatVariableLengthGammaTxn;
+import org.multiverse.stms.gamma.transactions.lean.LeanMonoGammaTxn;
+import org.multiverse.stms.norec.NorecStm;
+import org.multiverse.stms.norec.NorecTxn;
 
 import static org.benchy.BenchyUtils.format;
 import static org.multiverse.TestUtils.joinAll;
 import static org.multiverse.TestUtils.startAll;
 
+/**
+ * A benchmark where every transaction reads a single ref that is not shared with the other threads.
+ * <p/>
+ * The 'transactionType' selects the transaction: 'fatmono', 'leanmono', 'fatvariablelength' or 'norec'. The last
+ * one uses the orec-less {@link NorecStm}, so the read doesn't do any arrive/depart on the orec.
+ */
 public class MonoReadDriver extends BenchmarkDriver implements GammaConstants {
 
     private GammaStm stm;
+    private NorecStm norecStm;
+    private String transactionType = "fatmono";
     private ReadThread[] threads;
     private int threadCount;
     private long transactionsPerThread;
@@ -27,8 +43,10 @@ public class MonoReadDriver extends BenchmarkDriver implements GammaConstants {
     public void setUp() {
         System.out.printf("Multiverse > Thread count is %s\n", threadCount);
         System.out.printf("Multiverse > Transactions/thread is %s\n", transactionsPerThread);
+        System.out.printf("Multiverse > Transaction type is %s\n", transactionType);
 
         stm = new GammaStm();
+        norecStm = new NorecStm();
 
         threads = new ReadThread[threadCount];
 
@@ -72,23 +90,55 @@ public class MonoReadDriver extends BenchmarkDriver implements GammaConstants {
         }
 
         public void doRun() {
-            GammaTxnLong ref = new GammaTxnLong(stm);
-
-            FatMonoGammaTxn tx = new FatMonoGammaTxn(
-                    new GammaTxnConfig(stm)
-                            .setReadLockMode(LockMode.Exclusive)
-                            .setDirtyCheckEnabled(false));
             long startMs = System.currentTimeMillis();
+            if ("norec".equals(transactionType)) {
+                runNorec();
+            } else {
+                runGamma();
+            }
+
+            durationMs = System.currentTimeMillis() - startMs;
+            System.out.printf("Multiverse > %s is finished in %s ms\n", getName(), durationMs);
+        }
+
+        private void runGamma() {
+            //the lean transactions only support the GammaTxnRef.
+            BaseGammaTxnRef ref = transactionType.startsWith("lean")
+                    ? new GammaTxnRef<Long>(stm, 0L)
+                    : new GammaTxnLong(stm);
+
+            GammaTxn tx;
+            if ("fatmono".equals(transactionType)) {
+                tx = new FatMonoGammaTxn(
+                        new GammaTxnConfig(stm)
+                                .setReadLockMode(LockMode.Exclusive)
+                                .setDirtyCheckEnabled(false));
+            } else if ("leanmono".equals(transactionType)) {
+                tx = new LeanMonoGammaTxn(new GammaTxnConfig(stm));
+            } else if ("fatvariablelength".equals(transactionType)) {
+                tx = new FatVariableLengthGammaTxn(new GammaTxnConfig(stm));
+            } else {
+                throw new IllegalStateException("Unknown transactionType " + transactionType);
+            }
+
             final long _transactionCount = transactionCount;
             for (long k = 0; k < _transactionCount; k++) {
                 ref.openForRead(tx, lockMode);
                 tx.commit();
                 tx.hardReset();
             }
+        }
 
-            durationMs = System.currentTimeMillis() - startMs;
-            System.out.printf("Multiverse > %s is finished in %s ms\n", getName(), durationMs);
+        private void runNorec() {
+            ClockTxnLong ref = new ClockTxnLong(norecStm);
+            NorecTxn tx = norecStm.newDefaultTxn();
+
+            final long _transactionCount = transactionCount;
+            for (long k = 0; k < _transactionCount; k++) {
+                tx.openForRead(ref, lockMode);
+                tx.commit();
+                tx.hardReset();
+            }
         }
     }
 }
-
@@ -1,4 +1,149 @@
 package org.multiverse.stms.gamma.benchmarks;
 
-public class MultipleReadDriver {
+import org.benchy.BenchmarkDriver;
+import org.benchy.TestCaseResult;
+import org.multiverse.TestThread;
+import org.multiverse.stms.clock.ClockTxnLong;
+import org.multiverse.stms.gamma.BenchmarkUtils;
+import org.multiverse.stms.gamma.GammaConstants;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.transactionalobjects.BaseGammaTxnRef;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnRef;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
+import org.multiverse.stms.gamma.transactions.fat.FatVariableLengthGammaTxn;
+import org.multiverse.stms.gamma.transactions.lean.LeanFixedLengthGammaTxn;
+import org.multiverse.stms.norec.NorecStm;
+import org.multiverse.stms.norec.NorecTxn;
+
+import static org.benchy.BenchyUtils.format;
+import static org.multiverse.TestUtils.joinAll;
+import static org.multiverse.TestUtils.startAll;
+
+/**
+ * A benchmark where every transaction reads 'refCount' refs that are shared between all threads.
+ * <p/>
+ * The 'transactionType' selects the transaction: 'fatvariablelength', 'leanfixedlength' or 'norec'. The last
+ * one uses the orec-less {@link NorecStm}, so the reads don't do any arrive/depart on the orecs.
+ */
+public class MultipleReadDriver extends BenchmarkDriver implements GammaConstants {
+
+    private GammaStm stm;
+    private NorecStm norecStm;
+    private ReadThread[] threads;
+    private int threadCount;
+    private int refCount = 10;
+    private long transactionsPerThread;
+    private String transactionType = "fatvariablelength";
+    private BaseGammaTxnRef[] refs;
+    private ClockTxnLong[] norecRefs;
+
+    @Override
+    public void setUp() {
+        System.out.printf("Multiverse > Thread count is %s\n", threadCount);
+        System.out.printf("Multiverse > Ref count is %s\n", refCount);
+        System.out.printf("Multiverse > Transactions/thread is %s\n", transactionsPerThread);
+        System.out.printf("Multiverse > Transaction type is %s\n", transactionType);
+
+        stm = new GammaStm();
+        norecStm = new NorecStm();
+
+        refs = new BaseGammaTxnRef[refCount];
+        norecRefs = new ClockTxnLong[refCount];
+        for (int k = 0; k < refCount; k++) {
+            //the lean transactions only support the GammaTxnRef.
+            refs[k] = transactionType.startsWith("lean")
+                    ? new GammaTxnRef<Long>(stm, 0L)
+                    : new GammaTxnLong(stm);
+            norecRefs[k] = new ClockTxnLong(norecStm);
+        }
+
+        threads = new ReadThread[threadCount];
+        for (int k = 0; k < threads.length; k++) {
+            threads[k] = new ReadThread(k, transactionsPerThread);
+        }
+    }
+
+    @Override
+    public void run(TestCaseResult testCaseResult) {
+        startAll(threads);
+        joinAll(threads);
+    }
+
+    @Override
+    public void processResults(TestCaseResult testCaseResult) {
+        long totalDurationMs = 0;
+        for (ReadThread t : threads) {
+            totalDurationMs += t.durationMs;
+        }
+
+        double transactionsPerSecondPerThread = BenchmarkUtils.transactionsPerSecondPerThread(
+                transactionsPerThread, totalDurationMs, threadCount);
+        double transactionsPerSecond = BenchmarkUtils.transactionsPerSecond(transactionsPerThread, totalDurationMs, threadCount);
+        System.out.printf("Multiverse > Performance %s transactions/second/thread\n",
+                format(transactionsPerSecondPerThread));
+        System.out.printf("Multiverse > Performance %s transactions/second\n",
+                format(transactionsPerSecond));
+
+        testCaseResult.put("transactionsPerSecond", transactionsPerSecond);
+        testCaseResult.put("transactionsPerSecondPerThread", transactionsPerSecondPerThread);
+    }
+
+    class ReadThread extends TestThread {
+        private final long transactionCount;
+        private long durationMs;
+
+        public ReadThread(int id, long transactionCount) {
+            super("ReadThread-" + id);
+            this.transactionCount = transactionCount;
+        }
+
+        public void doRun() {
+            long startMs = System.currentTimeMillis();
+            if ("norec".equals(transactionType)) {
+                runNorec();
+            } else {
+                runGamma();
+            }
+
+            durationMs = System.currentTimeMillis() - startMs;
+            System.out.printf("Multiverse > %s is finished in %s ms\n", getName(), durationMs);
+        }
+
+        private void runGamma() {
+            GammaTxn tx;
+            if ("fatvariablelength".equals(transactionType)) {
+                tx = new FatVariableLengthGammaTxn(new GammaTxnConfig(stm));
+            } else if ("leanfixedlength".equals(transactionType)) {
+                tx = new LeanFixedLengthGammaTxn(new GammaTxnConfig(stm, refCount));
+            } else {
+                throw new IllegalStateException("Unknown transactionType " + transactionType);
+            }
+
+            final BaseGammaTxnRef[] _refs = refs;
+            final long _transactionCount = transactionCount;
+            for (long k = 0; k < _transactionCount; k++) {
+                for (int l = 0; l < _refs.length; l++) {
+                    _refs[l].openForRead(tx, LOCKMODE_NONE);
+                }
+                tx.commit();
+                tx.hardReset();
+            }
+        }
+
+        private void runNorec() {
+            NorecTxn tx = norecStm.newDefaultTxn();
+
+            final ClockTxnLong[] _refs = norecRefs;
+            final long _transactionCount = transactionCount;
+            for (long k = 0; k < _transactionCount; k++) {
+                for (int l = 0; l < _refs.length; l++) {
+                    tx.openForRead(_refs[l], LOCKMODE_NONE);
+                }
+                tx.commit();
+                tx.hardReset();
+            }
+        }
+    }
 }
@@ -0,0 +1,130 @@
+package org.multiverse.stms.gamma.benchmarks;
+
+import org.benchy.BenchmarkDriver;
+import org.benchy.TestCaseResult;
+import org.multiverse.TestThread;
+import org.multiverse.stms.gamma.BenchmarkUtils;
+import org.multiverse.stms.gamma.GammaConstants;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.GammaTxnRefFactory;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
+import org.multiverse.stms.gamma.transactions.fat.FatMonoGammaTxn;
+
+import static org.benchy.BenchyUtils.format;
+import static org.junit.Assert.assertEquals;
+import static org.multiverse.TestUtils.joinAll;
+import static org.multiverse.TestUtils.startAll;
+
+/**
+ * A benchmark for false sharing between refs. All refs are created after each other by the same
+ * {@link GammaTxnRefFactory} and ref k is updated by thread k % threadCount, so refs that are next to each other in
+ * memory are updated by different threads although no ref is shared between threads.
+ * <p/>
+ * Run it with 'padded' false and true to see the gain of the padded refs, see
+ * {@link org.multiverse.stms.gamma.GammaTxnRefFactoryBuilder#setPadded(boolean)}. With a single thread there is no
+ * false sharing and padding only adds memory.
+ */
+public class PaddedRefDriver extends BenchmarkDriver implements GammaConstants {
+
+    private int threadCount = 2;
+    private int refsPerThread = 1;
+    private long transactionsPerThread = 10 * 1000 * 1000;
+    private boolean padded = false;
+
+    private GammaStm stm;
+    private GammaTxnLong[] refs;
+    private UpdateThread[] threads;
+
+    @Override
+    public void setUp() {
+        System.out.printf("Multiverse > Thread count %s\n", threadCount);
+        System.out.printf("Multiverse > Refs per thread %s\n", refsPerThread);
+        System.out.printf("Multiverse > Transactions per thread %s\n", transactionsPerThread);
+        System.out.printf("Multiverse > Padded %s\n", padded);
+
+        stm = new GammaStm();
+        GammaTxnRefFactory refFactory = stm.getTxRefFactoryBuilder()
+                .setPadded(padded)
+                .build();
+
+        refs = new GammaTxnLong[threadCount * refsPerThread];
+        for (int k = 0; k < refs.length; k++) {
+            refs[k] = refFactory.newTxnLong(0);
+        }
+
+        threads = new UpdateThread[threadCount];
+        for (int k = 0; k < threads.length; k++) {
+            threads[k] = new UpdateThread(k);
+        }
+    }
+
+    @Override
+    public void run(TestCaseResult testCaseResult) {
+        startAll(threads);
+        joinAll(threads);
+    }
+
+    @Override
+    public void processResults(TestCaseResult testCaseResult) {
+        long totalDurationMs = 0;
+        for (UpdateThread t : threads) {
+            totalDurationMs += t.durationMs;
+        }
+
+        double transactionsPerSecondPerThread = BenchmarkUtils.transactionsPerSecondPerThread(
+                transactionsPerThread, totalDurationMs, threadCount);
+        double transactionsPerSecond = BenchmarkUtils.transactionsPerSecond(
+                transactionsPerThread, totalDurationMs, threadCount);
+        System.out.printf("Multiverse > Performance %s transactions/second/thread\n",
+                format(transactionsPerSecondPerThread));
+        System.out.printf("Multiverse > Performance %s transactions/second with %s threads\n",
+                format(transactionsPerSecond), threadCount);
+
+        testCaseResult.put("transactionsPerSecondPerThread", transactionsPerSecondPerThread);
+        testCaseResult.put("transactionsPerSecond", transactionsPerSecond);
+    }
+
+    class UpdateThread extends TestThread {
+        private final int id;
+        private long durationMs;
+
+        public UpdateThread(int id) {
+            super("UpdateThread-" + id);
+            this.id = id;
+        }
+
+        @Override
+        public void doRun() {
+            final GammaTxnLong[] myRefs = new GammaTxnLong[refsPerThread];
+            for (int k = 0; k < myRefs.length; k++) {
+                myRefs[k] = refs[k * threadCount + id];
+            }
+
+            final FatMonoGammaTxn tx = new FatMonoGammaTxn(
+                    new GammaTxnConfig(stm).setDirtyCheckEnabled(false));
+            final long _transactionsPerThread = transactionsPerThread;
+
+            final long startMs = System.currentTimeMillis();
+            int refIndex = 0;
+            for (long iteration = 0; iteration < _transactionsPerThread; iteration++) {
+                myRefs[refIndex].openForWrite(tx, LOCKMODE_NONE).long_value++;
+                tx.commit();
+                tx.hardReset();
+
+                refIndex++;
+                if (refIndex == myRefs.length) {
+                    refIndex = 0;
+                }
+            }
+            durationMs = System.currentTimeMillis() - startMs;
+
+            long sum = 0;
+            for (GammaTxnLong ref : myRefs) {
+                sum += ref.atomicGet();
+            }
+            assertEquals(transactionsPerThread, sum);
+            System.out.printf("Multiverse > %s is finished in %s ms\n", getName(), durationMs);
+        }
+    }
+}
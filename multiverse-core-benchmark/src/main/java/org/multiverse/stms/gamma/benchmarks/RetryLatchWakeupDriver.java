@@ -0,0 +1,96 @@
+package org.multiverse.stms.gamma.benchmarks;
+
+import org.benchy.BenchmarkDriver;
+import org.benchy.TestCaseResult;
+import org.multiverse.TestThread;
+import org.multiverse.api.blocking.DefaultRetryLatch;
+import org.multiverse.api.blocking.ParkingRetryLatch;
+import org.multiverse.api.blocking.RetryLatch;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.benchy.BenchyUtils.format;
+import static org.multiverse.TestUtils.joinAll;
+import static org.multiverse.TestUtils.startAll;
+
+/**
+ * Measures the wake-up latency of a {@link RetryLatch} by letting 2 threads hand over a turn to each other; a thread
+ * that doesn't have the turn waits on its latch, just like a transaction blocked on a retry.
+ *
+ * @author Peter Veentjer
+ */
+public class RetryLatchWakeupDriver extends BenchmarkDriver {
+
+    private long roundTrips;
+    private boolean parking;
+    private transient RetryLatch[] latches;
+    private transient AtomicLongArray waitingEras;
+    private transient volatile long turn;
+    private transient PingPongThread[] threads;
+
+    @Override
+    public void setUp() {
+        System.out.printf("Multiverse > Round trips %s\n", roundTrips);
+        System.out.printf("Multiverse > Parking %s\n", parking);
+
+        turn = 0;
+        latches = new RetryLatch[2];
+        waitingEras = new AtomicLongArray(2);
+        threads = new PingPongThread[2];
+        for (int k = 0; k < threads.length; k++) {
+            latches[k] = parking ? new ParkingRetryLatch() : new DefaultRetryLatch();
+            waitingEras.set(k, latches[k].getEra());
+            threads[k] = new PingPongThread(k);
+        }
+    }
+
+    @Override
+    public void run(TestCaseResult testCaseResult) {
+        startAll(threads);
+        joinAll(threads);
+    }
+
+    @Override
+    public void processResults(TestCaseResult testCaseResult) {
+        long durationNs = Math.max(threads[0].durationNs, threads[1].durationNs);
+        double roundTripNs = (double) durationNs / roundTrips;
+
+        System.out.printf("Multiverse > Round trip latency %s ns\n", format(roundTripNs));
+        testCaseResult.put("roundTripNs", roundTripNs);
+    }
+
+    class PingPongThread extends TestThread {
+        private final int id;
+        private long durationNs;
+
+        PingPongThread(int id) {
+            super("PingPongThread-" + id);
+            this.id = id;
+        }
+
+        @Override
+        public void doRun() {
+            final RetryLatch latch = latches[id];
+            final int other = 1 - id;
+            final long _roundTrips = roundTrips;
+
+            long startNs = System.nanoTime();
+            for (long k = 0; k < _roundTrips; k++) {
+                final long myTurn = 2 * k + id;
+                while (turn != myTurn) {
+                    latch.reset();
+                    final long era = latch.getEra();
+                    waitingEras.set(id, era);
+                    if (turn == myTurn) {
+                        break;
+                    }
+                    latch.awaitUninterruptible(era);
+                }
+
+                turn = myTurn + 1;
+                latches[other].open(waitingEras.get(other));
+            }
+            durationNs = System.nanoTime() - startNs;
+        }
+    }
+}
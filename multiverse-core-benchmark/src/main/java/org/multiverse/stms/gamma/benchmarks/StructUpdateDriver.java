@@ -0,0 +1,134 @@
+package org.multiverse.stms.gamma.benchmarks;
+
+import org.benchy.BenchmarkDriver;
+import org.benchy.TestCaseResult;
+import org.multiverse.TestThread;
+import org.multiverse.stms.gamma.BenchmarkUtils;
+import org.multiverse.stms.gamma.GammaConstants;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnStruct;
+import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
+import org.multiverse.stms.gamma.transactions.fat.FatVariableLengthGammaTxn;
+
+import static org.benchy.BenchyUtils.format;
+import static org.junit.Assert.assertEquals;
+import static org.multiverse.TestUtils.joinAll;
+import static org.multiverse.TestUtils.startAll;
+
+/**
+ * A benchmark for updating all fields of an entity in a single transaction. Every thread has its own entity, either
+ * modelled as a GammaTxnLong per field or as a single {@link GammaTxnStruct} with a long field per field, and each
+ * transaction increments all fields of that entity.
+ */
+public class StructUpdateDriver extends BenchmarkDriver implements GammaConstants {
+
+    private int threadCount = 1;
+    private int fieldCount = 5;
+    private long transactionsPerThread = 10 * 1000 * 1000;
+    private boolean struct = false;
+
+    private GammaStm stm;
+    private UpdateThread[] threads;
+
+    @Override
+    public void setUp() {
+        System.out.printf("Multiverse > Thread count %s\n", threadCount);
+        System.out.printf("Multiverse > Field count %s\n", fieldCount);
+        System.out.printf("Multiverse > Transactions per thread %s\n", transactionsPerThread);
+        System.out.printf("Multiverse > Struct %s\n", struct);
+
+        stm = new GammaStm();
+
+        threads = new UpdateThread[threadCount];
+        for (int k = 0; k < threads.length; k++) {
+            threads[k] = new UpdateThread(k);
+        }
+    }
+
+    @Override
+    public void run(TestCaseResult testCaseResult) {
+        startAll(threads);
+        joinAll(threads);
+    }
+
+    @Override
+    public void processResults(TestCaseResult testCaseResult) {
+        long totalDurationMs = 0;
+        for (UpdateThread t : threads) {
+            totalDurationMs += t.durationMs;
+        }
+
+        double transactionsPerSecondPerThread = BenchmarkUtils.transactionsPerSecondPerThread(
+                transactionsPerThread, totalDurationMs, threadCount);
+        double transactionsPerSecond = BenchmarkUtils.transactionsPerSecond(
+                transactionsPerThread, totalDurationMs, threadCount);
+        System.out.printf("Multiverse > Performance %s transactions/second/thread\n",
+                format(transactionsPerSecondPerThread));
+        System.out.printf("Multiverse > Performance %s transactions/second with %s threads\n",
+                format(transactionsPerSecond), threadCount);
+
+        testCaseResult.put("transactionsPerSecondPerThread", transactionsPerSecondPerThread);
+        testCaseResult.put("transactionsPerSecond", transactionsPerSecond);
+    }
+
+    class UpdateThread extends TestThread {
+        private long durationMs;
+
+        public UpdateThread(int id) {
+            super("UpdateThread-" + id);
+        }
+
+        @Override
+        public void doRun() {
+            final FatVariableLengthGammaTxn tx = new FatVariableLengthGammaTxn(
+                    new GammaTxnConfig(stm).setDirtyCheckEnabled(false));
+
+            final long startMs = System.currentTimeMillis();
+            if (struct) {
+                runWithStruct(tx);
+            } else {
+                runWithRefs(tx);
+            }
+            durationMs = System.currentTimeMillis() - startMs;
+            System.out.printf("Multiverse > %s is finished in %s ms\n", getName(), durationMs);
+        }
+
+        private void runWithRefs(FatVariableLengthGammaTxn tx) {
+            final GammaTxnLong[] refs = new GammaTxnLong[fieldCount];
+            for (int k = 0; k < refs.length; k++) {
+                refs[k] = new GammaTxnLong(stm);
+            }
+
+            final long _transactionsPerThread = transactionsPerThread;
+            for (long iteration = 0; iteration < _transactionsPerThread; iteration++) {
+                for (GammaTxnLong ref : refs) {
+                    ref.openForWrite(tx, LOCKMODE_NONE).long_value++;
+                }
+                tx.commit();
+                tx.hardReset();
+            }
+
+            for (GammaTxnLong ref : refs) {
+                assertEquals(transactionsPerThread, ref.atomicGet());
+            }
+        }
+
+        private void runWithStruct(FatVariableLengthGammaTxn tx) {
+            final GammaTxnStruct entity = new GammaTxnStruct(stm, fieldCount, 0);
+
+            final long _transactionsPerThread = transactionsPerThread;
+            for (long iteration = 0; iteration < _transactionsPerThread; iteration++) {
+                for (int field = 0; field < fieldCount; field++) {
+                    entity.setLong(tx, field, entity.getLong(tx, field) + 1);
+                }
+                tx.commit();
+                tx.hardReset();
+            }
+
+            for (int field = 0; field < fieldCount; field++) {
+                assertEquals(transactionsPerThread, entity.atomicGetLong(field));
+            }
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package org.multiverse.stms.gamma.benchmarks;
+
+import org.benchy.BenchmarkDriver;
+import org.benchy.TestCaseResult;
+import org.multiverse.stms.gamma.GammaConstants;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
+import org.multiverse.stms.gamma.transactions.fat.FatFixedLengthGammaTxn;
+import org.multiverse.stms.gamma.transactions.fat.FatVariableLengthGammaTxn;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+
+import static org.benchy.BenchyUtils.format;
+
+/**
+ * A benchmark for the memory used by transactions. It measures:
+ * <ol>
+ * <li>the footprint: the heap retained by 'transactionCount' live transactions that all have 'refCount' refs opened
+ * for writing.</li>
+ * <li>the allocation: the bytes allocated by executing a transaction that updates 'refCount' refs when the
+ * transaction is reused. This is only measured if the JVM can report the allocated bytes of a thread.</li>
+ * </ol>
+ * Run it with a 'refCount' of 10, 100 and 10000 to see how the size of the tranlocals influences the memory used per
+ * ref.
+ */
+public class TransactionFootprintDriver extends BenchmarkDriver implements GammaConstants {
+
+    private int refCount = 100;
+    private int transactionCount = 1000;
+    private long iterations = 1000;
+    //if a FatFixedLengthGammaTxn is used instead of a FatVariableLengthGammaTxn.
+    private boolean fixedLength = false;
+
+    private GammaStm stm;
+    private GammaTxnLong[] refs;
+    private long footprintBytes;
+    private long allocatedBytes = -1;
+
+    @Override
+    public void setUp() {
+        System.out.printf("Multiverse > Ref count %s\n", refCount);
+        System.out.printf("Multiverse > Transaction count %s\n", transactionCount);
+        System.out.printf("Multiverse > Iterations %s\n", iterations);
+        System.out.printf("Multiverse > Fixed length %s\n", fixedLength);
+
+        stm = new GammaStm();
+        refs = new GammaTxnLong[refCount];
+        for (int k = 0; k < refs.length; k++) {
+            refs[k] = new GammaTxnLong(stm);
+        }
+    }
+
+    @Override
+    public void run(TestCaseResult testCaseResult) {
+        final GammaTxnConfig config = new GammaTxnConfig(stm, refCount)
+                .setMaximumPoorMansConflictScanLength(0)
+                .setDirtyCheckEnabled(false);
+
+        final long usedBeforeBytes = usedHeap();
+        final GammaTxn[] transactions = new GammaTxn[transactionCount];
+        for (int k = 0; k < transactions.length; k++) {
+            final GammaTxn tx = newTransaction(config);
+            openAll(tx);
+            transactions[k] = tx;
+        }
+        footprintBytes = usedHeap() - usedBeforeBytes;
+
+        for (GammaTxn tx : transactions) {
+            tx.abort();
+        }
+
+        final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+        if (threadMXBean instanceof com.sun.management.ThreadMXBean) {
+            final com.sun.management.ThreadMXBean sunThreadMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+            final long threadId = Thread.currentThread().getId();
+            final GammaTxn tx = newTransaction(config);
+
+            //warm up so the transaction and the pool are fully grown.
+            execute(tx);
+
+            final long allocatedBeforeBytes = sunThreadMXBean.getThreadAllocatedBytes(threadId);
+            for (long k = 0; k < iterations; k++) {
+                execute(tx);
+            }
+            allocatedBytes = sunThreadMXBean.getThreadAllocatedBytes(threadId) - allocatedBeforeBytes;
+        }
+    }
+
+    private GammaTxn newTransaction(GammaTxnConfig config) {
+        return fixedLength ? new FatFixedLengthGammaTxn(config) : new FatVariableLengthGammaTxn(config);
+    }
+
+    private void openAll(GammaTxn tx) {
+        for (GammaTxnLong ref : refs) {
+            ref.openForWrite(tx, LOCKMODE_NONE).long_value++;
+        }
+    }
+
+    private void execute(GammaTxn tx) {
+        openAll(tx);
+        tx.commit();
+        tx.hardReset();
+    }
+
+    private static long usedHeap() {
+        final Runtime runtime = Runtime.getRuntime();
+        for (int k = 0; k < 5; k++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    @Override
+    public void processResults(TestCaseResult testCaseResult) {
+        double footprintBytesPerTransaction = footprintBytes / (double) transactionCount;
+        double footprintBytesPerRef = footprintBytesPerTransaction / refCount;
+        System.out.printf("Multiverse > Footprint %s bytes/transaction with %s refs per transaction\n",
+                format(footprintBytesPerTransaction), refCount);
+        System.out.printf("Multiverse > Footprint %s bytes/ref\n", format(footprintBytesPerRef));
+        testCaseResult.put("footprintBytesPerTransaction", footprintBytesPerTransaction);
+        testCaseResult.put("footprintBytesPerRef", footprintBytesPerRef);
+
+        if (allocatedBytes >= 0) {
+            double allocatedBytesPerTransaction = allocatedBytes / (double) iterations;
+            System.out.printf("Multiverse > Allocation %s bytes/transaction\n",
+                    format(allocatedBytesPerTransaction));
+            testCaseResult.put("allocatedBytesPerTransaction", allocatedBytesPerTransaction);
+        }
+    }
+}
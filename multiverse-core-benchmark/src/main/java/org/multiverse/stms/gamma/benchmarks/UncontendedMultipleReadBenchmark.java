@@ -22,13 +22,16 @@ import static org.multiverse.stms.gamma.GammaTestUtils.makeReadBiased;
  */
 public class UncontendedMultipleReadBenchmark implements GammaConstants {
     private GammaStm stm;
-    private final long transactionCount = 100 * 1000 * 1000;
+    private long transactionCount = 100 * 1000 * 1000;
 
 
     public static void main(String[] args) {
         //should be a power of two.
         int refCount = Integer.parseInt(args[0]);
         UncontendedMultipleReadBenchmark test = new UncontendedMultipleReadBenchmark();
+        if (args.length > 1) {
+            test.transactionCount = Long.parseLong(args[1]);
+        }
 
         test.start(refCount);
     }
@@ -0,0 +1,145 @@
+package org.multiverse.stms.tl2.benchmarks;
+
+import org.benchy.BenchmarkDriver;
+import org.benchy.TestCaseResult;
+import org.multiverse.TestThread;
+import org.multiverse.api.Stm;
+import org.multiverse.api.Txn;
+import org.multiverse.api.TxnExecutor;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.api.references.TxnLong;
+import org.multiverse.stms.gamma.BenchmarkUtils;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.tl2.Tl2Stm;
+
+import java.util.Random;
+
+import static org.benchy.BenchyUtils.format;
+import static org.multiverse.TestUtils.joinAll;
+import static org.multiverse.TestUtils.startAll;
+
+/**
+ * A benchmark for an A/B comparison between the {@link GammaStm} and the {@link Tl2Stm}. It only uses the
+ * Multiverse api, so both stm's execute exactly the same workload: every transaction reads 'readCount' random refs
+ * and increments 'writeCount' random refs out of 'refCount' shared refs.
+ * <p/>
+ * Set 'stm' to 'gamma' or 'tl2' to select the implementation. Use a low refCount for a contended workload and
+ * a high one for a workload with mostly disjoint transactions.
+ */
+public class StmComparisonDriver extends BenchmarkDriver {
+
+    private String stm = "gamma";
+    private int threadCount = 1;
+    private int refCount = 1000;
+    private int readCount = 8;
+    private int writeCount = 1;
+    private long transactionsPerThread = 1000 * 1000;
+
+    private Stm instance;
+    private TxnLong[] refs;
+    private ComparisonThread[] threads;
+
+    @Override
+    public void setUp() {
+        System.out.printf("Multiverse > Stm %s\n", stm);
+        System.out.printf("Multiverse > Thread count %s\n", threadCount);
+        System.out.printf("Multiverse > Ref count %s\n", refCount);
+        System.out.printf("Multiverse > Read count %s\n", readCount);
+        System.out.printf("Multiverse > Write count %s\n", writeCount);
+        System.out.printf("Multiverse > Transactions per thread %s\n", transactionsPerThread);
+
+        if ("gamma".equals(stm)) {
+            instance = new GammaStm();
+        } else if ("tl2".equals(stm)) {
+            instance = new Tl2Stm();
+        } else {
+            throw new IllegalStateException("Unknown stm " + stm + ", use 'gamma' or 'tl2'");
+        }
+
+        refs = new TxnLong[refCount];
+        for (int k = 0; k < refs.length; k++) {
+            refs[k] = instance.getDefaultRefFactory().newTxnLong(0);
+        }
+
+        threads = new ComparisonThread[threadCount];
+        for (int k = 0; k < threads.length; k++) {
+            threads[k] = new ComparisonThread(k);
+        }
+    }
+
+    @Override
+    public void run(TestCaseResult testCaseResult) {
+        startAll(threads);
+        joinAll(threads);
+    }
+
+    @Override
+    public void processResults(TestCaseResult testCaseResult) {
+        long totalDurationMs = 0;
+        for (ComparisonThread t : threads) {
+            totalDurationMs += t.durationMs;
+        }
+
+        double transactionsPerSecondPerThread = BenchmarkUtils.transactionsPerSecondPerThread(
+                transactionsPerThread, totalDurationMs, threadCount);
+        double transactionsPerSecond = BenchmarkUtils.transactionsPerSecond(
+                transactionsPerThread, totalDurationMs, threadCount);
+        System.out.printf("Multiverse > %s Performance %s transactions/second/thread with %s threads\n",
+                stm, format(transactionsPerSecondPerThread), threadCount);
+        System.out.printf("Multiverse > %s Performance %s transactions/second with %s threads\n",
+                stm, format(transactionsPerSecond), threadCount);
+
+        testCaseResult.put("transactionsPerSecondPerThread", transactionsPerSecondPerThread);
+        testCaseResult.put("transactionsPerSecond", transactionsPerSecond);
+    }
+
+    class ComparisonThread extends TestThread {
+        private long durationMs;
+        private final Random random;
+
+        public ComparisonThread(int id) {
+            super("ComparisonThread-" + id);
+            this.random = new Random(id);
+        }
+
+        @Override
+        public void doRun() {
+            final TxnLong[] _refs = refs;
+            final int _readCount = readCount;
+            final int _writeCount = writeCount;
+            final int[] reads = new int[_readCount];
+            final int[] writes = new int[_writeCount];
+
+            final TxnExecutor executor = instance.getDefaultTxnExecutor();
+            final TxnVoidCallable callable = new TxnVoidCallable() {
+                @Override
+                public void call(Txn tx) {
+                    for (int k = 0; k < _readCount; k++) {
+                        _refs[reads[k]].get(tx);
+                    }
+
+                    for (int k = 0; k < _writeCount; k++) {
+                        _refs[writes[k]].increment(tx);
+                    }
+                }
+            };
+
+            final long _transactionsPerThread = transactionsPerThread;
+            long startMs = System.currentTimeMillis();
+            for (long iteration = 0; iteration < _transactionsPerThread; iteration++) {
+                for (int k = 0; k < _readCount; k++) {
+                    reads[k] = random.nextInt(_refs.length);
+                }
+
+                for (int k = 0; k < _writeCount; k++) {
+                    writes[k] = random.nextInt(_refs.length);
+                }
+
+                executor.execute(callable);
+            }
+
+            durationMs = System.currentTimeMillis() - startMs;
+            System.out.printf("Multiverse > %s is finished in %s ms\n", getName(), durationMs);
+        }
+    }
+}
@@ -29,6 +29,30 @@ class TxnObject {
     String predicateClass
 }
 
+class ClockTxnObject {
+    String type//the primitive type of the value
+    String referenceInterface
+    String functionClass
+    String predicateClass
+    String typeConstant//the type constant passed to the BaseClockTxnRef
+    String initialValue
+    boolean isNumber
+    boolean hasIncrement//if the increment/decrement methods without a return value exist
+    String toLongFunction//the GammaStmUtils function that converts the value to the long_value, null if not needed
+    String fromLongFunction//the GammaStmUtils function that converts the long_value to the value, null if a cast is enough
+
+    String toLong(String value) {
+        toLongFunction == null ? value : "${toLongFunction}(${value})"
+    }
+
+    String fromLong(String value) {
+        if (fromLongFunction != null) {
+            return "${fromLongFunction}(${value})"
+        }
+        type == 'long' ? value : "(${type}) ${value}"
+    }
+}
+
 VelocityEngine engine = new VelocityEngine();
 engine.init();
 
@@ -58,6 +82,12 @@ for (def txnExecutor in txnExecutors) {
     generateGammaTxnExecutor(engine, txnExecutor, txnCallables)
 }
 
+generateClockTxnExecutor(engine, txnCallables)
+
+for (def clockTxnObject in createClockTxnObjects()) {
+    generateClockTxnObject(engine, clockTxnObject)
+}
+
 
 List<TxnCallable> createCallables() {
     def result = []
@@ -94,6 +124,51 @@ List<TxnCallable> createCallables() {
     result
 }
 
+List<ClockTxnObject> createClockTxnObjects() {
+    def result = []
+    result << new ClockTxnObject(
+            type: 'int',
+            referenceInterface: 'TxnInteger',
+            functionClass: 'IntFunction',
+            predicateClass: 'IntPredicate',
+            typeConstant: 'TYPE_INT',
+            initialValue: '0',
+            isNumber: true,
+            hasIncrement: true)
+    result << new ClockTxnObject(
+            type: 'long',
+            referenceInterface: 'TxnLong',
+            functionClass: 'LongFunction',
+            predicateClass: 'LongPredicate',
+            typeConstant: 'TYPE_LONG',
+            initialValue: '0',
+            isNumber: true,
+            hasIncrement: true)
+    result << new ClockTxnObject(
+            type: 'double',
+            referenceInterface: 'TxnDouble',
+            functionClass: 'DoubleFunction',
+            predicateClass: 'DoublePredicate',
+            typeConstant: 'TYPE_DOUBLE',
+            initialValue: '0',
+            isNumber: true,
+            hasIncrement: false,
+            toLongFunction: 'doubleAsLong',
+            fromLongFunction: 'longAsDouble')
+    result << new ClockTxnObject(
+            type: 'boolean',
+            referenceInterface: 'TxnBoolean',
+            functionClass: 'BooleanFunction',
+            predicateClass: 'BooleanPredicate',
+            typeConstant: 'TYPE_BOOLEAN',
+            initialValue: 'false',
+            isNumber: false,
+            hasIncrement: false,
+            toLongFunction: 'booleanAsLong',
+            fromLongFunction: 'longAsBoolean')
+    result
+}
+
 List<TxnObject> createTxnObjects() {
     def result = []
     result.add new TxnObject(
@@ -194,6 +269,34 @@ void generateGammaTxnExecutor(VelocityEngine engine, TxnExecutor txnExecutor, Li
     file.text = writer.toString()
 }
 
+void generateClockTxnExecutor(VelocityEngine engine, List<TxnCallable> closures) {
+    Template t = engine.getTemplate('src/main/java/org/multiverse/stms/clock/ClockTxnExecutor.vm')
+
+    VelocityContext context = new VelocityContext()
+    context.put('callables', closures)
+
+    StringWriter writer = new StringWriter()
+    t.merge(context, writer)
+
+    File file = new File('src/main/java/org/multiverse/stms/clock/ClockTxnExecutor.java')
+    file.createNewFile()
+    file.text = writer.toString()
+}
+
+void generateClockTxnObject(VelocityEngine engine, ClockTxnObject clockTxnObject) {
+    Template t = engine.getTemplate('src/main/java/org/multiverse/stms/clock/ClockTxnPrimitive.vm')
+
+    VelocityContext context = new VelocityContext()
+    context.put('ref', clockTxnObject)
+
+    StringWriter writer = new StringWriter()
+    t.merge(context, writer)
+
+    File file = new File('src/main/java/org/multiverse/stms/clock/', "Clock${clockTxnObject.referenceInterface}.java")
+    file.createNewFile()
+    file.text = writer.toString()
+}
+
 void generateTxnExecutor(VelocityEngine engine, List<TxnCallable> closures) {
     Template t = engine.getTemplate('src/main/java/org/multiverse/api/TxnExecutor.vm')
 
@@ -0,0 +1,182 @@
+package org.multiverse.api;
+
+import static java.util.concurrent.locks.LockSupport.parkNanos;
+
+/**
+ * A {@link BackoffPolicy} that adapts its delays to the contention that actually is observed, instead of using fixed
+ * delays like the {@link DefaultBackoffPolicy}.
+ * <p/>
+ * The contention is a moving average of the outcomes of the transactions: every delay counts as an abort, and a
+ * commit is signalled using {@link #signalCommit()}. The higher the contention, the larger the window the random
+ * delay is taken from; and every next attempt doubles the window until the maximum delay is reached. Depending on its
+ * length, a delay is done by spinning, by yielding or by parking the thread. So when there is little contention the
+ * thread doesn't lose its processor, and when there is a lot of contention it doesn't burn it.
+ * <p/>
+ * The statistics are kept per instance. An stm that supports it (like the GammaStm) uses the AdaptiveBackoffPolicy
+ * that is configured as a prototype, and creates a separate instance for every transaction family using
+ * {@link #newFamilyInstance()}, so that a family with a lot of contention doesn't slow down the other families.
+ * <p/>
+ * The statistics are updated without synchronization, so concurrent updates can get lost. This is no problem since
+ * they only are a heuristic, and it prevents the policy from becoming a contention point itself.
+ *
+ * @author Peter Veentjer.
+ */
+@SuppressWarnings({"CallToThreadYield"})
+public final class AdaptiveBackoffPolicy implements BackoffPolicy {
+
+    //the contention is a fixed point number where SCALE equals 100%.
+    private static final int SCALE = 1 << 10;
+    //every outcome contributes for 1/16 to the moving average.
+    private static final int SHIFT = 4;
+    private static final int MAX_DOUBLINGS = 30;
+
+    private final long minWindowNs;
+    private final long maxWindowNs;
+    private final long maxDelayNs;
+    private final long spinLimitNs;
+    private final long yieldLimitNs;
+    private volatile int contention;
+
+    /**
+     * Creates an AdaptiveBackoffPolicy with a window between 100 nanoseconds and 50 microseconds for the first
+     * attempt, a maximum delay of 100 milliseconds, and delays up to 1 microsecond spun and up to 20 microseconds
+     * yielded.
+     */
+    public AdaptiveBackoffPolicy() {
+        this(100, 50 * 1000, 100 * 1000 * 1000, 1000, 20 * 1000);
+    }
+
+    /**
+     * Creates an AdaptiveBackoffPolicy.
+     *
+     * @param minWindowNs  the window of the first attempt when there is no contention.
+     * @param maxWindowNs  the window of the first attempt when there only is contention.
+     * @param maxDelayNs   the maximum delay.
+     * @param spinLimitNs  delays up to this length are done by spinning.
+     * @param yieldLimitNs delays up to this length (and longer than the spinLimitNs) are done by yielding, longer
+     *                     delays by parking.
+     * @throws IllegalArgumentException if minWindowNs is smaller than 1, maxWindowNs is smaller than minWindowNs,
+     *                                  maxDelayNs is smaller than maxWindowNs, spinLimitNs is smaller than 0 or
+     *                                  yieldLimitNs is smaller than spinLimitNs.
+     */
+    public AdaptiveBackoffPolicy(final long minWindowNs, final long maxWindowNs, final long maxDelayNs,
+                                 final long spinLimitNs, final long yieldLimitNs) {
+        if (minWindowNs < 1) {
+            throw new IllegalArgumentException("minWindowNs can't be smaller than 1, minWindowNs was " + minWindowNs);
+        }
+
+        if (maxWindowNs < minWindowNs) {
+            throw new IllegalArgumentException(
+                    "maxWindowNs can't be smaller than minWindowNs, maxWindowNs was " + maxWindowNs);
+        }
+
+        if (maxDelayNs < maxWindowNs) {
+            throw new IllegalArgumentException(
+                    "maxDelayNs can't be smaller than maxWindowNs, maxDelayNs was " + maxDelayNs);
+        }
+
+        if (spinLimitNs < 0) {
+            throw new IllegalArgumentException("spinLimitNs can't be smaller than 0, spinLimitNs was " + spinLimitNs);
+        }
+
+        if (yieldLimitNs < spinLimitNs) {
+            throw new IllegalArgumentException(
+                    "yieldLimitNs can't be smaller than spinLimitNs, yieldLimitNs was " + yieldLimitNs);
+        }
+
+        this.minWindowNs = minWindowNs;
+        this.maxWindowNs = maxWindowNs;
+        this.maxDelayNs = maxDelayNs;
+        this.spinLimitNs = spinLimitNs;
+        this.yieldLimitNs = yieldLimitNs;
+    }
+
+    /**
+     * Creates a new AdaptiveBackoffPolicy with the same settings as this one, but with its own statistics.
+     *
+     * @return the created AdaptiveBackoffPolicy.
+     */
+    public AdaptiveBackoffPolicy newFamilyInstance() {
+        return new AdaptiveBackoffPolicy(minWindowNs, maxWindowNs, maxDelayNs, spinLimitNs, yieldLimitNs);
+    }
+
+    /**
+     * Signals that a transaction has committed, so the contention decreases.
+     */
+    public void signalCommit() {
+        update(0);
+    }
+
+    /**
+     * Returns the contention as the percentage of aborted transactions.
+     *
+     * @return the contention.
+     */
+    public int getContention() {
+        return contention * 100 / SCALE;
+    }
+
+    @Override
+    public void delay(final int attempt) throws InterruptedException {
+        delayUninterruptible(attempt);
+    }
+
+    @Override
+    public void delayUninterruptible(final int attempt) {
+        update(SCALE);
+
+        final long delayNs = calcDelayNs(attempt);
+
+        if (delayNs <= spinLimitNs) {
+            final long endNs = System.nanoTime() + delayNs;
+            //noinspection StatementWithEmptyBody
+            while (System.nanoTime() < endNs) {
+            }
+        } else if (delayNs <= yieldLimitNs) {
+            Thread.yield();
+        } else {
+            parkNanos(delayNs);
+        }
+    }
+
+    /**
+     * Calculates the delay for the given attempt based on the current contention.
+     *
+     * @param attempt the attempt.
+     * @return the delay in nanoseconds.
+     */
+    long calcDelayNs(final int attempt) {
+        final long baseWindowNs = minWindowNs + (maxWindowNs - minWindowNs) * contention / SCALE;
+
+        int doublings = attempt - 1;
+        if (doublings < 0) {
+            doublings = 0;
+        } else if (doublings > MAX_DOUBLINGS) {
+            doublings = MAX_DOUBLINGS;
+        }
+
+        long windowNs = baseWindowNs << doublings;
+        if (windowNs > maxDelayNs || windowNs <= 0) {
+            windowNs = maxDelayNs;
+        }
+
+        return random() % windowNs;
+    }
+
+    private void update(final int outcome) {
+        final int current = contention;
+        final int update = current + ((outcome - current) >> SHIFT);
+        if (update != current) {
+            contention = update;
+        }
+    }
+
+    private static long random() {
+        //a xorshift of the time is random enough to prevent threads from backing off in lock step.
+        long x = System.nanoTime();
+        x ^= x << 21;
+        x ^= x >>> 35;
+        x ^= x << 4;
+        return x & Long.MAX_VALUE;
+    }
+}
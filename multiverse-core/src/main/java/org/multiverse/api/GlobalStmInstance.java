@@ -19,7 +19,7 @@ import static java.lang.reflect.Modifier.isStatic;
  *
  * <p>The default implementation is the GammaStm for now. It can be configured through setting the System property:
  * 'org.multiverse.api.GlobalStmInstance.factoryMethod'. This method should be a no arg static method that returns a
- * {@link Stm} instance.
+ * {@link Stm} instance. E.g. 'org.multiverse.stms.tl2.Tl2Stm.createFast' selects the TL2 based Stm.
  *
  * @author Peter Veentjer
  */
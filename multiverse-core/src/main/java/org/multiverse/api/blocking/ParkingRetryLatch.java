@@ -0,0 +1,338 @@
+package org.multiverse.api.blocking;
+
+import org.multiverse.api.exceptions.RetryInterruptedException;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import static java.lang.String.format;
+import static java.util.concurrent.locks.LockSupport.park;
+import static java.util.concurrent.locks.LockSupport.parkNanos;
+import static java.util.concurrent.locks.LockSupport.unpark;
+
+/**
+ * A {@link RetryLatch} implementation based on {@link java.util.concurrent.locks.LockSupport#park} and
+ * {@link java.util.concurrent.locks.LockSupport#unpark} instead of the intrinsic lock used by the
+ * {@link DefaultRetryLatch}. An open doesn't need to acquire a monitor, only when a thread is waiting it is unparked,
+ * and no objects are created.
+ * <p/>
+ * The era and the open flag are stored in a single long, so that an open and a reset can't interleave: the open is
+ * ignored if the era changed, just like with the DefaultRetryLatch.
+ * <p/>
+ * Before parking, a waiting thread spins for a short time, since the update it is waiting for often is done very soon.
+ * The length of the spin is adapted: if the latch was opened while spinning, the next spin is longer, otherwise it is
+ * shorter. On a machine with a single processor there is no spinning at all.
+ * <p/>
+ * The latch is made for a single waiting thread (the thread that owns the transaction). If multiple threads are waiting
+ * at the same time, the others don't get unparked but poll the latch, so they are notified later.
+ * <p/>
+ * For monitoring, the number of threads parked on a ParkingRetryLatch and the total number of times a thread needed to
+ * park are counted over all latches (see {@link #getWaitingThreadCount()} and {@link #getParkedAwaitCount()}). This
+ * only is done after spinning, so it doesn't add costs to an await that doesn't need to park.
+ *
+ * @author Peter Veentjer
+ */
+public final class ParkingRetryLatch implements RetryLatch {
+
+    private static final AtomicLongFieldUpdater<ParkingRetryLatch> stateUpdater
+            = AtomicLongFieldUpdater.newUpdater(ParkingRetryLatch.class, "state");
+    private static final AtomicReferenceFieldUpdater<ParkingRetryLatch, Thread> waiterUpdater
+            = AtomicReferenceFieldUpdater.newUpdater(ParkingRetryLatch.class, Thread.class, "waiter");
+
+    private static final int MAX_SPINS = Runtime.getRuntime().availableProcessors() > 1 ? 1024 : 0;
+    private static final long POLL_INTERVAL_NS = 1000 * 1000;
+
+    private static final AtomicInteger waitingThreads = new AtomicInteger();
+    private static final AtomicLong parkedAwaits = new AtomicLong();
+
+    /**
+     * Returns the number of threads currently parked on a ParkingRetryLatch.
+     *
+     * @return the number of waiting threads.
+     */
+    public static int getWaitingThreadCount() {
+        return waitingThreads.get();
+    }
+
+    /**
+     * Returns the number of awaits on a ParkingRetryLatch that needed to park since the last
+     * {@link #resetParkedAwaitCount()}.
+     *
+     * @return the number of parked awaits.
+     */
+    public static long getParkedAwaitCount() {
+        return parkedAwaits.get();
+    }
+
+    /**
+     * Resets the number of parked awaits.
+     */
+    public static void resetParkedAwaitCount() {
+        parkedAwaits.set(0);
+    }
+
+    //the era shifted one bit to the left, the lowest bit is set if the latch is open.
+    private volatile long state = 0;
+    private volatile Thread waiter;
+    //only a heuristic, so there is no need for it to be volatile.
+    private int spins = MAX_SPINS;
+
+    @Override
+    public void open(final long expectedEra) {
+        while (true) {
+            final long current = state;
+            if (isOpen(current) || era(current) != expectedEra) {
+                return;
+            }
+
+            if (stateUpdater.compareAndSet(this, current, current | 1)) {
+                break;
+            }
+        }
+
+        final Thread thread = waiter;
+        if (thread != null) {
+            unpark(thread);
+        }
+    }
+
+    @Override
+    public void await(final long expectedEra, final String transactionFamilyName) {
+        if (isDone(expectedEra)) {
+            return;
+        }
+
+        if (Thread.interrupted()) {
+            Thread.currentThread().interrupt();
+            throw newRetryInterruptedException(transactionFamilyName);
+        }
+
+        if (spin(expectedEra)) {
+            return;
+        }
+
+        final boolean registered = register();
+        try {
+            while (!isDone(expectedEra)) {
+                if (registered) {
+                    park(this);
+                } else {
+                    parkNanos(this, POLL_INTERVAL_NS);
+                }
+
+                if (Thread.interrupted()) {
+                    Thread.currentThread().interrupt();
+                    throw newRetryInterruptedException(transactionFamilyName);
+                }
+            }
+        } finally {
+            unregister(registered);
+        }
+    }
+
+    @Override
+    public void awaitUninterruptible(final long expectedEra) {
+        if (isDone(expectedEra) || spin(expectedEra)) {
+            return;
+        }
+
+        boolean restoreInterrupt = false;
+        final boolean registered = register();
+        try {
+            while (!isDone(expectedEra)) {
+                if (registered) {
+                    park(this);
+                } else {
+                    parkNanos(this, POLL_INTERVAL_NS);
+                }
+
+                if (Thread.interrupted()) {
+                    restoreInterrupt = true;
+                }
+            }
+        } finally {
+            unregister(registered);
+            if (restoreInterrupt) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public long awaitNanosUninterruptible(final long expectedEra, final long nanosTimeout) {
+        if (isDone(expectedEra)) {
+            return nanosTimeout;
+        }
+
+        if (nanosTimeout <= 0) {
+            return -1;
+        }
+
+        final long startNs = System.nanoTime();
+        if (spin(expectedEra)) {
+            return nanosTimeout - (System.nanoTime() - startNs);
+        }
+
+        boolean restoreInterrupt = false;
+        final boolean registered = register();
+        try {
+            long remainingNs = nanosTimeout - (System.nanoTime() - startNs);
+            while (true) {
+                if (isDone(expectedEra)) {
+                    return remainingNs;
+                }
+
+                if (remainingNs <= 0) {
+                    return -1;
+                }
+
+                parkNanos(this, registered ? remainingNs : Math.min(remainingNs, POLL_INTERVAL_NS));
+
+                if (Thread.interrupted()) {
+                    restoreInterrupt = true;
+                }
+
+                remainingNs = nanosTimeout - (System.nanoTime() - startNs);
+            }
+        } finally {
+            unregister(registered);
+            if (restoreInterrupt) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public long awaitNanos(final long expectedEra, final long nanosTimeout, final String transactionFamilyName) {
+        if (isDone(expectedEra)) {
+            return nanosTimeout;
+        }
+
+        if (nanosTimeout <= 0) {
+            return -1;
+        }
+
+        if (Thread.interrupted()) {
+            Thread.currentThread().interrupt();
+            throw newRetryInterruptedException(transactionFamilyName);
+        }
+
+        final long startNs = System.nanoTime();
+        if (spin(expectedEra)) {
+            return nanosTimeout - (System.nanoTime() - startNs);
+        }
+
+        final boolean registered = register();
+        try {
+            long remainingNs = nanosTimeout - (System.nanoTime() - startNs);
+            while (true) {
+                if (isDone(expectedEra)) {
+                    return remainingNs;
+                }
+
+                if (remainingNs <= 0) {
+                    return -1;
+                }
+
+                parkNanos(this, registered ? remainingNs : Math.min(remainingNs, POLL_INTERVAL_NS));
+
+                if (Thread.interrupted()) {
+                    Thread.currentThread().interrupt();
+                    throw newRetryInterruptedException(transactionFamilyName);
+                }
+
+                remainingNs = nanosTimeout - (System.nanoTime() - startNs);
+            }
+        } finally {
+            unregister(registered);
+        }
+    }
+
+    /**
+     * Spins for a short time waiting for the latch to open or the era to change, and adapts the length of the next
+     * spin.
+     *
+     * @param expectedEra the expected era.
+     * @return true if the waiting is done, false if the thread needs to park.
+     */
+    private boolean spin(final long expectedEra) {
+        final int maxSpins = spins;
+        for (int k = 0; k < maxSpins; k++) {
+            if (isDone(expectedEra)) {
+                spins = Math.min(MAX_SPINS, maxSpins * 2);
+                return true;
+            }
+        }
+
+        spins = maxSpins / 2;
+        if (spins == 0 && MAX_SPINS > 0) {
+            spins = 1;
+        }
+        return false;
+    }
+
+    private boolean register() {
+        waitingThreads.incrementAndGet();
+        parkedAwaits.incrementAndGet();
+        return waiterUpdater.compareAndSet(this, null, Thread.currentThread());
+    }
+
+    private void unregister(final boolean registered) {
+        if (registered) {
+            waiter = null;
+        }
+        waitingThreads.decrementAndGet();
+    }
+
+    private boolean isDone(final long expectedEra) {
+        final long current = state;
+        return isOpen(current) || era(current) != expectedEra;
+    }
+
+    private static RetryInterruptedException newRetryInterruptedException(final String transactionFamilyName) {
+        return new RetryInterruptedException(
+                format("[%s] Was interrupted while waiting on the retry", transactionFamilyName));
+    }
+
+    private static boolean isOpen(final long state) {
+        return (state & 1) != 0;
+    }
+
+    private static long era(final long state) {
+        return state >> 1;
+    }
+
+    @Override
+    public long getEra() {
+        return era(state);
+    }
+
+    @Override
+    public void reset() {
+        while (true) {
+            final long current = state;
+            final long update = (era(current) + 1) << 1;
+            if (stateUpdater.compareAndSet(this, current, update)) {
+                break;
+            }
+        }
+
+        //a waiting thread needs to be notified of the era change.
+        final Thread thread = waiter;
+        if (thread != null) {
+            unpark(thread);
+        }
+    }
+
+    @Override
+    public boolean isOpen() {
+        return isOpen(state);
+    }
+
+    @Override
+    public String toString() {
+        return format("ParkingRetryLatch(open=%s, era=%s)", isOpen(), getEra());
+    }
+}
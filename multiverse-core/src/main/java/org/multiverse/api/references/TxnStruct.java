@@ -0,0 +1,194 @@
+package org.multiverse.api.references;
+
+import org.multiverse.api.*;
+
+/**
+ * A transactional object with a fixed number of long fields and reference fields. All fields share a single lock
+ * and version, so reading or updating any number of fields of a TxnStruct in a txn costs the same as reading or
+ * updating a single {@link TxnLong} or {@link TxnRef}. The price is that a conflict on one field is a conflict on the
+ * whole TxnStruct, so it is meant for fields that are read and updated together, e.g. the fields of an entity.
+ *
+ * <p>The fields are identified by their index: 0 up to {@link #getLongFieldCount()} for the long fields and 0 up
+ * to {@link #getRefFieldCount()} for the reference fields. Using an index outside of that range causes an
+ * {@link IndexOutOfBoundsException}.
+ *
+ * <p>If a method is prefixed with atomic, the call will always run under its own txn, no matter if there already
+ * is a txn available (so the propagation level is {@link PropagationLevel#RequiresNew}). For the other methods,
+ * always an txn needs to be available, else you will get the {@link org.multiverse.api.exceptions.TxnMandatoryException}.
+ *
+ * <h3>ControlFlowError</h3>
+ *
+ * <p>All non atomic methods are able to throw a (subclass) of the {@link org.multiverse.api.exceptions.ControlFlowError}.
+ * This error should not be caught, it is task of the {@link TxnExecutor} to deal with.
+ *
+ * <h3>Threadsafe</h3>
+ *
+ * <p>All methods are threadsafe.
+ *
+ * @author Peter Veentjer.
+ */
+public interface TxnStruct extends TxnObject {
+
+    /**
+     * Returns the number of long fields.
+     *
+     * @return the number of long fields.
+     */
+    int getLongFieldCount();
+
+    /**
+     * Returns the number of reference fields.
+     *
+     * @return the number of reference fields.
+     */
+    int getRefFieldCount();
+
+    /**
+     * Gets the value of a long field.
+     *
+     * <p>This call lifts on the {@link org.multiverse.api.Txn} stored in the {@link org.multiverse.api.TxnThreadLocal}.
+     *
+     * @param field the index of the long field.
+     * @return the current value.
+     * @throws org.multiverse.api.exceptions.TxnExecutionException
+     *                  if something failed while using the txn. The txn is guaranteed to have been aborted.
+     * @throws org.multiverse.api.exceptions.ControlFlowError
+     *                  if the Stm needs to control the flow in a different way than normal returns of exceptions. The txn
+     *                  is guaranteed to have been aborted.
+     */
+    long getLong(int field);
+
+    /**
+     * Gets the value of a long field using the provided txn.
+     *
+     * @param txn   the {@link Txn} used for this operation.
+     * @param field the index of the long field.
+     * @return the current value.
+     * @throws NullPointerException if txn is null.
+     * @throws org.multiverse.api.exceptions.TxnExecutionException
+     *                  if something failed while using the txn. The txn is guaranteed to have been aborted.
+     * @throws org.multiverse.api.exceptions.ControlFlowError
+     *                  if the Stm needs to control the flow in a different way than normal returns of exceptions. The txn
+     *                  is guaranteed to have been aborted.
+     */
+    long getLong(Txn txn, int field);
+
+    /**
+     * Sets the value of a long field.
+     *
+     * <p>This call lifts on the {@link org.multiverse.api.Txn} stored in the {@link org.multiverse.api.TxnThreadLocal}.
+     *
+     * @param field the index of the long field.
+     * @param value the new value.
+     * @return the new value.
+     * @throws org.multiverse.api.exceptions.TxnExecutionException
+     *                  if something failed while using the txn. The txn is guaranteed to have been aborted.
+     * @throws org.multiverse.api.exceptions.ControlFlowError
+     *                  if the Stm needs to control the flow in a different way than normal returns of exceptions. The txn
+     *                  is guaranteed to have been aborted.
+     */
+    long setLong(int field, long value);
+
+    /**
+     * Sets the value of a long field using the provided txn.
+     *
+     * @param txn   the {@link Txn} used for this operation.
+     * @param field the index of the long field.
+     * @param value the new value.
+     * @return the new value.
+     * @throws NullPointerException if txn is null.
+     * @throws org.multiverse.api.exceptions.TxnExecutionException
+     *                  if something failed while using the txn. The txn is guaranteed to have been aborted.
+     * @throws org.multiverse.api.exceptions.ControlFlowError
+     *                  if the Stm needs to control the flow in a different way than normal returns of exceptions. The txn
+     *                  is guaranteed to have been aborted.
+     */
+    long setLong(Txn txn, int field, long value);
+
+    /**
+     * Gets the value of a reference field.
+     *
+     * <p>This call lifts on the {@link org.multiverse.api.Txn} stored in the {@link org.multiverse.api.TxnThreadLocal}.
+     *
+     * @param field the index of the reference field.
+     * @param <E>   the type of the value.
+     * @return the current value.
+     * @throws org.multiverse.api.exceptions.TxnExecutionException
+     *                  if something failed while using the txn. The txn is guaranteed to have been aborted.
+     * @throws org.multiverse.api.exceptions.ControlFlowError
+     *                  if the Stm needs to control the flow in a different way than normal returns of exceptions. The txn
+     *                  is guaranteed to have been aborted.
+     */
+    <E> E getRef(int field);
+
+    /**
+     * Gets the value of a reference field using the provided txn.
+     *
+     * @param txn   the {@link Txn} used for this operation.
+     * @param field the index of the reference field.
+     * @param <E>   the type of the value.
+     * @return the current value.
+     * @throws NullPointerException if txn is null.
+     * @throws org.multiverse.api.exceptions.TxnExecutionException
+     *                  if something failed while using the txn. The txn is guaranteed to have been aborted.
+     * @throws org.multiverse.api.exceptions.ControlFlowError
+     *                  if the Stm needs to control the flow in a different way than normal returns of exceptions. The txn
+     *                  is guaranteed to have been aborted.
+     */
+    <E> E getRef(Txn txn, int field);
+
+    /**
+     * Sets the value of a reference field.
+     *
+     * <p>This call lifts on the {@link org.multiverse.api.Txn} stored in the {@link org.multiverse.api.TxnThreadLocal}.
+     *
+     * @param field the index of the reference field.
+     * @param value the new value.
+     * @param <E>   the type of the value.
+     * @return the new value.
+     * @throws org.multiverse.api.exceptions.TxnExecutionException
+     *                  if something failed while using the txn. The txn is guaranteed to have been aborted.
+     * @throws org.multiverse.api.exceptions.ControlFlowError
+     *                  if the Stm needs to control the flow in a different way than normal returns of exceptions. The txn
+     *                  is guaranteed to have been aborted.
+     */
+    <E> E setRef(int field, E value);
+
+    /**
+     * Sets the value of a reference field using the provided txn.
+     *
+     * @param txn   the {@link Txn} used for this operation.
+     * @param field the index of the reference field.
+     * @param value the new value.
+     * @param <E>   the type of the value.
+     * @return the new value.
+     * @throws NullPointerException if txn is null.
+     * @throws org.multiverse.api.exceptions.TxnExecutionException
+     *                  if something failed while using the txn. The txn is guaranteed to have been aborted.
+     * @throws org.multiverse.api.exceptions.ControlFlowError
+     *                  if the Stm needs to control the flow in a different way than normal returns of exceptions. The txn
+     *                  is guaranteed to have been aborted.
+     */
+    <E> E setRef(Txn txn, int field, E value);
+
+    /**
+     * Atomically gets the value of a long field. The value could be stale as soon as it is returned. This method
+     * doesn't care about any running txns. It could be that this call fails e.g. when the TxnStruct is locked.
+     *
+     * @param field the index of the long field.
+     * @return the current value.
+     * @throws org.multiverse.api.exceptions.TxnExecutionException
+     */
+    long atomicGetLong(int field);
+
+    /**
+     * Atomically gets the value of a reference field. The value could be stale as soon as it is returned. This method
+     * doesn't care about any running txns. It could be that this call fails e.g. when the TxnStruct is locked.
+     *
+     * @param field the index of the reference field.
+     * @param <E>   the type of the value.
+     * @return the current value.
+     * @throws org.multiverse.api.exceptions.TxnExecutionException
+     */
+    <E> E atomicGetRef(int field);
+}
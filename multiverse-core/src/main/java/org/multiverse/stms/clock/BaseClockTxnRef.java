@@ -0,0 +1,227 @@
+package org.multiverse.stms.clock;
+
+import org.multiverse.api.LockMode;
+import org.multiverse.api.Txn;
+import org.multiverse.api.TxnLock;
+import org.multiverse.api.TxnObject;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.lang.String.format;
+import static org.multiverse.stms.clock.ClockStmUtils.asClockTxn;
+import static org.multiverse.stms.clock.ClockStmUtils.getRequiredThreadLocalClockTxn;
+
+/**
+ * The base of all transactional objects of a {@link ClockStm}. Just like the GammaStm all primitive types are stored
+ * in the long_value.
+ * <p/>
+ * The transactional objects are shared by the Tl2Stm and the NorecStm; everything that depends on the algorithm
+ * (the atomic operations, the version and the lock) is delegated to the stm the object belongs to.
+ *
+ * @author Peter Veentjer.
+ */
+@SuppressWarnings({"OverlyComplexClass"})
+public abstract class BaseClockTxnRef implements TxnObject, TxnLock, ClockConstants {
+
+    private static final AtomicInteger hashGenerator = new AtomicInteger();
+
+    public final ClockStm stm;
+    public final int type;
+    //a fibonacci hash works well with the linear probing of the ClockTxn index.
+    public final int hash = hashGenerator.getAndAdd(0x61c88647);
+    //the versioned lock used by the Tl2Stm: the lowest bit indicates if the object is locked, the other bits contain
+    //the version. The NorecStm has no ownership records, so it doesn't use it.
+    public volatile long orec;
+    public volatile long long_value;
+    public volatile Object ref_value;
+
+    public BaseClockTxnRef(final ClockStm stm, final int type) {
+        if (stm == null) {
+            throw new NullPointerException();
+        }
+
+        this.stm = stm;
+        this.type = type;
+    }
+
+    /**
+     * Acquires the lock for an atomic operation (so an operation without a transaction).
+     *
+     * @return the value that needs to be passed to {@link #unlockAtomic(long, boolean)}.
+     */
+    protected final long lockAtomic() {
+        return stm.lockAtomic(this);
+    }
+
+    /**
+     * Releases the lock acquired by {@link #lockAtomic()}.
+     *
+     * @param lockValue the value returned by lockAtomic.
+     * @param changed   if the value has changed.
+     */
+    protected final void unlockAtomic(final long lockValue, final boolean changed) {
+        stm.unlockAtomic(this, lockValue, changed);
+    }
+
+    protected final long atomicGetLong() {
+        return stm.atomicGetLong(this);
+    }
+
+    protected final Object atomicGetObject() {
+        return stm.atomicGetObject(this);
+    }
+
+    protected final long atomicSetLong(final long newValue, final boolean returnOld) {
+        final long lockValue = lockAtomic();
+        final long oldValue = long_value;
+        long_value = newValue;
+        unlockAtomic(lockValue, oldValue != newValue);
+        return returnOld ? oldValue : newValue;
+    }
+
+    protected final Object atomicSetObject(final Object newValue, final boolean returnOld) {
+        final long lockValue = lockAtomic();
+        final Object oldValue = ref_value;
+        ref_value = newValue;
+        //noinspection ObjectEquality
+        unlockAtomic(lockValue, oldValue != newValue);
+        return returnOld ? oldValue : newValue;
+    }
+
+    protected final boolean atomicCompareAndSetLong(final long expectedValue, final long newValue) {
+        final long lockValue = lockAtomic();
+        if (long_value != expectedValue) {
+            unlockAtomic(lockValue, false);
+            return false;
+        }
+
+        long_value = newValue;
+        unlockAtomic(lockValue, expectedValue != newValue);
+        return true;
+    }
+
+    protected final boolean atomicCompareAndSetObject(final Object expectedValue, final Object newValue) {
+        final long lockValue = lockAtomic();
+        //noinspection ObjectEquality
+        if (ref_value != expectedValue) {
+            unlockAtomic(lockValue, false);
+            return false;
+        }
+
+        ref_value = newValue;
+        //noinspection ObjectEquality
+        unlockAtomic(lockValue, expectedValue != newValue);
+        return true;
+    }
+
+    protected final ClockTranlocal openForRead(final ClockTxn tx, final LockMode lockMode) {
+        if (lockMode == null) {
+            throw tx.abortOpenForReadOnNullLockMode(this);
+        }
+
+        return tx.openForRead(this, lockMode.asInt());
+    }
+
+    protected final ClockTranlocal openForWrite(final ClockTxn tx, final LockMode lockMode) {
+        if (lockMode == null) {
+            throw tx.abortOpenForReadOnNullLockMode(this);
+        }
+
+        return tx.openForWrite(this, lockMode.asInt());
+    }
+
+    protected final long getLong(final ClockTxn tx, final LockMode lockMode) {
+        return openForRead(tx, lockMode).long_value;
+    }
+
+    protected final Object getObject(final ClockTxn tx, final LockMode lockMode) {
+        return openForRead(tx, lockMode).ref_value;
+    }
+
+    protected final long setLong(final ClockTxn tx, final LockMode lockMode, final long newValue, final boolean returnOld) {
+        final ClockTranlocal tranlocal = openForWrite(tx, lockMode);
+        final long oldValue = tranlocal.long_value;
+        tranlocal.long_value = newValue;
+        return returnOld ? oldValue : newValue;
+    }
+
+    protected final Object setObject(final ClockTxn tx, final LockMode lockMode, final Object newValue, final boolean returnOld) {
+        final ClockTranlocal tranlocal = openForWrite(tx, lockMode);
+        final Object oldValue = tranlocal.ref_value;
+        tranlocal.ref_value = newValue;
+        return returnOld ? oldValue : newValue;
+    }
+
+    protected final void awaitLong(final ClockTxn tx, final long value) {
+        if (tx.openForRead(this, LOCKMODE_NONE).long_value != value) {
+            tx.retry();
+        }
+    }
+
+    @Override
+    public final ClockStm getStm() {
+        return stm;
+    }
+
+    @Override
+    public final TxnLock getLock() {
+        return this;
+    }
+
+    @Override
+    public final long getVersion() {
+        return stm.getVersion(this);
+    }
+
+    @Override
+    public final void ensure() {
+        ensure(getRequiredThreadLocalClockTxn());
+    }
+
+    @Override
+    public final void ensure(final Txn self) {
+        //a ClockStm validates the complete read set, so a tracked read already is ensured.
+        asClockTxn(self).openForRead(this, LOCKMODE_NONE);
+    }
+
+    @Override
+    public final String toDebugString() {
+        return format("%s{version=%s, long_value=%s, ref_value=%s}",
+                ClockStmUtils.toDebugString(this), getVersion(), long_value, ref_value);
+    }
+
+    @Override
+    public final String toString() {
+        return toString(getRequiredThreadLocalClockTxn());
+    }
+
+    @Override
+    public final LockMode atomicGetLockMode() {
+        return stm.atomicGetLockMode(this);
+    }
+
+    @Override
+    public final LockMode getLockMode() {
+        return getLockMode(getRequiredThreadLocalClockTxn());
+    }
+
+    @Override
+    public final LockMode getLockMode(final Txn txn) {
+        return asClockTxn(txn).getLockMode(this);
+    }
+
+    @Override
+    public final void acquire(final LockMode desiredLockMode) {
+        acquire(getRequiredThreadLocalClockTxn(), desiredLockMode);
+    }
+
+    @Override
+    public final void acquire(final Txn txn, final LockMode desiredLockMode) {
+        final ClockTxn tx = asClockTxn(txn);
+        if (desiredLockMode == null) {
+            throw tx.abortAcquireOnNullLockMode(this);
+        }
+
+        tx.openForRead(this, desiredLockMode.asInt());
+    }
+}
@@ -0,0 +1,22 @@
+package org.multiverse.stms.clock;
+
+import org.multiverse.MultiverseConstants;
+
+/**
+ * Contains the constants shared by the {@link ClockStm} implementations.
+ *
+ * @author Peter Veentjer.
+ */
+public interface ClockConstants extends MultiverseConstants {
+
+    int TX_ACTIVE = 1;
+    int TX_PREPARED = 2;
+    int TX_ABORTED = 3;
+    int TX_COMMITTED = 4;
+
+    int TYPE_INT = 1;
+    int TYPE_LONG = 2;
+    int TYPE_DOUBLE = 3;
+    int TYPE_BOOLEAN = 4;
+    int TYPE_REF = 5;
+}
@@ -0,0 +1,98 @@
+package org.multiverse.stms.clock;
+
+import org.multiverse.api.exceptions.RetryInterruptedException;
+
+import static java.lang.String.format;
+
+/**
+ * The blocking mechanism of the {@link ClockStm}. Unlike the GammaStm there are no listeners registered on the
+ * individual transactional objects; a blocked transaction waits on a single stm wide monitor and every
+ * updating commit wakes up the waiters, so they can check if one of the objects they have read has changed.
+ * <p/>
+ * Updating commits only pay for a volatile read as long as nobody is waiting.
+ *
+ * @author Peter Veentjer.
+ */
+public final class ClockRetryMonitor {
+
+    private final Object mutex = new Object();
+    private volatile int waiters;
+
+    /**
+     * Signals the waiting transactions that a commit has happened. Should be called after the new values of
+     * the written objects have been published.
+     */
+    public void signal() {
+        if (waiters == 0) {
+            return;
+        }
+
+        synchronized (mutex) {
+            mutex.notifyAll();
+        }
+    }
+
+    /**
+     * Returns the number of transactions waiting for a change.
+     *
+     * @return the number of waiting transactions.
+     */
+    public int getWaiterCount() {
+        return waiters;
+    }
+
+    /**
+     * Waits until one of the reads of the transaction has changed.
+     *
+     * @param tx            the transaction waiting for an update.
+     * @param timeoutNs     the timeout in nanoseconds, Long.MAX_VALUE indicates no timeout.
+     * @param interruptible if the wait can be interrupted.
+     * @return the remaining timeout in nanoseconds. If it is smaller than 0, the wait has timed out.
+     * @throws RetryInterruptedException if the wait is interruptible and the thread is interrupted.
+     */
+    public long await(final ClockTxn tx, long timeoutNs, final boolean interruptible) {
+        boolean restoreInterrupt = false;
+
+        try {
+            synchronized (mutex) {
+                //the waiter count is incremented before the reads are checked; a committer first publishes its
+                //writes and then checks the waiter count, so either it sees the waiter or the waiter sees the change.
+                waiters++;
+                try {
+                    while (!tx.hasReadChanged()) {
+                        if (timeoutNs <= 0) {
+                            return -1;
+                        }
+
+                        final long startNs = System.nanoTime();
+                        try {
+                            if (timeoutNs == Long.MAX_VALUE) {
+                                mutex.wait();
+                            } else {
+                                mutex.wait(timeoutNs / 1000000, (int) (timeoutNs % 1000000));
+                            }
+                        } catch (InterruptedException e) {
+                            if (interruptible) {
+                                throw new RetryInterruptedException(
+                                        format("[%s] Was interrupted while waiting on the retry",
+                                                tx.config.familyName), e);
+                            }
+                            restoreInterrupt = true;
+                        }
+
+                        if (timeoutNs != Long.MAX_VALUE) {
+                            timeoutNs -= System.nanoTime() - startNs;
+                        }
+                    }
+                    return timeoutNs;
+                } finally {
+                    waiters--;
+                }
+            }
+        } finally {
+            if (restoreInterrupt) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,330 @@
+package org.multiverse.stms.clock;
+
+import org.multiverse.api.*;
+import org.multiverse.api.collections.TxnCollectionsFactory;
+import org.multiverse.api.lifecycle.TxnListener;
+import org.multiverse.api.references.TxnRefFactory;
+import org.multiverse.api.references.TxnRefFactoryBuilder;
+import org.multiverse.collections.NaiveTxnCollectionFactory;
+import org.multiverse.stms.gamma.GammaOrElseBlock;
+
+/**
+ * The base of the {@link Stm} implementations that validate their reads using a single global clock: the Tl2Stm
+ * (a global version clock and a versioned lock per object) and the NorecStm (a global sequence lock and value based
+ * validation). Both share the transactional objects, the configuration, the {@link ClockTxnExecutor} and the
+ * blocking mechanism; a subclass provides the {@link ClockTxn} and the atomic operations on the objects.
+ * <p/>
+ * Compared to the GammaStm there are some limitations:
+ * <ol>
+ * <li>every isolation level is executed as serializable since the complete read set is validated.</li>
+ * <li>commuting functions are executed immediately.</li>
+ * <li>a blocked transaction waits on a single stm wide {@link ClockRetryMonitor}.</li>
+ * </ol>
+ *
+ * @author Peter Veentjer.
+ */
+public abstract class ClockStm implements Stm {
+
+    public final ClockRetryMonitor retryMonitor = new ClockRetryMonitor();
+    public final int spinCount;
+    public final ClockTxnConfig defaultConfig;
+    public final TxnExecutor defaultTxnExecutor;
+    public final TxnRefFactory defaultRefFactory = new ClockTxnRefFactoryImpl();
+    public final NaiveTxnCollectionFactory defaultTransactionalCollectionFactory
+            = new NaiveTxnCollectionFactory(this);
+    public final GammaOrElseBlock defaultOrElseBlock = new GammaOrElseBlock();
+    private final ClockStmConfig config;
+
+    public ClockStm(final ClockStmConfig config) {
+        config.validate();
+
+        this.config = config;
+        this.spinCount = config.spinCount;
+        this.defaultConfig = new ClockTxnConfig(this, config);
+        this.defaultTxnExecutor = newTxnFactoryBuilder().newTxnExecutor();
+    }
+
+    @Override
+    public final TxnFactoryBuilder newTxnFactoryBuilder() {
+        return new ClockTxnFactoryBuilderImpl(new ClockTxnConfig(this, config));
+    }
+
+    /**
+     * Creates a new transaction with the given configuration.
+     *
+     * @param config the configuration of the transaction.
+     * @return the created transaction.
+     */
+    public abstract ClockTxn newTxn(ClockTxnConfig config);
+
+    @Override
+    public abstract ClockTxn newDefaultTxn();
+
+    /**
+     * Acquires the lock of the ref for an atomic operation (so an operation without a transaction).
+     *
+     * @param ref the ref to lock.
+     * @return the value that needs to be passed to {@link #unlockAtomic(BaseClockTxnRef, long, boolean)}.
+     * @throws org.multiverse.api.exceptions.LockedException if the lock could not be acquired.
+     */
+    public abstract long lockAtomic(BaseClockTxnRef ref);
+
+    /**
+     * Releases the lock acquired by {@link #lockAtomic(BaseClockTxnRef)}. If there was a change, the waiting
+     * transactions are notified.
+     *
+     * @param ref       the locked ref.
+     * @param lockValue the value returned by lockAtomic.
+     * @param changed   if the value has changed.
+     */
+    public abstract void unlockAtomic(BaseClockTxnRef ref, long lockValue, boolean changed);
+
+    public abstract long atomicGetLong(BaseClockTxnRef ref);
+
+    public abstract Object atomicGetObject(BaseClockTxnRef ref);
+
+    public abstract long getVersion(BaseClockTxnRef ref);
+
+    public abstract LockMode atomicGetLockMode(BaseClockTxnRef ref);
+
+    @Override
+    public final TxnExecutor getDefaultTxnExecutor() {
+        return defaultTxnExecutor;
+    }
+
+    @Override
+    public final OrElseBlock newOrElseBlock() {
+        //the GammaOrElseBlock doesn't depend on the GammaStm, so it can be shared.
+        return defaultOrElseBlock;
+    }
+
+    @Override
+    public final TxnRefFactory getDefaultRefFactory() {
+        return defaultRefFactory;
+    }
+
+    @Override
+    public final TxnRefFactoryBuilder getTxRefFactoryBuilder() {
+        return new TxnRefFactoryBuilder() {
+            @Override
+            public TxnRefFactory build() {
+                return defaultRefFactory;
+            }
+        };
+    }
+
+    @Override
+    public final TxnCollectionsFactory getDefaultTxnCollectionFactory() {
+        return defaultTransactionalCollectionFactory;
+    }
+
+    private final class ClockTxnRefFactoryImpl implements TxnRefFactory {
+        @Override
+        public final <E> ClockTxnRef<E> newTxnRef(final E value) {
+            return new ClockTxnRef<E>(ClockStm.this, value);
+        }
+
+        @Override
+        public final ClockTxnInteger newTxnInteger(final int value) {
+            return new ClockTxnInteger(ClockStm.this, value);
+        }
+
+        @Override
+        public final ClockTxnBoolean newTxnBoolean(final boolean value) {
+            return new ClockTxnBoolean(ClockStm.this, value);
+        }
+
+        @Override
+        public final ClockTxnDouble newTxnDouble(final double value) {
+            return new ClockTxnDouble(ClockStm.this, value);
+        }
+
+        @Override
+        public final ClockTxnLong newTxnLong(final long value) {
+            return new ClockTxnLong(ClockStm.this, value);
+        }
+    }
+
+    private final class ClockTxnFactoryBuilderImpl implements TxnFactoryBuilder {
+
+        private final ClockTxnConfig config;
+
+        ClockTxnFactoryBuilderImpl(final ClockTxnConfig config) {
+            this.config = config;
+        }
+
+        @Override
+        public final ClockTxnConfig getConfig() {
+            return config;
+        }
+
+        @Override
+        public final TxnFactoryBuilder addPermanentListener(final TxnListener listener) {
+            return new ClockTxnFactoryBuilderImpl(config.addPermanentListener(listener));
+        }
+
+        @Override
+        public final TxnFactoryBuilder setControlFlowErrorsReused(final boolean reused) {
+            if (reused == config.controlFlowErrorsReused) {
+                return this;
+            }
+
+            return new ClockTxnFactoryBuilderImpl(config.setControlFlowErrorsReused(reused));
+        }
+
+        @Override
+        public final TxnFactoryBuilder setReadLockMode(final LockMode lockMode) {
+            if (lockMode == config.readLockMode) {
+                return this;
+            }
+
+            return new ClockTxnFactoryBuilderImpl(config.setReadLockMode(lockMode));
+        }
+
+        @Override
+        public final TxnFactoryBuilder setWriteLockMode(final LockMode lockMode) {
+            if (lockMode == config.writeLockMode) {
+                return this;
+            }
+
+            return new ClockTxnFactoryBuilderImpl(config.setWriteLockMode(lockMode));
+        }
+
+        @Override
+        public final TxnFactoryBuilder setFamilyName(final String familyName) {
+            if (config.familyName.equals(familyName)) {
+                return this;
+            }
+
+            return new ClockTxnFactoryBuilderImpl(config.setFamilyName(familyName));
+        }
+
+        @Override
+        public final TxnFactoryBuilder setPropagationLevel(final PropagationLevel level) {
+            if (level == config.propagationLevel) {
+                return this;
+            }
+
+            return new ClockTxnFactoryBuilderImpl(config.setPropagationLevel(level));
+        }
+
+        @Override
+        public final TxnFactoryBuilder setBlockingAllowed(final boolean blockingAllowed) {
+            if (blockingAllowed == config.blockingAllowed) {
+                return this;
+            }
+
+            return new ClockTxnFactoryBuilderImpl(config.setBlockingAllowed(blockingAllowed));
+        }
+
+        @Override
+        public final TxnFactoryBuilder setIsolationLevel(final IsolationLevel isolationLevel) {
+            if (isolationLevel == config.isolationLevel) {
+                return this;
+            }
+
+            return new ClockTxnFactoryBuilderImpl(config.setIsolationLevel(isolationLevel));
+        }
+
+        @Override
+        public final TxnFactoryBuilder setTraceLevel(final TraceLevel traceLevel) {
+            if (traceLevel == config.traceLevel) {
+                return this;
+            }
+
+            return new ClockTxnFactoryBuilderImpl(config.setTraceLevel(traceLevel));
+        }
+
+        @Override
+        public final TxnFactoryBuilder setTimeoutNs(final long timeoutNs) {
+            if (timeoutNs == config.timeoutNs) {
+                return this;
+            }
+
+            return new ClockTxnFactoryBuilderImpl(config.setTimeoutNs(timeoutNs));
+        }
+
+        @Override
+        public final TxnFactoryBuilder setInterruptible(final boolean interruptible) {
+            if (interruptible == config.interruptible) {
+                return this;
+            }
+
+            return new ClockTxnFactoryBuilderImpl(config.setInterruptible(interruptible));
+        }
+
+        @Override
+        public final TxnFactoryBuilder setBackoffPolicy(final BackoffPolicy backoffPolicy) {
+            //noinspection ObjectEquality
+            if (backoffPolicy == config.backoffPolicy) {
+                return this;
+            }
+
+            return new ClockTxnFactoryBuilderImpl(config.setBackoffPolicy(backoffPolicy));
+        }
+
+        @Override
+        public final TxnFactoryBuilder setDirtyCheckEnabled(final boolean dirtyCheckEnabled) {
+            if (dirtyCheckEnabled == config.dirtyCheck) {
+                return this;
+            }
+
+            return new ClockTxnFactoryBuilderImpl(config.setDirtyCheckEnabled(dirtyCheckEnabled));
+        }
+
+        @Override
+        public final TxnFactoryBuilder setSpinCount(final int spinCount) {
+            if (spinCount == config.spinCount) {
+                return this;
+            }
+
+            return new ClockTxnFactoryBuilderImpl(config.setSpinCount(spinCount));
+        }
+
+        @Override
+        public final TxnFactoryBuilder setSpeculative(final boolean enabled) {
+            if (enabled == config.speculative) {
+                return this;
+            }
+
+            return new ClockTxnFactoryBuilderImpl(config.setSpeculative(enabled));
+        }
+
+        @Override
+        public final TxnFactoryBuilder setReadonly(final boolean readonly) {
+            if (readonly == config.readonly) {
+                return this;
+            }
+
+            return new ClockTxnFactoryBuilderImpl(config.setReadonly(readonly));
+        }
+
+        @Override
+        public final TxnFactoryBuilder setReadTrackingEnabled(final boolean enabled) {
+            if (enabled == config.trackReads) {
+                return this;
+            }
+
+            return new ClockTxnFactoryBuilderImpl(config.setReadTrackingEnabled(enabled));
+        }
+
+        @Override
+        public final TxnFactoryBuilder setMaxRetries(final int maxRetries) {
+            if (maxRetries == config.maxRetries) {
+                return this;
+            }
+
+            return new ClockTxnFactoryBuilderImpl(config.setMaxRetries(maxRetries));
+        }
+
+        @Override
+        public final TxnExecutor newTxnExecutor() {
+            return new ClockTxnExecutor(newTransactionFactory());
+        }
+
+        @Override
+        public final ClockTxnFactory newTransactionFactory() {
+            return new ClockTxnFactory(config, this);
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package org.multiverse.stms.clock;
+
+import org.multiverse.api.BackoffPolicy;
+import org.multiverse.api.DefaultBackoffPolicy;
+import org.multiverse.api.IsolationLevel;
+import org.multiverse.api.PropagationLevel;
+import org.multiverse.api.TraceLevel;
+import org.multiverse.api.lifecycle.TxnListener;
+
+import java.util.LinkedList;
+import java.util.List;
+
+import static java.lang.String.format;
+
+/**
+ * Contains the default configuration for all transactions created by a {@link ClockStm} (so the Tl2Stm and the
+ * NorecStm). With the TxnFactoryBuilder, this behavior can be overridden.
+ * <p/>
+ * Once the stm has been created, changes on this structure are ignored because the content of this configuration
+ * is copied.
+ *
+ * @author Peter Veentjer.
+ */
+@SuppressWarnings({"ClassWithTooManyFields"})
+public final class ClockStmConfig {
+
+    /**
+     * Contains the permanent TxnListeners that should always be executed. Null references are not allowed.
+     */
+    public List<TxnListener> permanentListeners = new LinkedList<TxnListener>();
+
+    /**
+     * The default propagation level for all transactions executed by the Stm.
+     */
+    public PropagationLevel propagationLevel = PropagationLevel.Requires;
+
+    /**
+     * The default isolation level for all transactions executed by the ClockStm. A ClockStm always validates the
+     * complete read set, so every isolation level is executed as {@link IsolationLevel#Serializable}.
+     */
+    public IsolationLevel isolationLevel = IsolationLevel.Snapshot;
+
+    /**
+     * The default behavior if blocking transactions are allowed.
+     */
+    public boolean blockingAllowed = true;
+
+    /**
+     * The default behavior for blocking transactions if they are allowed to be interrupted.
+     */
+    public boolean interruptible = false;
+
+    /**
+     * The default timeout for a transaction if it blocks. A Long.MAX_VALUE indicates that there is no timeout.
+     */
+    public long timeoutNs = Long.MAX_VALUE;
+
+    /**
+     * The default readonly behavior. Setting this to true would be quite useless.
+     */
+    public boolean readonly = false;
+
+    /**
+     * The default number of spins a transaction is allowed for a read/write/commit if something is locked.
+     * The NorecStm uses it as the number of spins on the global sequence lock before a thread yields.
+     */
+    public int spinCount = 64;
+
+    /**
+     * The default behavior for writing 'dirty' changes for an update transaction. If it is set to true, a change needs to
+     * be made. If there is no change, it will not be written (and essentially be seen as a read).
+     */
+    public boolean dirtyCheck = true;
+
+    /**
+     * The initial capacity of the read/write set of a transaction. The set grows when needed.
+     */
+    public int minimalTransactionSize = 8;
+
+    /**
+     * The default number of retries a transaction is allowed to do if a transaction fails for a read/write conflict.
+     */
+    public int maxRetries = 1000;
+
+    /**
+     * If a transaction fails for a read/write conflict it should not hammer the system by trying again and running in the same conflict
+     * The default backoff policy helps to back threads of by sleeping/yielding.
+     */
+    public BackoffPolicy backoffPolicy = DefaultBackoffPolicy.MAX_100_MS;
+
+    /**
+     * With the trace level you have control if you get output of transactions executing.
+     */
+    public TraceLevel traceLevel = TraceLevel.None;
+
+    /**
+     * If control flow errors should be reused. See the GammaStmConfig for more information.
+     */
+    public boolean controlFlowErrorsReused = true;
+
+    /**
+     * Checks if the configuration is valid.
+     *
+     * @throws IllegalStateException if the configuration isn't valid.
+     */
+    public void validate() {
+        if (timeoutNs < 0) {
+            throw new IllegalStateException(
+                    "[ClockStmConfig] timeoutNs can't be smaller than 0, " +
+                            "timeoutNs was " + timeoutNs);
+        }
+
+        if (isolationLevel == null) {
+            throw new IllegalStateException("[ClockStmConfig] isolationLevel can't be null");
+        }
+
+        if (spinCount < 0) {
+            throw new IllegalStateException(
+                    "[ClockStmConfig] spinCount can't be smaller than 0, but was " + spinCount);
+        }
+
+        if (minimalTransactionSize < 1) {
+            throw new IllegalStateException(
+                    "[ClockStmConfig] minimalTransactionSize can't be smaller than 1, but was "
+                            + minimalTransactionSize);
+        }
+
+        if (maxRetries < 0) {
+            throw new IllegalStateException(
+                    "[ClockStmConfig] maxRetries can't be smaller than 0, but was " + maxRetries);
+        }
+
+        if (backoffPolicy == null) {
+            throw new IllegalStateException("[ClockStmConfig] backoffPolicy can't be null");
+        }
+
+        if (traceLevel == null) {
+            throw new IllegalStateException("[ClockStmConfig] traceLevel can't be null");
+        }
+
+        if (propagationLevel == null) {
+            throw new IllegalStateException("[ClockStmConfig] propagationLevel can't be null");
+        }
+
+        if (permanentListeners == null) {
+            throw new IllegalStateException("[ClockStmConfig] permanentListeners can't be null");
+        }
+
+        for (int k = 0; k < permanentListeners.size(); k++) {
+            TxnListener listener = permanentListeners.get(k);
+            if (listener == null) {
+                throw new IllegalStateException(
+                        format("[ClockStmConfig] permanentListener at index %s can't be null", k));
+            }
+        }
+    }
+}
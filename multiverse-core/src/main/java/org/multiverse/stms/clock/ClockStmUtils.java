@@ -0,0 +1,51 @@
+package org.multiverse.stms.clock;
+
+import org.multiverse.api.Txn;
+import org.multiverse.api.exceptions.TxnMandatoryException;
+
+import static java.lang.String.format;
+import static org.multiverse.api.TxnThreadLocal.getThreadLocalTxn;
+
+/**
+ * Contains utility functions for the {@link ClockStm} implementations.
+ *
+ * @author Peter Veentjer.
+ */
+public final class ClockStmUtils {
+
+    public static String toDebugString(BaseClockTxnRef o) {
+        if (o == null) {
+            return "null";
+        } else {
+            return o.getClass().getName() + '@' + System.identityHashCode(o);
+        }
+    }
+
+    public static ClockTxn getRequiredThreadLocalClockTxn() {
+        final Txn tx = getThreadLocalTxn();
+
+        if (tx == null) {
+            throw new TxnMandatoryException();
+        }
+
+        return asClockTxn(tx);
+    }
+
+    public static ClockTxn asClockTxn(final Txn tx) {
+        if (tx instanceof ClockTxn) {
+            return (ClockTxn) tx;
+        }
+
+        if (tx == null) {
+            throw new NullPointerException("Txn can't be null");
+        }
+
+        tx.abort();
+        throw new ClassCastException(
+                format("Expected Txn of class %s, found %s", ClockTxn.class.getName(), tx.getClass().getName()));
+    }
+
+    //we don't want instances.
+    private ClockStmUtils() {
+    }
+}
@@ -0,0 +1,41 @@
+package org.multiverse.stms.clock;
+
+/**
+ * The transaction local content of a {@link BaseClockTxnRef}. All primitive types are stored in the long_value, just
+ * like the GammaStm does. The old values contain the values that were read; they are used for the dirty check and
+ * by the value based validation of the NorecStm.
+ *
+ * @author Peter Veentjer.
+ */
+public final class ClockTranlocal {
+
+    public BaseClockTxnRef owner;
+    //the version of the owner when it was read (only used by the Tl2Stm).
+    public long version;
+    public long long_value;
+    public long long_oldValue;
+    public Object ref_value;
+    public Object ref_oldValue;
+    public boolean isWrite;
+    public boolean isLocked;
+
+    public boolean isDirty() {
+        if (!isWrite) {
+            return false;
+        }
+
+        //noinspection ObjectEquality
+        return owner.type == ClockConstants.TYPE_REF ? ref_value != ref_oldValue : long_value != long_oldValue;
+    }
+
+    public void clear() {
+        owner = null;
+        version = 0;
+        long_value = 0;
+        long_oldValue = 0;
+        ref_value = null;
+        ref_oldValue = null;
+        isWrite = false;
+        isLocked = false;
+    }
+}
@@ -0,0 +1,688 @@
+package org.multiverse.stms.clock;
+
+import org.multiverse.api.LockMode;
+import org.multiverse.api.Txn;
+import org.multiverse.api.TxnStatus;
+import org.multiverse.api.exceptions.*;
+import org.multiverse.api.lifecycle.TxnEvent;
+import org.multiverse.api.lifecycle.TxnListener;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static java.lang.String.format;
+import static org.multiverse.stms.clock.ClockStmUtils.toDebugString;
+
+/**
+ * The base {@link Txn} of the {@link ClockStm} implementations. It contains everything the Tl2Txn and the NorecTxn
+ * have in common: the read/write set, the status handling, the blocking, the listeners and the errors. The
+ * subclasses only contain the algorithm: how a value is loaded, how the reads are validated and how a commit is
+ * published.
+ * <p/>
+ * The reads and writes are stored in an array of {@link ClockTranlocal} with an open addressing index, so lookups
+ * remain cheap for bigger transactions.
+ * <p/>
+ * Commuting functions are applied eagerly (so they are turned into a normal read and write).
+ *
+ * @author Peter Veentjer.
+ */
+@SuppressWarnings({"OverlyComplexClass", "ClassWithTooManyFields"})
+public abstract class ClockTxn implements Txn, ClockConstants {
+
+    //below this size a linear scan is cheaper than using the index.
+    private static final int LINEAR_SCAN_THRESHOLD = 4;
+
+    public final ClockStm stm;
+    public ClockTxnConfig config;
+    public int status = TX_ACTIVE;
+    public int attempt;
+    public long remainingTimeoutNs;
+    public boolean hasWrites;
+    public boolean abortOnly;
+    public ClockTranlocal[] tranlocals;
+    public int size;
+    public ArrayList<TxnListener> listeners;
+    //contains the position in the tranlocals array + 1 (so 0 is an empty slot).
+    private int[] index;
+    private int indexMask;
+
+    public ClockTxn(final ClockTxnConfig config) {
+        this.stm = config.stm;
+        config.init();
+        init(config);
+    }
+
+    public final void init(final ClockTxnConfig config) {
+        if (config == null) {
+            throw new NullPointerException();
+        }
+
+        this.config = config;
+        if (tranlocals == null || tranlocals.length < config.minimalTransactionSize) {
+            allocate(config.minimalTransactionSize);
+        }
+        hardReset();
+    }
+
+    private void allocate(final int capacity) {
+        final ClockTranlocal[] newTranlocals = new ClockTranlocal[capacity];
+        if (tranlocals != null) {
+            System.arraycopy(tranlocals, 0, newTranlocals, 0, tranlocals.length);
+        }
+        tranlocals = newTranlocals;
+
+        int indexLength = 1;
+        while (indexLength < capacity * 2) {
+            indexLength <<= 1;
+        }
+        index = new int[indexLength];
+        indexMask = indexLength - 1;
+        for (int k = 0; k < size; k++) {
+            addToIndex(k);
+        }
+    }
+
+    private void addToIndex(final int position) {
+        int slot = tranlocals[position].owner.hash & indexMask;
+        while (index[slot] != 0) {
+            slot = (slot + 1) & indexMask;
+        }
+        index[slot] = position + 1;
+    }
+
+    /**
+     * Finds the ClockTranlocal for the given ref. This method doesn't care about the state of the transaction.
+     *
+     * @param ref the ref to look for.
+     * @return the found ClockTranlocal or null if not found.
+     */
+    public final ClockTranlocal find(final BaseClockTxnRef ref) {
+        if (size <= LINEAR_SCAN_THRESHOLD) {
+            for (int k = 0; k < size; k++) {
+                final ClockTranlocal tranlocal = tranlocals[k];
+                //noinspection ObjectEquality
+                if (tranlocal.owner == ref) {
+                    return tranlocal;
+                }
+            }
+            return null;
+        }
+
+        int slot = ref.hash & indexMask;
+        for (; ;) {
+            final int position = index[slot];
+            if (position == 0) {
+                return null;
+            }
+
+            final ClockTranlocal tranlocal = tranlocals[position - 1];
+            //noinspection ObjectEquality
+            if (tranlocal.owner == ref) {
+                return tranlocal;
+            }
+            slot = (slot + 1) & indexMask;
+        }
+    }
+
+    public final ClockTranlocal openForRead(final BaseClockTxnRef ref, final int lockMode) {
+        if (status != TX_ACTIVE) {
+            throw abortOpenForReadOnBadStatus(ref);
+        }
+
+        //noinspection ObjectEquality
+        if (ref.stm != stm) {
+            throw abortOpenForReadOnBadStm(ref);
+        }
+
+        ClockTranlocal tranlocal = find(ref);
+        if (tranlocal == null) {
+            if (size == tranlocals.length) {
+                allocate(size * 2);
+            }
+
+            tranlocal = tranlocals[size];
+            if (tranlocal == null) {
+                tranlocal = new ClockTranlocal();
+                tranlocals[size] = tranlocal;
+            }
+
+            load(tranlocal, ref);
+            size++;
+            addToIndex(size - 1);
+        }
+
+        final int desiredLockMode = Math.max(lockMode, config.readLockMode.asInt());
+        if (desiredLockMode != LOCKMODE_NONE && !tranlocal.isLocked) {
+            lock(tranlocal);
+        }
+
+        return tranlocal;
+    }
+
+    public final ClockTranlocal openForWrite(final BaseClockTxnRef ref, final int lockMode) {
+        if (status != TX_ACTIVE) {
+            throw abortOpenForWriteOnBadStatus(ref);
+        }
+
+        if (config.readonly) {
+            throw abortOpenForWriteOnReadonly(ref);
+        }
+
+        final ClockTranlocal tranlocal = openForRead(ref, Math.max(lockMode, config.writeLockMode.asInt()));
+        if (!tranlocal.isWrite) {
+            tranlocal.isWrite = true;
+            hasWrites = true;
+        }
+        return tranlocal;
+    }
+
+    /**
+     * Loads the value of the ref in the tranlocal. The read and the old value both need to be set and the read needs
+     * to be consistent with the earlier reads of this transaction.
+     *
+     * @param tranlocal the tranlocal to load the value in.
+     * @param ref       the ref to read.
+     * @throws ReadWriteConflict if the value can't be read consistently.
+     */
+    protected abstract void load(ClockTranlocal tranlocal, BaseClockTxnRef ref);
+
+    /**
+     * Locks the tranlocal for a LockMode other than None. After this call tranlocal.isLocked should be true.
+     *
+     * @param tranlocal the tranlocal to lock.
+     * @throws ReadWriteConflict if the lock can't be acquired.
+     */
+    protected abstract void lock(ClockTranlocal tranlocal);
+
+    /**
+     * Releases all locks owned by this transaction without publishing anything. Called on abort.
+     */
+    protected abstract void releaseLocks();
+
+    /**
+     * Makes sure that the commit of an active transaction can't fail anymore, so acquires the needed locks and
+     * validates the reads.
+     */
+    protected abstract void doPrepare();
+
+    /**
+     * Commits an active or prepared transaction: the dirty writes are published and the locks released.
+     */
+    protected abstract void doCommit();
+
+    /**
+     * Reads the global clock at the start of an attempt.
+     */
+    protected abstract void begin();
+
+    /**
+     * Checks if one of the objects read by this transaction has been changed. Used by the blocking mechanism.
+     *
+     * @return true if a change was found.
+     */
+    public abstract boolean hasReadChanged();
+
+    /**
+     * Returns the LockMode this transaction has on the given ref.
+     *
+     * @param ref the ref.
+     * @return the LockMode.
+     */
+    public final LockMode getLockMode(final BaseClockTxnRef ref) {
+        final ClockTranlocal tranlocal = find(ref);
+        return tranlocal != null && tranlocal.isLocked ? LockMode.Exclusive : LockMode.None;
+    }
+
+    @Override
+    public final void prepare() {
+        if (status == TX_PREPARED) {
+            return;
+        }
+
+        if (status != TX_ACTIVE) {
+            throw abortPrepareOnBadStatus();
+        }
+
+        if (abortOnly) {
+            throw abortPrepareOnAbortOnly();
+        }
+
+        notifyListeners(TxnEvent.PrePrepare);
+        doPrepare();
+        status = TX_PREPARED;
+    }
+
+    @Override
+    public final void commit() {
+        if (status == TX_COMMITTED) {
+            return;
+        }
+
+        if (status != TX_ACTIVE && status != TX_PREPARED) {
+            throw abortCommitOnBadStatus();
+        }
+
+        if (abortOnly) {
+            throw abortCommitOnAbortOnly();
+        }
+
+        if (status == TX_ACTIVE) {
+            notifyListeners(TxnEvent.PrePrepare);
+        }
+
+        doCommit();
+        status = TX_COMMITTED;
+        notifyListeners(TxnEvent.PostCommit);
+    }
+
+    /**
+     * Checks if there are writes that contain a change. Writes without a change are turned into reads if dirty
+     * checking is enabled.
+     *
+     * @return true if there is at least one write that needs to be written.
+     */
+    protected final boolean hasDirtyWrites() {
+        if (!hasWrites) {
+            return false;
+        }
+
+        boolean dirty = false;
+        for (int k = 0; k < size; k++) {
+            final ClockTranlocal tranlocal = tranlocals[k];
+            if (!tranlocal.isWrite) {
+                continue;
+            }
+
+            if (config.dirtyCheck && !tranlocal.isDirty()) {
+                tranlocal.isWrite = false;
+                continue;
+            }
+
+            dirty = true;
+        }
+        return dirty;
+    }
+
+    @Override
+    public final void abort() {
+        if (status == TX_ABORTED) {
+            return;
+        }
+
+        if (status == TX_COMMITTED) {
+            throw failAbortOnAlreadyCommitted();
+        }
+
+        releaseLocks();
+        status = TX_ABORTED;
+        notifyListeners(TxnEvent.PostAbort);
+    }
+
+    @Override
+    public final void retry() {
+        if (status != TX_ACTIVE) {
+            throw abortRetryOnBadStatus();
+        }
+
+        if (!config.blockingAllowed) {
+            throw abortRetryOnNoBlockingAllowed();
+        }
+
+        if (size == 0) {
+            throw abortRetryOnNoRetryPossible();
+        }
+
+        //the reads are kept, so they can be used by the awaitUpdate.
+        abort();
+        throw config.controlFlowErrorsReused ? RetryError.INSTANCE : new RetryError(true);
+    }
+
+    public final void awaitUpdate() {
+        if (config.timeoutNs == Long.MAX_VALUE) {
+            stm.retryMonitor.await(this, Long.MAX_VALUE, config.interruptible);
+            return;
+        }
+
+        remainingTimeoutNs = stm.retryMonitor.await(this, remainingTimeoutNs, config.interruptible);
+        if (remainingTimeoutNs < 0) {
+            throw new RetryTimeoutException(
+                    format("[%s] Txn has timed out with a total timeout of %s ns",
+                            config.familyName, config.timeoutNs));
+        }
+    }
+
+    /**
+     * Does a hard reset of an aborted/committed transaction. This means that it is made ready to be used by another
+     * transaction configuration.
+     */
+    public final void hardReset() {
+        clear();
+        attempt = 1;
+        remainingTimeoutNs = config.timeoutNs;
+        begin();
+        status = TX_ACTIVE;
+    }
+
+    /**
+     * Does a soft reset of an aborted/committed transaction. This method is called when the execution of a transaction
+     * fails, but needs to be retried again.
+     *
+     * @return if another attempt can be made, false otherwise.
+     */
+    public final boolean softReset() {
+        if (attempt >= config.maxRetries) {
+            return false;
+        }
+
+        clear();
+        attempt++;
+        begin();
+        status = TX_ACTIVE;
+        return true;
+    }
+    private void clear() {
+        if (size > 0) {
+            if (size * 4 > index.length) {
+                Arrays.fill(index, 0);
+            } else {
+                //only a few slots are used, so they are removed one by one.
+                for (int k = 0; k < size; k++) {
+                    int slot = tranlocals[k].owner.hash & indexMask;
+                    while (index[slot] != k + 1) {
+                        slot = (slot + 1) & indexMask;
+                    }
+                    index[slot] = 0;
+                }
+            }
+
+            for (int k = 0; k < size; k++) {
+                tranlocals[k].clear();
+            }
+            size = 0;
+        }
+
+        hasWrites = false;
+        abortOnly = false;
+        if (listeners != null) {
+            listeners.clear();
+        }
+    }
+
+    private void notifyListeners(final TxnEvent event) {
+        if (listeners != null) {
+            boolean abort = true;
+            try {
+                for (int k = 0; k < listeners.size(); k++) {
+                    listeners.get(k).notify(this, event);
+                }
+                abort = false;
+            } finally {
+                if (abort) {
+                    abortIfAlive();
+                }
+            }
+        }
+
+        final ArrayList<TxnListener> permanentListeners = config.permanentListeners;
+        if (permanentListeners != null) {
+            boolean abort = true;
+            try {
+                for (int k = 0; k < permanentListeners.size(); k++) {
+                    permanentListeners.get(k).notify(this, event);
+                }
+                abort = false;
+            } finally {
+                if (abort) {
+                    abortIfAlive();
+                }
+            }
+        }
+    }
+
+    @Override
+    public void register(final TxnListener listener) {
+        if (listener == null) {
+            abortIfAlive();
+            throw new NullPointerException(
+                    format("[%s] Failed to execute Txn.register, reason: the listener is null",
+                            config.familyName));
+        }
+
+        if (status != TX_ACTIVE) {
+            throw abortRegisterOnBadStatus();
+        }
+
+        if (listeners == null) {
+            listeners = new ArrayList<TxnListener>(2);
+        }
+
+        listeners.add(listener);
+    }
+
+    public final boolean isAlive() {
+        return status == TX_ACTIVE || status == TX_PREPARED;
+    }
+
+    public final void abortIfAlive() {
+        if (isAlive()) {
+            abort();
+        }
+    }
+
+    @Override
+    public ClockTxnConfig getConfig() {
+        return config;
+    }
+
+    @Override
+    public TxnStatus getStatus() {
+        switch (status) {
+            case TX_ACTIVE:
+                return TxnStatus.Active;
+            case TX_PREPARED:
+                return TxnStatus.Prepared;
+            case TX_COMMITTED:
+                return TxnStatus.Committed;
+            case TX_ABORTED:
+                return TxnStatus.Aborted;
+            default:
+                throw new IllegalStateException();
+        }
+    }
+
+    @Override
+    public int getAttempt() {
+        return attempt;
+    }
+
+    @Override
+    public long getRemainingTimeoutNs() {
+        return remainingTimeoutNs;
+    }
+
+    @Override
+    public boolean isAbortOnly() {
+        switch (status) {
+            case TX_ACTIVE:
+                return abortOnly;
+            case TX_PREPARED:
+                return abortOnly;
+            case TX_COMMITTED:
+                throw new DeadTxnException(
+                        format("[%s] Failed to execute Txn.isAbortOnly, reason: the transaction is committed",
+                                config.familyName));
+            case TX_ABORTED:
+                throw new DeadTxnException(
+                        format("[%s] Failed to execute Txn.isAbortOnly, reason: the transaction is aborted",
+                                config.familyName));
+            default:
+                throw new IllegalStateException();
+        }
+    }
+
+    @Override
+    public void setAbortOnly() {
+        switch (status) {
+            case TX_ACTIVE:
+                abortOnly = true;
+                break;
+            case TX_PREPARED:
+                abort();
+                throw new PreparedTxnException(
+                        format("[%s] Failed to execute Txn.setAbortOnly, reason: the transaction is prepared",
+                                config.familyName));
+            case TX_COMMITTED:
+                throw new DeadTxnException(
+                        format("[%s] Failed to execute Txn.setAbortOnly, reason: the transaction is committed",
+                                config.familyName));
+            case TX_ABORTED:
+                throw new DeadTxnException(
+                        format("[%s] Failed to execute Txn.setAbortOnly, reason: the transaction is aborted",
+                                config.familyName));
+            default:
+                throw new IllegalStateException();
+        }
+    }
+
+    // ============================ errors =====================================
+
+    public ReadWriteConflict abortOnReadWriteConflict(final BaseClockTxnRef ref) {
+        abortIfAlive();
+
+        if (attempt == config.maxRetries || !config.controlFlowErrorsReused) {
+            return new ReadWriteConflict(
+                    format("[%s] Failed transaction, reason: object [%s] contains a read/write-conflict",
+                            config.familyName, toDebugString(ref)));
+        } else {
+            return ReadWriteConflict.INSTANCE;
+        }
+    }
+
+    public DeadTxnException failAbortOnAlreadyCommitted() {
+        return new DeadTxnException(
+                format("[%s] Failed to execute transaction.abort, reason: the transaction is already committed",
+                        config.familyName));
+    }
+
+    public StmMismatchException abortOpenForReadOnBadStm(final BaseClockTxnRef ref) {
+        abortIfAlive();
+        return new StmMismatchException(
+                format("[%s] Failed to execute TxnRef.openForRead '%s', reason: the stm the ref was created " +
+                        "with is a different stm than the stm of the transaction",
+                        config.familyName, toDebugString(ref)));
+    }
+
+    public NullPointerException abortOpenForReadOnNullLockMode(final BaseClockTxnRef ref) {
+        abortIfAlive();
+        return new NullPointerException(
+                format("[%s] Failed to execute TxnRef.openForRead '%s', reason: the LockMode is null",
+                        config.familyName, toDebugString(ref)));
+    }
+
+    public NullPointerException abortAcquireOnNullLockMode(final BaseClockTxnRef ref) {
+        abortIfAlive();
+        return new NullPointerException(
+                format("[%s] Failed to execute TxnLock.acquire '%s', reason: the LockMode is null",
+                        config.familyName, toDebugString(ref)));
+    }
+
+    public NullPointerException abortOnNullFunction(final BaseClockTxnRef ref) {
+        abortIfAlive();
+        return new NullPointerException(
+                format("[%s] Failed to execute an alter or commute on '%s', reason: the function is null",
+                        config.familyName, toDebugString(ref)));
+    }
+
+    public IllegalTxnStateException abortOpenForReadOnBadStatus(final BaseClockTxnRef ref) {
+        return abortOnBadStatus(format("TxnRef.openForRead '%s'", toDebugString(ref)));
+    }
+
+    public IllegalTxnStateException abortOpenForWriteOnBadStatus(final BaseClockTxnRef ref) {
+        return abortOnBadStatus(format("TxnRef.openForWrite '%s'", toDebugString(ref)));
+    }
+
+    public IllegalTxnStateException abortRetryOnBadStatus() {
+        return abortOnBadStatus("Txn.retry");
+    }
+
+    public IllegalTxnStateException abortRegisterOnBadStatus() {
+        return abortOnBadStatus("Txn.register");
+    }
+
+    private IllegalTxnStateException abortOnBadStatus(final String operation) {
+        switch (status) {
+            case TX_PREPARED:
+                abort();
+                return new PreparedTxnException(
+                        format("[%s] Failed to execute %s, reason: the transaction is prepared",
+                                config.familyName, operation));
+            case TX_ABORTED:
+                return new DeadTxnException(
+                        format("[%s] Failed to execute %s, reason: the transaction is aborted",
+                                config.familyName, operation));
+            case TX_COMMITTED:
+                return new DeadTxnException(
+                        format("[%s] Failed to execute %s, reason: the transaction is committed",
+                                config.familyName, operation));
+            default:
+                throw new IllegalStateException();
+        }
+    }
+
+    public ReadonlyException abortOpenForWriteOnReadonly(final BaseClockTxnRef ref) {
+        abortIfAlive();
+        return new ReadonlyException(
+                format("[%s] Failed to TxnRef.openForWrite '%s', reason: the transaction is readonly",
+                        config.familyName, toDebugString(ref)));
+    }
+
+    public RetryNotPossibleException abortRetryOnNoRetryPossible() {
+        abortIfAlive();
+        return new RetryNotPossibleException(
+                format("[%s] Failed to execute TxnRef.retry, reason: there are no tracked reads",
+                        config.familyName));
+    }
+
+    public RetryNotAllowedException abortRetryOnNoBlockingAllowed() {
+        abortIfAlive();
+        return new RetryNotAllowedException(
+                format("[%s] Failed to execute TxnRef.retry, reason: the transaction doesn't allow blocking",
+                        config.familyName));
+    }
+
+    public IllegalTxnStateException abortPrepareOnBadStatus() {
+        switch (status) {
+            case TX_ABORTED:
+                return new DeadTxnException(
+                        format("[%s] Failed to execute Txn.prepare, reason: the transaction already is aborted",
+                                config.familyName));
+            case TX_COMMITTED:
+                return new DeadTxnException(
+                        format("[%s] Failed to execute Txn.prepare, reason: the transaction already is committed",
+                                config.familyName));
+            default:
+                throw new IllegalStateException();
+        }
+    }
+
+    public AbortOnlyException abortPrepareOnAbortOnly() {
+        abortIfAlive();
+        return new AbortOnlyException(
+                format("[%s] Failed to execute transaction.prepare, reason: the transaction was configured as abortOnly",
+                        config.familyName));
+    }
+
+    public AbortOnlyException abortCommitOnAbortOnly() {
+        abortIfAlive();
+        return new AbortOnlyException(
+                format("[%s] Failed to execute transaction.commit, reason: the transaction was configured as abortOnly",
+                        config.familyName));
+    }
+
+    public IllegalTxnStateException abortCommitOnBadStatus() {
+        abortIfAlive();
+        return new DeadTxnException(
+                format("[%s] Failed to execute Txn.commit, reason: the transaction already is aborted",
+                        config.familyName));
+    }
+}
@@ -0,0 +1,244 @@
+package org.multiverse.stms.clock;
+
+import org.multiverse.api.LockMode;
+import org.multiverse.api.Txn;
+import org.multiverse.api.functions.BooleanFunction;
+import org.multiverse.api.predicates.BooleanPredicate;
+import org.multiverse.api.references.TxnBoolean;
+
+import static org.multiverse.stms.gamma.GammaStmUtils.booleanAsLong;
+import static org.multiverse.stms.gamma.GammaStmUtils.longAsBoolean;
+import static org.multiverse.stms.clock.ClockStmUtils.asClockTxn;
+import static org.multiverse.stms.clock.ClockStmUtils.getRequiredThreadLocalClockTxn;
+
+/**
+ * The {@link TxnBoolean} implementation shared by the {@link ClockStm} implementations.
+ *
+ * This code is generated.
+ *
+ * @author Peter Veentjer.
+ */
+@SuppressWarnings({"OverlyComplexClass"})
+public class ClockTxnBoolean extends BaseClockTxnRef implements TxnBoolean {
+
+    public ClockTxnBoolean(final ClockStm stm) {
+        this(stm, false);
+    }
+
+    public ClockTxnBoolean(final ClockStm stm, final boolean value) {
+        super(stm, TYPE_BOOLEAN);
+        this.long_value = booleanAsLong(value);
+    }
+
+    @Override
+    public final boolean get() {
+        return get(getRequiredThreadLocalClockTxn());
+    }
+
+    @Override
+    public final boolean getAndLock(final LockMode lockMode) {
+        return getAndLock(getRequiredThreadLocalClockTxn(), lockMode);
+    }
+
+    @Override
+    public final boolean get(final Txn tx) {
+        return longAsBoolean(getLong(asClockTxn(tx), LockMode.None));
+    }
+
+    @Override
+    public final boolean getAndLock(final Txn tx, final LockMode lockMode) {
+        return longAsBoolean(getLong(asClockTxn(tx), lockMode));
+    }
+
+    @Override
+    public final boolean set(final boolean value) {
+        return set(getRequiredThreadLocalClockTxn(), value);
+    }
+
+    @Override
+    public final boolean setAndLock(final boolean value, final LockMode lockMode) {
+        return setAndLock(getRequiredThreadLocalClockTxn(), value, lockMode);
+    }
+
+    @Override
+    public final boolean set(final Txn tx, final boolean value) {
+        return longAsBoolean(setLong(asClockTxn(tx), LockMode.None, booleanAsLong(value), false));
+    }
+
+    @Override
+    public final boolean setAndLock(final Txn tx, final boolean value, final LockMode lockMode) {
+        return longAsBoolean(setLong(asClockTxn(tx), lockMode, booleanAsLong(value), false));
+    }
+
+    @Override
+    public final boolean getAndSet(final boolean value) {
+        return getAndSet(getRequiredThreadLocalClockTxn(), value);
+    }
+
+    @Override
+    public final boolean getAndSetAndLock(final boolean value, final LockMode lockMode) {
+        return getAndSetAndLock(getRequiredThreadLocalClockTxn(), value, lockMode);
+    }
+
+    @Override
+    public final boolean getAndSet(final Txn tx, final boolean value) {
+        return longAsBoolean(setLong(asClockTxn(tx), LockMode.None, booleanAsLong(value), true));
+    }
+
+    @Override
+    public final boolean getAndSetAndLock(final Txn tx, final boolean value, final LockMode lockMode) {
+        return longAsBoolean(setLong(asClockTxn(tx), lockMode, booleanAsLong(value), true));
+    }
+
+    @Override
+    public final boolean atomicGet() {
+        return longAsBoolean(atomicGetLong());
+    }
+
+    @Override
+    public final boolean atomicWeakGet() {
+        return longAsBoolean(long_value);
+    }
+
+    @Override
+    public final boolean atomicSet(final boolean newValue) {
+        return longAsBoolean(atomicSetLong(booleanAsLong(newValue), false));
+    }
+
+    @Override
+    public final boolean atomicGetAndSet(final boolean newValue) {
+        return longAsBoolean(atomicSetLong(booleanAsLong(newValue), true));
+    }
+
+    @Override
+    public final void commute(final BooleanFunction function) {
+        commute(getRequiredThreadLocalClockTxn(), function);
+    }
+
+    @Override
+    public final void commute(final Txn tx, final BooleanFunction function) {
+        //a ClockStm has no deferred commuting functions, they are executed immediately.
+        alter(asClockTxn(tx), function, false);
+    }
+
+    @Override
+    public final boolean atomicAlterAndGet(final BooleanFunction function) {
+        return atomicAlter(function, false);
+    }
+
+    @Override
+    public final boolean alterAndGet(final BooleanFunction function) {
+        return alterAndGet(getRequiredThreadLocalClockTxn(), function);
+    }
+
+    @Override
+    public final boolean alterAndGet(final Txn tx, final BooleanFunction function) {
+        return alter(asClockTxn(tx), function, false);
+    }
+
+    @Override
+    public final boolean atomicGetAndAlter(final BooleanFunction function) {
+        return atomicAlter(function, true);
+    }
+
+    @Override
+    public final boolean getAndAlter(final BooleanFunction function) {
+        return getAndAlter(getRequiredThreadLocalClockTxn(), function);
+    }
+
+    @Override
+    public final boolean getAndAlter(final Txn tx, final BooleanFunction function) {
+        return alter(asClockTxn(tx), function, true);
+    }
+
+    private boolean alter(final ClockTxn tx, final BooleanFunction function, final boolean returnOld) {
+        if (function == null) {
+            throw tx.abortOnNullFunction(this);
+        }
+
+        final ClockTranlocal tranlocal = tx.openForWrite(this, LOCKMODE_NONE);
+        final boolean oldValue = longAsBoolean(tranlocal.long_value);
+        boolean abort = true;
+        try {
+            final boolean newValue = function.call(oldValue);
+            tranlocal.long_value = booleanAsLong(newValue);
+            abort = false;
+            return returnOld ? oldValue : newValue;
+        } finally {
+            if (abort) {
+                tx.abortIfAlive();
+            }
+        }
+    }
+
+    private boolean atomicAlter(final BooleanFunction function, final boolean returnOld) {
+        if (function == null) {
+            throw new NullPointerException("Function can't be null");
+        }
+
+        final long lockValue = lockAtomic();
+        boolean changed = false;
+        try {
+            final boolean oldValue = longAsBoolean(long_value);
+            final boolean newValue = function.call(oldValue);
+            final long newLongValue = booleanAsLong(newValue);
+            changed = long_value != newLongValue;
+            long_value = newLongValue;
+            return returnOld ? oldValue : newValue;
+        } finally {
+            unlockAtomic(lockValue, changed);
+        }
+    }
+
+    @Override
+    public final boolean atomicCompareAndSet(final boolean expectedValue, final boolean newValue) {
+        return atomicCompareAndSetLong(booleanAsLong(expectedValue), booleanAsLong(newValue));
+    }
+
+    @Override
+    public final void await(final boolean value) {
+        await(getRequiredThreadLocalClockTxn(), value);
+    }
+
+    @Override
+    public final void await(final Txn tx, final boolean value) {
+        awaitLong(asClockTxn(tx), booleanAsLong(value));
+    }
+
+    @Override
+    public final void await(final BooleanPredicate predicate) {
+        await(getRequiredThreadLocalClockTxn(), predicate);
+    }
+
+    @Override
+    public final void await(final Txn tx, final BooleanPredicate predicate) {
+        final ClockTxn clockTxn = asClockTxn(tx);
+        if (predicate == null) {
+            clockTxn.abortIfAlive();
+            throw new NullPointerException("Predicate can't be null");
+        }
+
+        final ClockTranlocal tranlocal = clockTxn.openForRead(this, LOCKMODE_NONE);
+        boolean abort = true;
+        try {
+            if (!predicate.evaluate(longAsBoolean(tranlocal.long_value))) {
+                clockTxn.retry();
+            }
+            abort = false;
+        } finally {
+            if (abort) {
+                clockTxn.abortIfAlive();
+            }
+        }
+    }
+
+    @Override
+    public final String toString(final Txn tx) {
+        return String.valueOf(get(tx));
+    }
+
+    @Override
+    public final String atomicToString() {
+        return String.valueOf(atomicGet());
+    }
+}
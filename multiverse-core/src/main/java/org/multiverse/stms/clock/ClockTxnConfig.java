@@ -0,0 +1,417 @@
+package org.multiverse.stms.clock;
+
+import org.multiverse.api.BackoffPolicy;
+import org.multiverse.api.IsolationLevel;
+import org.multiverse.api.LockMode;
+import org.multiverse.api.PropagationLevel;
+import org.multiverse.api.TraceLevel;
+import org.multiverse.api.TxnConfig;
+import org.multiverse.api.exceptions.IllegalTxnFactoryException;
+import org.multiverse.api.lifecycle.TxnListener;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.String.format;
+import static java.util.Collections.EMPTY_LIST;
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * A configuration object that contains the configuration for a {@link ClockTxn}.
+ * <p/>
+ * ClockTxnConfig object is considered to be immutable.
+ *
+ * @author Peter Veentjer.
+ */
+@SuppressWarnings({"ClassWithTooManyFields"})
+public final class ClockTxnConfig implements TxnConfig {
+
+    public final static AtomicLong idGenerator = new AtomicLong();
+
+    public final ClockStm stm;
+    public PropagationLevel propagationLevel;
+    public IsolationLevel isolationLevel;
+    public LockMode readLockMode;
+    public LockMode writeLockMode;
+    public String familyName;
+    public boolean isAnonymous;
+    public boolean interruptible;
+    public boolean readonly;
+    public int spinCount;
+    public boolean dirtyCheck;
+    public int minimalTransactionSize;
+    public boolean trackReads;
+    public boolean blockingAllowed;
+    public int maxRetries;
+    public boolean speculative;
+    public BackoffPolicy backoffPolicy;
+    public long timeoutNs;
+    public TraceLevel traceLevel;
+    public boolean controlFlowErrorsReused;
+    public ArrayList<TxnListener> permanentListeners;
+
+    public ClockTxnConfig(ClockStm stm) {
+        this(stm, new ClockStmConfig());
+    }
+
+    public ClockTxnConfig(ClockStm stm, ClockStmConfig config) {
+        this.stm = stm;
+        this.interruptible = config.interruptible;
+        this.readonly = config.readonly;
+        this.spinCount = config.spinCount;
+        this.readLockMode = LockMode.None;
+        this.writeLockMode = LockMode.None;
+        this.dirtyCheck = config.dirtyCheck;
+        this.minimalTransactionSize = config.minimalTransactionSize;
+        this.trackReads = true;
+        this.blockingAllowed = config.blockingAllowed;
+        this.maxRetries = config.maxRetries;
+        this.speculative = false;
+        this.backoffPolicy = config.backoffPolicy;
+        this.timeoutNs = config.timeoutNs;
+        this.traceLevel = config.traceLevel;
+        this.isolationLevel = config.isolationLevel;
+        this.propagationLevel = config.propagationLevel;
+        this.controlFlowErrorsReused = config.controlFlowErrorsReused;
+        this.familyName = "anonymoustransaction-" + idGenerator.incrementAndGet();
+        this.isAnonymous = true;
+        if (config.permanentListeners.isEmpty()) {
+            this.permanentListeners = null;
+        } else {
+            this.permanentListeners = new ArrayList<TxnListener>(config.permanentListeners);
+        }
+    }
+
+    /**
+     * Makes a clone of the given ClockTxnConfig.
+     *
+     * @param config the ClockTxnConfig to clone.
+     */
+    private ClockTxnConfig(ClockTxnConfig config) {
+        this.stm = config.stm;
+        this.propagationLevel = config.propagationLevel;
+        this.isolationLevel = config.isolationLevel;
+        this.readLockMode = config.readLockMode;
+        this.writeLockMode = config.writeLockMode;
+        this.familyName = config.familyName;
+        this.isAnonymous = config.isAnonymous;
+        this.interruptible = config.interruptible;
+        this.readonly = config.readonly;
+        this.spinCount = config.spinCount;
+        this.dirtyCheck = config.dirtyCheck;
+        this.minimalTransactionSize = config.minimalTransactionSize;
+        this.trackReads = config.trackReads;
+        this.blockingAllowed = config.blockingAllowed;
+        this.maxRetries = config.maxRetries;
+        this.speculative = config.speculative;
+        this.backoffPolicy = config.backoffPolicy;
+        this.timeoutNs = config.timeoutNs;
+        this.traceLevel = config.traceLevel;
+        this.controlFlowErrorsReused = config.controlFlowErrorsReused;
+        this.permanentListeners = config.permanentListeners;
+    }
+
+    @Override
+    public ClockStm getStm() {
+        return stm;
+    }
+
+    @Override
+    public boolean isControlFlowErrorsReused() {
+        return controlFlowErrorsReused;
+    }
+
+    @Override
+    public IsolationLevel getIsolationLevel() {
+        return isolationLevel;
+    }
+
+    @Override
+    public long getTimeoutNs() {
+        return timeoutNs;
+    }
+
+    @Override
+    public PropagationLevel getPropagationLevel() {
+        return propagationLevel;
+    }
+
+    @Override
+    public TraceLevel getTraceLevel() {
+        return traceLevel;
+    }
+
+    @Override
+    public BackoffPolicy getBackoffPolicy() {
+        return backoffPolicy;
+    }
+
+    @Override
+    public boolean isSpeculative() {
+        return speculative;
+    }
+
+    @Override
+    public String getFamilyName() {
+        return familyName;
+    }
+
+    @Override
+    public boolean isReadonly() {
+        return readonly;
+    }
+
+    @Override
+    public int getSpinCount() {
+        return spinCount;
+    }
+
+    @Override
+    public LockMode getReadLockMode() {
+        return readLockMode;
+    }
+
+    @Override
+    public LockMode getWriteLockMode() {
+        return writeLockMode;
+    }
+
+    @Override
+    public boolean isDirtyCheckEnabled() {
+        return dirtyCheck;
+    }
+
+    @Override
+    public boolean isReadTrackingEnabled() {
+        return trackReads;
+    }
+
+    @Override
+    public boolean isBlockingAllowed() {
+        return blockingAllowed;
+    }
+
+    @Override
+    public boolean isInterruptible() {
+        return interruptible;
+    }
+
+    @Override
+    public List<TxnListener> getPermanentListeners() {
+        if (permanentListeners == null) {
+            return EMPTY_LIST;
+        }
+        return unmodifiableList(permanentListeners);
+    }
+
+    @Override
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    public ClockTxnConfig init() {
+        if (!trackReads) {
+            //the read set is needed for the validation.
+            String msg = format("[%s] The %s requires read tracking to be enabled",
+                    familyName, stm.getClass().getSimpleName());
+            throw new IllegalTxnFactoryException(msg);
+        }
+
+        if (readLockMode.asInt() > writeLockMode.asInt()) {
+            String msg = format("[%s] The used write LockMode [%s] should be equal or higher than the read LockMode [%s]",
+                    familyName, readLockMode, writeLockMode);
+            throw new IllegalTxnFactoryException(msg);
+        }
+
+        return this;
+    }
+
+    public ClockTxnConfig setTimeoutNs(long timeoutNs) {
+        if (timeoutNs < 0) {
+            throw new IllegalArgumentException("timeoutNs can't be smaller than 0");
+        }
+
+        ClockTxnConfig config = new ClockTxnConfig(this);
+        config.timeoutNs = timeoutNs;
+        return config;
+    }
+
+    public ClockTxnConfig setFamilyName(String familyName) {
+        if (familyName == null) {
+            throw new NullPointerException("familyName can't be null");
+        }
+
+        ClockTxnConfig config = new ClockTxnConfig(this);
+        config.isAnonymous = false;
+        config.familyName = familyName;
+        return config;
+    }
+
+    public ClockTxnConfig setMaxRetries(int maxRetries) {
+        if (maxRetries < 0) {
+            throw new IllegalArgumentException("maxRetries can't be smaller than 0");
+        }
+
+        ClockTxnConfig config = new ClockTxnConfig(this);
+        config.maxRetries = maxRetries;
+        return config;
+    }
+
+    public ClockTxnConfig setReadTrackingEnabled(boolean trackReads) {
+        ClockTxnConfig config = new ClockTxnConfig(this);
+        config.trackReads = trackReads;
+        return config;
+    }
+
+    public ClockTxnConfig setSpeculative(boolean speculative) {
+        ClockTxnConfig config = new ClockTxnConfig(this);
+        config.speculative = speculative;
+        return config;
+    }
+
+    public ClockTxnConfig setReadonly(boolean readonly) {
+        ClockTxnConfig config = new ClockTxnConfig(this);
+        config.readonly = readonly;
+        return config;
+    }
+
+    public ClockTxnConfig setDirtyCheckEnabled(boolean dirtyCheck) {
+        ClockTxnConfig config = new ClockTxnConfig(this);
+        config.dirtyCheck = dirtyCheck;
+        return config;
+    }
+
+    public ClockTxnConfig setBlockingAllowed(boolean blockingAllowed) {
+        ClockTxnConfig config = new ClockTxnConfig(this);
+        config.blockingAllowed = blockingAllowed;
+        return config;
+    }
+
+    public ClockTxnConfig setInterruptible(boolean interruptible) {
+        ClockTxnConfig config = new ClockTxnConfig(this);
+        config.interruptible = interruptible;
+        return config;
+    }
+
+    public ClockTxnConfig setControlFlowErrorsReused(boolean controlFlowErrorsReused) {
+        ClockTxnConfig config = new ClockTxnConfig(this);
+        config.controlFlowErrorsReused = controlFlowErrorsReused;
+        return config;
+    }
+
+    public ClockTxnConfig setSpinCount(int spinCount) {
+        if (spinCount < 0) {
+            throw new IllegalArgumentException("spinCount can't be smaller than 0");
+        }
+
+        ClockTxnConfig config = new ClockTxnConfig(this);
+        config.spinCount = spinCount;
+        return config;
+    }
+
+    public ClockTxnConfig setBackoffPolicy(BackoffPolicy backoffPolicy) {
+        if (backoffPolicy == null) {
+            throw new NullPointerException("backoffPolicy can't be null");
+        }
+
+        ClockTxnConfig config = new ClockTxnConfig(this);
+        config.backoffPolicy = backoffPolicy;
+        return config;
+    }
+
+    public ClockTxnConfig setTraceLevel(TraceLevel traceLevel) {
+        if (traceLevel == null) {
+            throw new NullPointerException("traceLevel can't be null");
+        }
+
+        ClockTxnConfig config = new ClockTxnConfig(this);
+        config.traceLevel = traceLevel;
+        return config;
+    }
+
+    public ClockTxnConfig setPropagationLevel(PropagationLevel propagationLevel) {
+        if (propagationLevel == null) {
+            throw new NullPointerException();
+        }
+
+        ClockTxnConfig config = new ClockTxnConfig(this);
+        config.propagationLevel = propagationLevel;
+        return config;
+    }
+
+    public ClockTxnConfig setIsolationLevel(IsolationLevel isolationLevel) {
+        if (isolationLevel == null) {
+            throw new NullPointerException();
+        }
+
+        ClockTxnConfig config = new ClockTxnConfig(this);
+        config.isolationLevel = isolationLevel;
+        return config;
+    }
+
+    public ClockTxnConfig setWriteLockMode(LockMode writeLockMode) {
+        if (writeLockMode == null) {
+            throw new NullPointerException();
+        }
+
+        ClockTxnConfig config = new ClockTxnConfig(this);
+        config.writeLockMode = writeLockMode;
+        return config;
+    }
+
+    public ClockTxnConfig setReadLockMode(LockMode readLockMode) {
+        if (readLockMode == null) {
+            throw new NullPointerException();
+        }
+
+        ClockTxnConfig config = new ClockTxnConfig(this);
+        config.readLockMode = readLockMode;
+        if (readLockMode.asInt() > config.writeLockMode.asInt()) {
+            config.writeLockMode = readLockMode;
+        }
+        return config;
+    }
+
+    public ClockTxnConfig addPermanentListener(TxnListener listener) {
+        if (listener == null) {
+            throw new NullPointerException();
+        }
+
+        //we need to clone the list since the ClockTxnConfig is considered to be immutable
+        ArrayList<TxnListener> newPermanentListeners = new ArrayList<TxnListener>();
+        if (permanentListeners != null) {
+            newPermanentListeners.addAll(permanentListeners);
+        }
+        newPermanentListeners.add(listener);
+
+        ClockTxnConfig config = new ClockTxnConfig(this);
+        config.permanentListeners = newPermanentListeners;
+        return config;
+    }
+
+    @Override
+    public String toString() {
+        return "ClockTxnConfig{" +
+                "propagationLevel=" + propagationLevel +
+                ", isolationLevel=" + isolationLevel +
+                ", readLockMode=" + readLockMode +
+                ", writeLockMode=" + writeLockMode +
+                ", familyName='" + familyName + '\'' +
+                ", isAnonymous=" + isAnonymous +
+                ", interruptible=" + interruptible +
+                ", readonly=" + readonly +
+                ", spinCount=" + spinCount +
+                ", dirtyCheck=" + dirtyCheck +
+                ", minimalTransactionSize=" + minimalTransactionSize +
+                ", trackReads=" + trackReads +
+                ", blockingAllowed=" + blockingAllowed +
+                ", maxRetries=" + maxRetries +
+                ", backoffPolicy=" + backoffPolicy +
+                ", timeoutNs=" + timeoutNs +
+                ", traceLevel=" + traceLevel +
+                ", controlFlowErrorsReused=" + controlFlowErrorsReused +
+                ", permanentListeners=" + permanentListeners +
+                '}';
+    }
+}
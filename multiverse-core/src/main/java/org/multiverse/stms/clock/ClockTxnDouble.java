@@ -0,0 +1,293 @@
+package org.multiverse.stms.clock;
+
+import org.multiverse.api.LockMode;
+import org.multiverse.api.Txn;
+import org.multiverse.api.functions.DoubleFunction;
+import org.multiverse.api.predicates.DoublePredicate;
+import org.multiverse.api.references.TxnDouble;
+
+import static org.multiverse.stms.gamma.GammaStmUtils.doubleAsLong;
+import static org.multiverse.stms.gamma.GammaStmUtils.longAsDouble;
+import static org.multiverse.stms.clock.ClockStmUtils.asClockTxn;
+import static org.multiverse.stms.clock.ClockStmUtils.getRequiredThreadLocalClockTxn;
+
+/**
+ * The {@link TxnDouble} implementation shared by the {@link ClockStm} implementations.
+ *
+ * This code is generated.
+ *
+ * @author Peter Veentjer.
+ */
+@SuppressWarnings({"OverlyComplexClass"})
+public class ClockTxnDouble extends BaseClockTxnRef implements TxnDouble {
+
+    public ClockTxnDouble(final ClockStm stm) {
+        this(stm, 0);
+    }
+
+    public ClockTxnDouble(final ClockStm stm, final double value) {
+        super(stm, TYPE_DOUBLE);
+        this.long_value = doubleAsLong(value);
+    }
+
+    @Override
+    public final double get() {
+        return get(getRequiredThreadLocalClockTxn());
+    }
+
+    @Override
+    public final double getAndLock(final LockMode lockMode) {
+        return getAndLock(getRequiredThreadLocalClockTxn(), lockMode);
+    }
+
+    @Override
+    public final double get(final Txn tx) {
+        return longAsDouble(getLong(asClockTxn(tx), LockMode.None));
+    }
+
+    @Override
+    public final double getAndLock(final Txn tx, final LockMode lockMode) {
+        return longAsDouble(getLong(asClockTxn(tx), lockMode));
+    }
+
+    @Override
+    public final double set(final double value) {
+        return set(getRequiredThreadLocalClockTxn(), value);
+    }
+
+    @Override
+    public final double setAndLock(final double value, final LockMode lockMode) {
+        return setAndLock(getRequiredThreadLocalClockTxn(), value, lockMode);
+    }
+
+    @Override
+    public final double set(final Txn tx, final double value) {
+        return longAsDouble(setLong(asClockTxn(tx), LockMode.None, doubleAsLong(value), false));
+    }
+
+    @Override
+    public final double setAndLock(final Txn tx, final double value, final LockMode lockMode) {
+        return longAsDouble(setLong(asClockTxn(tx), lockMode, doubleAsLong(value), false));
+    }
+
+    @Override
+    public final double getAndSet(final double value) {
+        return getAndSet(getRequiredThreadLocalClockTxn(), value);
+    }
+
+    @Override
+    public final double getAndSetAndLock(final double value, final LockMode lockMode) {
+        return getAndSetAndLock(getRequiredThreadLocalClockTxn(), value, lockMode);
+    }
+
+    @Override
+    public final double getAndSet(final Txn tx, final double value) {
+        return longAsDouble(setLong(asClockTxn(tx), LockMode.None, doubleAsLong(value), true));
+    }
+
+    @Override
+    public final double getAndSetAndLock(final Txn tx, final double value, final LockMode lockMode) {
+        return longAsDouble(setLong(asClockTxn(tx), lockMode, doubleAsLong(value), true));
+    }
+
+    @Override
+    public final double atomicGet() {
+        return longAsDouble(atomicGetLong());
+    }
+
+    @Override
+    public final double atomicWeakGet() {
+        return longAsDouble(long_value);
+    }
+
+    @Override
+    public final double atomicSet(final double newValue) {
+        return longAsDouble(atomicSetLong(doubleAsLong(newValue), false));
+    }
+
+    @Override
+    public final double atomicGetAndSet(final double newValue) {
+        return longAsDouble(atomicSetLong(doubleAsLong(newValue), true));
+    }
+
+    @Override
+    public final void commute(final DoubleFunction function) {
+        commute(getRequiredThreadLocalClockTxn(), function);
+    }
+
+    @Override
+    public final void commute(final Txn tx, final DoubleFunction function) {
+        //a ClockStm has no deferred commuting functions, they are executed immediately.
+        alter(asClockTxn(tx), function, false);
+    }
+
+    @Override
+    public final double atomicAlterAndGet(final DoubleFunction function) {
+        return atomicAlter(function, false);
+    }
+
+    @Override
+    public final double alterAndGet(final DoubleFunction function) {
+        return alterAndGet(getRequiredThreadLocalClockTxn(), function);
+    }
+
+    @Override
+    public final double alterAndGet(final Txn tx, final DoubleFunction function) {
+        return alter(asClockTxn(tx), function, false);
+    }
+
+    @Override
+    public final double atomicGetAndAlter(final DoubleFunction function) {
+        return atomicAlter(function, true);
+    }
+
+    @Override
+    public final double getAndAlter(final DoubleFunction function) {
+        return getAndAlter(getRequiredThreadLocalClockTxn(), function);
+    }
+
+    @Override
+    public final double getAndAlter(final Txn tx, final DoubleFunction function) {
+        return alter(asClockTxn(tx), function, true);
+    }
+
+    private double alter(final ClockTxn tx, final DoubleFunction function, final boolean returnOld) {
+        if (function == null) {
+            throw tx.abortOnNullFunction(this);
+        }
+
+        final ClockTranlocal tranlocal = tx.openForWrite(this, LOCKMODE_NONE);
+        final double oldValue = longAsDouble(tranlocal.long_value);
+        boolean abort = true;
+        try {
+            final double newValue = function.call(oldValue);
+            tranlocal.long_value = doubleAsLong(newValue);
+            abort = false;
+            return returnOld ? oldValue : newValue;
+        } finally {
+            if (abort) {
+                tx.abortIfAlive();
+            }
+        }
+    }
+
+    private double atomicAlter(final DoubleFunction function, final boolean returnOld) {
+        if (function == null) {
+            throw new NullPointerException("Function can't be null");
+        }
+
+        final long lockValue = lockAtomic();
+        boolean changed = false;
+        try {
+            final double oldValue = longAsDouble(long_value);
+            final double newValue = function.call(oldValue);
+            final long newLongValue = doubleAsLong(newValue);
+            changed = long_value != newLongValue;
+            long_value = newLongValue;
+            return returnOld ? oldValue : newValue;
+        } finally {
+            unlockAtomic(lockValue, changed);
+        }
+    }
+
+    @Override
+    public final boolean atomicCompareAndSet(final double expectedValue, final double newValue) {
+        return atomicCompareAndSetLong(doubleAsLong(expectedValue), doubleAsLong(newValue));
+    }
+
+    @Override
+    public final double atomicGetAndIncrement(final double amount) {
+        return atomicIncrement(amount, true);
+    }
+
+    @Override
+    public final double getAndIncrement(final double amount) {
+        return getAndIncrement(getRequiredThreadLocalClockTxn(), amount);
+    }
+
+    @Override
+    public final double getAndIncrement(final Txn tx, final double amount) {
+        return increment(asClockTxn(tx), amount, true);
+    }
+
+    @Override
+    public final double atomicIncrementAndGet(final double amount) {
+        return atomicIncrement(amount, false);
+    }
+
+    @Override
+    public final double incrementAndGet(final double amount) {
+        return incrementAndGet(getRequiredThreadLocalClockTxn(), amount);
+    }
+
+    @Override
+    public final double incrementAndGet(final Txn tx, final double amount) {
+        return increment(asClockTxn(tx), amount, false);
+    }
+
+    private double increment(final ClockTxn tx, final double amount, final boolean returnOld) {
+        final ClockTranlocal tranlocal = tx.openForWrite(this, LOCKMODE_NONE);
+        final double oldValue = longAsDouble(tranlocal.long_value);
+        final double newValue = oldValue + amount;
+        tranlocal.long_value = doubleAsLong(newValue);
+        return returnOld ? oldValue : newValue;
+    }
+
+    private double atomicIncrement(final double amount, final boolean returnOld) {
+        final long lockValue = lockAtomic();
+        final double oldValue = longAsDouble(long_value);
+        final double newValue = oldValue + amount;
+        final long newLongValue = doubleAsLong(newValue);
+        final boolean changed = long_value != newLongValue;
+        long_value = newLongValue;
+        unlockAtomic(lockValue, changed);
+        return returnOld ? oldValue : newValue;
+    }
+
+    @Override
+    public final void await(final double value) {
+        await(getRequiredThreadLocalClockTxn(), value);
+    }
+
+    @Override
+    public final void await(final Txn tx, final double value) {
+        awaitLong(asClockTxn(tx), doubleAsLong(value));
+    }
+
+    @Override
+    public final void await(final DoublePredicate predicate) {
+        await(getRequiredThreadLocalClockTxn(), predicate);
+    }
+
+    @Override
+    public final void await(final Txn tx, final DoublePredicate predicate) {
+        final ClockTxn clockTxn = asClockTxn(tx);
+        if (predicate == null) {
+            clockTxn.abortIfAlive();
+            throw new NullPointerException("Predicate can't be null");
+        }
+
+        final ClockTranlocal tranlocal = clockTxn.openForRead(this, LOCKMODE_NONE);
+        boolean abort = true;
+        try {
+            if (!predicate.evaluate(longAsDouble(tranlocal.long_value))) {
+                clockTxn.retry();
+            }
+            abort = false;
+        } finally {
+            if (abort) {
+                clockTxn.abortIfAlive();
+            }
+        }
+    }
+
+    @Override
+    public final String toString(final Txn tx) {
+        return String.valueOf(get(tx));
+    }
+
+    @Override
+    public final String atomicToString() {
+        return String.valueOf(atomicGet());
+    }
+}
@@ -0,0 +1,36 @@
+package org.multiverse.stms.clock;
+
+import org.multiverse.api.TxnFactory;
+import org.multiverse.api.TxnFactoryBuilder;
+
+/**
+ * The {@link TxnFactory} of a {@link ClockStm}. The transaction itself is created by the stm, so the same factory
+ * is used by the Tl2Stm and the NorecStm.
+ *
+ * @author Peter Veentjer.
+ */
+public final class ClockTxnFactory implements TxnFactory {
+
+    private final ClockTxnConfig config;
+    private final TxnFactoryBuilder builder;
+
+    public ClockTxnFactory(final ClockTxnConfig config, final TxnFactoryBuilder builder) {
+        this.config = config.init();
+        this.builder = builder;
+    }
+
+    @Override
+    public TxnFactoryBuilder getTxnFactoryBuilder() {
+        return builder;
+    }
+
+    @Override
+    public ClockTxnConfig getConfig() {
+        return config;
+    }
+
+    @Override
+    public ClockTxn newTxn() {
+        return config.stm.newTxn(config);
+    }
+}
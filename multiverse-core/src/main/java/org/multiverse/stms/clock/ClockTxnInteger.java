@@ -0,0 +1,332 @@
+package org.multiverse.stms.clock;
+
+import org.multiverse.api.LockMode;
+import org.multiverse.api.Txn;
+import org.multiverse.api.functions.IntFunction;
+import org.multiverse.api.predicates.IntPredicate;
+import org.multiverse.api.references.TxnInteger;
+
+import static org.multiverse.stms.clock.ClockStmUtils.asClockTxn;
+import static org.multiverse.stms.clock.ClockStmUtils.getRequiredThreadLocalClockTxn;
+
+/**
+ * The {@link TxnInteger} implementation shared by the {@link ClockStm} implementations.
+ *
+ * This code is generated.
+ *
+ * @author Peter Veentjer.
+ */
+@SuppressWarnings({"OverlyComplexClass"})
+public class ClockTxnInteger extends BaseClockTxnRef implements TxnInteger {
+
+    public ClockTxnInteger(final ClockStm stm) {
+        this(stm, 0);
+    }
+
+    public ClockTxnInteger(final ClockStm stm, final int value) {
+        super(stm, TYPE_INT);
+        this.long_value = value;
+    }
+
+    @Override
+    public final int get() {
+        return get(getRequiredThreadLocalClockTxn());
+    }
+
+    @Override
+    public final int getAndLock(final LockMode lockMode) {
+        return getAndLock(getRequiredThreadLocalClockTxn(), lockMode);
+    }
+
+    @Override
+    public final int get(final Txn tx) {
+        return (int) getLong(asClockTxn(tx), LockMode.None);
+    }
+
+    @Override
+    public final int getAndLock(final Txn tx, final LockMode lockMode) {
+        return (int) getLong(asClockTxn(tx), lockMode);
+    }
+
+    @Override
+    public final int set(final int value) {
+        return set(getRequiredThreadLocalClockTxn(), value);
+    }
+
+    @Override
+    public final int setAndLock(final int value, final LockMode lockMode) {
+        return setAndLock(getRequiredThreadLocalClockTxn(), value, lockMode);
+    }
+
+    @Override
+    public final int set(final Txn tx, final int value) {
+        return (int) setLong(asClockTxn(tx), LockMode.None, value, false);
+    }
+
+    @Override
+    public final int setAndLock(final Txn tx, final int value, final LockMode lockMode) {
+        return (int) setLong(asClockTxn(tx), lockMode, value, false);
+    }
+
+    @Override
+    public final int getAndSet(final int value) {
+        return getAndSet(getRequiredThreadLocalClockTxn(), value);
+    }
+
+    @Override
+    public final int getAndSetAndLock(final int value, final LockMode lockMode) {
+        return getAndSetAndLock(getRequiredThreadLocalClockTxn(), value, lockMode);
+    }
+
+    @Override
+    public final int getAndSet(final Txn tx, final int value) {
+        return (int) setLong(asClockTxn(tx), LockMode.None, value, true);
+    }
+
+    @Override
+    public final int getAndSetAndLock(final Txn tx, final int value, final LockMode lockMode) {
+        return (int) setLong(asClockTxn(tx), lockMode, value, true);
+    }
+
+    @Override
+    public final int atomicGet() {
+        return (int) atomicGetLong();
+    }
+
+    @Override
+    public final int atomicWeakGet() {
+        return (int) long_value;
+    }
+
+    @Override
+    public final int atomicSet(final int newValue) {
+        return (int) atomicSetLong(newValue, false);
+    }
+
+    @Override
+    public final int atomicGetAndSet(final int newValue) {
+        return (int) atomicSetLong(newValue, true);
+    }
+
+    @Override
+    public final void commute(final IntFunction function) {
+        commute(getRequiredThreadLocalClockTxn(), function);
+    }
+
+    @Override
+    public final void commute(final Txn tx, final IntFunction function) {
+        //a ClockStm has no deferred commuting functions, they are executed immediately.
+        alter(asClockTxn(tx), function, false);
+    }
+
+    @Override
+    public final int atomicAlterAndGet(final IntFunction function) {
+        return atomicAlter(function, false);
+    }
+
+    @Override
+    public final int alterAndGet(final IntFunction function) {
+        return alterAndGet(getRequiredThreadLocalClockTxn(), function);
+    }
+
+    @Override
+    public final int alterAndGet(final Txn tx, final IntFunction function) {
+        return alter(asClockTxn(tx), function, false);
+    }
+
+    @Override
+    public final int atomicGetAndAlter(final IntFunction function) {
+        return atomicAlter(function, true);
+    }
+
+    @Override
+    public final int getAndAlter(final IntFunction function) {
+        return getAndAlter(getRequiredThreadLocalClockTxn(), function);
+    }
+
+    @Override
+    public final int getAndAlter(final Txn tx, final IntFunction function) {
+        return alter(asClockTxn(tx), function, true);
+    }
+
+    private int alter(final ClockTxn tx, final IntFunction function, final boolean returnOld) {
+        if (function == null) {
+            throw tx.abortOnNullFunction(this);
+        }
+
+        final ClockTranlocal tranlocal = tx.openForWrite(this, LOCKMODE_NONE);
+        final int oldValue = (int) tranlocal.long_value;
+        boolean abort = true;
+        try {
+            final int newValue = function.call(oldValue);
+            tranlocal.long_value = newValue;
+            abort = false;
+            return returnOld ? oldValue : newValue;
+        } finally {
+            if (abort) {
+                tx.abortIfAlive();
+            }
+        }
+    }
+
+    private int atomicAlter(final IntFunction function, final boolean returnOld) {
+        if (function == null) {
+            throw new NullPointerException("Function can't be null");
+        }
+
+        final long lockValue = lockAtomic();
+        boolean changed = false;
+        try {
+            final int oldValue = (int) long_value;
+            final int newValue = function.call(oldValue);
+            final long newLongValue = newValue;
+            changed = long_value != newLongValue;
+            long_value = newLongValue;
+            return returnOld ? oldValue : newValue;
+        } finally {
+            unlockAtomic(lockValue, changed);
+        }
+    }
+
+    @Override
+    public final boolean atomicCompareAndSet(final int expectedValue, final int newValue) {
+        return atomicCompareAndSetLong(expectedValue, newValue);
+    }
+
+    @Override
+    public final int atomicGetAndIncrement(final int amount) {
+        return atomicIncrement(amount, true);
+    }
+
+    @Override
+    public final int getAndIncrement(final int amount) {
+        return getAndIncrement(getRequiredThreadLocalClockTxn(), amount);
+    }
+
+    @Override
+    public final int getAndIncrement(final Txn tx, final int amount) {
+        return increment(asClockTxn(tx), amount, true);
+    }
+
+    @Override
+    public final int atomicIncrementAndGet(final int amount) {
+        return atomicIncrement(amount, false);
+    }
+
+    @Override
+    public final int incrementAndGet(final int amount) {
+        return incrementAndGet(getRequiredThreadLocalClockTxn(), amount);
+    }
+
+    @Override
+    public final int incrementAndGet(final Txn tx, final int amount) {
+        return increment(asClockTxn(tx), amount, false);
+    }
+
+    @Override
+    public final void increment() {
+        increment(getRequiredThreadLocalClockTxn(), 1);
+    }
+
+    @Override
+    public final void increment(final Txn tx) {
+        increment(tx, 1);
+    }
+
+    @Override
+    public final void increment(final int amount) {
+        increment(getRequiredThreadLocalClockTxn(), amount);
+    }
+
+    @Override
+    public final void increment(final Txn tx, final int amount) {
+        //a ClockStm has no deferred commuting increments, they are executed immediately.
+        increment(asClockTxn(tx), amount, false);
+    }
+
+    @Override
+    public final void decrement() {
+        increment(getRequiredThreadLocalClockTxn(), -1);
+    }
+
+    @Override
+    public final void decrement(final Txn tx) {
+        increment(tx, -1);
+    }
+
+    @Override
+    public final void decrement(final int amount) {
+        increment(getRequiredThreadLocalClockTxn(), -amount);
+    }
+
+    @Override
+    public final void decrement(final Txn tx, final int amount) {
+        increment(asClockTxn(tx), -amount, false);
+    }
+
+    private int increment(final ClockTxn tx, final int amount, final boolean returnOld) {
+        final ClockTranlocal tranlocal = tx.openForWrite(this, LOCKMODE_NONE);
+        final int oldValue = (int) tranlocal.long_value;
+        final int newValue = oldValue + amount;
+        tranlocal.long_value = newValue;
+        return returnOld ? oldValue : newValue;
+    }
+
+    private int atomicIncrement(final int amount, final boolean returnOld) {
+        final long lockValue = lockAtomic();
+        final int oldValue = (int) long_value;
+        final int newValue = oldValue + amount;
+        final long newLongValue = newValue;
+        final boolean changed = long_value != newLongValue;
+        long_value = newLongValue;
+        unlockAtomic(lockValue, changed);
+        return returnOld ? oldValue : newValue;
+    }
+
+    @Override
+    public final void await(final int value) {
+        await(getRequiredThreadLocalClockTxn(), value);
+    }
+
+    @Override
+    public final void await(final Txn tx, final int value) {
+        awaitLong(asClockTxn(tx), value);
+    }
+
+    @Override
+    public final void await(final IntPredicate predicate) {
+        await(getRequiredThreadLocalClockTxn(), predicate);
+    }
+
+    @Override
+    public final void await(final Txn tx, final IntPredicate predicate) {
+        final ClockTxn clockTxn = asClockTxn(tx);
+        if (predicate == null) {
+            clockTxn.abortIfAlive();
+            throw new NullPointerException("Predicate can't be null");
+        }
+
+        final ClockTranlocal tranlocal = clockTxn.openForRead(this, LOCKMODE_NONE);
+        boolean abort = true;
+        try {
+            if (!predicate.evaluate((int) tranlocal.long_value)) {
+                clockTxn.retry();
+            }
+            abort = false;
+        } finally {
+            if (abort) {
+                clockTxn.abortIfAlive();
+            }
+        }
+    }
+
+    @Override
+    public final String toString(final Txn tx) {
+        return String.valueOf(get(tx));
+    }
+
+    @Override
+    public final String atomicToString() {
+        return String.valueOf(atomicGet());
+    }
+}
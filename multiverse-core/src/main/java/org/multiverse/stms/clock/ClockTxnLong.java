@@ -0,0 +1,332 @@
+package org.multiverse.stms.clock;
+
+import org.multiverse.api.LockMode;
+import org.multiverse.api.Txn;
+import org.multiverse.api.functions.LongFunction;
+import org.multiverse.api.predicates.LongPredicate;
+import org.multiverse.api.references.TxnLong;
+
+import static org.multiverse.stms.clock.ClockStmUtils.asClockTxn;
+import static org.multiverse.stms.clock.ClockStmUtils.getRequiredThreadLocalClockTxn;
+
+/**
+ * The {@link TxnLong} implementation shared by the {@link ClockStm} implementations.
+ *
+ * This code is generated.
+ *
+ * @author Peter Veentjer.
+ */
+@SuppressWarnings({"OverlyComplexClass"})
+public class ClockTxnLong extends BaseClockTxnRef implements TxnLong {
+
+    public ClockTxnLong(final ClockStm stm) {
+        this(stm, 0);
+    }
+
+    public ClockTxnLong(final ClockStm stm, final long value) {
+        super(stm, TYPE_LONG);
+        this.long_value = value;
+    }
+
+    @Override
+    public final long get() {
+        return get(getRequiredThreadLocalClockTxn());
+    }
+
+    @Override
+    public final long getAndLock(final LockMode lockMode) {
+        return getAndLock(getRequiredThreadLocalClockTxn(), lockMode);
+    }
+
+    @Override
+    public final long get(final Txn tx) {
+        return getLong(asClockTxn(tx), LockMode.None);
+    }
+
+    @Override
+    public final long getAndLock(final Txn tx, final LockMode lockMode) {
+        return getLong(asClockTxn(tx), lockMode);
+    }
+
+    @Override
+    public final long set(final long value) {
+        return set(getRequiredThreadLocalClockTxn(), value);
+    }
+
+    @Override
+    public final long setAndLock(final long value, final LockMode lockMode) {
+        return setAndLock(getRequiredThreadLocalClockTxn(), value, lockMode);
+    }
+
+    @Override
+    public final long set(final Txn tx, final long value) {
+        return setLong(asClockTxn(tx), LockMode.None, value, false);
+    }
+
+    @Override
+    public final long setAndLock(final Txn tx, final long value, final LockMode lockMode) {
+        return setLong(asClockTxn(tx), lockMode, value, false);
+    }
+
+    @Override
+    public final long getAndSet(final long value) {
+        return getAndSet(getRequiredThreadLocalClockTxn(), value);
+    }
+
+    @Override
+    public final long getAndSetAndLock(final long value, final LockMode lockMode) {
+        return getAndSetAndLock(getRequiredThreadLocalClockTxn(), value, lockMode);
+    }
+
+    @Override
+    public final long getAndSet(final Txn tx, final long value) {
+        return setLong(asClockTxn(tx), LockMode.None, value, true);
+    }
+
+    @Override
+    public final long getAndSetAndLock(final Txn tx, final long value, final LockMode lockMode) {
+        return setLong(asClockTxn(tx), lockMode, value, true);
+    }
+
+    @Override
+    public final long atomicGet() {
+        return atomicGetLong();
+    }
+
+    @Override
+    public final long atomicWeakGet() {
+        return long_value;
+    }
+
+    @Override
+    public final long atomicSet(final long newValue) {
+        return atomicSetLong(newValue, false);
+    }
+
+    @Override
+    public final long atomicGetAndSet(final long newValue) {
+        return atomicSetLong(newValue, true);
+    }
+
+    @Override
+    public final void commute(final LongFunction function) {
+        commute(getRequiredThreadLocalClockTxn(), function);
+    }
+
+    @Override
+    public final void commute(final Txn tx, final LongFunction function) {
+        //a ClockStm has no deferred commuting functions, they are executed immediately.
+        alter(asClockTxn(tx), function, false);
+    }
+
+    @Override
+    public final long atomicAlterAndGet(final LongFunction function) {
+        return atomicAlter(function, false);
+    }
+
+    @Override
+    public final long alterAndGet(final LongFunction function) {
+        return alterAndGet(getRequiredThreadLocalClockTxn(), function);
+    }
+
+    @Override
+    public final long alterAndGet(final Txn tx, final LongFunction function) {
+        return alter(asClockTxn(tx), function, false);
+    }
+
+    @Override
+    public final long atomicGetAndAlter(final LongFunction function) {
+        return atomicAlter(function, true);
+    }
+
+    @Override
+    public final long getAndAlter(final LongFunction function) {
+        return getAndAlter(getRequiredThreadLocalClockTxn(), function);
+    }
+
+    @Override
+    public final long getAndAlter(final Txn tx, final LongFunction function) {
+        return alter(asClockTxn(tx), function, true);
+    }
+
+    private long alter(final ClockTxn tx, final LongFunction function, final boolean returnOld) {
+        if (function == null) {
+            throw tx.abortOnNullFunction(this);
+        }
+
+        final ClockTranlocal tranlocal = tx.openForWrite(this, LOCKMODE_NONE);
+        final long oldValue = tranlocal.long_value;
+        boolean abort = true;
+        try {
+            final long newValue = function.call(oldValue);
+            tranlocal.long_value = newValue;
+            abort = false;
+            return returnOld ? oldValue : newValue;
+        } finally {
+            if (abort) {
+                tx.abortIfAlive();
+            }
+        }
+    }
+
+    private long atomicAlter(final LongFunction function, final boolean returnOld) {
+        if (function == null) {
+            throw new NullPointerException("Function can't be null");
+        }
+
+        final long lockValue = lockAtomic();
+        boolean changed = false;
+        try {
+            final long oldValue = long_value;
+            final long newValue = function.call(oldValue);
+            final long newLongValue = newValue;
+            changed = long_value != newLongValue;
+            long_value = newLongValue;
+            return returnOld ? oldValue : newValue;
+        } finally {
+            unlockAtomic(lockValue, changed);
+        }
+    }
+
+    @Override
+    public final boolean atomicCompareAndSet(final long expectedValue, final long newValue) {
+        return atomicCompareAndSetLong(expectedValue, newValue);
+    }
+
+    @Override
+    public final long atomicGetAndIncrement(final long amount) {
+        return atomicIncrement(amount, true);
+    }
+
+    @Override
+    public final long getAndIncrement(final long amount) {
+        return getAndIncrement(getRequiredThreadLocalClockTxn(), amount);
+    }
+
+    @Override
+    public final long getAndIncrement(final Txn tx, final long amount) {
+        return increment(asClockTxn(tx), amount, true);
+    }
+
+    @Override
+    public final long atomicIncrementAndGet(final long amount) {
+        return atomicIncrement(amount, false);
+    }
+
+    @Override
+    public final long incrementAndGet(final long amount) {
+        return incrementAndGet(getRequiredThreadLocalClockTxn(), amount);
+    }
+
+    @Override
+    public final long incrementAndGet(final Txn tx, final long amount) {
+        return increment(asClockTxn(tx), amount, false);
+    }
+
+    @Override
+    public final void increment() {
+        increment(getRequiredThreadLocalClockTxn(), 1);
+    }
+
+    @Override
+    public final void increment(final Txn tx) {
+        increment(tx, 1);
+    }
+
+    @Override
+    public final void increment(final long amount) {
+        increment(getRequiredThreadLocalClockTxn(), amount);
+    }
+
+    @Override
+    public final void increment(final Txn tx, final long amount) {
+        //a ClockStm has no deferred commuting increments, they are executed immediately.
+        increment(asClockTxn(tx), amount, false);
+    }
+
+    @Override
+    public final void decrement() {
+        increment(getRequiredThreadLocalClockTxn(), -1);
+    }
+
+    @Override
+    public final void decrement(final Txn tx) {
+        increment(tx, -1);
+    }
+
+    @Override
+    public final void decrement(final long amount) {
+        increment(getRequiredThreadLocalClockTxn(), -amount);
+    }
+
+    @Override
+    public final void decrement(final Txn tx, final long amount) {
+        increment(asClockTxn(tx), -amount, false);
+    }
+
+    private long increment(final ClockTxn tx, final long amount, final boolean returnOld) {
+        final ClockTranlocal tranlocal = tx.openForWrite(this, LOCKMODE_NONE);
+        final long oldValue = tranlocal.long_value;
+        final long newValue = oldValue + amount;
+        tranlocal.long_value = newValue;
+        return returnOld ? oldValue : newValue;
+    }
+
+    private long atomicIncrement(final long amount, final boolean returnOld) {
+        final long lockValue = lockAtomic();
+        final long oldValue = long_value;
+        final long newValue = oldValue + amount;
+        final long newLongValue = newValue;
+        final boolean changed = long_value != newLongValue;
+        long_value = newLongValue;
+        unlockAtomic(lockValue, changed);
+        return returnOld ? oldValue : newValue;
+    }
+
+    @Override
+    public final void await(final long value) {
+        await(getRequiredThreadLocalClockTxn(), value);
+    }
+
+    @Override
+    public final void await(final Txn tx, final long value) {
+        awaitLong(asClockTxn(tx), value);
+    }
+
+    @Override
+    public final void await(final LongPredicate predicate) {
+        await(getRequiredThreadLocalClockTxn(), predicate);
+    }
+
+    @Override
+    public final void await(final Txn tx, final LongPredicate predicate) {
+        final ClockTxn clockTxn = asClockTxn(tx);
+        if (predicate == null) {
+            clockTxn.abortIfAlive();
+            throw new NullPointerException("Predicate can't be null");
+        }
+
+        final ClockTranlocal tranlocal = clockTxn.openForRead(this, LOCKMODE_NONE);
+        boolean abort = true;
+        try {
+            if (!predicate.evaluate(tranlocal.long_value)) {
+                clockTxn.retry();
+            }
+            abort = false;
+        } finally {
+            if (abort) {
+                clockTxn.abortIfAlive();
+            }
+        }
+    }
+
+    @Override
+    public final String toString(final Txn tx) {
+        return String.valueOf(get(tx));
+    }
+
+    @Override
+    public final String atomicToString() {
+        return String.valueOf(atomicGet());
+    }
+}
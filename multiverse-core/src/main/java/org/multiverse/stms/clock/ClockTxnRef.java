@@ -0,0 +1,288 @@
+package org.multiverse.stms.clock;
+
+import org.multiverse.api.LockMode;
+import org.multiverse.api.Txn;
+import org.multiverse.api.functions.Function;
+import org.multiverse.api.predicates.Predicate;
+import org.multiverse.api.references.TxnRef;
+
+import static org.multiverse.stms.clock.ClockStmUtils.asClockTxn;
+import static org.multiverse.stms.clock.ClockStmUtils.getRequiredThreadLocalClockTxn;
+
+/**
+ * The {@link TxnRef} implementation shared by the {@link ClockStm} implementations.
+ *
+ * @param <E> the type of the value.
+ * @author Peter Veentjer.
+ */
+@SuppressWarnings({"OverlyComplexClass"})
+public class ClockTxnRef<E> extends BaseClockTxnRef implements TxnRef<E> {
+
+    public ClockTxnRef(final ClockStm stm) {
+        this(stm, null);
+    }
+
+    public ClockTxnRef(final ClockStm stm, final E value) {
+        super(stm, TYPE_REF);
+        this.ref_value = value;
+    }
+
+    @Override
+    public final E get() {
+        return get(getRequiredThreadLocalClockTxn());
+    }
+
+    @Override
+    public final E getAndLock(final LockMode lockMode) {
+        return getAndLock(getRequiredThreadLocalClockTxn(), lockMode);
+    }
+
+    @Override
+    public final E get(final Txn tx) {
+        return (E) getObject(asClockTxn(tx), LockMode.None);
+    }
+
+    @Override
+    public final E getAndLock(final Txn tx, final LockMode lockMode) {
+        return (E) getObject(asClockTxn(tx), lockMode);
+    }
+
+    @Override
+    public final E set(final E value) {
+        return set(getRequiredThreadLocalClockTxn(), value);
+    }
+
+    @Override
+    public final E setAndLock(final E value, final LockMode lockMode) {
+        return setAndLock(getRequiredThreadLocalClockTxn(), value, lockMode);
+    }
+
+    @Override
+    public final E set(final Txn tx, final E value) {
+        return (E) setObject(asClockTxn(tx), LockMode.None, value, false);
+    }
+
+    @Override
+    public final E setAndLock(final Txn tx, final E value, final LockMode lockMode) {
+        return (E) setObject(asClockTxn(tx), lockMode, value, false);
+    }
+
+    @Override
+    public final E getAndSet(final E value) {
+        return getAndSet(getRequiredThreadLocalClockTxn(), value);
+    }
+
+    @Override
+    public final E getAndSetAndLock(final E value, final LockMode lockMode) {
+        return getAndSetAndLock(getRequiredThreadLocalClockTxn(), value, lockMode);
+    }
+
+    @Override
+    public final E getAndSet(final Txn tx, final E value) {
+        return (E) setObject(asClockTxn(tx), LockMode.None, value, true);
+    }
+
+    @Override
+    public final E getAndSetAndLock(final Txn tx, final E value, final LockMode lockMode) {
+        return (E) setObject(asClockTxn(tx), lockMode, value, true);
+    }
+
+    @Override
+    public final E atomicGet() {
+        return (E) atomicGetObject();
+    }
+
+    @Override
+    public final E atomicWeakGet() {
+        return (E) ref_value;
+    }
+
+    @Override
+    public final E atomicSet(final E newValue) {
+        return (E) atomicSetObject(newValue, false);
+    }
+
+    @Override
+    public final E atomicGetAndSet(final E newValue) {
+        return (E) atomicSetObject(newValue, true);
+    }
+
+    @Override
+    public final void commute(final Function<E> function) {
+        commute(getRequiredThreadLocalClockTxn(), function);
+    }
+
+    @Override
+    public final void commute(final Txn tx, final Function<E> function) {
+        //a ClockStm has no deferred commuting functions, they are executed immediately.
+        alter(asClockTxn(tx), function, false);
+    }
+
+    @Override
+    public final E atomicAlterAndGet(final Function<E> function) {
+        return atomicAlter(function, false);
+    }
+
+    @Override
+    public final E alterAndGet(final Function<E> function) {
+        return alterAndGet(getRequiredThreadLocalClockTxn(), function);
+    }
+
+    @Override
+    public final E alterAndGet(final Txn tx, final Function<E> function) {
+        return alter(asClockTxn(tx), function, false);
+    }
+
+    @Override
+    public final E atomicGetAndAlter(final Function<E> function) {
+        return atomicAlter(function, true);
+    }
+
+    @Override
+    public final E getAndAlter(final Function<E> function) {
+        return getAndAlter(getRequiredThreadLocalClockTxn(), function);
+    }
+
+    @Override
+    public final E getAndAlter(final Txn tx, final Function<E> function) {
+        return alter(asClockTxn(tx), function, true);
+    }
+
+    private E alter(final ClockTxn tx, final Function<E> function, final boolean returnOld) {
+        if (function == null) {
+            throw tx.abortOnNullFunction(this);
+        }
+
+        final ClockTranlocal tranlocal = tx.openForWrite(this, LOCKMODE_NONE);
+        final E oldValue = (E) tranlocal.ref_value;
+        boolean abort = true;
+        try {
+            final E newValue = function.call(oldValue);
+            tranlocal.ref_value = newValue;
+            abort = false;
+            return returnOld ? oldValue : newValue;
+        } finally {
+            if (abort) {
+                tx.abortIfAlive();
+            }
+        }
+    }
+
+    private E atomicAlter(final Function<E> function, final boolean returnOld) {
+        if (function == null) {
+            throw new NullPointerException("Function can't be null");
+        }
+
+        final long lockValue = lockAtomic();
+        boolean changed = false;
+        try {
+            final E oldValue = (E) ref_value;
+            final E newValue = function.call(oldValue);
+            //noinspection ObjectEquality
+            changed = oldValue != newValue;
+            ref_value = newValue;
+            return returnOld ? oldValue : newValue;
+        } finally {
+            unlockAtomic(lockValue, changed);
+        }
+    }
+
+    @Override
+    public final boolean atomicCompareAndSet(final E expectedValue, final E newValue) {
+        return atomicCompareAndSetObject(expectedValue, newValue);
+    }
+
+    @Override
+    public final boolean isNull() {
+        return isNull(getRequiredThreadLocalClockTxn());
+    }
+
+    @Override
+    public final boolean isNull(final Txn tx) {
+        return getObject(asClockTxn(tx), LockMode.None) == null;
+    }
+
+    @Override
+    public final boolean atomicIsNull() {
+        return atomicGetObject() == null;
+    }
+
+    @Override
+    public final E awaitNotNullAndGet() {
+        return awaitNotNullAndGet(getRequiredThreadLocalClockTxn());
+    }
+
+    @Override
+    public final E awaitNotNullAndGet(final Txn tx) {
+        final ClockTxn clockTxn = asClockTxn(tx);
+        final Object value = clockTxn.openForRead(this, LOCKMODE_NONE).ref_value;
+        if (value == null) {
+            clockTxn.retry();
+        }
+        return (E) value;
+    }
+
+    @Override
+    public final void awaitNull() {
+        awaitNull(getRequiredThreadLocalClockTxn());
+    }
+
+    @Override
+    public final void awaitNull(final Txn tx) {
+        final ClockTxn clockTxn = asClockTxn(tx);
+        if (clockTxn.openForRead(this, LOCKMODE_NONE).ref_value != null) {
+            clockTxn.retry();
+        }
+    }
+
+    @Override
+    public final void await(final E value) {
+        await(getRequiredThreadLocalClockTxn(), value);
+    }
+
+    @Override
+    public final void await(final Txn tx, final E value) {
+        final ClockTxn clockTxn = asClockTxn(tx);
+        //noinspection ObjectEquality
+        if (clockTxn.openForRead(this, LOCKMODE_NONE).ref_value != value) {
+            clockTxn.retry();
+        }
+    }
+
+    @Override
+    public final void await(final Predicate<E> predicate) {
+        await(getRequiredThreadLocalClockTxn(), predicate);
+    }
+
+    @Override
+    public final void await(final Txn tx, final Predicate<E> predicate) {
+        final ClockTxn clockTxn = asClockTxn(tx);
+        if (predicate == null) {
+            clockTxn.abortIfAlive();
+            throw new NullPointerException("Predicate can't be null");
+        }
+
+        final ClockTranlocal tranlocal = clockTxn.openForRead(this, LOCKMODE_NONE);
+        boolean abort = true;
+        try {
+            if (!predicate.evaluate((E) tranlocal.ref_value)) {
+                clockTxn.retry();
+            }
+            abort = false;
+        } finally {
+            if (abort) {
+                clockTxn.abortIfAlive();
+            }
+        }
+    }
+
+    @Override
+    public final String toString(final Txn tx) {
+        return String.valueOf(get(tx));
+    }
+
+    @Override
+    public final String atomicToString() {
+        return String.valueOf(atomicGet());
+    }
+}
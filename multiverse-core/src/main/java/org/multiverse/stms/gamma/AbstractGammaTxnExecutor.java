@@ -1,5 +1,6 @@
 package org.multiverse.stms.gamma;
 
+import org.multiverse.api.AdaptiveBackoffPolicy;
 import org.multiverse.api.BackoffPolicy;
 import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
 import org.multiverse.stms.gamma.transactions.GammaTxnFactory;
@@ -13,6 +14,16 @@ public abstract class AbstractGammaTxnExecutor implements GammaTxnExecutor {
     protected final GammaTxnFactory txnFactory;
     protected final GammaTxnConfig txnConfig;
     protected final BackoffPolicy backoffPolicy;
+    //null if the backoffPolicy isn't adaptive.
+    protected final AdaptiveBackoffPolicy adaptiveBackoffPolicy;
+    protected final IrrevocabilityToken irrevocabilityToken;
+    protected final ContentionManager contentionManager;
+    protected final AdaptiveTxnScheduler scheduler;
+    protected final int irrevocableAfterAttempts;
+    //null if metrics are not enabled or the family is anonymous.
+    protected final TxnFamilyMetrics metrics;
+    //null if no transaction events are recorded.
+    protected final TxnEventRecorder eventRecorder;
 
     public AbstractGammaTxnExecutor(final GammaTxnFactory txnFactory) {
         if (txnFactory == null) {
@@ -20,6 +31,13 @@ public abstract class AbstractGammaTxnExecutor implements GammaTxnExecutor {
         }
         this.txnFactory = txnFactory;
         this.txnConfig = txnFactory.getConfig();
-        this.backoffPolicy = txnConfig.backoffPolicy;
+        this.adaptiveBackoffPolicy = txnConfig.adaptiveBackoffPolicy;
+        this.backoffPolicy = adaptiveBackoffPolicy == null ? txnConfig.backoffPolicy : adaptiveBackoffPolicy;
+        this.irrevocabilityToken = txnConfig.stm.irrevocabilityToken;
+        this.contentionManager = txnConfig.stm.contentionManager;
+        this.scheduler = txnConfig.scheduler;
+        this.irrevocableAfterAttempts = txnConfig.irrevocableAfterAttempts;
+        this.metrics = txnConfig.metrics;
+        this.eventRecorder = txnConfig.stm.txnEventRecorder;
     }
 }
@@ -0,0 +1,150 @@
+package org.multiverse.stms.gamma;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * The AdaptiveTxnScheduler serializes the transactions of a family when they run into too many read/write
+ * conflicts. Every family has its own scheduler (see {@link org.multiverse.stms.gamma.transactions.GammaTxnConfig#scheduler})
+ * that is informed by the {@link GammaTxnExecutor} about the outcome of every attempt.
+ * <p/>
+ * From these outcomes the contention intensity is calculated: an exponential moving average of the fraction of
+ * attempts that were aborted. When it exceeds the close threshold, the gate closes and a transaction needs to pass
+ * the gate (a semaphore with a limited number of permits) before it can execute. When the intensity drops to the
+ * open threshold, the gate opens again. The difference between the two thresholds prevents the gate from flapping.
+ * <p/>
+ * A transaction that is blocked on a retry should leave the gate, since the transaction that is going to do the
+ * update it is waiting for, could be waiting for the gate.
+ * <p/>
+ * The intensity is updated without synchronization, so concurrent updates can get lost. This is no problem since it
+ * only is a heuristic and it prevents the scheduler from becoming a contention point itself. When there is no
+ * contention, a commit doesn't write to the scheduler at all.
+ *
+ * @author Peter Veentjer.
+ * @see GammaStmConfig#adaptiveSchedulingEnabled
+ */
+public final class AdaptiveTxnScheduler {
+
+    //the intensity is a fixed point number where SCALE equals 100%.
+    private static final int SCALE = 1 << 10;
+    //every outcome contributes for 1/16 to the moving average.
+    private static final int SHIFT = 4;
+
+    private final Semaphore gate;
+    private final int closeIntensity;
+    private final int openIntensity;
+    private final AtomicLong closeCount = new AtomicLong();
+    private volatile int intensity;
+    private volatile boolean closed;
+
+    /**
+     * Creates an AdaptiveTxnScheduler.
+     *
+     * @param closeThreshold the percentage of aborted attempts above which the gate closes.
+     * @param openThreshold  the percentage of aborted attempts at which the gate opens again.
+     * @param concurrency    the number of transactions that can pass the closed gate at the same time.
+     * @throws IllegalArgumentException if closeThreshold is not between 1 and 99, openThreshold is smaller than 0
+     *                                  or not smaller than the closeThreshold, or concurrency is smaller than 1.
+     */
+    public AdaptiveTxnScheduler(final int closeThreshold, final int openThreshold, final int concurrency) {
+        if (closeThreshold < 1 || closeThreshold > 99) {
+            throw new IllegalArgumentException(
+                    "closeThreshold should be between 1 and 99, closeThreshold was " + closeThreshold);
+        }
+
+        if (openThreshold < 0 || openThreshold >= closeThreshold) {
+            throw new IllegalArgumentException(
+                    "openThreshold should be between 0 and closeThreshold, openThreshold was " + openThreshold);
+        }
+
+        if (concurrency < 1) {
+            throw new IllegalArgumentException("concurrency can't be smaller than 1, concurrency was " + concurrency);
+        }
+
+        this.closeIntensity = closeThreshold * SCALE / 100;
+        this.openIntensity = openThreshold * SCALE / 100;
+        this.gate = new Semaphore(concurrency, true);
+    }
+
+    /**
+     * Passes the gate if it is closed. If no permit is available, the calling thread waits uninterruptibly. If the
+     * gate is open, the call returns immediately.
+     *
+     * @return true if the gate was passed and {@link #exit()} needs to be called, false if the gate is open.
+     */
+    public boolean enter() {
+        if (!closed) {
+            return false;
+        }
+
+        gate.acquireUninterruptibly();
+        return true;
+    }
+
+    /**
+     * Leaves the gate after a successful {@link #enter()}.
+     */
+    public void exit() {
+        gate.release();
+    }
+
+    /**
+     * Signals that an attempt of a transaction has committed.
+     */
+    public void onCommit() {
+        update(0);
+    }
+
+    /**
+     * Signals that an attempt of a transaction has been aborted by a read/write conflict.
+     */
+    public void onAbort() {
+        update(SCALE);
+    }
+
+    private void update(final int outcome) {
+        final int current = intensity;
+        final int update = current + ((outcome - current) >> SHIFT);
+        if (update == current) {
+            return;
+        }
+
+        intensity = update;
+
+        if (closed) {
+            if (update <= openIntensity) {
+                closed = false;
+            }
+        } else if (update > closeIntensity) {
+            closed = true;
+            closeCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * Checks if the gate is closed.
+     *
+     * @return true if the gate is closed.
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /**
+     * Returns the current contention intensity as the percentage of aborted attempts.
+     *
+     * @return the contention intensity.
+     */
+    public int getIntensity() {
+        return intensity * 100 / SCALE;
+    }
+
+    /**
+     * Returns the number of times the gate has been closed.
+     *
+     * @return the number of times the gate has been closed.
+     */
+    public long getCloseCount() {
+        return closeCount.get();
+    }
+}
@@ -0,0 +1,60 @@
+package org.multiverse.stms.gamma;
+
+import org.multiverse.stms.gamma.transactionalobjects.AbstractGammaObject;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+
+/**
+ * The ContentionManager decides what a transaction does when it runs into contention: if it keeps waiting for a lock
+ * that is held by another transaction, or gives up and aborts; and how long it waits after it has been aborted by
+ * a read/write conflict before it is retried (this replaces the {@link org.multiverse.api.BackoffPolicy}).
+ * <p/>
+ * The decision is based on the priority of a transaction ({@link GammaTxn#contentionPriority}), which is maintained
+ * by the ContentionManager and survives the retries of a transaction. When a transaction acquires a lock, its
+ * priority is stored in the transactional object ({@link AbstractGammaObject#lockOwnerPriority}), so a transaction
+ * that fails to acquire that lock can compare its own priority with that of the owner. The stored priority is only a
+ * hint: it isn't cleared when the lock is released and it isn't set by lean transactions and atomic operations.
+ * <p/>
+ * A transaction has no way to abort the owner of a lock. So the transaction that would win the conflict keeps
+ * waiting for the lock and the transaction that would lose it, aborts itself and releases its own locks. Every
+ * implementation should bound the waiting, otherwise two transactions waiting for each other's locks deadlock.
+ * <p/>
+ * The ContentionManager is configured on the {@link GammaStmConfig#contentionManager} and shared by all transactions,
+ * so it needs to be threadsafe.
+ *
+ * @author Peter Veentjer.
+ */
+public interface ContentionManager {
+
+    /**
+     * Is called when a transaction is started (so not when it is retried) to initialize its priority.
+     *
+     * @param tx the started transaction.
+     */
+    void onStart(GammaTxn tx);
+
+    /**
+     * Is called when a transaction has acquired a lock.
+     *
+     * @param tx the transaction that acquired the lock.
+     */
+    void onLockAcquired(GammaTxn tx);
+
+    /**
+     * Is called when a transaction failed to acquire a lock within its spin count. The ContentionManager is free to
+     * wait before it returns.
+     *
+     * @param tx       the transaction that failed to acquire the lock.
+     * @param object   the object that is locked.
+     * @param failures the number of times the transaction failed to acquire the lock, starting at 1.
+     * @return true if the transaction should try to acquire the lock again, false if it should abort.
+     */
+    boolean onLockFailure(GammaTxn tx, AbstractGammaObject object, int failures);
+
+    /**
+     * Is called when a transaction has been aborted by a read/write conflict and is going to be retried. The
+     * ContentionManager is free to delay the retry.
+     *
+     * @param tx the aborted transaction.
+     */
+    void onAbort(GammaTxn tx);
+}
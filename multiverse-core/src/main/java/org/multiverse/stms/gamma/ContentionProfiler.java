@@ -0,0 +1,406 @@
+package org.multiverse.stms.gamma;
+
+import org.multiverse.stms.gamma.transactionalobjects.GammaObject;
+import org.multiverse.utils.ThreadLocalRandom;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+import static java.lang.String.format;
+import static org.multiverse.stms.gamma.GammaStmUtils.toDebugString;
+
+/**
+ * A sampling profiler that attributes contention to individual transactional objects, so it becomes clear which
+ * objects are the hotspots. Three kinds of events are counted:
+ * <ol>
+ * <li>aborts: a transaction was aborted by a read/write conflict on the object</li>
+ * <li>lock failures: a lock on the object could not be acquired (see
+ * {@link org.multiverse.stms.gamma.transactionalobjects.AbstractGammaObject#arriveAndLock(int, int)})</li>
+ * <li>read conflicts: a conflict scan found the object changed or locked (see
+ * {@link org.multiverse.stms.gamma.transactionalobjects.BaseGammaTxnRef#hasReadConflict})</li>
+ * </ol>
+ * Only 1 out of {@link GammaStmConfig#contentionProfilerSampleRate} events is recorded (with a weight of the sample
+ * rate), so the profiler can stay enabled under heavy contention.
+ * <p/>
+ * The objects are kept in a bounded heavy hitters table using the Space-Saving algorithm: if the table is full, the
+ * object with the lowest count is replaced and the newcomer inherits its count as error. So the counts are an
+ * overestimation of at most the error. The table is striped on the identity hash of the object, and every stripe has
+ * its own lock and its own share of the capacity, so recording events from different threads doesn't serialize on a
+ * single lock. An object always ends up in the same stripe, so every object with a count larger than the smallest
+ * count in its stripe is guaranteed to be in the table.
+ * <p/>
+ * An object can be given a name using {@link #setName(GammaObject, String)}. If it has no name and allocation sites
+ * are tracked (see {@link GammaStmConfig#contentionProfilerAllocationSites}), the place where it was created is used.
+ * <p/>
+ * The profiler is only created when {@link GammaStmConfig#contentionProfilingEnabled} is set; else the only cost on
+ * the contended paths is a null check.
+ *
+ * @author Peter Veentjer.
+ */
+public final class ContentionProfiler {
+
+    private static final int ABORT = 0;
+    private static final int LOCK_FAILURE = 1;
+    private static final int READ_CONFLICT = 2;
+
+    private final int capacity;
+    private final int sampleRate;
+    private final boolean allocationSitesEnabled;
+    private final Stripe[] stripes;
+    private final int stripeMask;
+    //guarded by itself.
+    private final Map<GammaObject, String> names = new WeakHashMap<GammaObject, String>();
+    //guarded by itself.
+    private final Map<GammaObject, String> allocationSites = new WeakHashMap<GammaObject, String>();
+
+    /**
+     * Creates a ContentionProfiler with a stripe per processor.
+     *
+     * @param capacity               the maximum number of objects in the heavy hitters table.
+     * @param sampleRate             1 out of sampleRate events is recorded.
+     * @param allocationSitesEnabled if the allocation sites of the transactional objects are tracked.
+     * @throws IllegalArgumentException if capacity or sampleRate is smaller than 1.
+     */
+    public ContentionProfiler(int capacity, int sampleRate, boolean allocationSitesEnabled) {
+        this(capacity, sampleRate, allocationSitesEnabled, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Creates a ContentionProfiler.
+     *
+     * @param capacity               the maximum number of objects in the heavy hitters table.
+     * @param sampleRate             1 out of sampleRate events is recorded.
+     * @param allocationSitesEnabled if the allocation sites of the transactional objects are tracked.
+     * @param stripes                the number of stripes of the heavy hitters table. The value is rounded up to the
+     *                               next power of two, but it is never larger than the capacity.
+     * @throws IllegalArgumentException if capacity, sampleRate or stripes is smaller than 1.
+     */
+    public ContentionProfiler(int capacity, int sampleRate, boolean allocationSitesEnabled, int stripes) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity can't be smaller than 1, capacity was " + capacity);
+        }
+
+        if (sampleRate < 1) {
+            throw new IllegalArgumentException("sampleRate can't be smaller than 1, sampleRate was " + sampleRate);
+        }
+
+        if (stripes < 1) {
+            throw new IllegalArgumentException("stripes can't be smaller than 1, stripes was " + stripes);
+        }
+
+        int stripeCount = 1;
+        while (stripeCount < stripes && stripeCount * 2 <= capacity) {
+            stripeCount <<= 1;
+        }
+
+        this.capacity = capacity;
+        this.sampleRate = sampleRate;
+        this.allocationSitesEnabled = allocationSitesEnabled;
+        this.stripeMask = stripeCount - 1;
+        this.stripes = new Stripe[stripeCount];
+        for (int k = 0; k < stripeCount; k++) {
+            //the remainder of the capacity is spread over the first stripes.
+            this.stripes[k] = new Stripe(capacity / stripeCount + (k < capacity % stripeCount ? 1 : 0));
+        }
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    public boolean isAllocationSitesEnabled() {
+        return allocationSitesEnabled;
+    }
+
+    public int getStripeCount() {
+        return stripes.length;
+    }
+
+    /**
+     * Gives the object a name that is used in the report.
+     *
+     * @param object the transactional object.
+     * @param name   the name.
+     * @throws NullPointerException if object or name is null.
+     */
+    public void setName(GammaObject object, String name) {
+        if (object == null) {
+            throw new NullPointerException("object can't be null");
+        }
+
+        if (name == null) {
+            throw new NullPointerException("name can't be null");
+        }
+
+        synchronized (names) {
+            names.put(object, name);
+        }
+    }
+
+    /**
+     * Returns the name of the object used in the report: the name set using {@link #setName(GammaObject, String)},
+     * otherwise the allocation site, otherwise the class and identity hash code.
+     *
+     * @param object the transactional object.
+     * @return the name of the object.
+     */
+    public String getName(GammaObject object) {
+        String name;
+        synchronized (names) {
+            name = names.get(object);
+        }
+
+        if (name != null) {
+            return name;
+        }
+
+        synchronized (allocationSites) {
+            name = allocationSites.get(object);
+        }
+
+        return name != null ? name : toDebugString(object);
+    }
+
+    /**
+     * Signals that an object has been created. If allocation sites are tracked, the first caller that isn't a
+     * constructor or part of the GammaStm is stored as allocation site.
+     *
+     * @param object the created object.
+     */
+    public void onCreate(GammaObject object) {
+        if (!allocationSitesEnabled) {
+            return;
+        }
+
+        for (StackTraceElement element : new Throwable().getStackTrace()) {
+            if (element.getMethodName().equals("<init>")
+                    || element.getClassName().startsWith(GammaStm.class.getName())
+                    || element.getClassName().equals(ContentionProfiler.class.getName())) {
+                continue;
+            }
+
+            synchronized (allocationSites) {
+                allocationSites.put(object, element.toString());
+            }
+            return;
+        }
+    }
+
+    /**
+     * Signals that a transaction was aborted because of a read/write conflict on the object.
+     *
+     * @param object the object that caused the conflict.
+     */
+    public void onAbort(GammaObject object) {
+        if (sample()) {
+            record(object, ABORT);
+        }
+    }
+
+    /**
+     * Signals that a lock on the object could not be acquired.
+     *
+     * @param object the object that could not be locked.
+     */
+    public void onLockFailure(GammaObject object) {
+        if (sample()) {
+            record(object, LOCK_FAILURE);
+        }
+    }
+
+    /**
+     * Signals that a conflict scan detected a conflict on the object.
+     *
+     * @param object the object with the conflict.
+     */
+    public void onReadConflict(GammaObject object) {
+        if (sample()) {
+            record(object, READ_CONFLICT);
+        }
+    }
+
+    private boolean sample() {
+        if (sampleRate == 1) {
+            return true;
+        }
+
+        //every thread has its own random, so the sampling itself doesn't write shared memory.
+        return ThreadLocalRandom.current().nextInt(sampleRate) == 0;
+    }
+
+    private void record(GammaObject object, int kind) {
+        final Stripe stripe = stripes[object.identityHashCode() & stripeMask];
+        synchronized (stripe) {
+            stripe.record(object, kind, sampleRate);
+        }
+    }
+
+    /**
+     * Returns the objects with the most contention.
+     *
+     * @param n the maximum number of objects to return.
+     * @return a snapshot of the at most n objects with the most contention, the most contended first.
+     * @throws IllegalArgumentException if n is smaller than 0.
+     */
+    public List<HotRef> getTop(int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n can't be smaller than 0, n was " + n);
+        }
+
+        final List<Entry> snapshot = new ArrayList<Entry>();
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                for (Entry entry : stripe.entries.values()) {
+                    snapshot.add(entry.copy());
+                }
+            }
+        }
+
+        final List<HotRef> result = new ArrayList<HotRef>(snapshot.size());
+        for (Entry entry : snapshot) {
+            result.add(new HotRef(entry, getName(entry.object)));
+        }
+
+        Collections.sort(result, new Comparator<HotRef>() {
+            @Override
+            public int compare(HotRef o1, HotRef o2) {
+                return o1.total < o2.total ? 1 : (o1.total == o2.total ? 0 : -1);
+            }
+        });
+
+        return result.size() <= n ? result : new ArrayList<HotRef>(result.subList(0, n));
+    }
+
+    /**
+     * Creates a report of the objects with the most contention.
+     *
+     * @param n the maximum number of objects to report.
+     * @return the report.
+     * @throws IllegalArgumentException if n is smaller than 0.
+     */
+    public String dump(int n) {
+        final StringBuilder sb = new StringBuilder();
+        sb.append(format("%-5s %12s %12s %12s %12s %12s  %s%n",
+                "rank", "total", "aborts", "lockFailures", "readConflicts", "error", "object"));
+
+        int rank = 1;
+        for (HotRef ref : getTop(n)) {
+            sb.append(format("%-5d %12d %12d %12d %12d %12d  %s%n",
+                    rank, ref.total, ref.aborts, ref.lockFailures, ref.readConflicts, ref.error, ref.name));
+            rank++;
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Clears the heavy hitters table. The names and allocation sites are kept.
+     */
+    public void reset() {
+        for (Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.entries.clear();
+            }
+        }
+    }
+
+    /**
+     * A part of the heavy hitters table. All methods need to be called with the lock of the stripe held.
+     */
+    private static final class Stripe {
+        private final int capacity;
+        private final Map<GammaObject, Entry> entries;
+
+        private Stripe(int capacity) {
+            this.capacity = capacity;
+            this.entries = new IdentityHashMap<GammaObject, Entry>(capacity * 2);
+        }
+
+        private void record(GammaObject object, int kind, int weight) {
+            Entry entry = entries.get(object);
+            if (entry == null) {
+                long error = 0;
+                if (entries.size() == capacity) {
+                    final Entry min = findMin();
+                    entries.remove(min.object);
+                    error = min.total;
+                }
+
+                entry = new Entry(object, error);
+                entries.put(object, entry);
+            }
+
+            entry.counts[kind] += weight;
+            entry.total += weight;
+        }
+
+        private Entry findMin() {
+            Entry min = null;
+            for (Entry entry : entries.values()) {
+                if (min == null || entry.total < min.total) {
+                    min = entry;
+                }
+            }
+            return min;
+        }
+    }
+
+    private static final class Entry {
+        private final GammaObject object;
+        private final long error;
+        private final long[] counts = new long[3];
+        private long total;
+
+        private Entry(GammaObject object, long error) {
+            this.object = object;
+            this.error = error;
+            this.total = error;
+        }
+
+        private Entry copy() {
+            final Entry copy = new Entry(object, error);
+            System.arraycopy(counts, 0, copy.counts, 0, counts.length);
+            copy.total = total;
+            return copy;
+        }
+    }
+
+    /**
+     * A snapshot of the contention of a transactional object.
+     */
+    public static final class HotRef {
+        public final GammaObject object;
+        public final String name;
+        public final long aborts;
+        public final long lockFailures;
+        public final long readConflicts;
+        //the count inherited when the object replaced another object in the table.
+        public final long error;
+        //the sum of all events and the error.
+        public final long total;
+
+        private HotRef(Entry entry, String name) {
+            this.object = entry.object;
+            this.name = name;
+            this.aborts = entry.counts[ABORT];
+            this.lockFailures = entry.counts[LOCK_FAILURE];
+            this.readConflicts = entry.counts[READ_CONFLICT];
+            this.error = entry.error;
+            this.total = entry.total;
+        }
+
+        @Override
+        public String toString() {
+            return format("HotRef(name=%s, total=%s, aborts=%s, lockFailures=%s, readConflicts=%s, error=%s)",
+                    name, total, aborts, lockFailures, readConflicts, error);
+        }
+    }
+}
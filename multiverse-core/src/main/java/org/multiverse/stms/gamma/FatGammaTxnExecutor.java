@@ -198,13 +198,50 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
         Error cause = null;
 
         try{
+            boolean irrevocableTokenAcquired = false;
+            final long startNs = metrics == null ? 0 : metrics.onStart();
+            boolean admitted = false;
+            long attemptStartNs = 0;
             boolean abort = true;
             try {
                 do {
+                    if (scheduler != null && !admitted && !tx.irrevocable) {
+                        admitted = scheduler.enter();
+                    }
+
+                    if (!irrevocableTokenAcquired && tx.getAttempt() > irrevocableAfterAttempts) {
+                        if(TRACING_ENABLED){
+                            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
+                                logger.info(format("[%s] Escalating to an irrevocable transaction",
+                                    txnConfig.familyName));
+                            }
+                        }
+
+                        irrevocableTokenAcquired = irrevocabilityToken.acquire();
+                        tx.irrevocable = true;
+                    }
+
                     try {
                         cause = null;
+                        if (eventRecorder != null) {
+                            attemptStartNs = System.nanoTime();
+                            eventRecorder.onBegin(tx);
+                        }
                         E result = callable.call(tx);
+                        final int txSize = eventRecorder == null ? 0 : tx.size();
                         tx.commit();
+                        if (eventRecorder != null) {
+                            eventRecorder.onCommit(tx, txSize, System.nanoTime() - attemptStartNs);
+                        }
+                        if (metrics != null) {
+                            metrics.onCommit(tx.getAttempt(), startNs);
+                        }
+                        if (scheduler != null) {
+                            scheduler.onCommit();
+                        }
+                        if (adaptiveBackoffPolicy != null) {
+                            adaptiveBackoffPolicy.signalCommit();
+                        }
                         abort = false;
                         return result;
                     } catch (RetryError e) {
@@ -214,6 +251,21 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
                                     txnConfig.familyName));
                             }
                         }
+                        if (irrevocableTokenAcquired) {
+                            //the update we are waiting for could be done by a transaction that needs the token.
+                            irrevocableTokenAcquired = false;
+                            irrevocabilityToken.release();
+                        }
+                        if (metrics != null) {
+                            metrics.onRetry();
+                        }
+                        if (eventRecorder != null) {
+                            eventRecorder.onAbort(tx, e);
+                        }
+                        if (admitted) {
+                            admitted = false;
+                            scheduler.exit();
+                        }
                         tx.awaitUpdate();
                     } catch (SpeculativeConfigurationError e) {
                         if(TRACING_ENABLED){
@@ -223,6 +275,13 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
                             }
                         }
 
+                        if (metrics != null) {
+                            metrics.onSpeculativeFailure();
+                        }
+                        if (eventRecorder != null) {
+                            eventRecorder.onAbort(tx, e);
+                        }
+
                         abort = false;
                         GammaTxn old = tx;
                         tx = txnFactory.upgradeAfterSpeculativeFailure(tx,pool);
@@ -237,7 +296,23 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
                             }
                         }
 
-                        backoffPolicy.delayUninterruptible(tx.getAttempt());
+                        if (metrics != null) {
+                            metrics.onReadWriteConflict(tx.lockConflict);
+                        }
+                        if (eventRecorder != null) {
+                            eventRecorder.onAbort(tx, e);
+                        }
+
+                        if (scheduler != null) {
+                            scheduler.onAbort();
+                        }
+
+                        if (contentionManager == null) {
+                            backoffPolicy.delayUninterruptible(tx.getAttempt());
+                        } else {
+                            contentionManager.onAbort(tx);
+                        }
+                        irrevocabilityToken.awaitRelease();
                     }
                 } while (tx.softReset());
             } finally {
@@ -245,6 +320,14 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
                     tx.abort();
                 }
 
+                if (admitted) {
+                    scheduler.exit();
+                }
+
+                if (irrevocableTokenAcquired) {
+                    irrevocabilityToken.release();
+                }
+
                 pool.put(tx);
                 transactionContainer.txn = null;
             }
@@ -432,13 +515,50 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
         Error cause = null;
 
         try{
+            boolean irrevocableTokenAcquired = false;
+            final long startNs = metrics == null ? 0 : metrics.onStart();
+            boolean admitted = false;
+            long attemptStartNs = 0;
             boolean abort = true;
             try {
                 do {
+                    if (scheduler != null && !admitted && !tx.irrevocable) {
+                        admitted = scheduler.enter();
+                    }
+
+                    if (!irrevocableTokenAcquired && tx.getAttempt() > irrevocableAfterAttempts) {
+                        if(TRACING_ENABLED){
+                            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
+                                logger.info(format("[%s] Escalating to an irrevocable transaction",
+                                    txnConfig.familyName));
+                            }
+                        }
+
+                        irrevocableTokenAcquired = irrevocabilityToken.acquire();
+                        tx.irrevocable = true;
+                    }
+
                     try {
                         cause = null;
+                        if (eventRecorder != null) {
+                            attemptStartNs = System.nanoTime();
+                            eventRecorder.onBegin(tx);
+                        }
                         int result = callable.call(tx);
+                        final int txSize = eventRecorder == null ? 0 : tx.size();
                         tx.commit();
+                        if (eventRecorder != null) {
+                            eventRecorder.onCommit(tx, txSize, System.nanoTime() - attemptStartNs);
+                        }
+                        if (metrics != null) {
+                            metrics.onCommit(tx.getAttempt(), startNs);
+                        }
+                        if (scheduler != null) {
+                            scheduler.onCommit();
+                        }
+                        if (adaptiveBackoffPolicy != null) {
+                            adaptiveBackoffPolicy.signalCommit();
+                        }
                         abort = false;
                         return result;
                     } catch (RetryError e) {
@@ -448,6 +568,21 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
                                     txnConfig.familyName));
                             }
                         }
+                        if (irrevocableTokenAcquired) {
+                            //the update we are waiting for could be done by a transaction that needs the token.
+                            irrevocableTokenAcquired = false;
+                            irrevocabilityToken.release();
+                        }
+                        if (metrics != null) {
+                            metrics.onRetry();
+                        }
+                        if (eventRecorder != null) {
+                            eventRecorder.onAbort(tx, e);
+                        }
+                        if (admitted) {
+                            admitted = false;
+                            scheduler.exit();
+                        }
                         tx.awaitUpdate();
                     } catch (SpeculativeConfigurationError e) {
                         if(TRACING_ENABLED){
@@ -457,6 +592,13 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
                             }
                         }
 
+                        if (metrics != null) {
+                            metrics.onSpeculativeFailure();
+                        }
+                        if (eventRecorder != null) {
+                            eventRecorder.onAbort(tx, e);
+                        }
+
                         abort = false;
                         GammaTxn old = tx;
                         tx = txnFactory.upgradeAfterSpeculativeFailure(tx,pool);
@@ -471,7 +613,23 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
                             }
                         }
 
-                        backoffPolicy.delayUninterruptible(tx.getAttempt());
+                        if (metrics != null) {
+                            metrics.onReadWriteConflict(tx.lockConflict);
+                        }
+                        if (eventRecorder != null) {
+                            eventRecorder.onAbort(tx, e);
+                        }
+
+                        if (scheduler != null) {
+                            scheduler.onAbort();
+                        }
+
+                        if (contentionManager == null) {
+                            backoffPolicy.delayUninterruptible(tx.getAttempt());
+                        } else {
+                            contentionManager.onAbort(tx);
+                        }
+                        irrevocabilityToken.awaitRelease();
                     }
                 } while (tx.softReset());
             } finally {
@@ -479,6 +637,14 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
                     tx.abort();
                 }
 
+                if (admitted) {
+                    scheduler.exit();
+                }
+
+                if (irrevocableTokenAcquired) {
+                    irrevocabilityToken.release();
+                }
+
                 pool.put(tx);
                 transactionContainer.txn = null;
             }
@@ -666,13 +832,50 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
         Error cause = null;
 
         try{
+            boolean irrevocableTokenAcquired = false;
+            final long startNs = metrics == null ? 0 : metrics.onStart();
+            boolean admitted = false;
+            long attemptStartNs = 0;
             boolean abort = true;
             try {
                 do {
+                    if (scheduler != null && !admitted && !tx.irrevocable) {
+                        admitted = scheduler.enter();
+                    }
+
+                    if (!irrevocableTokenAcquired && tx.getAttempt() > irrevocableAfterAttempts) {
+                        if(TRACING_ENABLED){
+                            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
+                                logger.info(format("[%s] Escalating to an irrevocable transaction",
+                                    txnConfig.familyName));
+                            }
+                        }
+
+                        irrevocableTokenAcquired = irrevocabilityToken.acquire();
+                        tx.irrevocable = true;
+                    }
+
                     try {
                         cause = null;
+                        if (eventRecorder != null) {
+                            attemptStartNs = System.nanoTime();
+                            eventRecorder.onBegin(tx);
+                        }
                         long result = callable.call(tx);
+                        final int txSize = eventRecorder == null ? 0 : tx.size();
                         tx.commit();
+                        if (eventRecorder != null) {
+                            eventRecorder.onCommit(tx, txSize, System.nanoTime() - attemptStartNs);
+                        }
+                        if (metrics != null) {
+                            metrics.onCommit(tx.getAttempt(), startNs);
+                        }
+                        if (scheduler != null) {
+                            scheduler.onCommit();
+                        }
+                        if (adaptiveBackoffPolicy != null) {
+                            adaptiveBackoffPolicy.signalCommit();
+                        }
                         abort = false;
                         return result;
                     } catch (RetryError e) {
@@ -682,6 +885,21 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
                                     txnConfig.familyName));
                             }
                         }
+                        if (irrevocableTokenAcquired) {
+                            //the update we are waiting for could be done by a transaction that needs the token.
+                            irrevocableTokenAcquired = false;
+                            irrevocabilityToken.release();
+                        }
+                        if (metrics != null) {
+                            metrics.onRetry();
+                        }
+                        if (eventRecorder != null) {
+                            eventRecorder.onAbort(tx, e);
+                        }
+                        if (admitted) {
+                            admitted = false;
+                            scheduler.exit();
+                        }
                         tx.awaitUpdate();
                     } catch (SpeculativeConfigurationError e) {
                         if(TRACING_ENABLED){
@@ -691,6 +909,13 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
                             }
                         }
 
+                        if (metrics != null) {
+                            metrics.onSpeculativeFailure();
+                        }
+                        if (eventRecorder != null) {
+                            eventRecorder.onAbort(tx, e);
+                        }
+
                         abort = false;
                         GammaTxn old = tx;
                         tx = txnFactory.upgradeAfterSpeculativeFailure(tx,pool);
@@ -705,7 +930,23 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
                             }
                         }
 
-                        backoffPolicy.delayUninterruptible(tx.getAttempt());
+                        if (metrics != null) {
+                            metrics.onReadWriteConflict(tx.lockConflict);
+                        }
+                        if (eventRecorder != null) {
+                            eventRecorder.onAbort(tx, e);
+                        }
+
+                        if (scheduler != null) {
+                            scheduler.onAbort();
+                        }
+
+                        if (contentionManager == null) {
+                            backoffPolicy.delayUninterruptible(tx.getAttempt());
+                        } else {
+                            contentionManager.onAbort(tx);
+                        }
+                        irrevocabilityToken.awaitRelease();
                     }
                 } while (tx.softReset());
             } finally {
@@ -713,6 +954,14 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
                     tx.abort();
                 }
 
+                if (admitted) {
+                    scheduler.exit();
+                }
+
+                if (irrevocableTokenAcquired) {
+                    irrevocabilityToken.release();
+                }
+
                 pool.put(tx);
                 transactionContainer.txn = null;
             }
@@ -900,13 +1149,50 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
         Error cause = null;
 
         try{
+            boolean irrevocableTokenAcquired = false;
+            final long startNs = metrics == null ? 0 : metrics.onStart();
+            boolean admitted = false;
+            long attemptStartNs = 0;
             boolean abort = true;
             try {
                 do {
+                    if (scheduler != null && !admitted && !tx.irrevocable) {
+                        admitted = scheduler.enter();
+                    }
+
+                    if (!irrevocableTokenAcquired && tx.getAttempt() > irrevocableAfterAttempts) {
+                        if(TRACING_ENABLED){
+                            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
+                                logger.info(format("[%s] Escalating to an irrevocable transaction",
+                                    txnConfig.familyName));
+                            }
+                        }
+
+                        irrevocableTokenAcquired = irrevocabilityToken.acquire();
+                        tx.irrevocable = true;
+                    }
+
                     try {
                         cause = null;
+                        if (eventRecorder != null) {
+                            attemptStartNs = System.nanoTime();
+                            eventRecorder.onBegin(tx);
+                        }
                         double result = callable.call(tx);
+                        final int txSize = eventRecorder == null ? 0 : tx.size();
                         tx.commit();
+                        if (eventRecorder != null) {
+                            eventRecorder.onCommit(tx, txSize, System.nanoTime() - attemptStartNs);
+                        }
+                        if (metrics != null) {
+                            metrics.onCommit(tx.getAttempt(), startNs);
+                        }
+                        if (scheduler != null) {
+                            scheduler.onCommit();
+                        }
+                        if (adaptiveBackoffPolicy != null) {
+                            adaptiveBackoffPolicy.signalCommit();
+                        }
                         abort = false;
                         return result;
                     } catch (RetryError e) {
@@ -916,6 +1202,21 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
                                     txnConfig.familyName));
                             }
                         }
+                        if (irrevocableTokenAcquired) {
+                            //the update we are waiting for could be done by a transaction that needs the token.
+                            irrevocableTokenAcquired = false;
+                            irrevocabilityToken.release();
+                        }
+                        if (metrics != null) {
+                            metrics.onRetry();
+                        }
+                        if (eventRecorder != null) {
+                            eventRecorder.onAbort(tx, e);
+                        }
+                        if (admitted) {
+                            admitted = false;
+                            scheduler.exit();
+                        }
                         tx.awaitUpdate();
                     } catch (SpeculativeConfigurationError e) {
                         if(TRACING_ENABLED){
@@ -925,6 +1226,13 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
                             }
                         }
 
+                        if (metrics != null) {
+                            metrics.onSpeculativeFailure();
+                        }
+                        if (eventRecorder != null) {
+                            eventRecorder.onAbort(tx, e);
+                        }
+
                         abort = false;
                         GammaTxn old = tx;
                         tx = txnFactory.upgradeAfterSpeculativeFailure(tx,pool);
@@ -939,7 +1247,23 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
                             }
                         }
 
-                        backoffPolicy.delayUninterruptible(tx.getAttempt());
+                        if (metrics != null) {
+                            metrics.onReadWriteConflict(tx.lockConflict);
+                        }
+                        if (eventRecorder != null) {
+                            eventRecorder.onAbort(tx, e);
+                        }
+
+                        if (scheduler != null) {
+                            scheduler.onAbort();
+                        }
+
+                        if (contentionManager == null) {
+                            backoffPolicy.delayUninterruptible(tx.getAttempt());
+                        } else {
+                            contentionManager.onAbort(tx);
+                        }
+                        irrevocabilityToken.awaitRelease();
                     }
                 } while (tx.softReset());
             } finally {
@@ -947,6 +1271,14 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
                     tx.abort();
                 }
 
+                if (admitted) {
+                    scheduler.exit();
+                }
+
+                if (irrevocableTokenAcquired) {
+                    irrevocabilityToken.release();
+                }
+
                 pool.put(tx);
                 transactionContainer.txn = null;
             }
@@ -1134,13 +1466,50 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
         Error cause = null;
 
         try{
+            boolean irrevocableTokenAcquired = false;
+            final long startNs = metrics == null ? 0 : metrics.onStart();
+            boolean admitted = false;
+            long attemptStartNs = 0;
             boolean abort = true;
             try {
                 do {
+                    if (scheduler != null && !admitted && !tx.irrevocable) {
+                        admitted = scheduler.enter();
+                    }
+
+                    if (!irrevocableTokenAcquired && tx.getAttempt() > irrevocableAfterAttempts) {
+                        if(TRACING_ENABLED){
+                            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
+                                logger.info(format("[%s] Escalating to an irrevocable transaction",
+                                    txnConfig.familyName));
+                            }
+                        }
+
+                        irrevocableTokenAcquired = irrevocabilityToken.acquire();
+                        tx.irrevocable = true;
+                    }
+
                     try {
                         cause = null;
+                        if (eventRecorder != null) {
+                            attemptStartNs = System.nanoTime();
+                            eventRecorder.onBegin(tx);
+                        }
                         boolean result = callable.call(tx);
+                        final int txSize = eventRecorder == null ? 0 : tx.size();
                         tx.commit();
+                        if (eventRecorder != null) {
+                            eventRecorder.onCommit(tx, txSize, System.nanoTime() - attemptStartNs);
+                        }
+                        if (metrics != null) {
+                            metrics.onCommit(tx.getAttempt(), startNs);
+                        }
+                        if (scheduler != null) {
+                            scheduler.onCommit();
+                        }
+                        if (adaptiveBackoffPolicy != null) {
+                            adaptiveBackoffPolicy.signalCommit();
+                        }
                         abort = false;
                         return result;
                     } catch (RetryError e) {
@@ -1150,6 +1519,21 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
                                     txnConfig.familyName));
                             }
                         }
+                        if (irrevocableTokenAcquired) {
+                            //the update we are waiting for could be done by a transaction that needs the token.
+                            irrevocableTokenAcquired = false;
+                            irrevocabilityToken.release();
+                        }
+                        if (metrics != null) {
+                            metrics.onRetry();
+                        }
+                        if (eventRecorder != null) {
+                            eventRecorder.onAbort(tx, e);
+                        }
+                        if (admitted) {
+                            admitted = false;
+                            scheduler.exit();
+                        }
                         tx.awaitUpdate();
                     } catch (SpeculativeConfigurationError e) {
                         if(TRACING_ENABLED){
@@ -1159,6 +1543,13 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
                             }
                         }
 
+                        if (metrics != null) {
+                            metrics.onSpeculativeFailure();
+                        }
+                        if (eventRecorder != null) {
+                            eventRecorder.onAbort(tx, e);
+                        }
+
                         abort = false;
                         GammaTxn old = tx;
                         tx = txnFactory.upgradeAfterSpeculativeFailure(tx,pool);
@@ -1173,7 +1564,23 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
                             }
                         }
 
-                        backoffPolicy.delayUninterruptible(tx.getAttempt());
+                        if (metrics != null) {
+                            metrics.onReadWriteConflict(tx.lockConflict);
+                        }
+                        if (eventRecorder != null) {
+                            eventRecorder.onAbort(tx, e);
+                        }
+
+                        if (scheduler != null) {
+                            scheduler.onAbort();
+                        }
+
+                        if (contentionManager == null) {
+                            backoffPolicy.delayUninterruptible(tx.getAttempt());
+                        } else {
+                            contentionManager.onAbort(tx);
+                        }
+                        irrevocabilityToken.awaitRelease();
                     }
                 } while (tx.softReset());
             } finally {
@@ -1181,6 +1588,14 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
                     tx.abort();
                 }
 
+                if (admitted) {
+                    scheduler.exit();
+                }
+
+                if (irrevocableTokenAcquired) {
+                    irrevocabilityToken.release();
+                }
+
                 pool.put(tx);
                 transactionContainer.txn = null;
             }
@@ -1375,13 +1790,50 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
         Error cause = null;
 
         try{
+            boolean irrevocableTokenAcquired = false;
+            final long startNs = metrics == null ? 0 : metrics.onStart();
+            boolean admitted = false;
+            long attemptStartNs = 0;
             boolean abort = true;
             try {
                 do {
+                    if (scheduler != null && !admitted && !tx.irrevocable) {
+                        admitted = scheduler.enter();
+                    }
+
+                    if (!irrevocableTokenAcquired && tx.getAttempt() > irrevocableAfterAttempts) {
+                        if(TRACING_ENABLED){
+                            if (txnConfig.getTraceLevel().isLoggableFrom(TraceLevel.Coarse)) {
+                                logger.info(format("[%s] Escalating to an irrevocable transaction",
+                                    txnConfig.familyName));
+                            }
+                        }
+
+                        irrevocableTokenAcquired = irrevocabilityToken.acquire();
+                        tx.irrevocable = true;
+                    }
+
                     try {
                         cause = null;
+                        if (eventRecorder != null) {
+                            attemptStartNs = System.nanoTime();
+                            eventRecorder.onBegin(tx);
+                        }
                         callable.call(tx);
+                        final int txSize = eventRecorder == null ? 0 : tx.size();
                         tx.commit();
+                        if (eventRecorder != null) {
+                            eventRecorder.onCommit(tx, txSize, System.nanoTime() - attemptStartNs);
+                        }
+                        if (metrics != null) {
+                            metrics.onCommit(tx.getAttempt(), startNs);
+                        }
+                        if (scheduler != null) {
+                            scheduler.onCommit();
+                        }
+                        if (adaptiveBackoffPolicy != null) {
+                            adaptiveBackoffPolicy.signalCommit();
+                        }
                         abort = false;
                         return;
                     } catch (RetryError e) {
@@ -1391,6 +1843,21 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
                                     txnConfig.familyName));
                             }
                         }
+                        if (irrevocableTokenAcquired) {
+                            //the update we are waiting for could be done by a transaction that needs the token.
+                            irrevocableTokenAcquired = false;
+                            irrevocabilityToken.release();
+                        }
+                        if (metrics != null) {
+                            metrics.onRetry();
+                        }
+                        if (eventRecorder != null) {
+                            eventRecorder.onAbort(tx, e);
+                        }
+                        if (admitted) {
+                            admitted = false;
+                            scheduler.exit();
+                        }
                         tx.awaitUpdate();
                     } catch (SpeculativeConfigurationError e) {
                         if(TRACING_ENABLED){
@@ -1400,6 +1867,13 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
                             }
                         }
 
+                        if (metrics != null) {
+                            metrics.onSpeculativeFailure();
+                        }
+                        if (eventRecorder != null) {
+                            eventRecorder.onAbort(tx, e);
+                        }
+
                         abort = false;
                         GammaTxn old = tx;
                         tx = txnFactory.upgradeAfterSpeculativeFailure(tx,pool);
@@ -1414,7 +1888,23 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
                             }
                         }
 
-                        backoffPolicy.delayUninterruptible(tx.getAttempt());
+                        if (metrics != null) {
+                            metrics.onReadWriteConflict(tx.lockConflict);
+                        }
+                        if (eventRecorder != null) {
+                            eventRecorder.onAbort(tx, e);
+                        }
+
+                        if (scheduler != null) {
+                            scheduler.onAbort();
+                        }
+
+                        if (contentionManager == null) {
+                            backoffPolicy.delayUninterruptible(tx.getAttempt());
+                        } else {
+                            contentionManager.onAbort(tx);
+                        }
+                        irrevocabilityToken.awaitRelease();
                     }
                 } while (tx.softReset());
             } finally {
@@ -1422,6 +1912,14 @@ public final class FatGammaTxnExecutor extends AbstractGammaTxnExecutor{
                     tx.abort();
                 }
 
+                if (admitted) {
+                    scheduler.exit();
+                }
+
+                if (irrevocableTokenAcquired) {
+                    irrevocabilityToken.release();
+                }
+
                 pool.put(tx);
                 transactionContainer.txn = null;
             }
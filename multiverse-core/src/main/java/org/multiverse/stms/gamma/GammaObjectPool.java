@@ -46,6 +46,14 @@ public final class GammaObjectPool {
     private final static boolean CALLABLENODE_POOLING_ENABLED = Boolean.parseBoolean(
             System.getProperty("org.multiverse.stm.gamma.GammaObjectPool.callableNodePooling", String.valueOf(ENABLED)));
 
+    //larger tranlocal arrays are not pooled.
+    private final static int MAX_POOLED_TRANLOCAL_ARRAY_LENGTH = 8192;
+
+    /**
+     * The statistics of all GammaObjectPools, only collected if {@link PoolStatistics#ENABLED}.
+     */
+    public final static PoolStatistics STATISTICS = new PoolStatistics(Runtime.getRuntime().availableProcessors());
+
     private final boolean tranlocalPoolingEnabled;
     private final boolean tranlocalArrayPoolingEnabled;
     private final boolean listenersPoolingEnabled;
@@ -87,11 +95,17 @@ public final class GammaObjectPool {
         }
 
         if (lastUsedGammaTxnRef == -1) {
+            if (PoolStatistics.ENABLED) {
+                STATISTICS.onMiss();
+            }
             Tranlocal tranlocal = new Tranlocal();
             tranlocal.owner = owner;
             return tranlocal;
         }
 
+        if (PoolStatistics.ENABLED) {
+            STATISTICS.onHit();
+        }
         Tranlocal tranlocal = tranlocals[lastUsedGammaTxnRef];
         tranlocal.owner = owner;
         tranlocals[lastUsedGammaTxnRef] = null;
@@ -119,7 +133,8 @@ public final class GammaObjectPool {
         tranlocals[lastUsedGammaTxnRef] = tranlocal;
     }
 
-    private Tranlocal[][] tranlocalArrayPool = new Tranlocal[8193][];
+    //one slot per bit length of the array length, so a slot normally contains an array with a power of two length.
+    private final Tranlocal[][] tranlocalArrayPool = new Tranlocal[32][];
 
     /**
      * Puts a GammaTranlocal array in the pool.
@@ -136,11 +151,11 @@ public final class GammaObjectPool {
             return;
         }
 
-        if (array.length - 1 > tranlocalArrayPool.length) {
+        if (array.length > MAX_POOLED_TRANLOCAL_ARRAY_LENGTH) {
             return;
         }
 
-        int index = array.length;
+        int index = tranlocalArrayPoolIndex(array.length);
 
         if (tranlocalArrayPool[index] != null) {
             return;
@@ -166,23 +181,33 @@ public final class GammaObjectPool {
             throw new IllegalArgumentException();
         }
 
-        if (!tranlocalArrayPoolingEnabled) {
+        if (!tranlocalArrayPoolingEnabled || size > MAX_POOLED_TRANLOCAL_ARRAY_LENGTH) {
+            if (PoolStatistics.ENABLED) {
+                STATISTICS.onMiss();
+            }
             return new Tranlocal[size];
         }
 
-        if (size >= tranlocalArrayPool.length) {
+        final int index = tranlocalArrayPoolIndex(size);
+        final Tranlocal[] array = tranlocalArrayPool[index];
+        if (array == null || array.length != size) {
+            if (PoolStatistics.ENABLED) {
+                STATISTICS.onMiss();
+            }
             return new Tranlocal[size];
         }
 
-        if (tranlocalArrayPool[size] == null) {
-            return new Tranlocal[size];
+        if (PoolStatistics.ENABLED) {
+            STATISTICS.onHit();
         }
-
-        Tranlocal[] array = tranlocalArrayPool[size];
-        tranlocalArrayPool[size] = null;
+        tranlocalArrayPool[index] = null;
         return array;
     }
 
+    private static int tranlocalArrayPoolIndex(final int length) {
+        return 32 - Integer.numberOfLeadingZeros(length);
+    }
+
     /**
      * Takes a CallableNode from the pool, or null if none is available.
      *
@@ -190,9 +215,15 @@ public final class GammaObjectPool {
      */
     public CallableNode takeCallableNode() {
         if (!callableNodePoolingEnabled || callableNodePoolIndex == -1) {
+            if (PoolStatistics.ENABLED) {
+                STATISTICS.onMiss();
+            }
             return new CallableNode();
         }
 
+        if (PoolStatistics.ENABLED) {
+            STATISTICS.onHit();
+        }
         CallableNode node = callableNodePool[callableNodePoolIndex];
         callableNodePool[callableNodePoolIndex] = null;
         callableNodePoolIndex--;
@@ -228,9 +259,15 @@ public final class GammaObjectPool {
      */
     public ArrayList takeArrayList() {
         if (!arrayListPoolingEnabled || arrayListPoolIndex == -1) {
+            if (PoolStatistics.ENABLED) {
+                STATISTICS.onMiss();
+            }
             return new ArrayList(10);
         }
 
+        if (PoolStatistics.ENABLED) {
+            STATISTICS.onHit();
+        }
         ArrayList list = arrayListPool[arrayListPoolIndex];
         arrayListPool[arrayListPoolIndex] = null;
         arrayListPoolIndex--;
@@ -268,9 +305,15 @@ public final class GammaObjectPool {
      */
     public Listeners takeListeners() {
         if (!listenersPoolingEnabled || listenersPoolIndex == -1) {
+            if (PoolStatistics.ENABLED) {
+                STATISTICS.onMiss();
+            }
             return new Listeners();
         }
 
+        if (PoolStatistics.ENABLED) {
+            STATISTICS.onHit();
+        }
         Listeners listeners = listenersPool[listenersPoolIndex];
         listenersPool[listenersPoolIndex] = null;
         listenersPoolIndex--;
@@ -300,7 +343,8 @@ public final class GammaObjectPool {
 
     // ============================= listeners array =============================
 
-    private Listeners[] listenersArray = new Listeners[100000];
+    //created when the first array is put, most transactions never need one.
+    private Listeners[] listenersArray;
 
     /**
      * Takes a Listeners array from the pool. If an array is returned, it is completely nulled.
@@ -314,14 +358,16 @@ public final class GammaObjectPool {
             throw new IllegalArgumentException();
         }
 
-        if (!listenersArrayPoolingEnabled) {
+        if (!listenersArrayPoolingEnabled || listenersArray == null || listenersArray.length < minimalSize) {
+            if (PoolStatistics.ENABLED) {
+                STATISTICS.onMiss();
+            }
             return new Listeners[minimalSize];
         }
 
-        if (listenersArray == null || listenersArray.length < minimalSize) {
-            return new Listeners[minimalSize];
+        if (PoolStatistics.ENABLED) {
+            STATISTICS.onHit();
         }
-
         Listeners[] result = listenersArray;
         listenersArray = null;
         return result;
@@ -345,7 +391,8 @@ public final class GammaObjectPool {
             return;
         }
 
-        if (this.listenersArray != listenersArray) {
+        //only the largest array is kept.
+        if (this.listenersArray != null && this.listenersArray.length >= listenersArray.length) {
             return;
         }
 
@@ -4,6 +4,9 @@ import org.multiverse.api.*;
 import org.multiverse.api.collections.TxnCollectionsFactory;
 import org.multiverse.api.lifecycle.TxnListener;
 import org.multiverse.collections.NaiveTxnCollectionFactory;
+import org.multiverse.stms.gamma.jmx.GammaStmMBeans;
+import org.multiverse.stms.gamma.jmx.GammaStmMonitor;
+import org.multiverse.stms.gamma.jmx.TxnFamilyMonitor;
 import org.multiverse.stms.gamma.transactionalobjects.*;
 import org.multiverse.stms.gamma.transactions.*;
 import org.multiverse.stms.gamma.transactions.fat.FatFixedLengthGammaTxn;
@@ -12,6 +15,16 @@ import org.multiverse.stms.gamma.transactions.fat.FatVariableLengthGammaTxn;
 import org.multiverse.stms.gamma.transactions.lean.LeanFixedLengthGammaTxn;
 import org.multiverse.stms.gamma.transactions.lean.LeanMonoGammaTxn;
 
+import javax.management.ObjectName;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
 import static org.multiverse.stms.gamma.transactions.ThreadLocalGammaTxnPool.getThreadLocalGammaTxnPool;
 
 
@@ -32,14 +45,43 @@ public final class GammaStm implements Stm {
     public final int defaultMaxRetries;
     public final int spinCount;
     public final BackoffPolicy defaultBackoffPolicy;
-    public final GlobalConflictCounter globalConflictCounter = new GlobalConflictCounter();
-    public final GammaTxnRefFactoryImpl defaultRefFactory = new GammaTxnRefFactoryImpl();
-    public final GammaTxnRefFactoryBuilder refFactoryBuilder = new GammaTxnRefFactoryBuilderImpl();
+    public final GlobalConflictCounter globalConflictCounter;
+    public final GammaTxnRefFactoryImpl defaultRefFactory;
+    public final GammaTxnRefFactoryBuilder refFactoryBuilder;
+    private final ConcurrentMap<String, GlobalConflictCounter> conflictDomains
+            = new ConcurrentHashMap<String, GlobalConflictCounter>();
+    private final int conflictCounterStripes;
     public final GammaTxnExecutor defaultxnExecutor;
     public final GammaTxnConfig defaultConfig;
     public final NaiveTxnCollectionFactory defaultTransactionalCollectionFactory
             = new NaiveTxnCollectionFactory(this);
     public final int readBiasedThreshold;
+    public final int readIndicatorSlots;
+    public final boolean adaptiveReadBiasingEnabled;
+    //null if snapshot reads are not enabled.
+    public final SnapshotClock snapshotClock;
+    public final int maxVersionChainLength;
+    public final IrrevocabilityToken irrevocabilityToken = new IrrevocabilityToken();
+    //null if no contention management is done.
+    public final ContentionManager contentionManager;
+    //null if no transaction events are recorded.
+    public final TxnEventRecorder txnEventRecorder;
+    //null if contention profiling is not enabled.
+    public final ContentionProfiler contentionProfiler;
+    public final SpeculativeConfigurationStore speculativeConfigurationStore = new SpeculativeConfigurationStore();
+    //null if no speculative configuration file is configured.
+    private final File speculativeConfigurationFile;
+    private final boolean adaptiveSchedulingEnabled;
+    private final int adaptiveSchedulingCloseThreshold;
+    private final int adaptiveSchedulingOpenThreshold;
+    private final int adaptiveSchedulingConcurrency;
+    private final boolean txnMetricsEnabled;
+    private final int txnMetricsStripes;
+    private final ConcurrentMap<String, TxnFamilyMetrics> txnFamilyMetrics
+            = new ConcurrentHashMap<String, TxnFamilyMetrics>();
+    //null if jmx is not enabled.
+    private final String jmxName;
+    private final List<ObjectName> registeredMBeans = new CopyOnWriteArrayList<ObjectName>();
     public final GammaOrElseBlock defaultOrElseBlock = new GammaOrElseBlock();
 
     public GammaStm() {
@@ -52,12 +94,59 @@ public final class GammaStm implements Stm {
         this.defaultMaxRetries = config.maxRetries;
         this.spinCount = config.spinCount;
         this.defaultBackoffPolicy = config.backoffPolicy;
+        this.conflictCounterStripes = config.conflictCounterStripes;
+        this.globalConflictCounter = new GlobalConflictCounter(conflictCounterStripes);
+        this.defaultRefFactory = new GammaTxnRefFactoryImpl(globalConflictCounter);
+        this.refFactoryBuilder = new GammaTxnRefFactoryBuilderImpl(globalConflictCounter);
+        this.snapshotClock = config.snapshotReadsEnabled
+                ? new SnapshotClock(config.snapshotReaderSlots, config.spinCount)
+                : null;
+        this.maxVersionChainLength = config.maxVersionChainLength;
+        this.contentionManager = config.contentionManager;
+        this.txnEventRecorder = config.txnEventRecorder;
+        this.contentionProfiler = config.contentionProfilingEnabled
+                ? new ContentionProfiler(config.contentionProfilerCapacity,
+                config.contentionProfilerSampleRate, config.contentionProfilerAllocationSites)
+                : null;
+        this.speculativeConfigurationFile = config.speculativeConfigurationFile == null
+                ? null
+                : new File(config.speculativeConfigurationFile);
+        if (speculativeConfigurationFile != null) {
+            try {
+                speculativeConfigurationStore.load(speculativeConfigurationFile);
+            } catch (IOException e) {
+                throw new IllegalStateException(
+                        "Failed to preload the speculative configurations from " + speculativeConfigurationFile, e);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException(
+                        "Failed to preload the speculative configurations from " + speculativeConfigurationFile, e);
+            }
+        }
+        this.adaptiveSchedulingEnabled = config.adaptiveSchedulingEnabled;
+        this.adaptiveSchedulingCloseThreshold = config.adaptiveSchedulingCloseThreshold;
+        this.adaptiveSchedulingOpenThreshold = config.adaptiveSchedulingOpenThreshold;
+        this.adaptiveSchedulingConcurrency = config.adaptiveSchedulingConcurrency;
+        this.txnMetricsEnabled = config.txnMetricsEnabled || config.jmxEnabled;
+        this.txnMetricsStripes = config.txnMetricsStripes;
+        this.jmxName = config.jmxEnabled ? config.jmxName : null;
         this.defaultConfig = new GammaTxnConfig(this, config)
                 .setSpinCount(spinCount);
         this.defaultxnExecutor = newTxnFactoryBuilder()
                 .setSpeculative(false)
                 .newTxnExecutor();
         this.readBiasedThreshold = config.readBiasedThreshold;
+        this.readIndicatorSlots = config.readIndicatorSlots;
+        this.adaptiveReadBiasingEnabled = config.adaptiveReadBiasingEnabled;
+
+        //the monitor is registered as the last step, so that it never sees a partially constructed GammaStm.
+        if (jmxName != null) {
+            try {
+                registerMBean(new GammaStmMonitor(this), GammaStmMBeans.newStmObjectName(jmxName));
+            } catch (IllegalStateException e) {
+                unregisterMBeans();
+                throw e;
+            }
+        }
     }
 
     @Override
@@ -79,6 +168,206 @@ public final class GammaStm implements Stm {
         return globalConflictCounter;
     }
 
+    /**
+     * Returns the SnapshotClock used by the snapshot reads of readonly transactions.
+     *
+     * @return the SnapshotClock, or null if snapshot reads are not enabled.
+     * @see GammaStmConfig#snapshotReadsEnabled
+     */
+    public final SnapshotClock getSnapshotClock() {
+        return snapshotClock;
+    }
+
+    /**
+     * Returns the ContentionManager of this GammaStm.
+     *
+     * @return the ContentionManager, or null if no contention management is done.
+     * @see GammaStmConfig#contentionManager
+     */
+    public final ContentionManager getContentionManager() {
+        return contentionManager;
+    }
+
+    /**
+     * Returns the SpeculativeConfigurationStore containing the learned speculative configurations of the transaction
+     * families.
+     *
+     * @return the SpeculativeConfigurationStore.
+     */
+    public final SpeculativeConfigurationStore getSpeculativeConfigurationStore() {
+        return speculativeConfigurationStore;
+    }
+
+    /**
+     * Saves the learned speculative configurations of the transaction families to the
+     * {@link GammaStmConfig#speculativeConfigurationFile}, so they can be preloaded by the next GammaStm. Typically
+     * this is done when the application shuts down.
+     *
+     * @throws IllegalStateException if no speculative configuration file is configured or if saving fails.
+     */
+    public final void saveSpeculativeConfigurations() {
+        if (speculativeConfigurationFile == null) {
+            throw new IllegalStateException("No speculativeConfigurationFile is configured");
+        }
+
+        try {
+            speculativeConfigurationStore.save(speculativeConfigurationFile);
+        } catch (IOException e) {
+            throw new IllegalStateException(
+                    "Failed to save the speculative configurations to " + speculativeConfigurationFile, e);
+        }
+    }
+
+    /**
+     * Returns the ContentionProfiler of this GammaStm.
+     *
+     * @return the ContentionProfiler, or null if contention profiling is not enabled.
+     * @see GammaStmConfig#contentionProfilingEnabled
+     */
+    public final ContentionProfiler getContentionProfiler() {
+        return contentionProfiler;
+    }
+
+    /**
+     * Returns the TxnEventRecorder of this GammaStm.
+     *
+     * @return the TxnEventRecorder, or null if no transaction events are recorded.
+     * @see GammaStmConfig#txnEventRecorder
+     */
+    public final TxnEventRecorder getTxnEventRecorder() {
+        return txnEventRecorder;
+    }
+
+    /**
+     * Creates the AdaptiveTxnScheduler for a transaction family.
+     *
+     * @return the created AdaptiveTxnScheduler, or null if adaptive scheduling is not enabled.
+     * @see GammaStmConfig#adaptiveSchedulingEnabled
+     */
+    public final AdaptiveTxnScheduler newAdaptiveTxnScheduler() {
+        if (!adaptiveSchedulingEnabled) {
+            return null;
+        }
+
+        return new AdaptiveTxnScheduler(
+                adaptiveSchedulingCloseThreshold, adaptiveSchedulingOpenThreshold, adaptiveSchedulingConcurrency);
+    }
+
+    /**
+     * Returns the TxnFamilyMetrics of the transaction family with the given name. Transaction configurations with the
+     * same family name share the same metrics.
+     *
+     * @param familyName the name of the transaction family.
+     * @return the TxnFamilyMetrics, or null if metrics are not enabled or no transaction of the family is created.
+     * @throws NullPointerException if familyName is null.
+     * @see GammaStmConfig#txnMetricsEnabled
+     */
+    public final TxnFamilyMetrics getTxnFamilyMetrics(final String familyName) {
+        if (familyName == null) {
+            throw new NullPointerException("familyName can't be null");
+        }
+
+        return txnFamilyMetrics.get(familyName);
+    }
+
+    /**
+     * Returns the TxnFamilyMetrics of all transaction families.
+     *
+     * @return an unmodifiable view of the TxnFamilyMetrics by family name. The map is empty if metrics are not enabled.
+     * @see GammaStmConfig#txnMetricsEnabled
+     */
+    public final Map<String, TxnFamilyMetrics> getAllTxnFamilyMetrics() {
+        return Collections.unmodifiableMap(txnFamilyMetrics);
+    }
+
+    /**
+     * Returns the TxnFamilyMetrics for the transaction family of the given configuration. If the family doesn't have
+     * metrics yet, they are created and if jmx is enabled, the TxnFamilyMonitor of the family is registered.
+     * <p/>
+     * Anonymous transaction families don't get metrics. Every anonymous configuration is a family of its own, so the
+     * metrics (and the MBean) would never be shared and the map would grow with every one of them.
+     *
+     * @param config the configuration of the transaction family.
+     * @return the TxnFamilyMetrics, or null if metrics are not enabled or the family is anonymous.
+     * @see GammaStmConfig#txnMetricsEnabled
+     */
+    public final TxnFamilyMetrics newTxnFamilyMetrics(final GammaTxnConfig config) {
+        if (!txnMetricsEnabled || config.isAnonymous) {
+            return null;
+        }
+
+        final String familyName = config.familyName;
+        TxnFamilyMetrics metrics = txnFamilyMetrics.get(familyName);
+        if (metrics != null) {
+            return metrics;
+        }
+
+        metrics = new TxnFamilyMetrics(familyName, txnMetricsStripes);
+        final TxnFamilyMetrics found = txnFamilyMetrics.putIfAbsent(familyName, metrics);
+        if (found != null) {
+            return found;
+        }
+
+        if (jmxName != null) {
+            registerMBean(new TxnFamilyMonitor(metrics, config.speculativeConfiguration),
+                    GammaStmMBeans.newTxnFamilyObjectName(jmxName, familyName));
+        }
+        return metrics;
+    }
+
+    private void registerMBean(final Object mbean, final ObjectName name) {
+        GammaStmMBeans.register(mbean, name);
+        registeredMBeans.add(name);
+    }
+
+    /**
+     * Unregisters all MBeans registered by this GammaStm. Should be called when a GammaStm with
+     * {@link GammaStmConfig#jmxEnabled} is not used anymore, otherwise the MBeans keep it reachable. If jmx is not
+     * enabled, the call is ignored.
+     *
+     * @throws IllegalStateException if an MBean could not be unregistered.
+     */
+    public final void unregisterMBeans() {
+        for (ObjectName name : registeredMBeans) {
+            GammaStmMBeans.unregister(name);
+            registeredMBeans.remove(name);
+        }
+    }
+
+    /**
+     * Returns the IrrevocabilityToken that needs to be held by an irrevocable transaction.
+     *
+     * @return the IrrevocabilityToken.
+     * @see org.multiverse.stms.gamma.transactions.GammaTxnFactoryBuilder#setIrrevocable(boolean)
+     */
+    public final IrrevocabilityToken getIrrevocabilityToken() {
+        return irrevocabilityToken;
+    }
+
+    /**
+     * Returns the GlobalConflictCounter of the conflict domain with the given name. If the domain doesn't exist yet,
+     * it is created. The default domain (so of all transactional objects not explicitly assigned to a domain) is
+     * the {@link #getGlobalConflictCounter()}.
+     *
+     * @param name the name of the conflict domain.
+     * @return the GlobalConflictCounter of the domain.
+     * @throws NullPointerException if name is null.
+     */
+    public final GlobalConflictCounter getConflictDomain(final String name) {
+        if (name == null) {
+            throw new NullPointerException("name can't be null");
+        }
+
+        GlobalConflictCounter counter = conflictDomains.get(name);
+        if (counter != null) {
+            return counter;
+        }
+
+        counter = new GlobalConflictCounter(conflictCounterStripes);
+        final GlobalConflictCounter found = conflictDomains.putIfAbsent(name, counter);
+        return found == null ? counter : found;
+    }
+
     private final class GammaTxnFactoryBuilderImpl implements GammaTxnFactoryBuilder {
 
         private final GammaTxnConfig config;
@@ -261,6 +550,20 @@ public final class GammaStm implements Stm {
             return new GammaTxnFactoryBuilderImpl(config.setMaxRetries(maxRetries));
         }
 
+        @Override
+        public final GammaTxnFactoryBuilder setIrrevocable(final boolean irrevocable) {
+            return setIrrevocableAfterAttempts(irrevocable ? 0 : Integer.MAX_VALUE);
+        }
+
+        @Override
+        public final GammaTxnFactoryBuilder setIrrevocableAfterAttempts(final int attempts) {
+            if (attempts == config.irrevocableAfterAttempts) {
+                return this;
+            }
+
+            return new GammaTxnFactoryBuilderImpl(config.setIrrevocableAfterAttempts(attempts));
+        }
+
         @Override
         public final GammaTxnExecutor newTxnExecutor() {
             config.init();
@@ -273,7 +576,9 @@ public final class GammaStm implements Stm {
         }
 
         private boolean isLean() {
-            return config.propagationLevel == PropagationLevel.Requires;
+            //only the FatGammaTxnExecutor is able to escalate to an irrevocable transaction.
+            return config.propagationLevel == PropagationLevel.Requires
+                    && config.irrevocableAfterAttempts == Integer.MAX_VALUE;
         }
 
         @Override
@@ -294,29 +599,66 @@ public final class GammaStm implements Stm {
     }
 
     private final class GammaTxnRefFactoryImpl implements GammaTxnRefFactory {
+        private final GlobalConflictCounter conflictCounter;
+        private final boolean padded;
+
+        GammaTxnRefFactoryImpl(final GlobalConflictCounter conflictCounter) {
+            this(conflictCounter, false);
+        }
+
+        GammaTxnRefFactoryImpl(final GlobalConflictCounter conflictCounter, final boolean padded) {
+            this.conflictCounter = conflictCounter;
+            this.padded = padded;
+        }
+
         @Override
         public final <E> GammaTxnRef<E> newTxnRef(E value) {
-            return new GammaTxnRef<E>(GammaStm.this, value);
+            return padded
+                    ? new PaddedGammaTxnRef<E>(GammaStm.this, conflictCounter, value)
+                    : new GammaTxnRef<E>(GammaStm.this, conflictCounter, value);
         }
 
         @Override
         public final GammaTxnInteger newTxnInteger(int value) {
-            return new GammaTxnInteger(GammaStm.this, value);
+            return padded
+                    ? new PaddedGammaTxnInteger(GammaStm.this, conflictCounter, value)
+                    : new GammaTxnInteger(GammaStm.this, conflictCounter, value);
         }
 
         @Override
         public final GammaTxnBoolean newTxnBoolean(boolean value) {
-            return new GammaTxnBoolean(GammaStm.this, value);
+            return padded
+                    ? new PaddedGammaTxnBoolean(GammaStm.this, conflictCounter, value)
+                    : new GammaTxnBoolean(GammaStm.this, conflictCounter, value);
         }
 
         @Override
         public final GammaTxnDouble newTxnDouble(double value) {
-            return new GammaTxnDouble(GammaStm.this, value);
+            return padded
+                    ? new PaddedGammaTxnDouble(GammaStm.this, conflictCounter, value)
+                    : new GammaTxnDouble(GammaStm.this, conflictCounter, value);
         }
 
         @Override
         public final GammaTxnLong newTxnLong(long value) {
-            return new GammaTxnLong(GammaStm.this, value);
+            return padded
+                    ? new PaddedGammaTxnLong(GammaStm.this, conflictCounter, value)
+                    : new GammaTxnLong(GammaStm.this, conflictCounter, value);
+        }
+
+        @Override
+        public final GammaTxnStruct newTxnStruct(int longFieldCount, int refFieldCount) {
+            return new GammaTxnStruct(GammaStm.this, conflictCounter, longFieldCount, refFieldCount);
+        }
+
+        @Override
+        public final GammaTxnLongArray newTxnLongArray(int length, int stripeSize) {
+            return new GammaTxnLongArray(GammaStm.this, conflictCounter, length, stripeSize);
+        }
+
+        @Override
+        public final <E> GammaTxnRefArray<E> newTxnRefArray(int length, int stripeSize) {
+            return new GammaTxnRefArray<E>(GammaStm.this, conflictCounter, length, stripeSize);
         }
     }
 
@@ -337,9 +679,42 @@ public final class GammaStm implements Stm {
     }
 
     private final class GammaTxnRefFactoryBuilderImpl implements GammaTxnRefFactoryBuilder {
+        private final GlobalConflictCounter conflictCounter;
+        private final boolean padded;
+
+        GammaTxnRefFactoryBuilderImpl(final GlobalConflictCounter conflictCounter) {
+            this(conflictCounter, false);
+        }
+
+        GammaTxnRefFactoryBuilderImpl(final GlobalConflictCounter conflictCounter, final boolean padded) {
+            this.conflictCounter = conflictCounter;
+            this.padded = padded;
+        }
+
+        @Override
+        public GammaTxnRefFactoryBuilder setConflictDomain(final String name) {
+            final GlobalConflictCounter domainCounter = getConflictDomain(name);
+
+            //noinspection ObjectEquality
+            if (domainCounter == conflictCounter) {
+                return this;
+            }
+
+            return new GammaTxnRefFactoryBuilderImpl(domainCounter, padded);
+        }
+
+        @Override
+        public GammaTxnRefFactoryBuilder setPadded(final boolean padded) {
+            if (padded == this.padded) {
+                return this;
+            }
+
+            return new GammaTxnRefFactoryBuilderImpl(conflictCounter, padded);
+        }
+
         @Override
         public GammaTxnRefFactory build() {
-            return new GammaTxnRefFactoryImpl();
+            return new GammaTxnRefFactoryImpl(conflictCounter, padded);
         }
     }
 
@@ -416,6 +791,11 @@ public final class GammaStm implements Stm {
         public final GammaTxn upgradeAfterSpeculativeFailure(final GammaTxn failingTx, final GammaTxnPool pool) {
             final GammaTxn tx = newTransaction(pool);
             tx.copyForSpeculativeFailure(failingTx);
+
+            final TxnEventRecorder txnEventRecorder = config.stm.txnEventRecorder;
+            if (txnEventRecorder != null) {
+                txnEventRecorder.onSpeculativeUpgrade(failingTx, tx);
+            }
             return tx;
         }
 
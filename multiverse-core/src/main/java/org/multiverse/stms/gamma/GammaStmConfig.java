@@ -10,6 +10,7 @@ import org.multiverse.api.lifecycle.TxnListener;
 
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static java.lang.String.format;
 
@@ -25,6 +26,8 @@ import static java.lang.String.format;
 @SuppressWarnings({"ClassWithTooManyFields"})
 public final class GammaStmConfig {
 
+    private static final AtomicInteger jmxNameGenerator = new AtomicInteger();
+
     /**
      * Contains the permanent TxnListeners that should always be executed. Null references are not allowed.
      */
@@ -115,6 +118,17 @@ public final class GammaStmConfig {
      */
     public boolean speculativeConfigEnabled = true;
 
+    /**
+     * The file the learned speculative configurations of the transaction families are preloaded from when the GammaStm
+     * is created, so that after a restart the families don't need to learn them again one
+     * {@link org.multiverse.api.exceptions.SpeculativeConfigurationError} at a time. The learned configurations are
+     * written to the file using {@link GammaStm#saveSpeculativeConfigurations()}. If the file doesn't exist, nothing
+     * is preloaded. If null (the default), nothing is preloaded or saved.
+     * <p/>
+     * Only transaction families with an explicit family name are preloaded.
+     */
+    public String speculativeConfigurationFile;
+
     /**
      * The maximum size size of a fixed length transaction. A fixed length transaction is very cheap compared to a variable length, but
      * the big problem of the fixed length is that it needs to do a full transaction scan to see if the desired data is there. So there is
@@ -130,6 +144,9 @@ public final class GammaStmConfig {
     /**
      * If a transaction fails for a read/write conflict it should not hammer the system by trying again and running in the same conflict
      * The default backoff policy helps to back threads of by sleeping/yielding.
+     * <p/>
+     * If an {@link org.multiverse.api.AdaptiveBackoffPolicy} is configured, every transaction family gets its own
+     * instance that adapts its delays to the contention the family runs into.
      */
     public BackoffPolicy backoffPolicy = DefaultBackoffPolicy.MAX_100_MS;
 
@@ -171,6 +188,161 @@ public final class GammaStmConfig {
      */
     public int readBiasedThreshold = 128;
 
+    /**
+     * If the readBiasedThreshold of a transactional object should adapt to the reads and updates seen on it. Every time
+     * a readbiased object is updated (so it becomes update biased again), its threshold is doubled (up to 1023), so a
+     * ref that alternates between short read and write phases stops thrashing between the 2 modes. If the ref is
+     * mostly read between updates, the threshold decays back to the {@link #readBiasedThreshold}.
+     * <p/>
+     * The number of mode changes of a transactional object always is available using
+     * {@link org.multiverse.stms.gamma.transactionalobjects.AbstractGammaObject#getModeChangeCount()}.
+     */
+    public boolean adaptiveReadBiasingEnabled = false;
+
+    /**
+     * The number of slots of the {@link org.multiverse.stms.gamma.transactionalobjects.ReadIndicator} a transactional
+     * object gets once readers run into contention arriving on its orec. The readers of such an object arrive on the
+     * slot of their thread instead of all doing a cas on the orec, the orec only is updated when a slot becomes
+     * empty or non empty. The value is rounded up to the next power of two, 0 disables the ReadIndicator.
+     * <p/>
+     * Every slot takes a cache line pair per transactional object that got a ReadIndicator.
+     */
+    public int readIndicatorSlots = 0;
+
+    /**
+     * The number of stripes of the {@link GlobalConflictCounter}. With a single stripe all conflicting transactions increment
+     * the same counter, which can become a contention point on machines with a lot of cores. With more stripes the increments
+     * are spread over different cache lines at the cost of a slightly more expensive read of the counter.
+     */
+    public int conflictCounterStripes = 1;
+
+    /**
+     * If the GammaStm should run in a multi-version mode. In this mode every updating commit keeps the replaced
+     * values of the transactional objects in a bounded chain of versions, so that readonly transactions can read a
+     * consistent snapshot taken at their first read. Such a transaction doesn't need to do any conflict detection and
+     * doesn't run into read/write conflicts.
+     * <p/>
+     * The price is paid by the updating transactions: they need to install a version for every write and the
+     * publication of their commits is serialized.
+     */
+    public boolean snapshotReadsEnabled = false;
+
+    /**
+     * The maximum number of versions kept for a transactional object when snapshot reads are enabled. Versions older
+     * than the snapshot of the oldest active reader are reclaimed earlier. A readonly transaction that needs a version
+     * that already has been reclaimed because of this bound, fails with a read/write conflict and is retried on a
+     * newer snapshot.
+     */
+    public int maxVersionChainLength = 8;
+
+    /**
+     * The maximum number of readonly transactions that can read from a snapshot at the same time when snapshot reads
+     * are enabled. A readonly transaction that can't get a snapshot, falls back to normal reads.
+     */
+    public int snapshotReaderSlots = 128;
+
+    /**
+     * The {@link ContentionManager} that decides what a transaction does if it can't acquire a lock within the spin
+     * count and how it backs off after it has been aborted by a read/write conflict. If null, a transaction always
+     * gives up on a lock it can't acquire and the {@link #backoffPolicy} is used after an abort.
+     * <p/>
+     * The ContentionManager is shared by all transactions of the GammaStm, so that their priorities can be compared.
+     * Lean transactions don't consult it when acquiring locks.
+     */
+    public ContentionManager contentionManager;
+
+    /**
+     * The TxnEventRecorder that receives the lifecycle events (begin, commit, abort, conflict, speculative upgrade and
+     * retry wait) of all transactions, e.g. to forward them to a flight recorder. If null, no events are recorded and
+     * the only overhead is a null check.
+     */
+    public TxnEventRecorder txnEventRecorder;
+
+    /**
+     * If a {@link ContentionProfiler} should attribute aborts, lock failures and read conflicts to the transactional
+     * objects causing them. The profiler is available using {@link GammaStm#getContentionProfiler()}.
+     */
+    public boolean contentionProfilingEnabled = false;
+
+    /**
+     * The maximum number of transactional objects kept in the heavy hitters table of the ContentionProfiler. Only used
+     * when {@link #contentionProfilingEnabled} is true.
+     */
+    public int contentionProfilerCapacity = 64;
+
+    /**
+     * The ContentionProfiler records 1 out of contentionProfilerSampleRate events. Only used when
+     * {@link #contentionProfilingEnabled} is true.
+     */
+    public int contentionProfilerSampleRate = 8;
+
+    /**
+     * If the ContentionProfiler should track where transactional objects are created, so the allocation site can be
+     * used to identify an object that isn't given a name. This makes the creation of transactional objects a lot more
+     * expensive. Only used when {@link #contentionProfilingEnabled} is true.
+     */
+    public boolean contentionProfilerAllocationSites = false;
+
+    /**
+     * If transactions of a family should be serialized when they run into too many read/write conflicts. Every
+     * transaction family keeps track of its contention intensity: a moving average of the outcomes (commit or abort
+     * because of a read/write conflict) of its attempts. If the intensity exceeds the
+     * {@link #adaptiveSchedulingCloseThreshold}, the gate of the family closes and at most
+     * {@link #adaptiveSchedulingConcurrency} transactions of the family can execute at the same time; the others are
+     * queued. If the intensity drops to the {@link #adaptiveSchedulingOpenThreshold}, the gate opens again.
+     * <p/>
+     * Retrying conflicting transactions in parallel burns cores without making progress, serializing them doesn't.
+     */
+    public boolean adaptiveSchedulingEnabled = false;
+
+    /**
+     * The contention intensity (the percentage of aborted attempts) above which the gate of a transaction family
+     * closes. Only used when {@link #adaptiveSchedulingEnabled} is true.
+     */
+    public int adaptiveSchedulingCloseThreshold = 50;
+
+    /**
+     * The contention intensity (the percentage of aborted attempts) at which the closed gate of a transaction family
+     * opens again. Only used when {@link #adaptiveSchedulingEnabled} is true.
+     */
+    public int adaptiveSchedulingOpenThreshold = 10;
+
+    /**
+     * The number of transactions of a family that can execute at the same time when its gate is closed. Only used
+     * when {@link #adaptiveSchedulingEnabled} is true.
+     */
+    public int adaptiveSchedulingConcurrency = 1;
+
+    /**
+     * If the {@link GammaTxnExecutor} should collect the {@link TxnFamilyMetrics} of every transaction family: the
+     * number of starts and commits, the aborts split by cause, the attempts needed to commit and the latency. The
+     * metrics are available through {@link GammaStm#getTxnFamilyMetrics(String)}. If disabled, nothing is collected.
+     * Anonymous transaction families are never measured; give a family a name to see its metrics.
+     */
+    public boolean txnMetricsEnabled = false;
+
+    /**
+     * The number of stripes of the counters of a {@link TxnFamilyMetrics}, so that threads executing transactions of
+     * the same family don't contend on the same cache line. Only used when {@link #txnMetricsEnabled} is true.
+     */
+    public int txnMetricsStripes = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * If the GammaStm should register MBeans on the platform MBeanServer: a
+     * {@link org.multiverse.stms.gamma.jmx.GammaStmMonitor} for the stm and a
+     * {@link org.multiverse.stms.gamma.jmx.TxnFamilyMonitor} for every transaction family. Enabling jmx also enables
+     * the {@link #txnMetricsEnabled}. The MBeans are removed using {@link GammaStm#unregisterMBeans()}.
+     */
+    public boolean jmxEnabled = false;
+
+    /**
+     * The name the MBeans of the GammaStm are registered under, see
+     * {@link org.multiverse.stms.gamma.jmx.GammaStmMBeans}. Only used when {@link #jmxEnabled} is true. The default
+     * is unique for every GammaStmConfig ('GammaStm-1', 'GammaStm-2', ...), so that multiple GammaStms with jmx
+     * enabled don't need to be given a name.
+     */
+    public String jmxName = "GammaStm-" + jmxNameGenerator.incrementAndGet();
+
     /**
      * Checks if the configuration is valid.
      *
@@ -195,6 +367,84 @@ public final class GammaStmConfig {
                             "readBiasedThreshold was " + readBiasedThreshold);
         }
 
+        if (readIndicatorSlots < 0) {
+            throw new IllegalStateException(
+                    "[GammaStmConfig] readIndicatorSlots can't be smaller than 0, " +
+                            "readIndicatorSlots was " + readIndicatorSlots);
+        }
+
+        if (readIndicatorSlots > 64) {
+            throw new IllegalStateException(
+                    "[GammaStmConfig] readIndicatorSlots can't be larger than 64, " +
+                            "readIndicatorSlots was " + readIndicatorSlots);
+        }
+
+        if (conflictCounterStripes < 1) {
+            throw new IllegalStateException(
+                    "[GammaStmConfig] conflictCounterStripes can't be smaller than 1, " +
+                            "conflictCounterStripes was " + conflictCounterStripes);
+        }
+
+        if (maxVersionChainLength < 1) {
+            throw new IllegalStateException(
+                    "[GammaStmConfig] maxVersionChainLength can't be smaller than 1, " +
+                            "maxVersionChainLength was " + maxVersionChainLength);
+        }
+
+        if (snapshotReaderSlots < 1) {
+            throw new IllegalStateException(
+                    "[GammaStmConfig] snapshotReaderSlots can't be smaller than 1, " +
+                            "snapshotReaderSlots was " + snapshotReaderSlots);
+        }
+
+        if (adaptiveSchedulingCloseThreshold < 1 || adaptiveSchedulingCloseThreshold > 99) {
+            throw new IllegalStateException(
+                    "[GammaStmConfig] adaptiveSchedulingCloseThreshold should be between 1 and 99, " +
+                            "adaptiveSchedulingCloseThreshold was " + adaptiveSchedulingCloseThreshold);
+        }
+
+        if (adaptiveSchedulingOpenThreshold < 0) {
+            throw new IllegalStateException(
+                    "[GammaStmConfig] adaptiveSchedulingOpenThreshold can't be smaller than 0, " +
+                            "adaptiveSchedulingOpenThreshold was " + adaptiveSchedulingOpenThreshold);
+        }
+
+        if (adaptiveSchedulingOpenThreshold >= adaptiveSchedulingCloseThreshold) {
+            throw new IllegalStateException(
+                    format("[GammaStmConfig] adaptiveSchedulingOpenThreshold [%s] should be smaller than " +
+                            "adaptiveSchedulingCloseThreshold [%s]",
+                            adaptiveSchedulingOpenThreshold, adaptiveSchedulingCloseThreshold));
+        }
+
+        if (adaptiveSchedulingConcurrency < 1) {
+            throw new IllegalStateException(
+                    "[GammaStmConfig] adaptiveSchedulingConcurrency can't be smaller than 1, " +
+                            "adaptiveSchedulingConcurrency was " + adaptiveSchedulingConcurrency);
+        }
+
+        if (txnMetricsStripes < 1) {
+            throw new IllegalStateException(
+                    "[GammaStmConfig] txnMetricsStripes can't be smaller than 1, " +
+                            "txnMetricsStripes was " + txnMetricsStripes);
+        }
+
+        if (contentionProfilerCapacity < 1) {
+            throw new IllegalStateException(
+                    "[GammaStmConfig] contentionProfilerCapacity can't be smaller than 1, " +
+                            "contentionProfilerCapacity was " + contentionProfilerCapacity);
+        }
+
+        if (contentionProfilerSampleRate < 1) {
+            throw new IllegalStateException(
+                    "[GammaStmConfig] contentionProfilerSampleRate can't be smaller than 1, " +
+                            "contentionProfilerSampleRate was " + contentionProfilerSampleRate);
+        }
+
+        if (jmxEnabled && jmxName == null) {
+            throw new IllegalStateException(
+                    "[GammaStmConfig] jmxName can't be null if jmxEnabled is true");
+        }
+
         if (maximumPoorMansConflictScanLength < 0) {
             throw new IllegalStateException(
                     "[GammaStmConfig] maximumFullConflictScanSize can't be smaller than 0, " +
@@ -24,4 +24,37 @@ public interface GammaTxnRefFactory extends TxnRefFactory {
 
     @Override
     GammaTxnLong newTxnLong(long value);
+
+    /**
+     * Creates a {@link GammaTxnStruct} with the given number of long and reference fields. The long fields are
+     * initialized to 0 and the reference fields to null. A GammaTxnStruct is never padded, also not when padding
+     * was requested on the {@link GammaTxnRefFactoryBuilder}.
+     *
+     * @param longFieldCount the number of long fields.
+     * @param refFieldCount  the number of reference fields.
+     * @return the created GammaTxnStruct.
+     * @throws IllegalArgumentException if longFieldCount or refFieldCount is smaller than 0.
+     */
+    GammaTxnStruct newTxnStruct(int longFieldCount, int refFieldCount);
+
+    /**
+     * Creates a {@link GammaTxnLongArray} with the given length and stripe size. All elements are initialized to 0.
+     *
+     * @param length     the number of elements.
+     * @param stripeSize the maximum number of elements that share an orec.
+     * @return the created GammaTxnLongArray.
+     * @throws IllegalArgumentException if length is smaller than 0 or the stripeSize is not valid.
+     */
+    GammaTxnLongArray newTxnLongArray(int length, int stripeSize);
+
+    /**
+     * Creates a {@link GammaTxnRefArray} with the given length and stripe size. All elements are initialized to null.
+     *
+     * @param length     the number of elements.
+     * @param stripeSize the maximum number of elements that share an orec.
+     * @param <E>        the type of the elements.
+     * @return the created GammaTxnRefArray.
+     * @throws IllegalArgumentException if length is smaller than 0 or the stripeSize is not valid.
+     */
+    <E> GammaTxnRefArray<E> newTxnRefArray(int length, int stripeSize);
 }
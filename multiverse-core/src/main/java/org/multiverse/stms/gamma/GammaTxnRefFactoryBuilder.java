@@ -9,6 +9,31 @@ import org.multiverse.api.references.TxnRefFactoryBuilder;
  */
 public interface GammaTxnRefFactoryBuilder extends TxnRefFactoryBuilder {
 
+    /**
+     * Sets the conflict domain of the transactional objects created by the {@link GammaTxnRefFactory} that is
+     * build. Each conflict domain has its own {@link GlobalConflictCounter}, so a conflict on a transactional
+     * object in one domain doesn't force transactions that only have read from other domains to do a full
+     * conflict scan. Domains with the same name share the same GlobalConflictCounter.
+     *
+     * @param name the name of the conflict domain.
+     * @return the updated GammaTxnRefFactoryBuilder.
+     * @throws NullPointerException if name is null.
+     */
+    GammaTxnRefFactoryBuilder setConflictDomain(String name);
+
+    /**
+     * Sets if the transactional objects created by the {@link GammaTxnRefFactory} that is build are padded to a
+     * cache line. Refs that are created after each other normally end up next to each other in memory, so contended
+     * refs can suffer from false sharing: an update of one ref invalidates the cache line of another. A padded ref
+     * uses 64 extra bytes, so only use it for refs that are contended.
+     * <p/>
+     * The default is false.
+     *
+     * @param padded true if the refs should be padded, false otherwise.
+     * @return the updated GammaTxnRefFactoryBuilder.
+     */
+    GammaTxnRefFactoryBuilder setPadded(boolean padded);
+
     @Override
     GammaTxnRefFactory build();
 }
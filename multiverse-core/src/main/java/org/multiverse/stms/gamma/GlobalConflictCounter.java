@@ -1,7 +1,5 @@
 package org.multiverse.stms.gamma;
 
-import java.util.concurrent.atomic.AtomicLong;
-
 /**
  * The GlobalConflictCounter is used as a mechanism for guaranteeing read consistency. Depending on the configuration of the
  * transaction, if a transaction does a read, it also makes the read semi visible (only the number of readers are interesting
@@ -14,19 +12,52 @@ import java.util.concurrent.atomic.AtomicLong;
  * Small transactions don't make use of this mechanism and do a full conflict scan every time. The advantage is that the pressure
  * on the GlobalConflictCounter is reduced and that expensive arrives/departs (requiring in most cases 1 or 2 cas operations)
  * are reduced as well.
+ * <p/>
+ * The counter can be striped (see {@link GammaStmConfig#conflictCounterStripes}). A conflict is then only signalled on the stripe
+ * that belongs to the signalling thread, so concurrent signalling threads don't all need to cas the same cache line (see
+ * {@link StripedCounters}). Since every stripe only increases, the sum of all stripes only changes if at least one stripe
+ * has changed, so comparing the {@link #count()} with an earlier snapshot still is a valid 'has anything changed' check.
  *
  * @author Peter Veentjer.
  */
 public final class GlobalConflictCounter {
 
-    private final AtomicLong counter = new AtomicLong();
+    private final StripedCounters counters;
+
+    /**
+     * Creates a GlobalConflictCounter with a single stripe.
+     */
+    public GlobalConflictCounter() {
+        this(1);
+    }
+
+    /**
+     * Creates a GlobalConflictCounter with the given number of stripes.
+     *
+     * @param stripes the number of stripes. The value is rounded up to the next power of two.
+     * @throws IllegalArgumentException if stripes is smaller than 1.
+     */
+    public GlobalConflictCounter(int stripes) {
+        this.counters = new StripedCounters(stripes, 1);
+    }
+
+    /**
+     * Returns the number of stripes of this GlobalConflictCounter.
+     *
+     * @return the number of stripes.
+     */
+    public int getStripeCount() {
+        return counters.getStripeCount();
+    }
 
     /**
      * Signals that a conflict occurred.
      */
     public void signalConflict() {
-        final long oldCount = counter.get();
-        counter.compareAndSet(oldCount, oldCount + 1);
+        final int stripe = counters.stripe();
+        final long oldCount = counters.get(stripe, 0);
+        //if the cas fails, another thread has increased the stripe and that is just as good.
+        counters.compareAndSet(stripe, 0, oldCount, oldCount + 1);
     }
 
     /**
@@ -35,6 +66,16 @@ public final class GlobalConflictCounter {
      * @return the current conflict count.
      */
     public long count() {
-        return counter.get();
+        return counters.sum(0);
+    }
+
+    /**
+     * Checks if a conflict has been signalled since the given count was obtained using {@link #count()}.
+     *
+     * @param snapshot the count obtained earlier.
+     * @return true if a conflict has been signalled, false otherwise.
+     */
+    public boolean hasChangedSince(long snapshot) {
+        return count() != snapshot;
     }
 }
@@ -0,0 +1,73 @@
+package org.multiverse.stms.gamma;
+
+import org.multiverse.stms.gamma.transactionalobjects.AbstractGammaObject;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A {@link ContentionManager} that gives priority to the oldest transaction. A transaction gets its timestamp when it
+ * is started and keeps it when it is retried, so every transaction eventually becomes the oldest one.
+ * <p/>
+ * A transaction that is older than the owner of a lock keeps waiting for it (it yields between the attempts), a
+ * younger transaction aborts immediately so it releases the locks an older transaction could be waiting for. There
+ * is no backoff after an abort besides a yield.
+ * <p/>
+ * Every started transaction increments a shared counter, so this ContentionManager adds a contention point of its own.
+ *
+ * @author Peter Veentjer.
+ */
+@SuppressWarnings({"CallToThreadYield"})
+public final class GreedyContentionManager implements ContentionManager {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final int maxLockRetries;
+
+    /**
+     * Creates a GreedyContentionManager that retries a lock at most 1024 times.
+     */
+    public GreedyContentionManager() {
+        this(1024);
+    }
+
+    /**
+     * Creates a GreedyContentionManager.
+     *
+     * @param maxLockRetries the maximum number of times an older transaction tries a lock again.
+     * @throws IllegalArgumentException if maxLockRetries is smaller than 0.
+     */
+    public GreedyContentionManager(final int maxLockRetries) {
+        if (maxLockRetries < 0) {
+            throw new IllegalArgumentException(
+                    "maxLockRetries can't be smaller than 0, maxLockRetries was " + maxLockRetries);
+        }
+
+        this.maxLockRetries = maxLockRetries;
+    }
+
+    @Override
+    public void onStart(final GammaTxn tx) {
+        //the older the transaction, the higher the priority.
+        tx.contentionPriority = Long.MAX_VALUE - clock.incrementAndGet();
+    }
+
+    @Override
+    public void onLockAcquired(final GammaTxn tx) {
+        //the priority doesn't depend on the work done.
+    }
+
+    @Override
+    public boolean onLockFailure(final GammaTxn tx, final AbstractGammaObject object, final int failures) {
+        if (failures > maxLockRetries || tx.contentionPriority <= object.lockOwnerPriority) {
+            return false;
+        }
+
+        Thread.yield();
+        return true;
+    }
+
+    @Override
+    public void onAbort(final GammaTxn tx) {
+        Thread.yield();
+    }
+}
@@ -0,0 +1,103 @@
+package org.multiverse.stms.gamma;
+
+/**
+ * The token that needs to be held to execute an irrevocable transaction on the {@link GammaStm} (see
+ * {@link org.multiverse.stms.gamma.transactions.GammaTxnFactoryBuilder#setIrrevocable(boolean)}). There is only a
+ * single token per GammaStm, so at most one irrevocable transaction is running.
+ * <p/>
+ * As long as the token is held, updating transactions executed by other threads are not allowed to commit; they
+ * are aborted before they acquire their commit locks and wait till the token is released before they are retried.
+ * This guarantees that the irrevocable transaction completes, since besides the commits that already passed this
+ * check and non transactional atomic operations, nothing can cause a conflict.
+ * <p/>
+ * The token is owned by a thread and not by a transaction, so transactions the owner starts from within the
+ * irrevocable transaction (e.g. with the RequiresNew propagation level) are not blocked.
+ * <p/>
+ * Checking if a commit needs to back off only is a volatile read, the monitor only is used when the token is
+ * contended.
+ *
+ * @author Peter Veentjer.
+ */
+public final class IrrevocabilityToken {
+
+    private final Object monitor = new Object();
+    public volatile Thread owner;
+
+    /**
+     * Acquires the token for the calling thread. If it already is held by another thread, this call waits
+     * uninterruptibly till it is released.
+     *
+     * @return true if the token was acquired, false if the calling thread already was the owner.
+     */
+    public boolean acquire() {
+        final Thread thread = Thread.currentThread();
+        //noinspection ObjectEquality
+        if (owner == thread) {
+            return false;
+        }
+
+        boolean interrupted = false;
+        synchronized (monitor) {
+            while (owner != null) {
+                try {
+                    monitor.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            owner = thread;
+        }
+
+        if (interrupted) {
+            thread.interrupt();
+        }
+        return true;
+    }
+
+    /**
+     * Releases the token. Should only be called by the owner after a successful {@link #acquire()}.
+     */
+    public void release() {
+        synchronized (monitor) {
+            owner = null;
+            monitor.notifyAll();
+        }
+    }
+
+    /**
+     * Checks if the token is held by a thread other than the calling thread. If this is the case, the calling thread
+     * should not commit an update.
+     *
+     * @return true if another thread holds the token.
+     */
+    public boolean isHeldByOtherThread() {
+        final Thread current = owner;
+        //noinspection ObjectEquality
+        return current != null && current != Thread.currentThread();
+    }
+
+    /**
+     * Waits uninterruptibly till the token is not held by another thread anymore. Returns immediately if the token
+     * is free or held by the calling thread.
+     */
+    public void awaitRelease() {
+        if (!isHeldByOtherThread()) {
+            return;
+        }
+
+        boolean interrupted = false;
+        synchronized (monitor) {
+            while (isHeldByOtherThread()) {
+                try {
+                    monitor.wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package org.multiverse.stms.gamma;
+
+import org.multiverse.stms.gamma.transactionalobjects.AbstractGammaObject;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+
+/**
+ * A {@link ContentionManager} that uses the amount of work a transaction has done as priority: its karma. Every
+ * acquired lock increases the karma and the karma is not lost when a transaction is aborted, so a transaction that
+ * keeps failing eventually wins.
+ * <p/>
+ * A transaction waits for a lock as many times as its karma exceeds the karma of the owner (so at least once if the
+ * karma is higher). If it has the same or less karma, it aborts immediately. Between the attempts to acquire the lock
+ * the thread yields.
+ *
+ * @author Peter Veentjer.
+ */
+@SuppressWarnings({"CallToThreadYield"})
+public final class KarmaContentionManager implements ContentionManager {
+
+    private final int maxLockRetries;
+
+    /**
+     * Creates a KarmaContentionManager that retries a lock at most 64 times.
+     */
+    public KarmaContentionManager() {
+        this(64);
+    }
+
+    /**
+     * Creates a KarmaContentionManager.
+     *
+     * @param maxLockRetries the maximum number of times a lock is tried again.
+     * @throws IllegalArgumentException if maxLockRetries is smaller than 0.
+     */
+    public KarmaContentionManager(final int maxLockRetries) {
+        if (maxLockRetries < 0) {
+            throw new IllegalArgumentException(
+                    "maxLockRetries can't be smaller than 0, maxLockRetries was " + maxLockRetries);
+        }
+
+        this.maxLockRetries = maxLockRetries;
+    }
+
+    @Override
+    public void onStart(final GammaTxn tx) {
+        tx.contentionPriority = 0;
+    }
+
+    @Override
+    public void onLockAcquired(final GammaTxn tx) {
+        tx.contentionPriority++;
+    }
+
+    @Override
+    public boolean onLockFailure(final GammaTxn tx, final AbstractGammaObject object, final int failures) {
+        if (failures > maxLockRetries || tx.contentionPriority - object.lockOwnerPriority < failures) {
+            return false;
+        }
+
+        Thread.yield();
+        return true;
+    }
+
+    @Override
+    public void onAbort(final GammaTxn tx) {
+        Thread.yield();
+    }
+}
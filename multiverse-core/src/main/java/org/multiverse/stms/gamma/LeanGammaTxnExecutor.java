@@ -68,13 +68,37 @@ public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
 
             tx = txnFactory.newTransaction(pool);
             transactionContainer.txn=tx;
+            final long startNs = metrics == null ? 0 : metrics.onStart();
+            boolean admitted = false;
+            long attemptStartNs = 0;
             boolean abort = true;
             try {
                 do {
+                    if (scheduler != null && !admitted && !tx.irrevocable) {
+                        admitted = scheduler.enter();
+                    }
+
                     try {
                         cause = null;
+                        if (eventRecorder != null) {
+                            attemptStartNs = System.nanoTime();
+                            eventRecorder.onBegin(tx);
+                        }
                         E result = callable.call(tx);
+                        final int txSize = eventRecorder == null ? 0 : tx.size();
                         tx.commit();
+                        if (eventRecorder != null) {
+                            eventRecorder.onCommit(tx, txSize, System.nanoTime() - attemptStartNs);
+                        }
+                        if (metrics != null) {
+                            metrics.onCommit(tx.getAttempt(), startNs);
+                        }
+                        if (scheduler != null) {
+                            scheduler.onCommit();
+                        }
+                        if (adaptiveBackoffPolicy != null) {
+                            adaptiveBackoffPolicy.signalCommit();
+                        }
                         abort = false;
                         return result;
                     } catch (RetryError e) {
@@ -84,6 +108,16 @@ public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
                                     txnConfig.familyName));
                             }
                         }
+                        if (metrics != null) {
+                            metrics.onRetry();
+                        }
+                        if (eventRecorder != null) {
+                            eventRecorder.onAbort(tx, e);
+                        }
+                        if (admitted) {
+                            admitted = false;
+                            scheduler.exit();
+                        }
                         tx.awaitUpdate();
                     } catch (SpeculativeConfigurationError e) {
                         if(TRACING_ENABLED){
@@ -93,6 +127,13 @@ public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
                             }
                         }
 
+                        if (metrics != null) {
+                            metrics.onSpeculativeFailure();
+                        }
+                        if (eventRecorder != null) {
+                            eventRecorder.onAbort(tx, e);
+                        }
+
                         abort = false;
                         GammaTxn old = tx;
                         tx = txnFactory.upgradeAfterSpeculativeFailure(tx,pool);
@@ -107,7 +148,23 @@ public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
                             }
                         }
 
-                        backoffPolicy.delayUninterruptible(tx.getAttempt());
+                        if (metrics != null) {
+                            metrics.onReadWriteConflict(tx.lockConflict);
+                        }
+                        if (eventRecorder != null) {
+                            eventRecorder.onAbort(tx, e);
+                        }
+
+                        if (scheduler != null) {
+                            scheduler.onAbort();
+                        }
+
+                        if (contentionManager == null) {
+                            backoffPolicy.delayUninterruptible(tx.getAttempt());
+                        } else {
+                            contentionManager.onAbort(tx);
+                        }
+                        irrevocabilityToken.awaitRelease();
                     }
                 } while (tx.softReset());
             } finally {
@@ -115,6 +172,10 @@ public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
                     tx.abort();
                 }
 
+                if (admitted) {
+                    scheduler.exit();
+                }
+
                 pool.put(tx);
                 transactionContainer.txn = null;
             }
@@ -174,13 +235,37 @@ public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
 
             tx = txnFactory.newTransaction(pool);
             transactionContainer.txn=tx;
+            final long startNs = metrics == null ? 0 : metrics.onStart();
+            boolean admitted = false;
+            long attemptStartNs = 0;
             boolean abort = true;
             try {
                 do {
+                    if (scheduler != null && !admitted && !tx.irrevocable) {
+                        admitted = scheduler.enter();
+                    }
+
                     try {
                         cause = null;
+                        if (eventRecorder != null) {
+                            attemptStartNs = System.nanoTime();
+                            eventRecorder.onBegin(tx);
+                        }
                         int result = callable.call(tx);
+                        final int txSize = eventRecorder == null ? 0 : tx.size();
                         tx.commit();
+                        if (eventRecorder != null) {
+                            eventRecorder.onCommit(tx, txSize, System.nanoTime() - attemptStartNs);
+                        }
+                        if (metrics != null) {
+                            metrics.onCommit(tx.getAttempt(), startNs);
+                        }
+                        if (scheduler != null) {
+                            scheduler.onCommit();
+                        }
+                        if (adaptiveBackoffPolicy != null) {
+                            adaptiveBackoffPolicy.signalCommit();
+                        }
                         abort = false;
                         return result;
                     } catch (RetryError e) {
@@ -190,6 +275,16 @@ public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
                                     txnConfig.familyName));
                             }
                         }
+                        if (metrics != null) {
+                            metrics.onRetry();
+                        }
+                        if (eventRecorder != null) {
+                            eventRecorder.onAbort(tx, e);
+                        }
+                        if (admitted) {
+                            admitted = false;
+                            scheduler.exit();
+                        }
                         tx.awaitUpdate();
                     } catch (SpeculativeConfigurationError e) {
                         if(TRACING_ENABLED){
@@ -199,6 +294,13 @@ public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
                             }
                         }
 
+                        if (metrics != null) {
+                            metrics.onSpeculativeFailure();
+                        }
+                        if (eventRecorder != null) {
+                            eventRecorder.onAbort(tx, e);
+                        }
+
                         abort = false;
                         GammaTxn old = tx;
                         tx = txnFactory.upgradeAfterSpeculativeFailure(tx,pool);
@@ -213,7 +315,23 @@ public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
                             }
                         }
 
-                        backoffPolicy.delayUninterruptible(tx.getAttempt());
+                        if (metrics != null) {
+                            metrics.onReadWriteConflict(tx.lockConflict);
+                        }
+                        if (eventRecorder != null) {
+                            eventRecorder.onAbort(tx, e);
+                        }
+
+                        if (scheduler != null) {
+                            scheduler.onAbort();
+                        }
+
+                        if (contentionManager == null) {
+                            backoffPolicy.delayUninterruptible(tx.getAttempt());
+                        } else {
+                            contentionManager.onAbort(tx);
+                        }
+                        irrevocabilityToken.awaitRelease();
                     }
                 } while (tx.softReset());
             } finally {
@@ -221,6 +339,10 @@ public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
                     tx.abort();
                 }
 
+                if (admitted) {
+                    scheduler.exit();
+                }
+
                 pool.put(tx);
                 transactionContainer.txn = null;
             }
@@ -280,13 +402,37 @@ public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
 
             tx = txnFactory.newTransaction(pool);
             transactionContainer.txn=tx;
+            final long startNs = metrics == null ? 0 : metrics.onStart();
+            boolean admitted = false;
+            long attemptStartNs = 0;
             boolean abort = true;
             try {
                 do {
+                    if (scheduler != null && !admitted && !tx.irrevocable) {
+                        admitted = scheduler.enter();
+                    }
+
                     try {
                         cause = null;
+                        if (eventRecorder != null) {
+                            attemptStartNs = System.nanoTime();
+                            eventRecorder.onBegin(tx);
+                        }
                         long result = callable.call(tx);
+                        final int txSize = eventRecorder == null ? 0 : tx.size();
                         tx.commit();
+                        if (eventRecorder != null) {
+                            eventRecorder.onCommit(tx, txSize, System.nanoTime() - attemptStartNs);
+                        }
+                        if (metrics != null) {
+                            metrics.onCommit(tx.getAttempt(), startNs);
+                        }
+                        if (scheduler != null) {
+                            scheduler.onCommit();
+                        }
+                        if (adaptiveBackoffPolicy != null) {
+                            adaptiveBackoffPolicy.signalCommit();
+                        }
                         abort = false;
                         return result;
                     } catch (RetryError e) {
@@ -296,6 +442,16 @@ public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
                                     txnConfig.familyName));
                             }
                         }
+                        if (metrics != null) {
+                            metrics.onRetry();
+                        }
+                        if (eventRecorder != null) {
+                            eventRecorder.onAbort(tx, e);
+                        }
+                        if (admitted) {
+                            admitted = false;
+                            scheduler.exit();
+                        }
                         tx.awaitUpdate();
                     } catch (SpeculativeConfigurationError e) {
                         if(TRACING_ENABLED){
@@ -305,6 +461,13 @@ public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
                             }
                         }
 
+                        if (metrics != null) {
+                            metrics.onSpeculativeFailure();
+                        }
+                        if (eventRecorder != null) {
+                            eventRecorder.onAbort(tx, e);
+                        }
+
                         abort = false;
                         GammaTxn old = tx;
                         tx = txnFactory.upgradeAfterSpeculativeFailure(tx,pool);
@@ -319,7 +482,23 @@ public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
                             }
                         }
 
-                        backoffPolicy.delayUninterruptible(tx.getAttempt());
+                        if (metrics != null) {
+                            metrics.onReadWriteConflict(tx.lockConflict);
+                        }
+                        if (eventRecorder != null) {
+                            eventRecorder.onAbort(tx, e);
+                        }
+
+                        if (scheduler != null) {
+                            scheduler.onAbort();
+                        }
+
+                        if (contentionManager == null) {
+                            backoffPolicy.delayUninterruptible(tx.getAttempt());
+                        } else {
+                            contentionManager.onAbort(tx);
+                        }
+                        irrevocabilityToken.awaitRelease();
                     }
                 } while (tx.softReset());
             } finally {
@@ -327,6 +506,10 @@ public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
                     tx.abort();
                 }
 
+                if (admitted) {
+                    scheduler.exit();
+                }
+
                 pool.put(tx);
                 transactionContainer.txn = null;
             }
@@ -386,13 +569,37 @@ public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
 
             tx = txnFactory.newTransaction(pool);
             transactionContainer.txn=tx;
+            final long startNs = metrics == null ? 0 : metrics.onStart();
+            boolean admitted = false;
+            long attemptStartNs = 0;
             boolean abort = true;
             try {
                 do {
+                    if (scheduler != null && !admitted && !tx.irrevocable) {
+                        admitted = scheduler.enter();
+                    }
+
                     try {
                         cause = null;
+                        if (eventRecorder != null) {
+                            attemptStartNs = System.nanoTime();
+                            eventRecorder.onBegin(tx);
+                        }
                         double result = callable.call(tx);
+                        final int txSize = eventRecorder == null ? 0 : tx.size();
                         tx.commit();
+                        if (eventRecorder != null) {
+                            eventRecorder.onCommit(tx, txSize, System.nanoTime() - attemptStartNs);
+                        }
+                        if (metrics != null) {
+                            metrics.onCommit(tx.getAttempt(), startNs);
+                        }
+                        if (scheduler != null) {
+                            scheduler.onCommit();
+                        }
+                        if (adaptiveBackoffPolicy != null) {
+                            adaptiveBackoffPolicy.signalCommit();
+                        }
                         abort = false;
                         return result;
                     } catch (RetryError e) {
@@ -402,6 +609,16 @@ public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
                                     txnConfig.familyName));
                             }
                         }
+                        if (metrics != null) {
+                            metrics.onRetry();
+                        }
+                        if (eventRecorder != null) {
+                            eventRecorder.onAbort(tx, e);
+                        }
+                        if (admitted) {
+                            admitted = false;
+                            scheduler.exit();
+                        }
                         tx.awaitUpdate();
                     } catch (SpeculativeConfigurationError e) {
                         if(TRACING_ENABLED){
@@ -411,6 +628,13 @@ public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
                             }
                         }
 
+                        if (metrics != null) {
+                            metrics.onSpeculativeFailure();
+                        }
+                        if (eventRecorder != null) {
+                            eventRecorder.onAbort(tx, e);
+                        }
+
                         abort = false;
                         GammaTxn old = tx;
                         tx = txnFactory.upgradeAfterSpeculativeFailure(tx,pool);
@@ -425,7 +649,23 @@ public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
                             }
                         }
 
-                        backoffPolicy.delayUninterruptible(tx.getAttempt());
+                        if (metrics != null) {
+                            metrics.onReadWriteConflict(tx.lockConflict);
+                        }
+                        if (eventRecorder != null) {
+                            eventRecorder.onAbort(tx, e);
+                        }
+
+                        if (scheduler != null) {
+                            scheduler.onAbort();
+                        }
+
+                        if (contentionManager == null) {
+                            backoffPolicy.delayUninterruptible(tx.getAttempt());
+                        } else {
+                            contentionManager.onAbort(tx);
+                        }
+                        irrevocabilityToken.awaitRelease();
                     }
                 } while (tx.softReset());
             } finally {
@@ -433,6 +673,10 @@ public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
                     tx.abort();
                 }
 
+                if (admitted) {
+                    scheduler.exit();
+                }
+
                 pool.put(tx);
                 transactionContainer.txn = null;
             }
@@ -492,13 +736,37 @@ public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
 
             tx = txnFactory.newTransaction(pool);
             transactionContainer.txn=tx;
+            final long startNs = metrics == null ? 0 : metrics.onStart();
+            boolean admitted = false;
+            long attemptStartNs = 0;
             boolean abort = true;
             try {
                 do {
+                    if (scheduler != null && !admitted && !tx.irrevocable) {
+                        admitted = scheduler.enter();
+                    }
+
                     try {
                         cause = null;
+                        if (eventRecorder != null) {
+                            attemptStartNs = System.nanoTime();
+                            eventRecorder.onBegin(tx);
+                        }
                         boolean result = callable.call(tx);
+                        final int txSize = eventRecorder == null ? 0 : tx.size();
                         tx.commit();
+                        if (eventRecorder != null) {
+                            eventRecorder.onCommit(tx, txSize, System.nanoTime() - attemptStartNs);
+                        }
+                        if (metrics != null) {
+                            metrics.onCommit(tx.getAttempt(), startNs);
+                        }
+                        if (scheduler != null) {
+                            scheduler.onCommit();
+                        }
+                        if (adaptiveBackoffPolicy != null) {
+                            adaptiveBackoffPolicy.signalCommit();
+                        }
                         abort = false;
                         return result;
                     } catch (RetryError e) {
@@ -508,6 +776,16 @@ public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
                                     txnConfig.familyName));
                             }
                         }
+                        if (metrics != null) {
+                            metrics.onRetry();
+                        }
+                        if (eventRecorder != null) {
+                            eventRecorder.onAbort(tx, e);
+                        }
+                        if (admitted) {
+                            admitted = false;
+                            scheduler.exit();
+                        }
                         tx.awaitUpdate();
                     } catch (SpeculativeConfigurationError e) {
                         if(TRACING_ENABLED){
@@ -517,6 +795,13 @@ public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
                             }
                         }
 
+                        if (metrics != null) {
+                            metrics.onSpeculativeFailure();
+                        }
+                        if (eventRecorder != null) {
+                            eventRecorder.onAbort(tx, e);
+                        }
+
                         abort = false;
                         GammaTxn old = tx;
                         tx = txnFactory.upgradeAfterSpeculativeFailure(tx,pool);
@@ -531,7 +816,23 @@ public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
                             }
                         }
 
-                        backoffPolicy.delayUninterruptible(tx.getAttempt());
+                        if (metrics != null) {
+                            metrics.onReadWriteConflict(tx.lockConflict);
+                        }
+                        if (eventRecorder != null) {
+                            eventRecorder.onAbort(tx, e);
+                        }
+
+                        if (scheduler != null) {
+                            scheduler.onAbort();
+                        }
+
+                        if (contentionManager == null) {
+                            backoffPolicy.delayUninterruptible(tx.getAttempt());
+                        } else {
+                            contentionManager.onAbort(tx);
+                        }
+                        irrevocabilityToken.awaitRelease();
                     }
                 } while (tx.softReset());
             } finally {
@@ -539,6 +840,10 @@ public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
                     tx.abort();
                 }
 
+                if (admitted) {
+                    scheduler.exit();
+                }
+
                 pool.put(tx);
                 transactionContainer.txn = null;
             }
@@ -599,13 +904,37 @@ public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
 
             tx = txnFactory.newTransaction(pool);
             transactionContainer.txn=tx;
+            final long startNs = metrics == null ? 0 : metrics.onStart();
+            boolean admitted = false;
+            long attemptStartNs = 0;
             boolean abort = true;
             try {
                 do {
+                    if (scheduler != null && !admitted && !tx.irrevocable) {
+                        admitted = scheduler.enter();
+                    }
+
                     try {
                         cause = null;
+                        if (eventRecorder != null) {
+                            attemptStartNs = System.nanoTime();
+                            eventRecorder.onBegin(tx);
+                        }
                         callable.call(tx);
+                        final int txSize = eventRecorder == null ? 0 : tx.size();
                         tx.commit();
+                        if (eventRecorder != null) {
+                            eventRecorder.onCommit(tx, txSize, System.nanoTime() - attemptStartNs);
+                        }
+                        if (metrics != null) {
+                            metrics.onCommit(tx.getAttempt(), startNs);
+                        }
+                        if (scheduler != null) {
+                            scheduler.onCommit();
+                        }
+                        if (adaptiveBackoffPolicy != null) {
+                            adaptiveBackoffPolicy.signalCommit();
+                        }
                         abort = false;
                         return;
                     } catch (RetryError e) {
@@ -615,6 +944,16 @@ public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
                                     txnConfig.familyName));
                             }
                         }
+                        if (metrics != null) {
+                            metrics.onRetry();
+                        }
+                        if (eventRecorder != null) {
+                            eventRecorder.onAbort(tx, e);
+                        }
+                        if (admitted) {
+                            admitted = false;
+                            scheduler.exit();
+                        }
                         tx.awaitUpdate();
                     } catch (SpeculativeConfigurationError e) {
                         if(TRACING_ENABLED){
@@ -624,6 +963,13 @@ public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
                             }
                         }
 
+                        if (metrics != null) {
+                            metrics.onSpeculativeFailure();
+                        }
+                        if (eventRecorder != null) {
+                            eventRecorder.onAbort(tx, e);
+                        }
+
                         abort = false;
                         GammaTxn old = tx;
                         tx = txnFactory.upgradeAfterSpeculativeFailure(tx,pool);
@@ -638,7 +984,23 @@ public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
                             }
                         }
 
-                        backoffPolicy.delayUninterruptible(tx.getAttempt());
+                        if (metrics != null) {
+                            metrics.onReadWriteConflict(tx.lockConflict);
+                        }
+                        if (eventRecorder != null) {
+                            eventRecorder.onAbort(tx, e);
+                        }
+
+                        if (scheduler != null) {
+                            scheduler.onAbort();
+                        }
+
+                        if (contentionManager == null) {
+                            backoffPolicy.delayUninterruptible(tx.getAttempt());
+                        } else {
+                            contentionManager.onAbort(tx);
+                        }
+                        irrevocabilityToken.awaitRelease();
                     }
                 } while (tx.softReset());
             } finally {
@@ -646,6 +1008,10 @@ public final class LeanGammaTxnExecutor extends AbstractGammaTxnExecutor{
                     tx.abort();
                 }
 
+                if (admitted) {
+                    scheduler.exit();
+                }
+
                 pool.put(tx);
                 transactionContainer.txn = null;
             }
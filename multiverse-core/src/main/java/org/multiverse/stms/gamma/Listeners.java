@@ -19,6 +19,9 @@ public final class Listeners {
     public Listeners next;
     public RetryLatch listener;
     public long listenerEra;
+    //if not null, the listener only needs to be opened when the predicate holds for the written value. It is a
+    //LongPredicate for a long based ref and a Predicate for an object based ref.
+    public Object predicate;
     //public String threadName;
 
     /**
@@ -27,6 +30,7 @@ public final class Listeners {
      * <li>setting the next to null</li>
      * <li>setting the listener to null</li>
      * <li>setting the listenerEra to Long.MIN_VALUE</li>
+     * <li>setting the predicate to null</li>
      * </ol>
      * <p/>
      * This call is not threadsafe and should only be done by a transaction that has exclusive access to
@@ -36,6 +40,7 @@ public final class Listeners {
         next = null;
         listener = null;
         listenerEra = Long.MIN_VALUE;
+        predicate = null;
     }
 
     /**
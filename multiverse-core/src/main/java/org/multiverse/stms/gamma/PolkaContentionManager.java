@@ -0,0 +1,99 @@
+package org.multiverse.stms.gamma;
+
+import org.multiverse.stms.gamma.transactionalobjects.AbstractGammaObject;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+
+import static java.util.concurrent.locks.LockSupport.parkNanos;
+
+/**
+ * A {@link ContentionManager} that combines the priorities of the {@link KarmaContentionManager} with a randomized
+ * exponential backoff. A transaction waits for a lock as many times as its karma exceeds the karma of the owner, but
+ * instead of yielding, the n-th wait parks the thread for a random time between 0 and 2^n times the base delay. After
+ * an abort the same backoff is done based on the attempt of the transaction.
+ *
+ * @author Peter Veentjer.
+ */
+public final class PolkaContentionManager implements ContentionManager {
+
+    private final int maxLockRetries;
+    private final long baseDelayNs;
+    private final int maxExponent;
+
+    /**
+     * Creates a PolkaContentionManager that retries a lock at most 16 times, with a base delay of 1 microsecond and
+     * a maximum delay of 2^16 times the base delay.
+     */
+    public PolkaContentionManager() {
+        this(16, 1000, 16);
+    }
+
+    /**
+     * Creates a PolkaContentionManager.
+     *
+     * @param maxLockRetries the maximum number of times a lock is tried again.
+     * @param baseDelayNs    the base delay in nanoseconds.
+     * @param maxExponent    the maximum exponent of the backoff.
+     * @throws IllegalArgumentException if maxLockRetries or maxExponent is smaller than 0, maxExponent larger than 30
+     *                                  or baseDelayNs smaller than 1.
+     */
+    public PolkaContentionManager(final int maxLockRetries, final long baseDelayNs, final int maxExponent) {
+        if (maxLockRetries < 0) {
+            throw new IllegalArgumentException(
+                    "maxLockRetries can't be smaller than 0, maxLockRetries was " + maxLockRetries);
+        }
+
+        if (baseDelayNs < 1) {
+            throw new IllegalArgumentException(
+                    "baseDelayNs can't be smaller than 1, baseDelayNs was " + baseDelayNs);
+        }
+
+        if (maxExponent < 0 || maxExponent > 30) {
+            throw new IllegalArgumentException(
+                    "maxExponent should be between 0 and 30, maxExponent was " + maxExponent);
+        }
+
+        this.maxLockRetries = maxLockRetries;
+        this.baseDelayNs = baseDelayNs;
+        this.maxExponent = maxExponent;
+    }
+
+    @Override
+    public void onStart(final GammaTxn tx) {
+        tx.contentionPriority = 0;
+    }
+
+    @Override
+    public void onLockAcquired(final GammaTxn tx) {
+        tx.contentionPriority++;
+    }
+
+    @Override
+    public boolean onLockFailure(final GammaTxn tx, final AbstractGammaObject object, final int failures) {
+        if (failures > maxLockRetries || tx.contentionPriority - object.lockOwnerPriority < failures) {
+            return false;
+        }
+
+        backoff(failures);
+        return true;
+    }
+
+    @Override
+    public void onAbort(final GammaTxn tx) {
+        backoff(tx.attempt);
+    }
+
+    private void backoff(final int n) {
+        final int exponent = n > maxExponent ? maxExponent : n;
+        final long maxDelayNs = baseDelayNs << exponent;
+        parkNanos(1 + random() % maxDelayNs);
+    }
+
+    private static long random() {
+        //a xorshift of the time is random enough to prevent threads from backing off in lock step.
+        long x = System.nanoTime();
+        x ^= x << 21;
+        x ^= x >>> 35;
+        x ^= x << 4;
+        return x & Long.MAX_VALUE;
+    }
+}
@@ -0,0 +1,86 @@
+package org.multiverse.stms.gamma;
+
+/**
+ * The hit/miss statistics of a pool, like the {@link GammaObjectPool} or the
+ * {@link org.multiverse.stms.gamma.transactions.GammaTxnPool}. A hit is a take that is served from the pool, a miss
+ * is a take that needs to create a new object.
+ * <p/>
+ * The pools are taken from on the hot path of every transaction, so the statistics are only collected when the
+ * 'org.multiverse.stms.gamma.PoolStatistics.enabled' system property is set to true. The counters are striped (see
+ * {@link StripedCounters}), so that threads taking from their own pool don't contend on the same cache line.
+ *
+ * @author Peter Veentjer.
+ */
+public final class PoolStatistics {
+
+    /**
+     * If pool statistics are collected.
+     */
+    public final static boolean ENABLED = Boolean.parseBoolean(
+            System.getProperty("org.multiverse.stms.gamma.PoolStatistics.enabled", "false"));
+
+    private static final int HITS = 0;
+    private static final int MISSES = 1;
+
+    private final StripedCounters counters;
+
+    /**
+     * Creates a PoolStatistics.
+     *
+     * @param stripes the number of stripes. The value is rounded up to the next power of two.
+     * @throws IllegalArgumentException if stripes is smaller than 1.
+     */
+    public PoolStatistics(int stripes) {
+        this.counters = new StripedCounters(stripes, 2);
+    }
+
+    /**
+     * Signals that a take was served from the pool.
+     */
+    public void onHit() {
+        counters.increment(counters.stripe(), HITS);
+    }
+
+    /**
+     * Signals that a take needed to create a new object.
+     */
+    public void onMiss() {
+        counters.increment(counters.stripe(), MISSES);
+    }
+
+    /**
+     * Returns the number of takes served from the pool.
+     *
+     * @return the number of hits.
+     */
+    public long getHits() {
+        return counters.sum(HITS);
+    }
+
+    /**
+     * Returns the number of takes that needed to create a new object.
+     *
+     * @return the number of misses.
+     */
+    public long getMisses() {
+        return counters.sum(MISSES);
+    }
+
+    /**
+     * Returns the percentage of the takes served from the pool.
+     *
+     * @return the hit rate between 0 and 100, or 0 if nothing has been taken.
+     */
+    public double getHitRate() {
+        final long hits = getHits();
+        final long total = hits + getMisses();
+        return total == 0 ? 0 : (100d * hits) / total;
+    }
+
+    /**
+     * Clears the statistics. Updates done concurrently with the reset can survive it.
+     */
+    public void reset() {
+        counters.reset();
+    }
+}
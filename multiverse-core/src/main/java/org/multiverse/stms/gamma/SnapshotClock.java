@@ -0,0 +1,158 @@
+package org.multiverse.stms.gamma;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The clock of the multi-version mode of the GammaStm (see {@link GammaStmConfig#snapshotReadsEnabled}).
+ * <p/>
+ * An updating commit reserves a timestamp after it has acquired all its locks, installs the new versions of the
+ * objects it writes under that timestamp and then publishes the timestamp. Timestamps are published in order, so once
+ * a timestamp is published, all versions with a lower or equal timestamp are installed. A readonly transaction reads
+ * the snapshot of the last published timestamp.
+ * <p/>
+ * Readers register their snapshot in one of the reader slots, so updating transactions know which old versions still
+ * are needed (see {@link #getOldestSnapshot()}). Every slot is placed on its own cache line to prevent false sharing
+ * between readers. If all slots are taken, a reader can't get a snapshot.
+ *
+ * @author Peter Veentjer.
+ */
+public final class SnapshotClock {
+
+    private static final int SLOT_STRIDE = 8;
+    private static final long FREE = -1;
+
+    private final AtomicLong reserved = new AtomicLong();
+    private final AtomicLongArray slots;
+    private final int slotCount;
+    private final int spinCount;
+    @SuppressWarnings({"VolatileLongOrDoubleField"})
+    private volatile long published;
+
+    /**
+     * Creates a SnapshotClock.
+     *
+     * @param slotCount the maximum number of readers that can have a snapshot at the same time.
+     * @param spinCount the number of spins on the publication of an earlier timestamp before a thread yields.
+     * @throws IllegalArgumentException if slotCount is smaller than 1 or spinCount is smaller than 0.
+     */
+    public SnapshotClock(final int slotCount, final int spinCount) {
+        if (slotCount < 1) {
+            throw new IllegalArgumentException("slotCount can't be smaller than 1, slotCount was " + slotCount);
+        }
+
+        if (spinCount < 0) {
+            throw new IllegalArgumentException("spinCount can't be smaller than 0, spinCount was " + spinCount);
+        }
+
+        this.slotCount = slotCount;
+        this.spinCount = spinCount;
+        this.slots = new AtomicLongArray(slotCount * SLOT_STRIDE);
+        for (int k = 0; k < slotCount; k++) {
+            slots.set(k * SLOT_STRIDE, FREE);
+        }
+    }
+
+    /**
+     * Returns the last published timestamp.
+     *
+     * @return the last published timestamp.
+     */
+    public long getPublished() {
+        return published;
+    }
+
+    /**
+     * Reserves a new timestamp for an updating commit. Should only be called when all locks of the commit have been
+     * acquired and the timestamp always needs to be published with {@link #publish(long)}.
+     *
+     * @return the reserved timestamp.
+     */
+    public long reserve() {
+        return reserved.incrementAndGet();
+    }
+
+    /**
+     * Publishes a reserved timestamp. If the previous timestamp has not been published yet, this call waits for it.
+     *
+     * @param timestamp the reserved timestamp.
+     */
+    public void publish(final long timestamp) {
+        int spin = spinCount;
+        while (published != timestamp - 1) {
+            if (spin > 0) {
+                spin--;
+            } else {
+                Thread.yield();
+            }
+        }
+
+        published = timestamp;
+    }
+
+    /**
+     * Registers a reader with a snapshot of the last published timestamp.
+     *
+     * @return the slot of the reader, or -1 if all slots are taken.
+     */
+    public int register() {
+        final int start = (int) (Thread.currentThread().getId() % slotCount);
+        for (int k = 0; k < slotCount; k++) {
+            final int slot = (start + k) % slotCount;
+            final int index = slot * SLOT_STRIDE;
+
+            long snapshot = published;
+            if (slots.get(index) != FREE || !slots.compareAndSet(index, FREE, snapshot)) {
+                continue;
+            }
+
+            //a writer that scanned the slots before the snapshot was placed, has read a published timestamp that is
+            //not newer than the snapshot if the published timestamp didn't change in the meantime.
+            long current;
+            while ((current = published) != snapshot) {
+                slots.set(index, current);
+                snapshot = current;
+            }
+            return slot;
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns the snapshot timestamp of a registered reader.
+     *
+     * @param slot the slot returned by {@link #register()}.
+     * @return the snapshot timestamp.
+     */
+    public long getSnapshot(final int slot) {
+        return slots.get(slot * SLOT_STRIDE);
+    }
+
+    /**
+     * Unregisters a reader.
+     *
+     * @param slot the slot returned by {@link #register()}.
+     */
+    public void unregister(final int slot) {
+        slots.set(slot * SLOT_STRIDE, FREE);
+    }
+
+    /**
+     * Returns the oldest snapshot that could be read by a reader. A version that is replaced by a version with a
+     * timestamp equal or lower than this value, is not needed anymore.
+     *
+     * @return the oldest snapshot.
+     */
+    public long getOldestSnapshot() {
+        //the published timestamp needs to be read before the slots are scanned.
+        long oldest = published;
+        for (int k = 0; k < slotCount; k++) {
+            final long snapshot = slots.get(k * SLOT_STRIDE);
+            if (snapshot != FREE && snapshot < oldest) {
+                oldest = snapshot;
+            }
+        }
+        return oldest;
+    }
+}
@@ -0,0 +1,327 @@
+package org.multiverse.stms.gamma;
+
+import org.multiverse.stms.gamma.transactions.SpeculativeGammaConfiguration;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps track of the {@link SpeculativeGammaConfiguration} learned by every (non anonymous) transaction family, so it
+ * can be saved and preloaded by the next GammaStm. Normally every family starts lean after a restart and needs a
+ * {@link org.multiverse.api.exceptions.SpeculativeConfigurationError} (so an abort and a re-execution) for every
+ * feature it uses. When the learned configuration is preloaded, a family directly starts with the right transaction.
+ * <p/>
+ * The learned configuration of a family only grows: if it is learned multiple times (e.g. multiple TxnExecutors with
+ * the same family name), the configurations are joined.
+ * <p/>
+ * The configurations are stored as a properties file with the family name as key and the detected features as value,
+ * e.g.
+ * <pre>
+ * transfer=fat,nonRefType,minimalLength=2
+ * </pre>
+ *
+ * @author Peter Veentjer.
+ * @see GammaStmConfig#speculativeConfigurationFile
+ */
+public final class SpeculativeConfigurationStore {
+
+    private static final String FAT = "fat";
+    private static final String LISTENERS = "listeners";
+    private static final String COMMUTE = "commute";
+    private static final String NON_REF_TYPE = "nonRefType";
+    private static final String ORELSE = "orelse";
+    private static final String LOCKS = "locks";
+    private static final String CONSTRUCTED_OBJECTS = "constructedObjects";
+    private static final String RICH_MANS_CONFLICT_SCAN = "richMansConflictScan";
+    private static final String ABORT_ONLY = "abortOnly";
+    private static final String ENSURE = "ensure";
+    private static final String MINIMAL_LENGTH = "minimalLength=";
+
+    private final ConcurrentMap<String, SpeculativeGammaConfiguration> configurations
+            = new ConcurrentHashMap<String, SpeculativeGammaConfiguration>();
+
+    /**
+     * Returns the learned SpeculativeGammaConfiguration of a transaction family.
+     *
+     * @param familyName the name of the transaction family.
+     * @return the learned SpeculativeGammaConfiguration, or null if nothing is learned for the family.
+     * @throws NullPointerException if familyName is null.
+     */
+    public SpeculativeGammaConfiguration get(String familyName) {
+        if (familyName == null) {
+            throw new NullPointerException("familyName can't be null");
+        }
+
+        return configurations.get(familyName);
+    }
+
+    /**
+     * Returns the learned SpeculativeGammaConfigurations of all transaction families.
+     *
+     * @return an unmodifiable view of the learned configurations by family name.
+     */
+    public Map<String, SpeculativeGammaConfiguration> getAll() {
+        return Collections.unmodifiableMap(configurations);
+    }
+
+    /**
+     * Joins the SpeculativeGammaConfiguration with the configuration already learned for the family.
+     *
+     * @param familyName    the name of the transaction family.
+     * @param configuration the learned SpeculativeGammaConfiguration.
+     * @throws NullPointerException if familyName or configuration is null.
+     */
+    public void learn(String familyName, SpeculativeGammaConfiguration configuration) {
+        if (familyName == null) {
+            throw new NullPointerException("familyName can't be null");
+        }
+
+        if (configuration == null) {
+            throw new NullPointerException("configuration can't be null");
+        }
+
+        while (true) {
+            final SpeculativeGammaConfiguration current = configurations.get(familyName);
+            if (current == null) {
+                if (configurations.putIfAbsent(familyName, configuration) == null) {
+                    return;
+                }
+            } else {
+                final SpeculativeGammaConfiguration update = current.newWith(configuration);
+                if (update == current || configurations.replace(familyName, current, update)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Forgets all learned configurations.
+     */
+    public void clear() {
+        configurations.clear();
+    }
+
+    /**
+     * Saves the learned configurations to a file. The configurations are first written to a temporary file next to it
+     * (the file name with a ".tmp" suffix), which then replaces the file. So a crash while writing doesn't leave a
+     * corrupt file behind.
+     * <p/>
+     * On platforms where a rename can't replace an existing file, the old file is deleted first. A crash between the
+     * delete and the rename leaves only the temporary file; {@link #load(File)} falls back to it.
+     *
+     * @param file the file to save to.
+     * @throws NullPointerException if file is null.
+     * @throws IOException          if writing the file fails.
+     */
+    public void save(File file) throws IOException {
+        if (file == null) {
+            throw new NullPointerException("file can't be null");
+        }
+
+        final File tmp = newTmpFile(file);
+        final FileOutputStream out = new FileOutputStream(tmp);
+        try {
+            save(out);
+            out.flush();
+            out.getFD().sync();
+        } finally {
+            out.close();
+        }
+
+        if (tmp.renameTo(file)) {
+            return;
+        }
+
+        if (file.exists() && !file.delete()) {
+            throw new IOException("Failed to delete " + file);
+        }
+
+        if (!tmp.renameTo(file)) {
+            throw new IOException("Failed to rename " + tmp + " to " + file);
+        }
+    }
+
+    private static File newTmpFile(File file) {
+        return new File(file.getPath() + ".tmp");
+    }
+
+    /**
+     * Saves the learned configurations to an OutputStream. The OutputStream is not closed.
+     *
+     * @param out the OutputStream to save to.
+     * @throws IOException if writing fails.
+     */
+    public void save(OutputStream out) throws IOException {
+        final Properties properties = new Properties();
+        //sorted so the file is stable between saves.
+        for (Map.Entry<String, SpeculativeGammaConfiguration> entry
+                : new TreeMap<String, SpeculativeGammaConfiguration>(configurations).entrySet()) {
+            properties.setProperty(entry.getKey(), encode(entry.getValue()));
+        }
+        properties.store(out, "Learned speculative configurations of the GammaStm transaction families");
+    }
+
+    /**
+     * Loads the configurations from a file and joins them with the learned configurations. If the file doesn't exist,
+     * but the temporary file of an interrupted {@link #save(File)} does, the temporary file is loaded instead. If the
+     * temporary file is not complete (the first save was interrupted while writing) it is ignored. If neither file
+     * exists, nothing is loaded.
+     *
+     * @param file the file to load from.
+     * @throws NullPointerException     if file is null.
+     * @throws IOException              if reading the file fails.
+     * @throws IllegalArgumentException if the file contains an invalid configuration.
+     */
+    public void load(File file) throws IOException {
+        if (file == null) {
+            throw new NullPointerException("file can't be null");
+        }
+
+        if (file.exists()) {
+            load0(file);
+            return;
+        }
+
+        final File tmp = newTmpFile(file);
+        if (!tmp.exists()) {
+            return;
+        }
+
+        try {
+            load0(tmp);
+        } catch (IllegalArgumentException ignore) {
+            //the save was interrupted while the temporary file was written, so there is nothing to recover.
+        }
+    }
+
+    private void load0(File file) throws IOException {
+        final InputStream in = new FileInputStream(file);
+        try {
+            load(in);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Loads the configurations from an InputStream and joins them with the learned configurations. The InputStream
+     * is not closed.
+     *
+     * @param in the InputStream to load from.
+     * @throws IOException              if reading fails.
+     * @throws IllegalArgumentException if the InputStream contains an invalid configuration.
+     */
+    public void load(InputStream in) throws IOException {
+        final Properties properties = new Properties();
+        properties.load(in);
+
+        //everything is decoded before anything is learned, so an invalid configuration doesn't leave a partial load.
+        final Map<String, SpeculativeGammaConfiguration> loaded = new TreeMap<String, SpeculativeGammaConfiguration>();
+        for (String familyName : properties.stringPropertyNames()) {
+            loaded.put(familyName, decode(properties.getProperty(familyName)));
+        }
+
+        for (Map.Entry<String, SpeculativeGammaConfiguration> entry : loaded.entrySet()) {
+            learn(entry.getKey(), entry.getValue());
+        }
+    }
+
+    static String encode(SpeculativeGammaConfiguration configuration) {
+        final StringBuilder sb = new StringBuilder();
+        append(sb, configuration.fat, FAT);
+        append(sb, configuration.listenersDetected, LISTENERS);
+        append(sb, configuration.commuteDetected, COMMUTE);
+        append(sb, configuration.nonRefTypeDetected, NON_REF_TYPE);
+        append(sb, configuration.orelseDetected, ORELSE);
+        append(sb, configuration.locksDetected, LOCKS);
+        append(sb, configuration.constructedObjectsDetected, CONSTRUCTED_OBJECTS);
+        append(sb, configuration.richMansConflictScanRequired, RICH_MANS_CONFLICT_SCAN);
+        append(sb, configuration.abortOnlyDetected, ABORT_ONLY);
+        append(sb, configuration.ensureDetected, ENSURE);
+        append(sb, true, MINIMAL_LENGTH + configuration.minimalLength);
+        return sb.toString();
+    }
+
+    private static void append(StringBuilder sb, boolean detected, String feature) {
+        if (!detected) {
+            return;
+        }
+
+        if (sb.length() > 0) {
+            sb.append(',');
+        }
+        sb.append(feature);
+    }
+
+    static SpeculativeGammaConfiguration decode(String value) {
+        boolean fat = false;
+        boolean listeners = false;
+        boolean commute = false;
+        boolean nonRefType = false;
+        boolean orelse = false;
+        boolean locks = false;
+        boolean constructedObjects = false;
+        boolean richMansConflictScan = false;
+        boolean abortOnly = false;
+        boolean ensure = false;
+        int minimalLength = 1;
+
+        for (String token : value.split(",")) {
+            token = token.trim();
+            if (token.length() == 0) {
+                continue;
+            }
+
+            if (token.equals(FAT)) {
+                fat = true;
+            } else if (token.equals(LISTENERS)) {
+                listeners = true;
+            } else if (token.equals(COMMUTE)) {
+                commute = true;
+            } else if (token.equals(NON_REF_TYPE)) {
+                nonRefType = true;
+            } else if (token.equals(ORELSE)) {
+                orelse = true;
+            } else if (token.equals(LOCKS)) {
+                locks = true;
+            } else if (token.equals(CONSTRUCTED_OBJECTS)) {
+                constructedObjects = true;
+            } else if (token.equals(RICH_MANS_CONFLICT_SCAN)) {
+                richMansConflictScan = true;
+            } else if (token.equals(ABORT_ONLY)) {
+                abortOnly = true;
+            } else if (token.equals(ENSURE)) {
+                ensure = true;
+            } else if (token.startsWith(MINIMAL_LENGTH)) {
+                try {
+                    minimalLength = Integer.parseInt(token.substring(MINIMAL_LENGTH.length()));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid minimalLength in speculative configuration: " + value);
+                }
+
+                if (minimalLength < 0) {
+                    throw new IllegalArgumentException(
+                            "minimalLength can't be smaller than 0 in speculative configuration: " + value);
+                }
+            } else {
+                throw new IllegalArgumentException(
+                        "Unknown feature [" + token + "] in speculative configuration: " + value);
+            }
+        }
+
+        return new SpeculativeGammaConfiguration(
+                fat, listeners, commute, nonRefType, orelse, locks, constructedObjects,
+                richMansConflictScan, abortOnly, ensure, minimalLength);
+    }
+}
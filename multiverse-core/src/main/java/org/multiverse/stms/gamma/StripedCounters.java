@@ -0,0 +1,126 @@
+package org.multiverse.stms.gamma;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A group of counters that is striped to prevent it from becoming a contention point. Every stripe contains all
+ * counters of the group and a thread only updates the stripe it belongs to (based on its id). Each stripe is placed
+ * on its own cache lines.
+ * <p/>
+ * It is the building block of the {@link GlobalConflictCounter}, the {@link TxnFamilyMetrics}, the
+ * {@link PoolStatistics} and the {@link org.multiverse.stms.gamma.transactionalobjects.ReadIndicator}.
+ *
+ * @author Peter Veentjer.
+ */
+public final class StripedCounters {
+
+    //the counters of a stripe are followed by 16 longs (128 bytes), so that adjacent cache line prefetching doesn't
+    //make 2 stripes share the same cache line pair.
+    private static final int PADDING = 16;
+
+    private final AtomicLongArray counters;
+    private final int countersPerStripe;
+    private final int stripeSpacing;
+    private final int stripeMask;
+
+    /**
+     * Creates a StripedCounters with all counters 0.
+     *
+     * @param stripes           the number of stripes. The value is rounded up to the next power of two.
+     * @param countersPerStripe the number of counters in a stripe.
+     * @throws IllegalArgumentException if stripes or countersPerStripe is smaller than 1.
+     */
+    public StripedCounters(int stripes, int countersPerStripe) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("stripes can't be smaller than 1, stripes was " + stripes);
+        }
+
+        if (countersPerStripe < 1) {
+            throw new IllegalArgumentException(
+                    "countersPerStripe can't be smaller than 1, countersPerStripe was " + countersPerStripe);
+        }
+
+        int length = 1;
+        while (length < stripes) {
+            length <<= 1;
+        }
+
+        this.stripeMask = length - 1;
+        this.countersPerStripe = countersPerStripe;
+        this.stripeSpacing = countersPerStripe + PADDING;
+        this.counters = new AtomicLongArray(length * stripeSpacing);
+    }
+
+    /**
+     * Returns the number of stripes.
+     *
+     * @return the number of stripes.
+     */
+    public int getStripeCount() {
+        return stripeMask + 1;
+    }
+
+    /**
+     * Returns the number of counters in a stripe.
+     *
+     * @return the number of counters in a stripe.
+     */
+    public int getCountersPerStripe() {
+        return countersPerStripe;
+    }
+
+    /**
+     * Returns the stripe that belongs to the calling thread.
+     *
+     * @return the stripe.
+     */
+    public int stripe() {
+        if (stripeMask == 0) {
+            return 0;
+        }
+
+        final long id = Thread.currentThread().getId();
+        final int hash = (int) (id ^ (id >>> 32));
+        return hash & stripeMask;
+    }
+
+    public long get(int stripe, int counter) {
+        return counters.get(stripe * stripeSpacing + counter);
+    }
+
+    public boolean compareAndSet(int stripe, int counter, long expect, long update) {
+        return counters.compareAndSet(stripe * stripeSpacing + counter, expect, update);
+    }
+
+    public void increment(int stripe, int counter) {
+        counters.incrementAndGet(stripe * stripeSpacing + counter);
+    }
+
+    public void add(int stripe, int counter, long amount) {
+        counters.addAndGet(stripe * stripeSpacing + counter, amount);
+    }
+
+    /**
+     * Returns the sum of a counter over all stripes. If the counter is updated concurrently, the sum is not a
+     * snapshot.
+     *
+     * @param counter the counter.
+     * @return the sum.
+     */
+    public long sum(int counter) {
+        long sum = 0;
+        for (int k = 0; k <= stripeMask; k++) {
+            sum += counters.get(k * stripeSpacing + counter);
+        }
+        return sum;
+    }
+
+    /**
+     * Clears all counters. Updates done concurrently with the reset can survive it.
+     */
+    public void reset() {
+        for (int k = 0; k < counters.length(); k++) {
+            counters.set(k, 0);
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package org.multiverse.stms.gamma;
+
+import org.multiverse.stms.gamma.transactionalobjects.AbstractGammaObject;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.util.concurrent.locks.LockSupport.parkNanos;
+
+/**
+ * A {@link ContentionManager} that, just like the {@link GreedyContentionManager}, gives priority to the oldest
+ * transaction, but waits in fixed intervals instead of yielding.
+ * <p/>
+ * A transaction that is older than the owner of a lock waits at most maxIntervals intervals for it. A younger
+ * transaction waits a single interval, giving the owner the chance to complete, before it aborts. After an abort
+ * the transaction waits a single interval before it is retried.
+ *
+ * @author Peter Veentjer.
+ */
+public final class TimestampContentionManager implements ContentionManager {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final long intervalNs;
+    private final int maxIntervals;
+
+    /**
+     * Creates a TimestampContentionManager with an interval of 10 microseconds and at most 32 intervals.
+     */
+    public TimestampContentionManager() {
+        this(10000, 32);
+    }
+
+    /**
+     * Creates a TimestampContentionManager.
+     *
+     * @param intervalNs   the length of the interval in nanoseconds.
+     * @param maxIntervals the maximum number of intervals an older transaction waits for a lock.
+     * @throws IllegalArgumentException if intervalNs or maxIntervals is smaller than 1.
+     */
+    public TimestampContentionManager(final long intervalNs, final int maxIntervals) {
+        if (intervalNs < 1) {
+            throw new IllegalArgumentException("intervalNs can't be smaller than 1, intervalNs was " + intervalNs);
+        }
+
+        if (maxIntervals < 1) {
+            throw new IllegalArgumentException(
+                    "maxIntervals can't be smaller than 1, maxIntervals was " + maxIntervals);
+        }
+
+        this.intervalNs = intervalNs;
+        this.maxIntervals = maxIntervals;
+    }
+
+    @Override
+    public void onStart(final GammaTxn tx) {
+        //the older the transaction, the higher the priority.
+        tx.contentionPriority = Long.MAX_VALUE - clock.incrementAndGet();
+    }
+
+    @Override
+    public void onLockAcquired(final GammaTxn tx) {
+        //the priority doesn't depend on the work done.
+    }
+
+    @Override
+    public boolean onLockFailure(final GammaTxn tx, final AbstractGammaObject object, final int failures) {
+        final int allowedIntervals = tx.contentionPriority > object.lockOwnerPriority ? maxIntervals : 1;
+        if (failures > allowedIntervals) {
+            return false;
+        }
+
+        parkNanos(intervalNs);
+        return true;
+    }
+
+    @Override
+    public void onAbort(final GammaTxn tx) {
+        parkNanos(intervalNs);
+    }
+}
@@ -0,0 +1,71 @@
+package org.multiverse.stms.gamma;
+
+import org.multiverse.stms.gamma.transactionalobjects.GammaObject;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+
+/**
+ * A hook that receives the lifecycle events of the transactions of a GammaStm, so they can be forwarded to a
+ * profiler or flight recorder (e.g. by committing a Java Flight Recorder event in every callback). A TxnEventRecorder
+ * is configured using the {@link GammaStmConfig#txnEventRecorder}; if none is configured (the default), the only
+ * cost is a null check.
+ * <p/>
+ * The begin, commit and abort events are emitted by the {@link GammaTxnExecutor} for every attempt. The other events
+ * are emitted by the transaction itself, so also for transactions not executed by a GammaTxnExecutor.
+ * <p/>
+ * The callbacks are done by the thread executing the transaction and, except for {@link #onCommit}, while the
+ * transaction is aborted or being aborted, so the transaction should only be used to read its configuration
+ * and attempt. A callback should not throw an exception.
+ *
+ * @author Peter Veentjer.
+ */
+public interface TxnEventRecorder {
+
+    /**
+     * Is called when an attempt of a transaction begins.
+     *
+     * @param tx the transaction.
+     */
+    void onBegin(GammaTxn tx);
+
+    /**
+     * Is called when an attempt of a transaction has committed.
+     *
+     * @param tx         the committed transaction.
+     * @param size       the number of transactional objects read or written by the transaction.
+     * @param durationNs the duration of the attempt in nanoseconds.
+     */
+    void onCommit(GammaTxn tx, int size, long durationNs);
+
+    /**
+     * Is called when an attempt of a transaction has been aborted and is going to be retried.
+     *
+     * @param tx    the aborted transaction.
+     * @param cause the cause of the abort: a ReadWriteConflict, a SpeculativeConfigurationError or a RetryError.
+     */
+    void onAbort(GammaTxn tx, Throwable cause);
+
+    /**
+     * Is called when a transaction is aborted because of a read/write conflict.
+     *
+     * @param tx     the aborted transaction.
+     * @param object the transactional object that caused the conflict.
+     * @param locked true if the object was locked by another transaction.
+     */
+    void onReadWriteConflict(GammaTxn tx, GammaObject object, boolean locked);
+
+    /**
+     * Is called when a transaction is replaced by a transaction with a more capable speculative configuration.
+     *
+     * @param failedTx   the transaction that failed because its speculative configuration was too optimistic.
+     * @param upgradedTx the transaction that replaces it.
+     */
+    void onSpeculativeUpgrade(GammaTxn failedTx, GammaTxn upgradedTx);
+
+    /**
+     * Is called when a transaction that did a retry is done waiting for an update.
+     *
+     * @param tx     the waiting transaction.
+     * @param waitNs the time waited in nanoseconds.
+     */
+    void onRetryWait(GammaTxn tx, long waitNs);
+}
@@ -0,0 +1,297 @@
+package org.multiverse.stms.gamma;
+
+/**
+ * The metrics of a transaction family: the number of started and committed executions, the aborts split by cause,
+ * the number of attempts needed to commit and a histogram of the latency of the committed executions. The metrics
+ * are collected by the {@link GammaTxnExecutor} if {@link GammaStmConfig#txnMetricsEnabled} is set; if not, there is
+ * no TxnFamilyMetrics and no collection cost.
+ * <p/>
+ * To prevent the metrics from becoming the new hotspot, all counters are striped. A thread only updates the stripe
+ * it belongs to, see {@link StripedCounters}. The getters sum the stripes, so a value read
+ * while transactions are running is not a consistent snapshot of all counters.
+ * <p/>
+ * The latency histogram is log-linear (like a HdrHistogram with 2 significant bits): every power of two is split
+ * in 4 equally sized buckets, so the relative error of a recorded latency is at most 25%.
+ *
+ * @author Peter Veentjer.
+ * @see GammaStm#getTxnFamilyMetrics(String)
+ */
+public final class TxnFamilyMetrics {
+
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * The number of buckets of the latency histogram.
+     */
+    public static final int BUCKET_COUNT = (64 - SUB_BUCKET_BITS) * SUB_BUCKET_COUNT;
+
+    private static final int STARTS = 0;
+    private static final int COMMITS = 1;
+    private static final int ATTEMPTS = 2;
+    private static final int READ_WRITE_CONFLICTS = 3;
+    private static final int LOCKED_ABORTS = 4;
+    private static final int SPECULATIVE_FAILURES = 5;
+    private static final int RETRIES = 6;
+    private static final int FIRST_BUCKET = 8;
+
+    private final String familyName;
+    private final StripedCounters counters;
+
+    /**
+     * Creates a TxnFamilyMetrics.
+     *
+     * @param familyName the name of the transaction family.
+     * @param stripes    the number of stripes. The value is rounded up to the next power of two.
+     * @throws NullPointerException     if familyName is null.
+     * @throws IllegalArgumentException if stripes is smaller than 1.
+     */
+    public TxnFamilyMetrics(String familyName, int stripes) {
+        if (familyName == null) {
+            throw new NullPointerException("familyName can't be null");
+        }
+
+        this.familyName = familyName;
+        this.counters = new StripedCounters(stripes, FIRST_BUCKET + BUCKET_COUNT);
+    }
+
+    /**
+     * Returns the name of the transaction family these metrics belong to.
+     *
+     * @return the name of the transaction family.
+     */
+    public String getFamilyName() {
+        return familyName;
+    }
+
+    /**
+     * Returns the number of stripes of this TxnFamilyMetrics.
+     *
+     * @return the number of stripes.
+     */
+    public int getStripeCount() {
+        return counters.getStripeCount();
+    }
+
+    /**
+     * Signals that the execution of a transaction has started.
+     *
+     * @return the start time in nanoseconds, that needs to be passed to {@link #onCommit(int, long)}.
+     */
+    public long onStart() {
+        counters.increment(counters.stripe(), STARTS);
+        return System.nanoTime();
+    }
+
+    /**
+     * Signals that the execution of a transaction has committed.
+     *
+     * @param attempts the number of attempts the transaction needed.
+     * @param startNs  the start time returned by {@link #onStart()}.
+     */
+    public void onCommit(int attempts, long startNs) {
+        final int stripe = counters.stripe();
+        counters.increment(stripe, COMMITS);
+        counters.add(stripe, ATTEMPTS, attempts);
+        counters.increment(stripe, FIRST_BUCKET + bucketIndex(System.nanoTime() - startNs));
+    }
+
+    /**
+     * Signals that an attempt was aborted with a {@link org.multiverse.api.exceptions.ReadWriteConflict}.
+     *
+     * @param locked true if the conflict was caused by an object locked by another transaction.
+     */
+    public void onReadWriteConflict(boolean locked) {
+        counters.increment(counters.stripe(), locked ? LOCKED_ABORTS : READ_WRITE_CONFLICTS);
+    }
+
+    /**
+     * Signals that an attempt was aborted with a {@link org.multiverse.api.exceptions.SpeculativeConfigurationError}.
+     */
+    public void onSpeculativeFailure() {
+        counters.increment(counters.stripe(), SPECULATIVE_FAILURES);
+    }
+
+    /**
+     * Signals that an attempt was aborted with a {@link org.multiverse.api.exceptions.RetryError}.
+     */
+    public void onRetry() {
+        counters.increment(counters.stripe(), RETRIES);
+    }
+
+    /**
+     * Returns the number of started executions.
+     *
+     * @return the number of started executions.
+     */
+    public long getStarts() {
+        return counters.sum(STARTS);
+    }
+
+    /**
+     * Returns the number of committed executions.
+     *
+     * @return the number of committed executions.
+     */
+    public long getCommits() {
+        return counters.sum(COMMITS);
+    }
+
+    /**
+     * Returns the total number of attempts the committed executions needed.
+     *
+     * @return the total number of attempts.
+     */
+    public long getCommittedAttempts() {
+        return counters.sum(ATTEMPTS);
+    }
+
+    /**
+     * Returns the average number of attempts a committed execution needed.
+     *
+     * @return the average number of attempts, or 0 if nothing has committed.
+     */
+    public double getAttemptsPerCommit() {
+        final long commits = getCommits();
+        return commits == 0 ? 0 : ((double) getCommittedAttempts()) / commits;
+    }
+
+    /**
+     * Returns the number of attempts aborted by a read/write-conflict, that was not caused by a locked object.
+     *
+     * @return the number of read/write-conflicts.
+     */
+    public long getReadWriteConflicts() {
+        return counters.sum(READ_WRITE_CONFLICTS);
+    }
+
+    /**
+     * Returns the number of attempts aborted because an object was locked by another transaction.
+     *
+     * @return the number of aborts on a locked object.
+     */
+    public long getLockedAborts() {
+        return counters.sum(LOCKED_ABORTS);
+    }
+
+    /**
+     * Returns the number of attempts aborted because the speculative configuration was too optimistic.
+     *
+     * @return the number of speculative failures.
+     */
+    public long getSpeculativeFailures() {
+        return counters.sum(SPECULATIVE_FAILURES);
+    }
+
+    /**
+     * Returns the number of attempts aborted on a retry (so the transaction blocked).
+     *
+     * @return the number of retries.
+     */
+    public long getRetries() {
+        return counters.sum(RETRIES);
+    }
+
+    /**
+     * Returns the latency histogram of the committed executions.
+     *
+     * @return an array of length {@link #BUCKET_COUNT} with the number of latencies recorded in every bucket.
+     * @see #getBucketLowerBoundNs(int)
+     */
+    public long[] getLatencyHistogram() {
+        final long[] histogram = new long[BUCKET_COUNT];
+        for (int k = 0; k < BUCKET_COUNT; k++) {
+            histogram[k] = counters.sum(FIRST_BUCKET + k);
+        }
+        return histogram;
+    }
+
+    /**
+     * Returns the latency in nanoseconds under which the given percentage of the committed executions completed.
+     *
+     * @param percentile the percentile, between 0 and 100.
+     * @return the lower bound of the bucket containing the percentile, or 0 if nothing has committed.
+     * @throws IllegalArgumentException if percentile is smaller than 0 or larger than 100.
+     */
+    public long getLatencyPercentileNs(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile should be between 0 and 100, percentile was " + percentile);
+        }
+
+        final long[] histogram = getLatencyHistogram();
+        long total = 0;
+        for (long count : histogram) {
+            total += count;
+        }
+
+        if (total == 0) {
+            return 0;
+        }
+
+        final long threshold = Math.max(1, (long) Math.ceil(total * percentile / 100));
+        long seen = 0;
+        for (int k = 0; k < BUCKET_COUNT; k++) {
+            seen += histogram[k];
+            if (seen >= threshold) {
+                return getBucketLowerBoundNs(k);
+            }
+        }
+
+        return getBucketLowerBoundNs(BUCKET_COUNT - 1);
+    }
+
+    /**
+     * Clears all counters. Updates done concurrently with the reset can survive it.
+     */
+    public void reset() {
+        counters.reset();
+    }
+
+    static int bucketIndex(long valueNs) {
+        if (valueNs < SUB_BUCKET_COUNT) {
+            return valueNs < 0 ? 0 : (int) valueNs;
+        }
+
+        final int exponent = 63 - Long.numberOfLeadingZeros(valueNs);
+        final int subBucket = (int) (valueNs >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKET_COUNT - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKET_COUNT + subBucket;
+    }
+
+    /**
+     * Returns the smallest latency in nanoseconds that is recorded in the bucket with the given index.
+     *
+     * @param bucket the index of the bucket.
+     * @return the lower bound of the bucket.
+     * @throws IllegalArgumentException if bucket is not a valid bucket index.
+     */
+    public static long getBucketLowerBoundNs(int bucket) {
+        if (bucket < 0 || bucket >= BUCKET_COUNT) {
+            throw new IllegalArgumentException("bucket should be between 0 and " + (BUCKET_COUNT - 1)
+                    + ", bucket was " + bucket);
+        }
+
+        if (bucket < SUB_BUCKET_COUNT) {
+            return bucket;
+        }
+
+        final int exponent = bucket / SUB_BUCKET_COUNT + SUB_BUCKET_BITS - 1;
+        final long subBucket = bucket % SUB_BUCKET_COUNT;
+        return (SUB_BUCKET_COUNT + subBucket) << (exponent - SUB_BUCKET_BITS);
+    }
+
+    @Override
+    public String toString() {
+        return "TxnFamilyMetrics{" +
+                "familyName='" + familyName + '\'' +
+                ", starts=" + getStarts() +
+                ", commits=" + getCommits() +
+                ", attemptsPerCommit=" + getAttemptsPerCommit() +
+                ", readWriteConflicts=" + getReadWriteConflicts() +
+                ", lockedAborts=" + getLockedAborts() +
+                ", speculativeFailures=" + getSpeculativeFailures() +
+                ", retries=" + getRetries() +
+                ", latencyP50Ns=" + getLatencyPercentileNs(50) +
+                ", latencyP99Ns=" + getLatencyPercentileNs(99) +
+                '}';
+    }
+}
@@ -0,0 +1,89 @@
+package org.multiverse.stms.gamma.jmx;
+
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static java.lang.String.format;
+
+/**
+ * Registers the MBeans of a GammaStm on the platform MBeanServer. The {@link GammaStmMonitor} is registered as
+ * 'org.multiverse:type=GammaStm,name=&lt;jmxName&gt;' and the {@link TxnFamilyMonitor} of every transaction family as
+ * 'org.multiverse:type=TxnFamily,stm=&lt;jmxName&gt;,name=&lt;familyName&gt;'.
+ *
+ * @author Peter Veentjer.
+ */
+public final class GammaStmMBeans {
+
+    public static final String DOMAIN = "org.multiverse";
+
+    /**
+     * Creates the ObjectName of the GammaStmMonitor of the GammaStm with the given jmx name.
+     *
+     * @param jmxName the jmx name of the GammaStm.
+     * @return the created ObjectName.
+     * @throws IllegalArgumentException if no valid ObjectName can be created.
+     */
+    public static ObjectName newStmObjectName(String jmxName) {
+        return newObjectName(format("%s:type=GammaStm,name=%s", DOMAIN, ObjectName.quote(jmxName)));
+    }
+
+    /**
+     * Creates the ObjectName of the TxnFamilyMonitor of a transaction family.
+     *
+     * @param jmxName    the jmx name of the GammaStm.
+     * @param familyName the name of the transaction family.
+     * @return the created ObjectName.
+     * @throws IllegalArgumentException if no valid ObjectName can be created.
+     */
+    public static ObjectName newTxnFamilyObjectName(String jmxName, String familyName) {
+        return newObjectName(format("%s:type=TxnFamily,stm=%s,name=%s",
+                DOMAIN, ObjectName.quote(jmxName), ObjectName.quote(familyName)));
+    }
+
+    private static ObjectName newObjectName(String name) {
+        try {
+            return new ObjectName(name);
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalArgumentException(format("Invalid ObjectName [%s]", name), e);
+        }
+    }
+
+    /**
+     * Registers an MBean on the platform MBeanServer.
+     *
+     * @param mbean the MBean to register.
+     * @param name  the ObjectName to register the MBean under.
+     * @throws IllegalStateException if the MBean could not be registered, e.g. because the name already is used.
+     */
+    public static void register(Object mbean, ObjectName name) {
+        try {
+            ManagementFactory.getPlatformMBeanServer().registerMBean(mbean, name);
+        } catch (JMException e) {
+            throw new IllegalStateException(format("Failed to register MBean [%s]", name), e);
+        }
+    }
+
+    /**
+     * Unregisters an MBean from the platform MBeanServer. The call is ignored if no MBean is registered under the
+     * name.
+     *
+     * @param name the ObjectName of the MBean.
+     * @throws IllegalStateException if the MBean could not be unregistered.
+     */
+    public static void unregister(ObjectName name) {
+        final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            server.unregisterMBean(name);
+        } catch (InstanceNotFoundException ignore) {
+        } catch (JMException e) {
+            throw new IllegalStateException(format("Failed to unregister MBean [%s]", name), e);
+        }
+    }
+
+    private GammaStmMBeans() {
+    }
+}
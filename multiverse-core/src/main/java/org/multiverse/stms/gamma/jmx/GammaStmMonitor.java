@@ -0,0 +1,101 @@
+package org.multiverse.stms.gamma.jmx;
+
+import org.multiverse.api.blocking.ParkingRetryLatch;
+import org.multiverse.stms.gamma.GammaObjectPool;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.PoolStatistics;
+import org.multiverse.stms.gamma.TxnFamilyMetrics;
+import org.multiverse.stms.gamma.transactions.GammaTxnPool;
+
+import java.util.Set;
+
+/**
+ * The MBean that exposes the statistics of a {@link GammaStm}. It is registered by the GammaStm if
+ * {@link org.multiverse.stms.gamma.GammaStmConfig#jmxEnabled} is set.
+ * <p/>
+ * The pool statistics and the retry latch counts are shared by all GammaStm instances, since the pools and latches
+ * are not bound to a single GammaStm.
+ *
+ * @author Peter Veentjer.
+ */
+public final class GammaStmMonitor implements GammaStmMonitorMBean {
+
+    private final GammaStm stm;
+
+    public GammaStmMonitor(GammaStm stm) {
+        if (stm == null) {
+            throw new NullPointerException("stm can't be null");
+        }
+        this.stm = stm;
+    }
+
+    @Override
+    public long getGlobalConflictCount() {
+        return stm.getGlobalConflictCounter().count();
+    }
+
+    @Override
+    public String[] getTxnFamilyNames() {
+        final Set<String> names = stm.getAllTxnFamilyMetrics().keySet();
+        return names.toArray(new String[names.size()]);
+    }
+
+    @Override
+    public boolean isPoolStatisticsEnabled() {
+        return PoolStatistics.ENABLED;
+    }
+
+    @Override
+    public long getObjectPoolHits() {
+        return GammaObjectPool.STATISTICS.getHits();
+    }
+
+    @Override
+    public long getObjectPoolMisses() {
+        return GammaObjectPool.STATISTICS.getMisses();
+    }
+
+    @Override
+    public double getObjectPoolHitRate() {
+        return GammaObjectPool.STATISTICS.getHitRate();
+    }
+
+    @Override
+    public long getTxnPoolHits() {
+        return GammaTxnPool.STATISTICS.getHits();
+    }
+
+    @Override
+    public long getTxnPoolMisses() {
+        return GammaTxnPool.STATISTICS.getMisses();
+    }
+
+    @Override
+    public double getTxnPoolHitRate() {
+        return GammaTxnPool.STATISTICS.getHitRate();
+    }
+
+    @Override
+    public int getRetryLatchWaitingThreads() {
+        return ParkingRetryLatch.getWaitingThreadCount();
+    }
+
+    @Override
+    public long getRetryLatchParkedAwaits() {
+        return ParkingRetryLatch.getParkedAwaitCount();
+    }
+
+    @Override
+    public void resetStatistics() {
+        GammaObjectPool.STATISTICS.reset();
+        GammaTxnPool.STATISTICS.reset();
+        ParkingRetryLatch.resetParkedAwaitCount();
+    }
+
+    @Override
+    public void resetAllTxnFamilyMetrics() {
+        for (TxnFamilyMetrics metrics : stm.getAllTxnFamilyMetrics().values()) {
+            metrics.reset();
+        }
+    }
+}
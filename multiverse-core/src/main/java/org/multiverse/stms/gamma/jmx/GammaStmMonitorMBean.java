@@ -0,0 +1,77 @@
+package org.multiverse.stms.gamma.jmx;
+
+/**
+ * The management interface of the {@link GammaStmMonitor}.
+ *
+ * @author Peter Veentjer.
+ */
+public interface GammaStmMonitorMBean {
+
+    /**
+     * Returns the count of the GlobalConflictCounter. Only the change of the count is interesting.
+     *
+     * @return the global conflict count.
+     */
+    long getGlobalConflictCount();
+
+    /**
+     * Returns the names of the transaction families that have metrics.
+     *
+     * @return the names of the transaction families.
+     */
+    String[] getTxnFamilyNames();
+
+    /**
+     * Checks if pool statistics are collected.
+     *
+     * @return true if pool statistics are collected.
+     * @see org.multiverse.stms.gamma.PoolStatistics#ENABLED
+     */
+    boolean isPoolStatisticsEnabled();
+
+    long getObjectPoolHits();
+
+    long getObjectPoolMisses();
+
+    /**
+     * Returns the percentage of the takes from the GammaObjectPools that were served from the pool.
+     *
+     * @return the hit rate between 0 and 100.
+     */
+    double getObjectPoolHitRate();
+
+    long getTxnPoolHits();
+
+    long getTxnPoolMisses();
+
+    /**
+     * Returns the percentage of the takes from the GammaTxnPools that were served from the pool.
+     *
+     * @return the hit rate between 0 and 100.
+     */
+    double getTxnPoolHitRate();
+
+    /**
+     * Returns the number of threads currently parked on a retry latch.
+     *
+     * @return the number of waiting threads.
+     */
+    int getRetryLatchWaitingThreads();
+
+    /**
+     * Returns the number of times a thread needed to park on a retry latch.
+     *
+     * @return the number of parked awaits.
+     */
+    long getRetryLatchParkedAwaits();
+
+    /**
+     * Resets the pool statistics and the number of parked awaits.
+     */
+    void resetStatistics();
+
+    /**
+     * Resets the metrics of all transaction families.
+     */
+    void resetAllTxnFamilyMetrics();
+}
@@ -0,0 +1,127 @@
+package org.multiverse.stms.gamma.jmx;
+
+import org.multiverse.stms.gamma.TxnFamilyMetrics;
+import org.multiverse.stms.gamma.transactions.SpeculativeGammaConfiguration;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The MBean that exposes the {@link TxnFamilyMetrics} and the speculative configuration of a transaction family. It
+ * is registered by the GammaStm if {@link org.multiverse.stms.gamma.GammaStmConfig#jmxEnabled} is set.
+ * <p/>
+ * The metrics are shared by all configurations of the family, but every configuration learns its own speculative
+ * configuration (e.g. a readonly and an update configuration with the same family name). The monitor is bound to the
+ * speculative configuration of the first configuration of the family that was initialized, so the speculative
+ * configuration of the other configurations of the family is not visible through jmx.
+ *
+ * @author Peter Veentjer.
+ */
+public final class TxnFamilyMonitor implements TxnFamilyMonitorMBean {
+
+    private final TxnFamilyMetrics metrics;
+    private final AtomicReference<SpeculativeGammaConfiguration> speculativeConfiguration;
+    private volatile long resetNs = System.nanoTime();
+
+    public TxnFamilyMonitor(TxnFamilyMetrics metrics,
+                            AtomicReference<SpeculativeGammaConfiguration> speculativeConfiguration) {
+        if (metrics == null) {
+            throw new NullPointerException("metrics can't be null");
+        }
+
+        if (speculativeConfiguration == null) {
+            throw new NullPointerException("speculativeConfiguration can't be null");
+        }
+
+        this.metrics = metrics;
+        this.speculativeConfiguration = speculativeConfiguration;
+    }
+
+    @Override
+    public String getFamilyName() {
+        return metrics.getFamilyName();
+    }
+
+    @Override
+    public long getStarts() {
+        return metrics.getStarts();
+    }
+
+    @Override
+    public long getCommits() {
+        return metrics.getCommits();
+    }
+
+    @Override
+    public long getAborts() {
+        return metrics.getReadWriteConflicts()
+                + metrics.getLockedAborts()
+                + metrics.getSpeculativeFailures()
+                + metrics.getRetries();
+    }
+
+    @Override
+    public long getReadWriteConflicts() {
+        return metrics.getReadWriteConflicts();
+    }
+
+    @Override
+    public long getLockedAborts() {
+        return metrics.getLockedAborts();
+    }
+
+    @Override
+    public long getSpeculativeFailures() {
+        return metrics.getSpeculativeFailures();
+    }
+
+    @Override
+    public long getRetries() {
+        return metrics.getRetries();
+    }
+
+    @Override
+    public double getAttemptsPerCommit() {
+        return metrics.getAttemptsPerCommit();
+    }
+
+    @Override
+    public double getCommitsPerSecond() {
+        return perSecond(getCommits());
+    }
+
+    @Override
+    public double getAbortsPerSecond() {
+        return perSecond(getAborts());
+    }
+
+    private double perSecond(long count) {
+        final long elapsedNs = System.nanoTime() - resetNs;
+        return elapsedNs <= 0 ? 0 : (count * 1000d * 1000 * 1000) / elapsedNs;
+    }
+
+    @Override
+    public long getLatencyP50Ns() {
+        return metrics.getLatencyPercentileNs(50);
+    }
+
+    @Override
+    public long getLatencyP99Ns() {
+        return metrics.getLatencyPercentileNs(99);
+    }
+
+    @Override
+    public long getLatencyP999Ns() {
+        return metrics.getLatencyPercentileNs(99.9);
+    }
+
+    @Override
+    public String getSpeculativeConfiguration() {
+        return String.valueOf(speculativeConfiguration.get());
+    }
+
+    @Override
+    public void reset() {
+        metrics.reset();
+        resetNs = System.nanoTime();
+    }
+}
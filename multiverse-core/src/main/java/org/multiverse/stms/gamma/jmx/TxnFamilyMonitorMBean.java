@@ -0,0 +1,65 @@
+package org.multiverse.stms.gamma.jmx;
+
+/**
+ * The management interface of the {@link TxnFamilyMonitor}.
+ *
+ * @author Peter Veentjer.
+ */
+public interface TxnFamilyMonitorMBean {
+
+    String getFamilyName();
+
+    long getStarts();
+
+    long getCommits();
+
+    /**
+     * Returns the number of aborted attempts, whatever the cause.
+     *
+     * @return the number of aborted attempts.
+     */
+    long getAborts();
+
+    long getReadWriteConflicts();
+
+    long getLockedAborts();
+
+    long getSpeculativeFailures();
+
+    long getRetries();
+
+    double getAttemptsPerCommit();
+
+    /**
+     * Returns the average number of commits per second since the metrics were created or reset.
+     *
+     * @return the commit rate.
+     */
+    double getCommitsPerSecond();
+
+    /**
+     * Returns the average number of aborted attempts per second since the metrics were created or reset.
+     *
+     * @return the abort rate.
+     */
+    double getAbortsPerSecond();
+
+    long getLatencyP50Ns();
+
+    long getLatencyP99Ns();
+
+    long getLatencyP999Ns();
+
+    /**
+     * Returns the SpeculativeGammaConfiguration the transaction family has settled on. If the family has multiple
+     * configurations, this is the one of the first configuration that was initialized.
+     *
+     * @return a description of the speculative configuration.
+     */
+    String getSpeculativeConfiguration();
+
+    /**
+     * Resets the metrics of the transaction family.
+     */
+    void reset();
+}
@@ -5,7 +5,9 @@ import org.multiverse.api.LockMode;
 import org.multiverse.api.Txn;
 import org.multiverse.api.exceptions.PanicError;
 import org.multiverse.api.exceptions.TxnMandatoryException;
+import org.multiverse.stms.gamma.ContentionProfiler;
 import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.GlobalConflictCounter;
 import org.multiverse.stms.gamma.Listeners;
 import org.multiverse.stms.gamma.transactions.GammaTxn;
 import org.multiverse.utils.ToolUnsafe;
@@ -21,12 +23,14 @@ public abstract class AbstractGammaObject implements GammaObject, TxnLock {
     public static final long MASK_OREC_UPDATELOCK = 0x4000000000000000L;
     public static final long MASK_OREC_READBIASED = 0x2000000000000000L;
     public static final long MASK_OREC_READLOCKS = 0x1FFFFF0000000000L;
-    public static final long MASK_OREC_SURPLUS = 0x000000FFFFFFFE00L;
+    public static final long MASK_OREC_SURPLUS = 0x000000FFFFFFFC00L;
     public static final long MASK_OREC_READONLY_COUNT = 0x00000000000003FFL;
 
     protected static final Unsafe ___unsafe = ToolUnsafe.getUnsafe();
     protected static final long listenersOffset;
     protected static final long valueOffset;
+    protected static final long readIndicatorOffset;
+    protected static final long modeChangeCountOffset;
 
     static {
         try {
@@ -34,6 +38,10 @@ public abstract class AbstractGammaObject implements GammaObject, TxnLock {
                     AbstractGammaObject.class.getDeclaredField("listeners"));
             valueOffset = ___unsafe.objectFieldOffset(
                     AbstractGammaObject.class.getDeclaredField("orec"));
+            readIndicatorOffset = ___unsafe.objectFieldOffset(
+                    AbstractGammaObject.class.getDeclaredField("readIndicator"));
+            modeChangeCountOffset = ___unsafe.objectFieldOffset(
+                    AbstractGammaObject.class.getDeclaredField("modeChangeCount"));
         } catch (Exception ex) {
             throw new Error(ex);
         }
@@ -41,6 +49,9 @@ public abstract class AbstractGammaObject implements GammaObject, TxnLock {
 
     public final GammaStm stm;
 
+    //the counter of the conflict domain this object belongs to.
+    public final GlobalConflictCounter conflictCounter;
+
     @SuppressWarnings({"UnusedDeclaration"})
     public volatile Listeners listeners;
 
@@ -50,16 +61,41 @@ public abstract class AbstractGammaObject implements GammaObject, TxnLock {
     @SuppressWarnings({"VolatileLongOrDoubleField"})
     public volatile long orec;
 
+    //the ReadIndicator readers arrive on instead of the orec. It is installed once arrives on the orec start to run
+    //into contention (see GammaStmConfig.readIndicatorSlots) and is never removed.
+    public volatile ReadIndicator readIndicator;
+
+    //the priority of the transaction that last acquired a lock using the ContentionManager of the stm. It is only a
+    //hint for the ContentionManager, so it is not volatile and is not cleared when the lock is released.
+    public long lockOwnerPriority;
+
     //This field has a controlled JMM problem (just like the hashcode of String).
     protected int identityHashCode;
 
-    //it is important that the maximum threshold is not larger than 1023 (there are 10 bits for the readonly count)
-    private final int readBiasedThreshold;
+    //it is important that the maximum threshold is not larger than 1023 (there are 10 bits for the readonly count).
+    //If adaptive read biasing is enabled, the threshold is changed by the writer while it owns the exclusive lock;
+    //readers see it with a controlled JMM problem (just like the identityHashCode).
+    private int readBiasedThreshold;
+
+    //the number of times the orec changed from update biased to read biased or the other way around.
+    @SuppressWarnings({"UnusedDeclaration"})
+    private volatile int modeChangeCount;
 
     public AbstractGammaObject(GammaStm stm) {
+        this(stm, stm.globalConflictCounter);
+    }
+
+    public AbstractGammaObject(GammaStm stm, GlobalConflictCounter conflictCounter) {
         assert stm != null;
+        assert conflictCounter != null;
         this.stm = stm;
+        this.conflictCounter = conflictCounter;
         this.readBiasedThreshold = stm.readBiasedThreshold;
+
+        final ContentionProfiler contentionProfiler = stm.contentionProfiler;
+        if (contentionProfiler != null) {
+            contentionProfiler.onCreate(this);
+        }
     }
 
     @Override
@@ -77,6 +113,13 @@ public abstract class AbstractGammaObject implements GammaObject, TxnLock {
         return this;
     }
 
+    /**
+     * Removes the listeners after a write, so that they can be opened. Listeners waiting for a predicate that doesn't
+     * hold for the written value, are registered again and not returned. This call should only be done while the
+     * object still is exclusively locked by the writer.
+     *
+     * @return the listeners to open, or null if there are none.
+     */
     public final Listeners ___removeListenersAfterWrite() {
         if (listeners == null) {
             return null;
@@ -86,7 +129,35 @@ public abstract class AbstractGammaObject implements GammaObject, TxnLock {
         while (true) {
             removedListeners = listeners;
             if (___unsafe.compareAndSwapObject(this, listenersOffset, removedListeners, null)) {
-                return removedListeners;
+                return ___filterListenersAfterWrite(removedListeners);
+            }
+        }
+    }
+
+    /**
+     * Filters the removed listeners on the predicates they are waiting for. This implementation doesn't filter.
+     *
+     * @param removedListeners the removed listeners.
+     * @return the listeners to open, or null if there are none.
+     */
+    protected Listeners ___filterListenersAfterWrite(final Listeners removedListeners) {
+        return removedListeners;
+    }
+
+    /**
+     * Registers listeners again that were removed after a write, but are waiting for a predicate that doesn't hold.
+     * Because the writer still has the exclusive lock, no other write can happen before the listeners are registered
+     * again, so no update is missed.
+     *
+     * @param head the first of the listeners to register.
+     * @param tail the last of the listeners to register.
+     */
+    protected final void ___registerListenersAgain(final Listeners head, final Listeners tail) {
+        while (true) {
+            final Listeners current = listeners;
+            tail.next = current;
+            if (___unsafe.compareAndSwapObject(this, listenersOffset, current, head)) {
+                return;
             }
         }
     }
@@ -207,6 +278,46 @@ public abstract class AbstractGammaObject implements GammaObject, TxnLock {
         return readBiasedThreshold;
     }
 
+    /**
+     * Returns the number of times the orec changed from update biased to read biased or the other way around. A
+     * transactional object that changes mode often, alternates between read and write phases that are too short for
+     * read biasing to pay off.
+     *
+     * @return the number of mode changes.
+     */
+    public final int getModeChangeCount() {
+        return modeChangeCount;
+    }
+
+    private void incrementModeChangeCount() {
+        while (true) {
+            final int current = modeChangeCount;
+            if (___unsafe.compareAndSwapInt(this, modeChangeCountOffset, current, current + 1)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Adapts the readBiasedThreshold after an update, see {@link org.multiverse.stms.gamma.GammaStmConfig#adaptiveReadBiasingEnabled}.
+     * It is called by the writer before it releases the exclusive lock, so only 1 thread at a time changes the threshold.
+     *
+     * @param current the orec value seen by the writer.
+     */
+    private void adaptReadBiasedThresholdAfterUpdate(final long current) {
+        final int threshold = readBiasedThreshold;
+
+        if (isReadBiased(current)) {
+            //the read phase was too short to pay for the conflict an update of a readbiased orec causes, so more
+            //reads are needed before becoming readbiased again.
+            readBiasedThreshold = (int) Math.min(MASK_OREC_READONLY_COUNT, threshold * 2L);
+        } else if (getReadonlyCount(current) >= threshold - threshold / 4) {
+            //almost enough reads between the last 2 updates to become readbiased, so the threshold slowly decays back
+            //to the configured value.
+            readBiasedThreshold = Math.max(stm.readBiasedThreshold, threshold - threshold / 4);
+        }
+    }
+
     public final long getSurplus() {
         return getSurplus(orec);
     }
@@ -223,6 +334,24 @@ public abstract class AbstractGammaObject implements GammaObject, TxnLock {
         return getReadLockCount(orec);
     }
 
+    /**
+     * Installs the {@link ReadIndicator} if it isn't installed already.
+     *
+     * @return the installed ReadIndicator.
+     */
+    public final ReadIndicator ___installReadIndicator() {
+        final ReadIndicator current = readIndicator;
+        if (current != null) {
+            return current;
+        }
+
+        final ReadIndicator update = new ReadIndicator(stm.readIndicatorSlots > 0 ? stm.readIndicatorSlots : 1);
+        if (___unsafe.compareAndSwapObject(this, readIndicatorOffset, null, update)) {
+            return update;
+        }
+        return readIndicator;
+    }
+
     /**
      * Arrives. The Arrive is needed for the fast conflict detection (rich mans conflict).
      *
@@ -266,6 +395,10 @@ public abstract class AbstractGammaObject implements GammaObject, TxnLock {
 
                 return result;
             }
+
+            if (readIndicator == null && stm.readIndicatorSlots > 0) {
+                ___installReadIndicator();
+            }
         } while (spinCount >= 0);
 
         return FAILURE;
@@ -398,6 +531,14 @@ public abstract class AbstractGammaObject implements GammaObject, TxnLock {
             }
         } while (spinCount >= 0);
 
+        return lockFailure();
+    }
+
+    private int lockFailure() {
+        final ContentionProfiler contentionProfiler = stm.contentionProfiler;
+        if (contentionProfiler != null) {
+            contentionProfiler.onLockFailure(this);
+        }
         return FAILURE;
     }
 
@@ -449,7 +590,7 @@ public abstract class AbstractGammaObject implements GammaObject, TxnLock {
             }
         } while (spinCount >= 0);
 
-        return FAILURE;
+        return lockFailure();
     }
 
     /**
@@ -505,6 +646,34 @@ public abstract class AbstractGammaObject implements GammaObject, TxnLock {
         return FAILURE;
     }
 
+    /**
+     * Acquires a lock after an arrive that was done on the {@link ReadIndicator}. The arrive is moved to the orec
+     * (the lock is acquired with a new arrive and then the ReadIndicator is departed), so that a lock owner always is
+     * part of the surplus of the orec and the lock can be released as if the arrive was done on the orec.
+     *
+     * @param spinCount the maximum number of times to spin if a lock is acquired.
+     * @param lockMode  the desired lockMode. This is not allowed to be LOCKMODE_NONE.
+     * @param slot      the slot of the ReadIndicator the arrive was done on.
+     * @return the status of the operation.
+     */
+    public final int lockAfterReadIndicatorArrive(int spinCount, final int lockMode, final int slot) {
+        assert lockMode != LOCKMODE_NONE;
+
+        if (arriveAndLock(spinCount, lockMode) == FAILURE) {
+            return FAILURE;
+        }
+
+        readIndicator.departAfterFailure(this, slot);
+
+        //the surplus the arriveAndLock has seen contains the arrive on the ReadIndicator, so the conflict is
+        //determined after departing it. Readers that arrive on the ReadIndicator from now on, see the exclusive lock.
+        if (lockMode == LOCKMODE_EXCLUSIVE && getSurplus(orec) > 1) {
+            return MASK_SUCCESS + MASK_CONFLICT;
+        }
+
+        return MASK_SUCCESS;
+    }
+
     /**
      * Departs after a successful read is done and no lock was acquired.
      * <p/>
@@ -525,6 +694,7 @@ public abstract class AbstractGammaObject implements GammaObject, TxnLock {
                 throw new PanicError("Orec is readbiased " + toOrecString(current));
             }
 
+            final int readBiasedThreshold = this.readBiasedThreshold;
             int readonlyCount = getReadonlyCount(current);
             if (readonlyCount < readBiasedThreshold) {
                 readonlyCount++;
@@ -536,7 +706,7 @@ public abstract class AbstractGammaObject implements GammaObject, TxnLock {
 
             surplus--;
             final boolean hasExclusiveLock = hasExclusiveLock(current);
-            if (!hasExclusiveLock && surplus == 0 && readonlyCount == readBiasedThreshold) {
+            if (!hasExclusiveLock && surplus == 0 && readonlyCount >= readBiasedThreshold) {
                 isReadBiased = true;
                 readonlyCount = 0;
             }
@@ -545,6 +715,9 @@ public abstract class AbstractGammaObject implements GammaObject, TxnLock {
             next = setReadonlyCount(next, readonlyCount);
             next = setSurplus(next, surplus);
             if (___unsafe.compareAndSwapLong(this, valueOffset, current, next)) {
+                if (isReadBiased) {
+                    incrementModeChangeCount();
+                }
                 return;
             }
         }
@@ -578,6 +751,7 @@ public abstract class AbstractGammaObject implements GammaObject, TxnLock {
                 throw new PanicError("Orec is readbiased " + toOrecString(current));
             }
 
+            final int readBiasedThreshold = this.readBiasedThreshold;
             int readonlyCount = getReadonlyCount(current);
 
             surplus--;
@@ -586,7 +760,7 @@ public abstract class AbstractGammaObject implements GammaObject, TxnLock {
                 readonlyCount++;
             }
 
-            if (surplus == 0 && readonlyCount == readBiasedThreshold) {
+            if (surplus == 0 && readonlyCount >= readBiasedThreshold) {
                 isReadBiased = true;
                 readonlyCount = 0;
             }
@@ -603,12 +777,16 @@ public abstract class AbstractGammaObject implements GammaObject, TxnLock {
             next = setReadonlyCount(next, readonlyCount);
             next = setSurplus(next, surplus);
             if (___unsafe.compareAndSwapLong(this, valueOffset, current, next)) {
+                if (isReadBiased) {
+                    incrementModeChangeCount();
+                }
                 return;
             }
         }
     }
 
     public final void departAfterUpdateAndUnlock() {
+        boolean adapted = !stm.adaptiveReadBiasingEnabled;
         while (true) {
             final long current = orec;
 
@@ -623,6 +801,11 @@ public abstract class AbstractGammaObject implements GammaObject, TxnLock {
                         "Can't departAfterUpdateAndUnlock is there is no surplus " + toOrecString(current));
             }
 
+            if (!adapted) {
+                adaptReadBiasedThresholdAfterUpdate(current);
+                adapted = true;
+            }
+
             if (isReadBiased(current)) {
                 if (surplus > 1) {
                     throw new PanicError(
@@ -637,6 +820,9 @@ public abstract class AbstractGammaObject implements GammaObject, TxnLock {
 
             if (surplus == 0) {
                 orec = 0;
+                if (isReadBiased(current)) {
+                    incrementModeChangeCount();
+                }
                 return;
             }
 
@@ -0,0 +1,204 @@
+package org.multiverse.stms.gamma.transactionalobjects;
+
+import org.multiverse.stms.gamma.GammaConstants;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.GlobalConflictCounter;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+
+/**
+ * The base of the striped transactional arrays. The elements are divided in stripes of 'stripeSize' elements and
+ * every stripe is a {@link GammaTxnStruct} with a field per element. So a stripe has a single orec, version and
+ * tranlocal for all its elements, which makes a large array a lot smaller than the same number of refs.
+ * <p/>
+ * The price is that transactions that access different elements of the same stripe conflict with each other, and
+ * that the first update of a stripe in a transaction copies all elements of that stripe. So a small stripeSize is
+ * better for arrays with a lot of concurrent updates, a large stripeSize for arrays that are mostly read.
+ *
+ * @author Peter Veentjer.
+ */
+public abstract class AbstractGammaTxnArray implements GammaConstants {
+
+    public static final int DEFAULT_STRIPE_SIZE = 32;
+
+    //a stripe is copied completely on its first update in a transaction, so large stripes make no sense.
+    public static final int MAX_STRIPE_SIZE = 1024;
+
+    protected final GammaTxnStruct[] stripes;
+    protected final int length;
+    protected final int stripeShift;
+    protected final int stripeMask;
+
+    /**
+     * Creates an AbstractGammaTxnArray.
+     *
+     * @param stm             the GammaStm the array belongs to.
+     * @param conflictCounter the GlobalConflictCounter used by the stripes.
+     * @param type            TYPE_LONG if the stripes contain long fields, TYPE_REF if they contain reference fields.
+     * @param length          the number of elements.
+     * @param stripeSize      the maximum number of elements that share an orec. The value is rounded up to the next
+     *                        power of two.
+     * @throws IllegalArgumentException if length is smaller than 0 or stripeSize is smaller than 1 or larger than
+     *                                  {@link #MAX_STRIPE_SIZE}.
+     */
+    protected AbstractGammaTxnArray(final GammaStm stm, final GlobalConflictCounter conflictCounter, final int type,
+                                    final int length, final int stripeSize) {
+        if (length < 0) {
+            throw new IllegalArgumentException("length can't be smaller than 0, length was " + length);
+        }
+
+        this.length = length;
+        this.stripeShift = stripeShift(stripeSize);
+        this.stripeMask = (1 << stripeShift) - 1;
+        this.stripes = new GammaTxnStruct[stripeCount(length, stripeShift)];
+        for (int k = 0; k < stripes.length; k++) {
+            final int stripeLength = Math.min(length - (k << stripeShift), stripeMask + 1);
+            stripes[k] = type == TYPE_REF
+                    ? new GammaTxnStruct(stm, conflictCounter, 0, stripeLength)
+                    : new GammaTxnStruct(stm, conflictCounter, stripeLength, 0);
+        }
+    }
+
+    static int stripeShift(final int stripeSize) {
+        if (stripeSize < 1) {
+            throw new IllegalArgumentException("stripeSize can't be smaller than 1, stripeSize was " + stripeSize);
+        }
+
+        if (stripeSize > MAX_STRIPE_SIZE) {
+            throw new IllegalArgumentException(
+                    "stripeSize can't be larger than " + MAX_STRIPE_SIZE + ", stripeSize was " + stripeSize);
+        }
+
+        int shift = 0;
+        while ((1 << shift) < stripeSize) {
+            shift++;
+        }
+        return shift;
+    }
+
+    static int stripeCount(final int length, final int stripeShift) {
+        final int stripeCount = length >>> stripeShift;
+        return (length & ((1 << stripeShift) - 1)) == 0 ? stripeCount : stripeCount + 1;
+    }
+
+    /**
+     * Returns the number of elements.
+     *
+     * @return the number of elements.
+     */
+    public final int length() {
+        return length;
+    }
+
+    /**
+     * Returns the maximum number of elements that share an orec.
+     *
+     * @return the stripe size.
+     */
+    public final int getStripeSize() {
+        return stripeMask + 1;
+    }
+
+    /**
+     * Returns the GammaTxnStruct that contains the given element. Its field index & (stripeSize - 1) is the
+     * element. It can be used e.g. to lock a range of elements.
+     *
+     * @param index the index of the element.
+     * @return the stripe.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    public final GammaTxnStruct getStripe(final int index) {
+        checkIndex(index);
+        return stripes[index >>> stripeShift];
+    }
+
+    protected final void checkIndex(final int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index " + index + " is out of range, length is " + length);
+        }
+    }
+
+    private void checkRange(final int fromIndex, final int arrayLength, final int arrayOffset, final int count) {
+        if (fromIndex < 0 || count < 0 || fromIndex > length - count) {
+            throw new IndexOutOfBoundsException(
+                    "range fromIndex " + fromIndex + " count " + count + " is out of range, length is " + length);
+        }
+
+        if (arrayOffset < 0 || arrayOffset > arrayLength - count) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    /**
+     * Opens the stripe for reading and returns the array containing the fields.
+     *
+     * @param stripe the stripe to open.
+     * @param tx     the transaction used.
+     * @return the fields, should not be modified.
+     */
+    protected abstract Object openFieldsForRead(GammaTxnStruct stripe, GammaTxn tx);
+
+    /**
+     * Opens the stripe for writing and returns the array containing the fields the transaction is allowed to change.
+     *
+     * @param stripe the stripe to open.
+     * @param tx     the transaction used.
+     * @return the fields.
+     */
+    protected abstract Object openFieldsForWrite(GammaTxnStruct stripe, GammaTxn tx);
+
+    /**
+     * Copies a range of elements to the dest array. Every stripe in the range is opened only once.
+     *
+     * @param tx         the transaction used.
+     * @param fromIndex  the index of the first element to copy.
+     * @param dest       the array to copy to.
+     * @param destLength the length of dest.
+     * @param destOffset the index in dest of the first element.
+     * @param count      the number of elements to copy.
+     * @throws IndexOutOfBoundsException if the range is out of range of this array or of dest.
+     */
+    protected final void copyRangeTo(final GammaTxn tx, final int fromIndex, final Object dest, final int destLength,
+                                     final int destOffset, final int count) {
+        checkRange(fromIndex, destLength, destOffset, count);
+
+        int index = fromIndex;
+        int remaining = count;
+        int offset = destOffset;
+        while (remaining > 0) {
+            final int field = index & stripeMask;
+            final int chunk = Math.min(remaining, stripeMask + 1 - field);
+            System.arraycopy(openFieldsForRead(stripes[index >>> stripeShift], tx), field, dest, offset, chunk);
+            index += chunk;
+            offset += chunk;
+            remaining -= chunk;
+        }
+    }
+
+    /**
+     * Copies the elements of the src array to a range of elements. Every stripe in the range is opened only once.
+     *
+     * @param tx        the transaction used.
+     * @param fromIndex the index of the first element to set.
+     * @param src       the array to copy from.
+     * @param srcLength the length of src.
+     * @param srcOffset the index in src of the first element.
+     * @param count     the number of elements to copy.
+     * @throws IndexOutOfBoundsException if the range is out of range of this array or of src.
+     */
+    protected final void copyRangeFrom(final GammaTxn tx, final int fromIndex, final Object src, final int srcLength,
+                                       final int srcOffset, final int count) {
+        checkRange(fromIndex, srcLength, srcOffset, count);
+
+        int index = fromIndex;
+        int remaining = count;
+        int offset = srcOffset;
+        while (remaining > 0) {
+            final int field = index & stripeMask;
+            final int chunk = Math.min(remaining, stripeMask + 1 - field);
+            System.arraycopy(src, offset, openFieldsForWrite(stripes[index >>> stripeShift], tx), field, chunk);
+            index += chunk;
+            offset += chunk;
+            remaining -= chunk;
+        }
+    }
+}
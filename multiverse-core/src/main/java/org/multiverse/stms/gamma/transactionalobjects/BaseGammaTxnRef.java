@@ -7,10 +7,16 @@ import org.multiverse.api.blocking.RetryLatch;
 import org.multiverse.api.exceptions.LockedException;
 import org.multiverse.api.exceptions.TxnMandatoryException;
 import org.multiverse.api.functions.*;
+import org.multiverse.api.predicates.LongPredicate;
+import org.multiverse.api.predicates.Predicate;
+import org.multiverse.stms.gamma.ContentionManager;
+import org.multiverse.stms.gamma.ContentionProfiler;
 import org.multiverse.stms.gamma.GammaObjectPool;
 import org.multiverse.stms.gamma.GammaStm;
 import org.multiverse.stms.gamma.GammaStmUtils;
+import org.multiverse.stms.gamma.GlobalConflictCounter;
 import org.multiverse.stms.gamma.Listeners;
+import org.multiverse.stms.gamma.SnapshotClock;
 import org.multiverse.stms.gamma.transactions.GammaTxn;
 import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
 import org.multiverse.stms.gamma.transactions.fat.FatFixedLengthGammaTxn;
@@ -29,16 +35,34 @@ import static org.multiverse.utils.Bugshaker.shakeBugs;
 @SuppressWarnings({"OverlyComplexClass", "OverlyCoupledClass"})
 public abstract class BaseGammaTxnRef extends AbstractGammaObject {
 
+    protected static final long versionsOffset;
+
+    static {
+        try {
+            versionsOffset = ___unsafe.objectFieldOffset(
+                    BaseGammaTxnRef.class.getDeclaredField("versions"));
+        } catch (Exception ex) {
+            throw new Error(ex);
+        }
+    }
+
     public final int type;
     @SuppressWarnings({"VolatileLongOrDoubleField"})
     public volatile long long_value;
     public volatile Object ref_value;
+    //the committed versions (newest first), only used if the GammaStm has snapshot reads enabled.
+    public volatile GammaVersion versions;
 
     protected BaseGammaTxnRef(GammaStm stm, int type) {
         super(stm);
         this.type = type;
     }
 
+    protected BaseGammaTxnRef(GammaStm stm, GlobalConflictCounter conflictCounter, int type) {
+        super(stm, conflictCounter);
+        this.type = type;
+    }
+
     @SuppressWarnings({"BooleanMethodIsAlwaysInverted"})
     public final boolean flattenCommute(final GammaTxn tx, final Tranlocal tranlocal, final int lockMode) {
         assert tranlocal.mode == TRANLOCAL_COMMUTING;
@@ -46,6 +70,9 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
         final GammaTxnConfig config = tx.config;
 
         tx.initLocalConflictCounter();
+        if (conflictCounter != config.globalConflictCounter) {
+            tx.registerConflictDomain(conflictCounter);
+        }
 
         if (!load(tx, tranlocal, lockMode, config.spinCount, tx.richmansMansConflictScan)) {
             return false;
@@ -124,6 +151,7 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
             //we need to set them to null to prevent memory leaks.
             tranlocal.ref_value = null;
             tranlocal.ref_oldValue = null;
+            tranlocal.hasCopiedRefValue = false;
         } else {
             long_value = tranlocal.long_value;
         }
@@ -145,6 +173,7 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
 
         if (tranlocal.mode == TRANLOCAL_READ) {
             tranlocal.ref_value = null;
+            tranlocal.hasCopiedRefValue = false;
             tranlocal.owner = null;
             return null;
         }
@@ -160,6 +189,7 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
 
         departAfterUpdateAndUnlock();
         tranlocal.ref_value = null;
+        tranlocal.hasCopiedRefValue = false;
         tranlocal.lockMode = LOCKMODE_NONE;
         tranlocal.owner = null;
         tranlocal.hasDepartObligation = false;
@@ -209,6 +239,7 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
         if (type == TYPE_REF) {
             tranlocal.ref_value = null;
             tranlocal.ref_oldValue = null;
+            tranlocal.hasCopiedRefValue = false;
         }
 
         if (tranlocal.headCallable != null) {
@@ -227,6 +258,9 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
             } else if (tranlocal.getLockMode() != LOCKMODE_NONE) {
                 departAfterFailureAndUnlock();
                 tranlocal.setLockMode(LOCKMODE_NONE);
+            } else if (tranlocal.readIndicatorSlot != 0) {
+                readIndicator.departAfterFailure(this, tranlocal.readIndicatorSlot - 1);
+                tranlocal.readIndicatorSlot = 0;
             } else {
                 departAfterFailure();
             }
@@ -243,6 +277,7 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
         if (type == TYPE_REF) {
             tranlocal.ref_value = null;
             tranlocal.ref_oldValue = null;
+            tranlocal.hasCopiedRefValue = false;
         }
 
         departAfterUpdateAndUnlock();
@@ -255,12 +290,16 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
         if (type == TYPE_REF) {
             tranlocal.ref_value = null;
             tranlocal.ref_oldValue = null;
+            tranlocal.hasCopiedRefValue = false;
         }
 
         if (tranlocal.hasDepartObligation()) {
             if (tranlocal.getLockMode() != LOCKMODE_NONE) {
                 departAfterReadingAndUnlock();
                 tranlocal.setLockMode(LOCKMODE_NONE);
+            } else if (tranlocal.readIndicatorSlot != 0) {
+                readIndicator.departAfterReading(this, tranlocal.readIndicatorSlot - 1);
+                tranlocal.readIndicatorSlot = 0;
             } else {
                 departAfterReading();
             }
@@ -273,14 +312,177 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
         tranlocal.owner = null;
     }
 
+    // ============================================================================================
+    // =============================== snapshot reads =============================================
+    // ============================================================================================
+
+    /**
+     * Installs the value of the tranlocal as the newest version. Should only be called by an updating transaction
+     * that holds the exclusive lock and before the value is written, if snapshot reads are enabled.
+     *
+     * @param tranlocal      the Tranlocal containing the new value.
+     * @param timestamp      the timestamp reserved by the commit.
+     * @param oldestSnapshot the oldest snapshot that still can be read.
+     */
+    public final void installVersion(final Tranlocal tranlocal, final long timestamp, final long oldestSnapshot) {
+        if (type == TYPE_REF) {
+            installVersion(timestamp, tranlocal.version + 1, 0, tranlocal.ref_value, oldestSnapshot);
+        } else {
+            installVersion(timestamp, tranlocal.version + 1, tranlocal.long_value, null, oldestSnapshot);
+        }
+    }
+
+    private void installVersion(final long timestamp, final long newVersion, final long newLong,
+                                final Object newRef, final long oldestSnapshot) {
+        GammaVersion head = versions;
+        if (head == null) {
+            head = loadInitialVersion();
+        }
+
+        final GammaVersion newHead = new GammaVersion(timestamp, newVersion, newLong, newRef, head);
+        versions = newHead;
+
+        //the versions behind the first version visible to the oldest snapshot are not needed anymore.
+        final int maxLength = stm.maxVersionChainLength;
+        GammaVersion node = newHead;
+        int length = 1;
+        while (node.previous != null) {
+            if (node.timestamp <= oldestSnapshot || length == maxLength) {
+                node.previous = null;
+                break;
+            }
+
+            node = node.previous;
+            length++;
+        }
+    }
+
+    /**
+     * Returns the oldest version if no version has been installed yet. The current value then is the value the
+     * object was created with, so it is valid for every snapshot. Updating transactions install their version before
+     * they write the value, so if the current value changes, the cas fails.
+     *
+     * @return the newest version.
+     */
+    private GammaVersion loadInitialVersion() {
+        while (true) {
+            final GammaVersion found = versions;
+            if (found != null) {
+                return found;
+            }
+
+            long readLong = 0;
+            Object readRef = null;
+            long readVersion;
+            do {
+                readVersion = version;
+                if (type == TYPE_REF) {
+                    readRef = ref_value;
+                } else {
+                    readLong = long_value;
+                }
+            } while (readVersion != version);
+
+            final GammaVersion initial = new GammaVersion(0, readVersion, readLong, readRef, null);
+            if (___unsafe.compareAndSwapObject(this, versionsOffset, null, initial)) {
+                return initial;
+            }
+        }
+    }
+
+    /**
+     * Writes the new value of an atomic operation and increments the version. Should only be called when the
+     * exclusive lock is held. If snapshot reads are enabled, the value also is installed as a new version.
+     *
+     * @param newValue the new value.
+     */
+    protected final void ___atomicWriteLong(final long newValue) {
+        final SnapshotClock snapshotClock = stm.snapshotClock;
+        if (snapshotClock == null) {
+            long_value = newValue;
+            //noinspection NonAtomicOperationOnVolatileField
+            version++;
+            return;
+        }
+
+        final long timestamp = snapshotClock.reserve();
+        installVersion(timestamp, version + 1, newValue, null, snapshotClock.getOldestSnapshot());
+        long_value = newValue;
+        //noinspection NonAtomicOperationOnVolatileField
+        version++;
+        snapshotClock.publish(timestamp);
+    }
+
+    /**
+     * Writes the new value of an atomic operation and increments the version. Should only be called when the
+     * exclusive lock is held. If snapshot reads are enabled, the value also is installed as a new version.
+     *
+     * @param newValue the new value.
+     */
+    protected final void ___atomicWriteRef(final Object newValue) {
+        final SnapshotClock snapshotClock = stm.snapshotClock;
+        if (snapshotClock == null) {
+            ref_value = newValue;
+            //noinspection NonAtomicOperationOnVolatileField
+            version++;
+            return;
+        }
+
+        final long timestamp = snapshotClock.reserve();
+        installVersion(timestamp, version + 1, 0, newValue, snapshotClock.getOldestSnapshot());
+        ref_value = newValue;
+        //noinspection NonAtomicOperationOnVolatileField
+        version++;
+        snapshotClock.publish(timestamp);
+    }
+
+    /**
+     * Loads the value this object had in the snapshot of the transaction. No arrive is done and no lock is
+     * acquired.
+     *
+     * @param tx        the snapshot reading transaction.
+     * @param tranlocal the Tranlocal to load the value in.
+     * @return true if the version was found, false if it already has been reclaimed.
+     */
+    public final boolean loadSnapshot(final GammaTxn tx, final Tranlocal tranlocal) {
+        final long snapshot = tx.snapshotTimestamp;
+
+        GammaVersion node = versions;
+        if (node == null) {
+            node = loadInitialVersion();
+        }
+
+        while (node.timestamp > snapshot) {
+            node = node.previous;
+            if (node == null) {
+                return false;
+            }
+        }
+
+        tranlocal.owner = this;
+        tranlocal.version = node.version;
+        tranlocal.lockMode = LOCKMODE_NONE;
+        tranlocal.hasDepartObligation = false;
+        if (type == TYPE_REF) {
+            tranlocal.ref_value = node.ref_value;
+            tranlocal.ref_oldValue = node.ref_value;
+        } else {
+            tranlocal.long_value = node.long_value;
+            tranlocal.long_oldValue = node.long_value;
+        }
+        return true;
+    }
+
     public final boolean load(
             final GammaTxn tx, final Tranlocal tranlocal, final int lockMode, int spinCount, final boolean arriveNeeded) {
 
         if (lockMode != LOCKMODE_NONE) {
-            final int result = arriveAndLock(spinCount, lockMode);
-
-            if (result == FAILURE) {
-                return false;
+            int result;
+            int failures = 0;
+            while ((result = arriveAndLock(spinCount, lockMode)) == FAILURE) {
+                if (!retryLockAfterFailure(tx, ++failures)) {
+                    return false;
+                }
             }
 
             tranlocal.owner = this;
@@ -294,9 +496,11 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
                 tranlocal.long_value = value;
                 tranlocal.long_oldValue = value;
             }
-            tranlocal.lockMode = lockMode;
+            tranlocal.lockMode = (byte) lockMode;
             tranlocal.hasDepartObligation = (result & MASK_UNREGISTERED) == 0;
+            tranlocal.readIndicatorSlot = 0;
             tx.commitConflict = (result & MASK_CONFLICT) != 0;
+            onLockAcquired(tx);
             return true;
         }
 
@@ -321,8 +525,18 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
             if (SHAKE_BUGS) shakeBugs();
 
             int arriveStatus;
+            int readIndicatorSlot = 0;
             if (arriveNeeded) {
-                arriveStatus = arrive(spinCount);
+                final ReadIndicator readIndicator = this.readIndicator;
+                if (readIndicator == null) {
+                    arriveStatus = arrive(spinCount);
+                } else {
+                    final int slot = readIndicator.slot();
+                    arriveStatus = readIndicator.arrive(this, slot, spinCount);
+                    if ((arriveStatus & MASK_UNREGISTERED) == 0) {
+                        readIndicatorSlot = slot + 1;
+                    }
+                }
             } else if (waitForExclusiveLockToBecomeFree(spinCount)) {
                 arriveStatus = MASK_SUCCESS + MASK_UNREGISTERED;
             } else {
@@ -340,6 +554,7 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
                 tranlocal.version = readVersion;
                 tranlocal.lockMode = LOCKMODE_NONE;
                 tranlocal.hasDepartObligation = (arriveStatus & MASK_UNREGISTERED) == 0;
+                tranlocal.readIndicatorSlot = (byte) readIndicatorSlot;
 
                 if (type == TYPE_REF) {
                     tranlocal.ref_value = readRef;
@@ -353,7 +568,9 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
             }
 
             //we are not lucky, the value has changed. But before retrying, we need to depart if the arrive was normal
-            if ((arriveStatus & MASK_UNREGISTERED) == 0) {
+            if (readIndicatorSlot != 0) {
+                readIndicator.departAfterFailure(this, readIndicatorSlot - 1);
+            } else if ((arriveStatus & MASK_UNREGISTERED) == 0) {
                 departAfterFailure();
             }
         }
@@ -385,6 +602,7 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
         if (type == TYPE_REF) {
             tranlocal.ref_value = null;
             tranlocal.ref_oldValue = null;
+            tranlocal.hasCopiedRefValue = false;
         } else {
             tranlocal.long_value = 0;
             tranlocal.long_oldValue = 0;
@@ -495,40 +713,22 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
             throw tx.abortOnOpenForConstructionWhileEvaluatingCommute(this);
         }
 
-        Tranlocal found = null;
-        Tranlocal newNode = null;
-        Tranlocal node = tx.head;
-        while (true) {
-            if (node == null) {
-                break;
-            } else if (node.owner == this) {
-                found = node;
-                break;
-            } else if (node.owner == null) {
-                newNode = node;
-                break;
-            } else {
-                node = node.next;
-            }
-        }
-
+        final Tranlocal found = tx.getRefTranlocal(this);
         if (found != null) {
             if (!found.isConstructing()) {
                 throw tx.abortOpenForConstructionOnBadReference(this);
             }
 
-            tx.shiftInFront(found);
             return found;
         }
 
+        final Tranlocal newNode = tx.take(this);
         if (newNode == null) {
             throw tx.abortOnTransactionTooSmall(config.maxFixedLengthTransactionSize + 1);
         }
 
         newNode.owner = this;
         initTranlocalForConstruction(newNode);
-        tx.size++;
-        tx.shiftInFront(newNode);
         tx.hasWrites = true;
         return newNode;
     }
@@ -638,37 +838,17 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
             throw tx.abortOpenForReadOrWriteOnExplicitLockingDetected(this);
         }
 
-        if (tx.head.owner == this) {
-            return tx.head;
-        }
-
-        //look inside the transaction if it already is opened for read or otherwise look for an empty spot to
-        //place the read.
-        Tranlocal found = null;
-        Tranlocal newNode = null;
-        Tranlocal node = tx.head;
-        while (true) {
-            if (node == null) {
-                break;
-            } else if (node.owner == this) {
-                found = node;
-                break;
-            } else if (node.owner == null) {
-                newNode = node;
-                break;
-            } else {
-                node = node.next;
-            }
-        }
-
-        //we have found it.
+        //look inside the transaction if it already is opened for read.
+        final Tranlocal found = tx.getRefTranlocal(this);
         if (found != null) {
-            tx.shiftInFront(found);
             return found;
         }
 
+        final Tranlocal[] array = tx.array;
+        final int size = tx.size;
+
         //we have not found it, but there also is no spot available.
-        if (newNode == null) {
+        if (size == array.length) {
             throw tx.abortOnTransactionTooSmall(tx.config.maxFixedLengthTransactionSize + 1);
         }
 
@@ -682,12 +862,13 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
             throw tx.abortOpenForReadOnNonRefTypeDetected(this);
         }
 
-        int size = tx.size;
         if (size > config.maximumPoorMansConflictScanLength) {
             throw tx.abortOnRichmanConflictScanDetected();
         }
 
-        //load it
+        //load it, the tranlocal is added directly so it is released if the load fails.
+        final Tranlocal newNode = array[size];
+        tx.size = size + 1;
         newNode.mode = TRANLOCAL_READ;
         newNode.isDirty = false;
         newNode.owner = this;
@@ -725,31 +906,18 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
             }
         }
 
-        tx.size = size + 1;
-        //lets put it in the front it isn't the first one that is opened.
-        if (tx.size > 1) {
-            tx.shiftInFront(newNode);
-        }
-
         //check if the transaction still is read consistent.
         if (tx.hasReads) {
-            node = tx.head;
-            do {
+            for (int k = 0; k < size; k++) {
+                final Tranlocal node = array[k];
                 final BaseGammaTxnRef owner = node.owner;
 
-                //if we are at the end, we are done.
-                if (owner == null) {
-                    break;
-                }
-
                 if (SHAKE_BUGS) shakeBugs();
 
-                if (node != newNode && (owner.hasExclusiveLock() || owner.version != node.version)) {
+                if (owner.hasExclusiveLock() || owner.version != node.version) {
                     throw tx.abortOnReadWriteConflict(this);
                 }
-
-                node = node.next;
-            } while (node != null);
+            }
         } else {
             tx.hasReads = true;
         }
@@ -817,6 +985,14 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
         }
 
         initTranlocalForRead(config, tranlocal);
+        if (tx.isSnapshotRead(lockMode, false)) {
+            if (!loadSnapshot(tx, tranlocal)) {
+                throw tx.abortOnSnapshotReclaimed(this);
+            }
+
+            return tranlocal;
+        }
+
         if (!load(tx, tranlocal, lockMode, config.spinCount, tx.richmansMansConflictScan)) {
             throw tx.abortOnReadWriteConflict(this);
         }
@@ -840,22 +1016,7 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
             throw tx.abortOnOpenForReadWhileEvaluatingCommute(this);
         }
 
-        Tranlocal found = null;
-        Tranlocal newNode = null;
-        Tranlocal node = tx.head;
-        while (true) {
-            if (node == null) {
-                break;
-            } else if (node.owner == this) {
-                found = node;
-                break;
-            } else if (node.owner == null) {
-                newNode = node;
-                break;
-            } else {
-                node = node.next;
-            }
-        }
+        final Tranlocal found = tx.getRefTranlocal(this);
 
         desiredLockMode = config.readLockModeAsInt <= desiredLockMode ? desiredLockMode : config.readLockModeAsInt;
 
@@ -880,23 +1041,34 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
                 }
             }
 
-            tx.shiftInFront(found);
             return found;
         }
 
+        final Tranlocal newNode = tx.take(this);
         if (newNode == null) {
             throw tx.abortOnTransactionTooSmall(config.maxFixedLengthTransactionSize + 1);
         }
 
-        tx.size++;
         initTranlocalForRead(config, newNode);
 
+        if (tx.isSnapshotRead(desiredLockMode, tx.hasReads)) {
+            if (!loadSnapshot(tx, newNode)) {
+                throw tx.abortOnSnapshotReclaimed(this);
+            }
+
+            return newNode;
+        }
+
         final boolean hasReadsBeforeLoading = tx.hasReads;
         if (!hasReadsBeforeLoading) {
             tx.localConflictCount = config.globalConflictCounter.count();
             tx.hasReads = true;
         }
 
+        if (conflictCounter != config.globalConflictCounter) {
+            tx.registerConflictDomain(conflictCounter);
+        }
+
         if (!load(tx, newNode, desiredLockMode, config.spinCount, tx.richmansMansConflictScan)) {
             throw tx.abortOnReadWriteConflict(this);
         }
@@ -906,7 +1078,6 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
             throw tx.abortOnReadWriteConflict(this);
         }
 
-        tx.shiftInFront(newNode);
         return newNode;
     }
 
@@ -961,12 +1132,24 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
         tx.attach(tranlocal, identityHash);
         tx.size++;
 
+        if (tx.isSnapshotRead(desiredLockMode, tx.hasReads)) {
+            if (!loadSnapshot(tx, tranlocal)) {
+                throw tx.abortOnSnapshotReclaimed(this);
+            }
+
+            return tranlocal;
+        }
+
         final boolean hasReadsBeforeLoading = tx.hasReads;
         if (!hasReadsBeforeLoading) {
             tx.hasReads = true;
             tx.localConflictCount = config.globalConflictCounter.count();
         }
 
+        if (conflictCounter != config.globalConflictCounter) {
+            tx.registerConflictDomain(conflictCounter);
+        }
+
         if (!load(tx, tranlocal, desiredLockMode, config.spinCount, tx.richmansMansConflictScan)) {
             throw tx.abortOnReadWriteConflict(this);
         }
@@ -1225,27 +1408,11 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
         if (config.isReadonly()) {
             throw tx.abortCommuteOnReadonly(this);
         }
-        Tranlocal found = null;
-        Tranlocal newNode = null;
-        Tranlocal node = tx.head;
-
+        final Tranlocal found;
         if (config.writeLockModeAsInt > LOCKMODE_NONE) {
             found = openForWrite(tx, config.writeLockModeAsInt);
         } else {
-            while (true) {
-                if (node == null) {
-                    break;
-                } else //noinspection ObjectEquality
-                    if (node.owner == this) {
-                        found = node;
-                        break;
-                    } else if (node.owner == null) {
-                        newNode = node;
-                        break;
-                    } else {
-                        node = node.next;
-                    }
-            }
+            found = tx.getRefTranlocal(this);
         }
 
         if (found != null) {
@@ -1271,14 +1438,13 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
             return;
         }
 
+        final Tranlocal newNode = tx.take(this);
         if (newNode == null) {
             throw tx.abortOnTransactionTooSmall(config.maxFixedLengthTransactionSize + 1);
         }
 
-        tx.size++;
-        tx.shiftInFront(newNode);
-        tx.hasWrites = true;
         initTranlocalForCommute(config, newNode);
+        tx.hasWrites = true;
         newNode.addCommutingFunction(tx.pool, function);
 
         int writeLockMode = config.writeLockModeAsInt;
@@ -1522,12 +1688,10 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
         }
 
         if ((arriveStatus & MASK_CONFLICT) != 0) {
-            stm.globalConflictCounter.signalConflict();
+            conflictCounter.signalConflict();
         }
 
-        long_value = newValue;
-        //noinspection NonAtomicOperationOnVolatileField
-        version++;
+        ___atomicWriteLong(newValue);
 
         final Listeners listeners = ___removeListenersAfterWrite();
 
@@ -1563,12 +1727,10 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
         }
 
         if ((arriveStatus & MASK_CONFLICT) != 0) {
-            stm.globalConflictCounter.signalConflict();
+            conflictCounter.signalConflict();
         }
 
-        ref_value = newValue;
-        //noinspection NonAtomicOperationOnVolatileField
-        version++;
+        ___atomicWriteRef(newValue);
 
         final Listeners listeners = ___removeListenersAfterWrite();
 
@@ -1607,12 +1769,10 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
         }
 
         if ((arriveStatus & MASK_CONFLICT) != 0) {
-            stm.globalConflictCounter.signalConflict();
+            conflictCounter.signalConflict();
         }
 
-        long_value = newValue;
-        //noinspection NonAtomicOperationOnVolatileField
-        version++;
+        ___atomicWriteLong(newValue);
         final Listeners listeners = ___removeListenersAfterWrite();
 
         departAfterUpdateAndUnlock();
@@ -1690,9 +1850,23 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
             }
 
             if (tranlocal.hasDepartObligation()) {
-                int result = lockAfterArrive(spinCount, desiredLockMode);
-                if (result == FAILURE) {
-                    return false;
+                final int readIndicatorSlot = tranlocal.readIndicatorSlot;
+                int result;
+                int failures = 0;
+                if (readIndicatorSlot == 0) {
+                    while ((result = lockAfterArrive(spinCount, desiredLockMode)) == FAILURE) {
+                        if (!retryLockAfterFailure(tx, expectedVersion, ++failures)) {
+                            return false;
+                        }
+                    }
+                } else {
+                    while ((result = lockAfterReadIndicatorArrive(spinCount, desiredLockMode, readIndicatorSlot - 1))
+                            == FAILURE) {
+                        if (!retryLockAfterFailure(tx, expectedVersion, ++failures)) {
+                            return false;
+                        }
+                    }
+                    tranlocal.readIndicatorSlot = 0;
                 }
 
                 if ((result & MASK_CONFLICT) != 0) {
@@ -1706,10 +1880,12 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
                 }
             } else {
                 //we need to arrive as well because the the tranlocal was readbiased, and no real arrive was done.
-                final int result = arriveAndLock(spinCount, desiredLockMode);
-
-                if (result == FAILURE) {
-                    return false;
+                int result;
+                int failures = 0;
+                while ((result = arriveAndLock(spinCount, desiredLockMode)) == FAILURE) {
+                    if (!retryLockAfterFailure(tx, expectedVersion, ++failures)) {
+                        return false;
+                    }
                 }
 
                 tranlocal.setLockMode(desiredLockMode);
@@ -1727,22 +1903,26 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
                 }
             }
 
+            onLockAcquired(tx);
             tranlocal.setLockMode(desiredLockMode);
             return true;
         }
 
         //if a readlock is acquired, we need to upgrade it to a write/exclusive-lock
         if (currentLockMode == LOCKMODE_READ) {
-            int result = upgradeReadLock(spinCount, desiredLockMode == LOCKMODE_EXCLUSIVE);
-
-            if (result == FAILURE) {
-                return false;
+            int result;
+            int failures = 0;
+            while ((result = upgradeReadLock(spinCount, desiredLockMode == LOCKMODE_EXCLUSIVE)) == FAILURE) {
+                if (!retryLockAfterFailure(tx, tranlocal.version, ++failures)) {
+                    return false;
+                }
             }
 
             if ((result & MASK_CONFLICT) != 0) {
                 tx.commitConflict = true;
             }
 
+            onLockAcquired(tx);
             tranlocal.setLockMode(desiredLockMode);
             return true;
         }
@@ -1756,6 +1936,33 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
         return true;
     }
 
+    /**
+     * Asks the {@link ContentionManager} of the stm if a lock that could not be acquired within the spin count should
+     * be tried again. Without a ContentionManager the transaction always gives up.
+     *
+     * @param tx              the transaction that failed to acquire the lock.
+     * @param expectedVersion the version the transaction has read.
+     * @param failures        the number of failed attempts to acquire the lock.
+     * @return true if the lock should be tried again, false if the transaction should give up.
+     */
+    private boolean retryLockAfterFailure(final GammaTxn tx, final long expectedVersion, final int failures) {
+        //if the version already is different, there is a conflict anyway and waiting for the lock is useless.
+        return version == expectedVersion && retryLockAfterFailure(tx, failures);
+    }
+
+    private boolean retryLockAfterFailure(final GammaTxn tx, final int failures) {
+        final ContentionManager contentionManager = stm.contentionManager;
+        return contentionManager != null && contentionManager.onLockFailure(tx, this, failures);
+    }
+
+    private void onLockAcquired(final GammaTxn tx) {
+        final ContentionManager contentionManager = stm.contentionManager;
+        if (contentionManager != null) {
+            contentionManager.onLockAcquired(tx);
+            lockOwnerPriority = tx.contentionPriority;
+        }
+    }
+
     public final int registerChangeListener(
             final RetryLatch latch,
             final Tranlocal tranlocal,
@@ -1781,6 +1988,7 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
         //update.threadName = Thread.currentThread().getName();
         update.listener = latch;
         update.listenerEra = listenerEra;
+        update.predicate = tranlocal.awaitPredicate;
 
         //we need to do this in a loop because other register thread could be contending for the same
         //listeners field.
@@ -1838,17 +2046,91 @@ public abstract class BaseGammaTxnRef extends AbstractGammaObject {
     }
 
 
+    /**
+     * Retries the transaction because it is waiting for the predicate to hold for the value of this ref. The
+     * predicate is registered with the listener, so that a write only opens the listener if the predicate holds
+     * for the written value, instead of letting every waiting transaction run again to find out it still needs to
+     * wait.
+     * <p/>
+     * This only can be done if the await was the first read of this ref by the transaction. Otherwise the
+     * transaction could depend on the value in a different way, and it needs to be opened on every write.
+     *
+     * @param tx        the transaction.
+     * @param tranlocal the tranlocal of this ref.
+     * @param predicate the LongPredicate or Predicate the transaction is waiting for, or null if the transaction
+     *                  needs to be opened on every write.
+     */
+    protected final void retryUntil(final GammaTxn tx, final Tranlocal tranlocal, final Object predicate) {
+        tranlocal.awaitPredicate = predicate;
+        try {
+            tx.retry();
+        } finally {
+            tranlocal.awaitPredicate = null;
+        }
+    }
+
+    @Override
+    protected final Listeners ___filterListenersAfterWrite(final Listeners removedListeners) {
+        Listeners open = null;
+        Listeners keepHead = null;
+        Listeners keepTail = null;
+
+        Listeners current = removedListeners;
+        do {
+            final Listeners next = current.next;
+            //a listener of an era that already has passed, is dropped by opening it.
+            if (current.predicate == null
+                    || current.listener.getEra() != current.listenerEra
+                    || evaluateAwaitPredicate(current.predicate)) {
+                current.next = open;
+                open = current;
+            } else {
+                current.next = keepHead;
+                if (keepHead == null) {
+                    keepTail = current;
+                }
+                keepHead = current;
+            }
+            current = next;
+        } while (current != null);
+
+        if (keepHead != null) {
+            ___registerListenersAgain(keepHead, keepTail);
+        }
+
+        return open;
+    }
+
+    @SuppressWarnings({"unchecked"})
+    private boolean evaluateAwaitPredicate(final Object predicate) {
+        try {
+            if (type == TYPE_REF) {
+                return ((Predicate) predicate).evaluate(ref_value);
+            } else {
+                return ((LongPredicate) predicate).evaluate(long_value);
+            }
+        } catch (Throwable ignore) {
+            //the predicate is evaluated by the committing writer while the ref still is locked, so nothing is
+            //allowed to escape. The waiting transaction will run into the problem itself.
+            return true;
+        }
+    }
+
     @SuppressWarnings({"SimplifiableIfStatement"})
     public final boolean hasReadConflict(final Tranlocal tranlocal) {
         if (tranlocal.lockMode != LOCKMODE_NONE) {
             return false;
         }
 
-        if (hasExclusiveLock()) {
+        if (hasExclusiveLock() || tranlocal.version != version) {
+            final ContentionProfiler contentionProfiler = stm.contentionProfiler;
+            if (contentionProfiler != null) {
+                contentionProfiler.onReadConflict(this);
+            }
             return true;
         }
 
-        return tranlocal.version != version;
+        return false;
     }
 
     protected final int arriveAndExclusiveLockOrBackoff() {
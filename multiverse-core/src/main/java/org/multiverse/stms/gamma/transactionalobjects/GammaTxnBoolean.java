@@ -7,6 +7,7 @@ import org.multiverse.api.functions.BooleanFunction;
 import org.multiverse.api.predicates.BooleanPredicate;
 import org.multiverse.api.references.TxnBoolean;
 import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.GlobalConflictCounter;
 import org.multiverse.stms.gamma.Listeners;
 import org.multiverse.stms.gamma.transactions.GammaTxn;
 
@@ -42,7 +43,11 @@ public class GammaTxnBoolean extends BaseGammaTxnRef implements TxnBoolean {
     }
 
     public GammaTxnBoolean(final GammaStm stm, final boolean b) {
-        super(stm, TYPE_BOOLEAN);
+        this(stm, stm.globalConflictCounter, b);
+    }
+
+    public GammaTxnBoolean(final GammaStm stm, final GlobalConflictCounter conflictCounter, final boolean b) {
+        super(stm, conflictCounter, TYPE_BOOLEAN);
         this.long_value = booleanAsLong(b);
         //noinspection PointlessArithmeticExpression
         this.version = VERSION_UNCOMMITTED + 1;
@@ -268,12 +273,10 @@ public class GammaTxnBoolean extends BaseGammaTxnRef implements TxnBoolean {
         }
 
         if ((arriveStatus & MASK_CONFLICT) != 0) {
-            stm.globalConflictCounter.signalConflict();
+            conflictCounter.signalConflict();
         }
 
-        long_value = booleanAsLong(newValue);
-        //noinspection NonAtomicOperationOnVolatileField
-        version++;
+        ___atomicWriteLong(booleanAsLong(newValue));
 
         final Listeners listeners = ___removeListenersAfterWrite();
 
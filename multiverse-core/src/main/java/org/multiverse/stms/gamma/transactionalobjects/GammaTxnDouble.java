@@ -7,6 +7,7 @@ import org.multiverse.api.functions.DoubleFunction;
 import org.multiverse.api.predicates.DoublePredicate;
 import org.multiverse.api.references.TxnDouble;
 import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.GlobalConflictCounter;
 import org.multiverse.stms.gamma.Listeners;
 import org.multiverse.stms.gamma.transactions.GammaTxn;
 
@@ -39,7 +40,11 @@ public class GammaTxnDouble extends BaseGammaTxnRef implements TxnDouble {
     }
 
     public GammaTxnDouble(final GammaStm stm, final double value) {
-        super(stm, TYPE_DOUBLE);
+        this(stm, stm.globalConflictCounter, value);
+    }
+
+    public GammaTxnDouble(final GammaStm stm, final GlobalConflictCounter conflictCounter, final double value) {
+        super(stm, conflictCounter, TYPE_DOUBLE);
         this.long_value = doubleAsLong(value);
         //noinspection PointlessArithmeticExpression
         this.version = VERSION_UNCOMMITTED + 1;
@@ -211,12 +216,10 @@ public class GammaTxnDouble extends BaseGammaTxnRef implements TxnDouble {
         }
 
         if ((arriveStatus & MASK_CONFLICT) != 0) {
-            stm.globalConflictCounter.signalConflict();
+            conflictCounter.signalConflict();
         }
 
-        long_value = doubleAsLong(newValue);
-        //noinspection NonAtomicOperationOnVolatileField
-        version++;
+        ___atomicWriteLong(doubleAsLong(newValue));
 
         final Listeners listeners = ___removeListenersAfterWrite();
 
@@ -337,13 +340,11 @@ public class GammaTxnDouble extends BaseGammaTxnRef implements TxnDouble {
         }
 
         if ((arriveStatus & MASK_CONFLICT) != 0) {
-            stm.globalConflictCounter.signalConflict();
+            conflictCounter.signalConflict();
         }
 
         final double newValue = oldValue + amount;
-        long_value = doubleAsLong(newValue);
-        //noinspection NonAtomicOperationOnVolatileField
-        version++;
+        ___atomicWriteLong(doubleAsLong(newValue));
 
         final Listeners listeners = ___removeListenersAfterWrite();
 
@@ -8,6 +8,7 @@ import org.multiverse.api.functions.IntFunction;
 import org.multiverse.api.predicates.IntPredicate;
 import org.multiverse.api.references.TxnInteger;
 import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.GlobalConflictCounter;
 import org.multiverse.stms.gamma.Listeners;
 import org.multiverse.stms.gamma.transactions.GammaTxn;
 
@@ -42,7 +43,11 @@ public class GammaTxnInteger extends BaseGammaTxnRef implements TxnInteger {
     }
 
     public GammaTxnInteger(final GammaStm stm, final int value) {
-        super(stm, TYPE_INT);
+        this(stm, stm.globalConflictCounter, value);
+    }
+
+    public GammaTxnInteger(final GammaStm stm, final GlobalConflictCounter conflictCounter, final int value) {
+        super(stm, conflictCounter, TYPE_INT);
         this.long_value = value;
         //noinspection PointlessArithmeticExpression
         this.version = VERSION_UNCOMMITTED + 1;
@@ -215,12 +220,10 @@ public class GammaTxnInteger extends BaseGammaTxnRef implements TxnInteger {
         }
 
         if ((arriveStatus & MASK_CONFLICT) != 0) {
-            stm.globalConflictCounter.signalConflict();
+            conflictCounter.signalConflict();
         }
 
-        long_value = newValue;
-        //noinspection NonAtomicOperationOnVolatileField
-        version++;
+        ___atomicWriteLong(newValue);
 
         final Listeners listeners = ___removeListenersAfterWrite();
 
@@ -322,13 +325,11 @@ public class GammaTxnInteger extends BaseGammaTxnRef implements TxnInteger {
         }
 
         if ((arriveStatus & MASK_CONFLICT) != 0) {
-            stm.globalConflictCounter.signalConflict();
+            conflictCounter.signalConflict();
         }
 
         final int newValue = oldValue + amount;
-        long_value = newValue;
-        //noinspection NonAtomicOperationOnVolatileField
-        version++;
+        ___atomicWriteLong(newValue);
 
         final Listeners listeners = ___removeListenersAfterWrite();
 
@@ -8,6 +8,7 @@ import org.multiverse.api.functions.LongFunction;
 import org.multiverse.api.predicates.LongPredicate;
 import org.multiverse.api.references.TxnLong;
 import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.GlobalConflictCounter;
 import org.multiverse.stms.gamma.Listeners;
 import org.multiverse.stms.gamma.transactions.GammaTxn;
 
@@ -33,7 +34,11 @@ public class GammaTxnLong extends BaseGammaTxnRef implements TxnLong {
     }
 
     public GammaTxnLong(final GammaStm stm, long initialValue) {
-        super(stm, TYPE_LONG);
+        this(stm, stm.globalConflictCounter, initialValue);
+    }
+
+    public GammaTxnLong(final GammaStm stm, final GlobalConflictCounter conflictCounter, long initialValue) {
+        super(stm, conflictCounter, TYPE_LONG);
         this.long_value = initialValue;
         //noinspection PointlessArithmeticExpression
         this.version = VERSION_UNCOMMITTED + 1;
@@ -211,12 +216,10 @@ public class GammaTxnLong extends BaseGammaTxnRef implements TxnLong {
         }
 
         if ((arriveStatus & MASK_CONFLICT) != 0) {
-            stm.globalConflictCounter.signalConflict();
+            conflictCounter.signalConflict();
         }
 
-        long_value = newValue;
-        //noinspection NonAtomicOperationOnVolatileField
-        version++;
+        ___atomicWriteLong(newValue);
 
         final Listeners listeners = ___removeListenersAfterWrite();
 
@@ -337,13 +340,11 @@ public class GammaTxnLong extends BaseGammaTxnRef implements TxnLong {
         }
 
         if ((arriveStatus & MASK_CONFLICT) != 0) {
-            stm.globalConflictCounter.signalConflict();
+            conflictCounter.signalConflict();
         }
 
         final long newValue = oldValue + amount;
-        long_value = newValue;
-        //noinspection NonAtomicOperationOnVolatileField
-        version++;
+        ___atomicWriteLong(newValue);
 
         final Listeners listeners = ___removeListenersAfterWrite();
 
@@ -427,8 +428,10 @@ public class GammaTxnLong extends BaseGammaTxnRef implements TxnLong {
     }
 
     public final void await(final GammaTxn tx, final long value) {
-        if (openForRead(tx, LOCKMODE_NONE).long_value != value) {
-            tx.retry();
+        final boolean firstRead = tx != null && tx.getRefTranlocal(this) == null;
+        final Tranlocal tranlocal = openForRead(tx, LOCKMODE_NONE);
+        if (tranlocal.long_value != value) {
+            retryUntil(tx, tranlocal, firstRead ? LongPredicate.newEqualsPredicate(value) : null);
         }
     }
 
@@ -443,11 +446,12 @@ public class GammaTxnLong extends BaseGammaTxnRef implements TxnLong {
     }
 
     public final void await(final GammaTxn tx, final LongPredicate predicate) {
+        final boolean firstRead = tx != null && tx.getRefTranlocal(this) == null;
         final Tranlocal tranlocal = openForRead(tx, LOCKMODE_NONE);
         boolean abort = true;
         try {
             if (!predicate.evaluate(tranlocal.long_value)) {
-                tx.retry();
+                retryUntil(tx, tranlocal, firstRead ? predicate : null);
             }
             abort = false;
         } finally {
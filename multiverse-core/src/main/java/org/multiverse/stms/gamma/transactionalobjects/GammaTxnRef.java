@@ -7,6 +7,7 @@ import org.multiverse.api.functions.Function;
 import org.multiverse.api.predicates.Predicate;
 import org.multiverse.api.references.TxnRef;
 import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.GlobalConflictCounter;
 import org.multiverse.stms.gamma.Listeners;
 import org.multiverse.stms.gamma.transactions.GammaTxn;
 
@@ -46,7 +47,11 @@ public class GammaTxnRef<E> extends BaseGammaTxnRef implements TxnRef<E> {
     }
 
     public GammaTxnRef(final GammaStm stm, final E value) {
-        super(stm, TYPE_REF);
+        this(stm, stm.globalConflictCounter, value);
+    }
+
+    public GammaTxnRef(final GammaStm stm, final GlobalConflictCounter conflictCounter, final E value) {
+        super(stm, conflictCounter, TYPE_REF);
 
         this.ref_value = value;
         //noinspection PointlessArithmeticExpression
@@ -221,12 +226,10 @@ public class GammaTxnRef<E> extends BaseGammaTxnRef implements TxnRef<E> {
         }
 
         if ((arriveStatus & MASK_CONFLICT) != 0) {
-            stm.globalConflictCounter.signalConflict();
+            conflictCounter.signalConflict();
         }
 
-        ref_value = newValue;
-        //noinspection NonAtomicOperationOnVolatileField
-        version++;
+        ___atomicWriteRef(newValue);
 
         final Listeners listeners = ___removeListenersAfterWrite();
 
@@ -319,12 +322,10 @@ public class GammaTxnRef<E> extends BaseGammaTxnRef implements TxnRef<E> {
         }
 
         if ((arriveStatus & MASK_CONFLICT) != 0) {
-            stm.globalConflictCounter.signalConflict();
+            conflictCounter.signalConflict();
         }
 
-        ref_value = newValue;
-        //noinspection NonAtomicOperationOnVolatileField
-        version++;
+        ___atomicWriteRef(newValue);
         final Listeners listeners = ___removeListenersAfterWrite();
 
         departAfterUpdateAndUnlock();
@@ -401,12 +402,24 @@ public class GammaTxnRef<E> extends BaseGammaTxnRef implements TxnRef<E> {
     }
 
     public final void await(final GammaTxn tx, final E value) {
+        final boolean firstRead = tx != null && tx.getRefTranlocal(this) == null;
+        final Tranlocal tranlocal = openForRead(tx, LOCKMODE_NONE);
         //noinspection ObjectEquality
-        if (openForRead(tx, LOCKMODE_NONE).ref_value != value) {
-            tx.retry();
+        if (tranlocal.ref_value != value) {
+            retryUntil(tx, tranlocal, firstRead ? newIdentityPredicate(value) : null);
         }
     }
 
+    private static <E> Predicate<E> newIdentityPredicate(final E value) {
+        return new Predicate<E>() {
+            @Override
+            public boolean evaluate(E current) {
+                //noinspection ObjectEquality
+                return current == value;
+            }
+        };
+    }
+
     @Override
     public final void await(final Predicate<E> predicate) {
         await(getRequiredThreadLocalTxn(), predicate);
@@ -418,11 +431,12 @@ public class GammaTxnRef<E> extends BaseGammaTxnRef implements TxnRef<E> {
     }
 
     public final void await(final GammaTxn tx, final Predicate<E> predicate) {
+        final boolean firstRead = tx != null && tx.getRefTranlocal(this) == null;
         final Tranlocal tranlocal = openForRead(tx, LOCKMODE_NONE);
         boolean abort = true;
         try {
             if (!predicate.evaluate((E) tranlocal.ref_value)) {
-                tx.retry();
+                retryUntil(tx, tranlocal, firstRead ? predicate : null);
             }
             abort = false;
         } finally {
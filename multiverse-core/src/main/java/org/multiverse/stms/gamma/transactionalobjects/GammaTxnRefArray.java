@@ -0,0 +1,162 @@
+package org.multiverse.stms.gamma.transactionalobjects;
+
+import org.multiverse.api.Txn;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.GlobalConflictCounter;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+
+import static org.multiverse.stms.gamma.GammaStmUtils.asGammaTxn;
+import static org.multiverse.stms.gamma.GammaStmUtils.getRequiredThreadLocalGammaTxn;
+
+/**
+ * A transactional array of references. It is the reference counterpart of the {@link GammaTxnLongArray}: the elements
+ * are divided in stripes and every stripe is a {@link GammaTxnStruct} with a reference field per element, so all
+ * elements of a stripe share a single orec.
+ *
+ * @param <E> the type of the elements.
+ * @author Peter Veentjer.
+ */
+public final class GammaTxnRefArray<E> extends AbstractGammaTxnArray {
+
+    public GammaTxnRefArray(final GammaStm stm, final int length) {
+        this(stm, stm.globalConflictCounter, length, DEFAULT_STRIPE_SIZE);
+    }
+
+    public GammaTxnRefArray(final GammaStm stm, final int length, final int stripeSize) {
+        this(stm, stm.globalConflictCounter, length, stripeSize);
+    }
+
+    /**
+     * Creates a GammaTxnRefArray with all elements null.
+     *
+     * @param stm             the GammaStm the array belongs to.
+     * @param conflictCounter the GlobalConflictCounter used by the stripes.
+     * @param length          the number of elements.
+     * @param stripeSize      the maximum number of elements that share an orec. The value is rounded up to the next
+     *                        power of two.
+     * @throws IllegalArgumentException if length is smaller than 0 or stripeSize is smaller than 1 or larger than
+     *                                  {@link #MAX_STRIPE_SIZE}.
+     */
+    public GammaTxnRefArray(final GammaStm stm, final GlobalConflictCounter conflictCounter,
+                            final int length, final int stripeSize) {
+        super(stm, conflictCounter, TYPE_REF, length, stripeSize);
+    }
+
+    @Override
+    protected final Object openFieldsForRead(final GammaTxnStruct stripe, final GammaTxn tx) {
+        return stripe.openRefsForRead(tx);
+    }
+
+    @Override
+    protected final Object openFieldsForWrite(final GammaTxnStruct stripe, final GammaTxn tx) {
+        return stripe.openRefsForWrite(tx);
+    }
+
+    public E get(final int index) {
+        return get(getRequiredThreadLocalGammaTxn(), index);
+    }
+
+    public E get(final Txn tx, final int index) {
+        return get(asGammaTxn(tx), index);
+    }
+
+    /**
+     * Gets the value of an element using the provided transaction.
+     *
+     * @param tx    the transaction used.
+     * @param index the index of the element.
+     * @return the value of the element.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    public E get(final GammaTxn tx, final int index) {
+        checkIndex(index);
+        return (E) stripes[index >>> stripeShift].openRefsForRead(tx)[index & stripeMask];
+    }
+
+    public E set(final int index, final E value) {
+        return set(getRequiredThreadLocalGammaTxn(), index, value);
+    }
+
+    public E set(final Txn tx, final int index, final E value) {
+        return set(asGammaTxn(tx), index, value);
+    }
+
+    /**
+     * Sets the value of an element using the provided transaction.
+     *
+     * @param tx    the transaction used.
+     * @param index the index of the element.
+     * @param value the new value.
+     * @return the new value.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    public E set(final GammaTxn tx, final int index, final E value) {
+        checkIndex(index);
+        return stripes[index >>> stripeShift].setRef(tx, index & stripeMask, value);
+    }
+
+    public void getRange(final int fromIndex, final Object[] dest, final int destOffset, final int count) {
+        getRange(getRequiredThreadLocalGammaTxn(), fromIndex, dest, destOffset, count);
+    }
+
+    public void getRange(final Txn tx, final int fromIndex, final Object[] dest, final int destOffset,
+                         final int count) {
+        getRange(asGammaTxn(tx), fromIndex, dest, destOffset, count);
+    }
+
+    /**
+     * Copies a range of elements to the dest array using the provided transaction. Every stripe in the range is
+     * opened only once.
+     *
+     * @param tx         the transaction used.
+     * @param fromIndex  the index of the first element to copy.
+     * @param dest       the array to copy to.
+     * @param destOffset the index in dest of the first element.
+     * @param count      the number of elements to copy.
+     * @throws IndexOutOfBoundsException if the range is out of range of this array or of dest.
+     * @throws ArrayStoreException       if an element can't be stored in dest.
+     * @throws NullPointerException      if dest is null.
+     */
+    public void getRange(final GammaTxn tx, final int fromIndex, final Object[] dest, final int destOffset,
+                         final int count) {
+        copyRangeTo(tx, fromIndex, dest, dest.length, destOffset, count);
+    }
+
+    public void setRange(final int fromIndex, final E[] src, final int srcOffset, final int count) {
+        setRange(getRequiredThreadLocalGammaTxn(), fromIndex, src, srcOffset, count);
+    }
+
+    public void setRange(final Txn tx, final int fromIndex, final E[] src, final int srcOffset, final int count) {
+        setRange(asGammaTxn(tx), fromIndex, src, srcOffset, count);
+    }
+
+    /**
+     * Copies the elements of the src array to a range of elements using the provided transaction. Every stripe in the
+     * range is opened only once.
+     *
+     * @param tx        the transaction used.
+     * @param fromIndex the index of the first element to set.
+     * @param src       the array to copy from.
+     * @param srcOffset the index in src of the first element.
+     * @param count     the number of elements to copy.
+     * @throws IndexOutOfBoundsException if the range is out of range of this array or of src.
+     * @throws NullPointerException      if src is null.
+     */
+    public void setRange(final GammaTxn tx, final int fromIndex, final E[] src, final int srcOffset,
+                         final int count) {
+        copyRangeFrom(tx, fromIndex, src, src.length, srcOffset, count);
+    }
+
+    /**
+     * Atomically gets the value of an element. The value could be stale as soon as it is returned and it could
+     * fail if the stripe of the element is locked.
+     *
+     * @param index the index of the element.
+     * @return the value of the element.
+     * @throws IndexOutOfBoundsException if the index is out of range.
+     */
+    public E atomicGet(final int index) {
+        checkIndex(index);
+        return stripes[index >>> stripeShift].<E>atomicGetRef(index & stripeMask);
+    }
+}
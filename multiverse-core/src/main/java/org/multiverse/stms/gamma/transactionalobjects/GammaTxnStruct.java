@@ -0,0 +1,246 @@
+package org.multiverse.stms.gamma.transactionalobjects;
+
+import org.multiverse.api.Txn;
+import org.multiverse.api.references.TxnStruct;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.GlobalConflictCounter;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+
+import java.util.Arrays;
+
+import static org.multiverse.stms.gamma.GammaStmUtils.asGammaTxn;
+import static org.multiverse.stms.gamma.GammaStmUtils.getRequiredThreadLocalGammaTxn;
+
+/**
+ * A {@link org.multiverse.api.references.TxnStruct} tailored for the {@link GammaStm}.
+ * <p/>
+ * All fields share the orec and version of this object and the transaction only needs a single tranlocal for them.
+ * The values of the fields are stored in an immutable {@link Fields} that is the ref_value of this object, so for the
+ * transactions a GammaTxnStruct is just a reference. The first write in a transaction makes a private copy of the
+ * Fields; that copy is published on commit and never changed afterwards.
+ *
+ * @author Peter Veentjer.
+ */
+public class GammaTxnStruct extends BaseGammaTxnRef implements TxnStruct {
+
+    private static final long[] NO_LONGS = new long[0];
+    private static final Object[] NO_REFS = new Object[0];
+
+    /**
+     * The values of the fields of a GammaTxnStruct. A Fields is only changed by the transaction that created it as a
+     * private copy, once it is committed it never changes again.
+     */
+    static final class Fields {
+        final long[] longs;
+        final Object[] refs;
+
+        Fields(final long[] longs, final Object[] refs) {
+            this.longs = longs;
+            this.refs = refs;
+        }
+    }
+
+    private final int longFieldCount;
+    private final int refFieldCount;
+
+    public GammaTxnStruct(final GammaTxn tx, final int longFieldCount, final int refFieldCount) {
+        super(tx.getConfig().stm, TYPE_REF);
+        this.longFieldCount = checkFieldCount(longFieldCount);
+        this.refFieldCount = checkFieldCount(refFieldCount);
+
+        arriveAndLock(1, LOCKMODE_EXCLUSIVE);
+        final Tranlocal tranlocal = openForConstruction(tx);
+        tranlocal.ref_value = new Fields(newLongs(longFieldCount), newRefs(refFieldCount));
+        tranlocal.hasCopiedRefValue = true;
+    }
+
+    public GammaTxnStruct(final GammaStm stm, final int longFieldCount, final int refFieldCount) {
+        this(stm, stm.globalConflictCounter, longFieldCount, refFieldCount);
+    }
+
+    public GammaTxnStruct(final GammaStm stm, final GlobalConflictCounter conflictCounter,
+                          final int longFieldCount, final int refFieldCount) {
+        super(stm, conflictCounter, TYPE_REF);
+        this.longFieldCount = checkFieldCount(longFieldCount);
+        this.refFieldCount = checkFieldCount(refFieldCount);
+
+        this.ref_value = new Fields(newLongs(longFieldCount), newRefs(refFieldCount));
+        //noinspection PointlessArithmeticExpression
+        this.version = VERSION_UNCOMMITTED + 1;
+    }
+
+    private static int checkFieldCount(final int fieldCount) {
+        if (fieldCount < 0) {
+            throw new IllegalArgumentException("fieldCount can't be smaller than 0, fieldCount was " + fieldCount);
+        }
+        return fieldCount;
+    }
+
+    private static long[] newLongs(final int longFieldCount) {
+        return longFieldCount == 0 ? NO_LONGS : new long[longFieldCount];
+    }
+
+    private static Object[] newRefs(final int refFieldCount) {
+        return refFieldCount == 0 ? NO_REFS : new Object[refFieldCount];
+    }
+
+    /**
+     * Returns the Fields of the tranlocal the transaction is allowed to change. If the tranlocal still contains
+     * the Fields it has read, a private copy is made.
+     */
+    private static Fields openFieldsForWrite(final Tranlocal tranlocal) {
+        final Fields fields = (Fields) tranlocal.ref_value;
+        if (tranlocal.hasCopiedRefValue) {
+            return fields;
+        }
+
+        final Fields copy = new Fields(
+                fields.longs.length == 0 ? NO_LONGS : fields.longs.clone(),
+                fields.refs.length == 0 ? NO_REFS : fields.refs.clone());
+        tranlocal.ref_value = copy;
+        tranlocal.hasCopiedRefValue = true;
+        return copy;
+    }
+
+    /**
+     * Opens this GammaTxnStruct for reading and returns the long fields. The returned array should not be modified.
+     */
+    final long[] openLongsForRead(final GammaTxn tx) {
+        return ((Fields) openForRead(tx, LOCKMODE_NONE).ref_value).longs;
+    }
+
+    /**
+     * Opens this GammaTxnStruct for writing and returns the long fields the transaction is allowed to change.
+     */
+    final long[] openLongsForWrite(final GammaTxn tx) {
+        return openFieldsForWrite(openForWrite(tx, LOCKMODE_NONE)).longs;
+    }
+
+    /**
+     * Opens this GammaTxnStruct for reading and returns the reference fields. The returned array should not be
+     * modified.
+     */
+    final Object[] openRefsForRead(final GammaTxn tx) {
+        return ((Fields) openForRead(tx, LOCKMODE_NONE).ref_value).refs;
+    }
+
+    /**
+     * Opens this GammaTxnStruct for writing and returns the reference fields the transaction is allowed to change.
+     */
+    final Object[] openRefsForWrite(final GammaTxn tx) {
+        return openFieldsForWrite(openForWrite(tx, LOCKMODE_NONE)).refs;
+    }
+
+    @Override
+    public final int getLongFieldCount() {
+        return longFieldCount;
+    }
+
+    @Override
+    public final int getRefFieldCount() {
+        return refFieldCount;
+    }
+
+    @Override
+    public final long getLong(final int field) {
+        return getLong(getRequiredThreadLocalGammaTxn(), field);
+    }
+
+    @Override
+    public final long getLong(final Txn tx, final int field) {
+        return getLong(asGammaTxn(tx), field);
+    }
+
+    public final long getLong(final GammaTxn tx, final int field) {
+        return openLongsForRead(tx)[field];
+    }
+
+    @Override
+    public final long setLong(final int field, final long value) {
+        return setLong(getRequiredThreadLocalGammaTxn(), field, value);
+    }
+
+    @Override
+    public final long setLong(final Txn tx, final int field, final long value) {
+        return setLong(asGammaTxn(tx), field, value);
+    }
+
+    public final long setLong(final GammaTxn tx, final int field, final long value) {
+        final Tranlocal tranlocal = openForWrite(tx, LOCKMODE_NONE);
+        if (((Fields) tranlocal.ref_value).longs[field] != value) {
+            openFieldsForWrite(tranlocal).longs[field] = value;
+        }
+        return value;
+    }
+
+    @Override
+    public final <E> E getRef(final int field) {
+        return getRef(getRequiredThreadLocalGammaTxn(), field);
+    }
+
+    @Override
+    public final <E> E getRef(final Txn tx, final int field) {
+        return getRef(asGammaTxn(tx), field);
+    }
+
+    public final <E> E getRef(final GammaTxn tx, final int field) {
+        return (E) openRefsForRead(tx)[field];
+    }
+
+    @Override
+    public final <E> E setRef(final int field, final E value) {
+        return setRef(getRequiredThreadLocalGammaTxn(), field, value);
+    }
+
+    @Override
+    public final <E> E setRef(final Txn tx, final int field, final E value) {
+        return setRef(asGammaTxn(tx), field, value);
+    }
+
+    public final <E> E setRef(final GammaTxn tx, final int field, final E value) {
+        final Tranlocal tranlocal = openForWrite(tx, LOCKMODE_NONE);
+        if (((Fields) tranlocal.ref_value).refs[field] != value) {
+            openFieldsForWrite(tranlocal).refs[field] = value;
+        }
+        return value;
+    }
+
+    @Override
+    public final long atomicGetLong(final int field) {
+        return ((Fields) atomicObjectGet()).longs[field];
+    }
+
+    @Override
+    public final <E> E atomicGetRef(final int field) {
+        return (E) ((Fields) atomicObjectGet()).refs[field];
+    }
+
+    private static String toString(final Fields fields) {
+        return String.format("[longs=%s, refs=%s]", Arrays.toString(fields.longs), Arrays.toString(fields.refs));
+    }
+
+    @Override
+    public final String toDebugString() {
+        return String.format("GammaTxnStruct{orec=%s, version=%s, value=%s, hasListeners=%s)",
+                ___toOrecString(), version, toString((Fields) ref_value), listeners != null);
+    }
+
+    @Override
+    public final String toString() {
+        return toString(getRequiredThreadLocalGammaTxn());
+    }
+
+    @Override
+    public final String toString(final Txn tx) {
+        return toString(asGammaTxn(tx));
+    }
+
+    public final String toString(final GammaTxn tx) {
+        return toString((Fields) openForRead(tx, LOCKMODE_NONE).ref_value);
+    }
+
+    @Override
+    public final String atomicToString() {
+        return toString((Fields) atomicObjectGet());
+    }
+}
@@ -0,0 +1,34 @@
+package org.multiverse.stms.gamma.transactionalobjects;
+
+/**
+ * A committed version of a {@link BaseGammaTxnRef}. The versions are only kept if the GammaStm runs with snapshot
+ * reads enabled (see {@link org.multiverse.stms.gamma.GammaStmConfig#snapshotReadsEnabled}) and form a chain from
+ * the newest to the oldest version.
+ * <p/>
+ * The previous field is cut by an updating transaction once the older versions are not needed anymore, so a reader
+ * walking the chain could find the end of the chain before it found the version of its snapshot.
+ *
+ * @author Peter Veentjer.
+ */
+public final class GammaVersion {
+
+    /**
+     * The timestamp of the {@link org.multiverse.stms.gamma.SnapshotClock} of the commit that created this version.
+     */
+    public final long timestamp;
+    /**
+     * The version of the transactional object.
+     */
+    public final long version;
+    public final long long_value;
+    public final Object ref_value;
+    public GammaVersion previous;
+
+    public GammaVersion(long timestamp, long version, long long_value, Object ref_value, GammaVersion previous) {
+        this.timestamp = timestamp;
+        this.version = version;
+        this.long_value = long_value;
+        this.ref_value = ref_value;
+        this.previous = previous;
+    }
+}
@@ -0,0 +1,20 @@
+package org.multiverse.stms.gamma.transactionalobjects;
+
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.GlobalConflictCounter;
+
+/**
+ * A {@link GammaTxnBoolean} that is padded to a cache line, see {@link PaddedGammaTxnLong} for the details.
+ *
+ * @author Peter Veentjer.
+ * @see org.multiverse.stms.gamma.GammaTxnRefFactoryBuilder#setPadded(boolean)
+ */
+@SuppressWarnings({"UnusedDeclaration"})
+public final class PaddedGammaTxnBoolean extends GammaTxnBoolean {
+
+    private long padding1, padding2, padding3, padding4, padding5, padding6, padding7, padding8;
+
+    public PaddedGammaTxnBoolean(final GammaStm stm, final GlobalConflictCounter conflictCounter, final boolean value) {
+        super(stm, conflictCounter, value);
+    }
+}
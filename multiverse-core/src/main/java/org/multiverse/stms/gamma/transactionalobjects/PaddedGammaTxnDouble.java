@@ -0,0 +1,20 @@
+package org.multiverse.stms.gamma.transactionalobjects;
+
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.GlobalConflictCounter;
+
+/**
+ * A {@link GammaTxnDouble} that is padded to a cache line, see {@link PaddedGammaTxnLong} for the details.
+ *
+ * @author Peter Veentjer.
+ * @see org.multiverse.stms.gamma.GammaTxnRefFactoryBuilder#setPadded(boolean)
+ */
+@SuppressWarnings({"UnusedDeclaration"})
+public final class PaddedGammaTxnDouble extends GammaTxnDouble {
+
+    private long padding1, padding2, padding3, padding4, padding5, padding6, padding7, padding8;
+
+    public PaddedGammaTxnDouble(final GammaStm stm, final GlobalConflictCounter conflictCounter, final double value) {
+        super(stm, conflictCounter, value);
+    }
+}
@@ -0,0 +1,25 @@
+package org.multiverse.stms.gamma.transactionalobjects;
+
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.GlobalConflictCounter;
+
+/**
+ * A {@link GammaTxnLong} that is padded to a cache line, so that the orec and the value of refs that are created after
+ * each other don't end up in the same cache line. This prevents false sharing between unrelated contended refs, at
+ * the price of 64 extra bytes per ref.
+ * <p/>
+ * The padding is placed after the fields of the {@link AbstractGammaObject} and the {@link BaseGammaTxnRef}, so
+ * the next object allocated is at least a cache line away from them.
+ *
+ * @author Peter Veentjer.
+ * @see org.multiverse.stms.gamma.GammaTxnRefFactoryBuilder#setPadded(boolean)
+ */
+@SuppressWarnings({"UnusedDeclaration"})
+public final class PaddedGammaTxnLong extends GammaTxnLong {
+
+    private long padding1, padding2, padding3, padding4, padding5, padding6, padding7, padding8;
+
+    public PaddedGammaTxnLong(final GammaStm stm, final GlobalConflictCounter conflictCounter, final long value) {
+        super(stm, conflictCounter, value);
+    }
+}
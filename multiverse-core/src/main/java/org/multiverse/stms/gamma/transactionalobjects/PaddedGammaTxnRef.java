@@ -0,0 +1,21 @@
+package org.multiverse.stms.gamma.transactionalobjects;
+
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.GlobalConflictCounter;
+
+/**
+ * A {@link GammaTxnRef} that is padded to a cache line, see {@link PaddedGammaTxnLong} for the details.
+ *
+ * @param <E> the type of the value
+ * @author Peter Veentjer.
+ * @see org.multiverse.stms.gamma.GammaTxnRefFactoryBuilder#setPadded(boolean)
+ */
+@SuppressWarnings({"UnusedDeclaration"})
+public final class PaddedGammaTxnRef<E> extends GammaTxnRef<E> {
+
+    private long padding1, padding2, padding3, padding4, padding5, padding6, padding7, padding8;
+
+    public PaddedGammaTxnRef(final GammaStm stm, final GlobalConflictCounter conflictCounter, final E value) {
+        super(stm, conflictCounter, value);
+    }
+}
@@ -0,0 +1,174 @@
+package org.multiverse.stms.gamma.transactionalobjects;
+
+import org.multiverse.api.exceptions.PanicError;
+import org.multiverse.stms.gamma.GammaConstants;
+import org.multiverse.stms.gamma.StripedCounters;
+
+import static org.multiverse.stms.gamma.transactionalobjects.AbstractGammaObject.hasExclusiveLock;
+
+/**
+ * A scalable non zero indicator (SNZI) placed behind the orec of a read heavy transactional object. Readers that
+ * arrive don't all need to cas the surplus of the orec, but increment the counter of the slot that belongs to their
+ * thread. Each slot is placed on its own cache lines.
+ * <p/>
+ * The orec is the root of the indicator: a slot only arrives on the orec when its counter goes from 0 to 1 and only
+ * departs when it goes back to 0. So as long as a slot has readers, it contributes exactly 1 to the surplus of the orec
+ * and a writer that sees a surplus of 0 knows there are no readers. A writer that sees a surplus larger than 0 always
+ * signals a conflict, so readers on a slot never miss a conflict, although the writer can't tell how many there are.
+ * <p/>
+ * Only the arrive/depart of readers without a lock makes use of the indicator. Locks still are acquired on the orec,
+ * see {@link AbstractGammaObject#lockAfterReadIndicatorArrive(int, int, int)}.
+ *
+ * @author Peter Veentjer.
+ */
+public final class ReadIndicator implements GammaConstants {
+
+    //every slot is a stripe with a single counter.
+    private final StripedCounters counters;
+
+    /**
+     * Creates a ReadIndicator with the given number of slots.
+     *
+     * @param slots the number of slots. The value is rounded up to the next power of two.
+     * @throws IllegalArgumentException if slots is smaller than 1.
+     */
+    public ReadIndicator(int slots) {
+        if (slots < 1) {
+            throw new IllegalArgumentException("slots can't be smaller than 1, slots was " + slots);
+        }
+
+        this.counters = new StripedCounters(slots, 1);
+    }
+
+    /**
+     * Returns the number of slots of this ReadIndicator.
+     *
+     * @return the number of slots.
+     */
+    public int getSlotCount() {
+        return counters.getStripeCount();
+    }
+
+    /**
+     * Returns the slot that belongs to the calling thread.
+     *
+     * @return the slot.
+     */
+    public int slot() {
+        return counters.stripe();
+    }
+
+    /**
+     * Returns the number of readers that have arrived on the given slot.
+     *
+     * @param slot the slot.
+     * @return the number of readers.
+     */
+    public long getReaderCount(int slot) {
+        return counters.get(slot, 0);
+    }
+
+    /**
+     * Checks if no reader has arrived on any of the slots.
+     *
+     * @return true if there are no readers.
+     */
+    public boolean isEmpty() {
+        final int slotCount = counters.getStripeCount();
+        for (int k = 0; k < slotCount; k++) {
+            if (counters.get(k, 0) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Arrives on the given slot. If the slot has no readers yet, it first arrives on the orec. If the orec is
+     * readbiased, the arrive on the orec is not registered and the slot is left alone; the caller then doesn't need to
+     * depart.
+     *
+     * @param object    the transactional object this ReadIndicator belongs to.
+     * @param slot      the slot to arrive on.
+     * @param spinCount the maximum number of times to spin if the exclusive lock is acquired.
+     * @return the arrive status, see {@link AbstractGammaObject#arrive(int)}.
+     */
+    public int arrive(final AbstractGammaObject object, final int slot, int spinCount) {
+        do {
+            if (hasExclusiveLock(object.orec)) {
+                spinCount--;
+                continue;
+            }
+
+            final long count = counters.get(slot, 0);
+            if (count > 0) {
+                if (!counters.compareAndSet(slot, 0, count, count + 1)) {
+                    continue;
+                }
+
+                //the orec can be locked exclusively between the check and the increment; the writer then has seen
+                //the surplus of this slot, but it doesn't want new readers.
+                if (!hasExclusiveLock(object.orec)) {
+                    return MASK_SUCCESS;
+                }
+
+                departAfterFailure(object, slot);
+                spinCount--;
+                continue;
+            }
+
+            final int arriveStatus = object.arrive(spinCount);
+            if (arriveStatus == FAILURE || (arriveStatus & MASK_UNREGISTERED) != 0) {
+                return arriveStatus;
+            }
+
+            if (counters.compareAndSet(slot, 0, 0, 1)) {
+                return MASK_SUCCESS;
+            }
+
+            //another reader has arrived on the slot (and on the orec) first, so our arrive on the orec is undone.
+            object.departAfterFailure();
+        } while (spinCount >= 0);
+
+        return FAILURE;
+    }
+
+    /**
+     * Departs from the given slot after a successful read. If it was the last reader of the slot, it departs from the
+     * orec as well using {@link AbstractGammaObject#departAfterReading()}.
+     *
+     * @param object the transactional object this ReadIndicator belongs to.
+     * @param slot   the slot the arrive was done on.
+     */
+    public void departAfterReading(final AbstractGammaObject object, final int slot) {
+        if (depart(slot)) {
+            object.departAfterReading();
+        }
+    }
+
+    /**
+     * Departs from the given slot after a failure. If it was the last reader of the slot, it departs from the orec as
+     * well using {@link AbstractGammaObject#departAfterFailure()}.
+     *
+     * @param object the transactional object this ReadIndicator belongs to.
+     * @param slot   the slot the arrive was done on.
+     */
+    public void departAfterFailure(final AbstractGammaObject object, final int slot) {
+        if (depart(slot)) {
+            object.departAfterFailure();
+        }
+    }
+
+    private boolean depart(final int slot) {
+        while (true) {
+            final long count = counters.get(slot, 0);
+            if (count == 0) {
+                throw new PanicError("There are no readers on slot " + slot);
+            }
+
+            if (counters.compareAndSet(slot, 0, count, count - 1)) {
+                return count == 1;
+            }
+        }
+    }
+}
@@ -9,19 +9,24 @@ public final class Tranlocal<E> implements GammaConstants {
 
     public E ref_value;
     public long version;
-    public int lockMode;
+    //the lockMode and the mode are stored as byte to keep the tranlocal small, every open ref has one.
+    public byte lockMode;
+    public byte mode;
     public BaseGammaTxnRef owner;
-    public int mode;
     public boolean hasDepartObligation;
+    //0 if the arrive was done on the orec, otherwise the slot of the ReadIndicator the arrive was done on plus 1.
+    public byte readIndicatorSlot;
     public boolean isDirty;
-    public Tranlocal next;
-    public Tranlocal previous;
     public CallableNode headCallable;
     public boolean writeSkewCheck;
 
     public long long_oldValue;
     public E ref_oldValue;
+    //true if the ref_value is a private copy made by the transaction (see GammaTxnStruct), cleared on release.
+    public boolean hasCopiedRefValue;
     public long long_value;
+    //the predicate of an await that is retrying, see BaseGammaTxnRef.retryUntil.
+    public Object awaitPredicate;
 
 
     public boolean isDirty() {
@@ -37,7 +42,7 @@ public final class Tranlocal<E> implements GammaConstants {
     }
 
     public void setLockMode(int lockMode) {
-        this.lockMode = lockMode;
+        this.lockMode = (byte) lockMode;
     }
 
     public boolean hasDepartObligation() {
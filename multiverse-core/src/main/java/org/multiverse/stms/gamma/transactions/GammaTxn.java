@@ -2,14 +2,20 @@ package org.multiverse.stms.gamma.transactions;
 
 import org.multiverse.api.Txn;
 import org.multiverse.api.TxnStatus;
-import org.multiverse.api.blocking.DefaultRetryLatch;
+import org.multiverse.api.blocking.ParkingRetryLatch;
 import org.multiverse.api.blocking.RetryLatch;
 import org.multiverse.api.exceptions.*;
 import org.multiverse.api.functions.Function;
 import org.multiverse.api.lifecycle.TxnEvent;
 import org.multiverse.api.lifecycle.TxnListener;
+import org.multiverse.stms.gamma.ContentionManager;
+import org.multiverse.stms.gamma.ContentionProfiler;
 import org.multiverse.stms.gamma.GammaConstants;
 import org.multiverse.stms.gamma.GammaObjectPool;
+import org.multiverse.stms.gamma.GlobalConflictCounter;
+import org.multiverse.stms.gamma.SnapshotClock;
+import org.multiverse.stms.gamma.TxnEventRecorder;
+import org.multiverse.stms.gamma.transactionalobjects.AbstractGammaObject;
 import org.multiverse.stms.gamma.transactionalobjects.BaseGammaTxnRef;
 import org.multiverse.stms.gamma.transactionalobjects.GammaObject;
 import org.multiverse.stms.gamma.transactionalobjects.Tranlocal;
@@ -33,13 +39,27 @@ public abstract class GammaTxn implements GammaConstants, Txn {
     public int attempt;
     public long remainingTimeoutNs;
     public boolean hasWrites;
+    //if the transaction is executed as an irrevocable transaction; the maximum number of retries doesn't apply.
+    public boolean irrevocable;
+    //the priority used by the ContentionManager of the stm, survives a soft reset.
+    public long contentionPriority;
     public final int transactionType;
     public boolean richmansMansConflictScan;
     public boolean abortOnly = false;
-    public final RetryLatch retryListener = new DefaultRetryLatch();
+    public final RetryLatch retryListener = new ParkingRetryLatch();
     public ArrayList<TxnListener> listeners;
     public boolean commitConflict;
+    //if the last read/write conflict was caused by an object locked by another transaction.
+    public boolean lockConflict;
     public boolean evaluatingCommute = false;
+    //the conflict counters of the non default conflict domains read by this transaction and their local counts.
+    public GlobalConflictCounter[] domainConflictCounters;
+    public long[] domainConflictCounts;
+    public int domainConflictCounterCount;
+    //the snapshot of a snapshot reading transaction and the slot it is registered in, -1 if there is no snapshot.
+    public long snapshotTimestamp = -1;
+    public int snapshotSlot = -1;
+    private SnapshotClock snapshotClock;
 
     public GammaTxn(GammaTxnConfig config, int transactionType) {
         config.init();
@@ -110,6 +130,19 @@ public abstract class GammaTxn implements GammaConstants, Txn {
 
     public final ReadWriteConflict abortOnReadWriteConflict(GammaObject object) {
         abortIfAlive();
+        //our own locks are released, so a lock still found is owned by another transaction.
+        lockConflict = object instanceof AbstractGammaObject
+                && ((AbstractGammaObject) object).atomicGetLockModeAsInt() != LOCKMODE_NONE;
+
+        final TxnEventRecorder txnEventRecorder = config.stm.txnEventRecorder;
+        if (txnEventRecorder != null) {
+            txnEventRecorder.onReadWriteConflict(this, object, lockConflict);
+        }
+
+        final ContentionProfiler contentionProfiler = config.stm.contentionProfiler;
+        if (contentionProfiler != null && object != null) {
+            contentionProfiler.onAbort(object);
+        }
 
         if (attempt == config.maxRetries || !config.controlFlowErrorsReused) {
             return new ReadWriteConflict(
@@ -120,6 +153,29 @@ public abstract class GammaTxn implements GammaConstants, Txn {
         }
     }
 
+    /**
+     * Checks if the updating commit of this transaction needs to back off because an irrevocable transaction of
+     * another thread is running. Should be checked before the commit locks are acquired.
+     *
+     * @return true if the commit needs to back off.
+     */
+    protected final boolean isBlockedByIrrevocableTxn() {
+        return config.stm.irrevocabilityToken.isHeldByOtherThread();
+    }
+
+    public final ReadWriteConflict abortOnIrrevocableTxn() {
+        abortIfAlive();
+        lockConflict = false;
+
+        if (attempt == config.maxRetries || !config.controlFlowErrorsReused) {
+            return new ReadWriteConflict(
+                    format("[%s] Failed transaction, reason: an irrevocable transaction is running",
+                            config.familyName));
+        } else {
+            return ReadWriteConflict.INSTANCE;
+        }
+    }
+
     public DeadTxnException failAbortOnAlreadyCommitted() {
         return new DeadTxnException(
                 format("[%s] Failed to execute transaction.abort, reason: the transaction is already committed",
@@ -688,11 +744,33 @@ public abstract class GammaTxn implements GammaConstants, Txn {
      */
     public abstract Tranlocal getRefTranlocal(BaseGammaTxnRef ref);
 
+    /**
+     * Returns the number of transactional objects read or written by this transaction.
+     *
+     * @return the number of transactional objects.
+     */
+    public abstract int size();
+
     public final boolean isAlive() {
         return status == TX_ACTIVE || status == TX_PREPARED;
     }
 
     public final void awaitUpdate() {
+        final TxnEventRecorder txnEventRecorder = config.stm.txnEventRecorder;
+        if (txnEventRecorder == null) {
+            doAwaitUpdate();
+            return;
+        }
+
+        final long startNs = System.nanoTime();
+        try {
+            doAwaitUpdate();
+        } finally {
+            txnEventRecorder.onRetryWait(this, System.nanoTime() - startNs);
+        }
+    }
+
+    private void doAwaitUpdate() {
         final long lockEra = retryListener.getEra();
 
         if (config.timeoutNs == Long.MAX_VALUE) {
@@ -719,6 +797,8 @@ public abstract class GammaTxn implements GammaConstants, Txn {
     public final void copyForSpeculativeFailure(GammaTxn failingTx) {
         remainingTimeoutNs = failingTx.remainingTimeoutNs;
         attempt = failingTx.attempt;
+        irrevocable = failingTx.irrevocable;
+        contentionPriority = failingTx.contentionPriority;
     }
 
     public final void init(GammaTxnConfig config) {
@@ -728,6 +808,11 @@ public abstract class GammaTxn implements GammaConstants, Txn {
 
         this.config = config;
         hardReset();
+
+        final ContentionManager contentionManager = config.stm.contentionManager;
+        if (contentionManager != null) {
+            contentionManager.onStart(this);
+        }
     }
 
     @SuppressWarnings({"BooleanMethodIsAlwaysInverted"})
@@ -758,5 +843,160 @@ public abstract class GammaTxn implements GammaConstants, Txn {
      */
     public abstract void initLocalConflictCounter();
 
+    /**
+     * Registers the GlobalConflictCounter of a non default conflict domain, so that a conflict in that domain is
+     * detected by the {@link #isReadConsistent(Tranlocal)}. It needs to be called before the transactional object
+     * from that domain is loaded. Only transactions that do a richmans conflict scan are interested in it.
+     *
+     * @param conflictCounter the GlobalConflictCounter of the conflict domain.
+     */
+    public final void registerConflictDomain(final GlobalConflictCounter conflictCounter) {
+        if (!richmansMansConflictScan || conflictCounter == config.globalConflictCounter) {
+            return;
+        }
+
+        for (int k = 0; k < domainConflictCounterCount; k++) {
+            //noinspection ObjectEquality
+            if (domainConflictCounters[k] == conflictCounter) {
+                return;
+            }
+        }
+
+        if (domainConflictCounters == null) {
+            domainConflictCounters = new GlobalConflictCounter[2];
+            domainConflictCounts = new long[2];
+        } else if (domainConflictCounterCount == domainConflictCounters.length) {
+            final int newLength = domainConflictCounterCount * 2;
+            final GlobalConflictCounter[] newCounters = new GlobalConflictCounter[newLength];
+            System.arraycopy(domainConflictCounters, 0, newCounters, 0, domainConflictCounterCount);
+            final long[] newCounts = new long[newLength];
+            System.arraycopy(domainConflictCounts, 0, newCounts, 0, domainConflictCounterCount);
+            domainConflictCounters = newCounters;
+            domainConflictCounts = newCounts;
+        }
+
+        domainConflictCounters[domainConflictCounterCount] = conflictCounter;
+        domainConflictCounts[domainConflictCounterCount] = conflictCounter.count();
+        domainConflictCounterCount++;
+    }
+
+    /**
+     * Checks if a conflict has been signalled in one of the registered conflict domains since the last check. All
+     * local counts are updated, so the caller needs to do a full conflict scan if true is returned.
+     *
+     * @return true if a conflict has been signalled in at least one of the registered domains.
+     */
+    protected final boolean updateDomainConflictCounts() {
+        boolean changed = false;
+        for (int k = 0; k < domainConflictCounterCount; k++) {
+            final long count = domainConflictCounters[k].count();
+            if (count != domainConflictCounts[k]) {
+                domainConflictCounts[k] = count;
+                changed = true;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * Checks if a read should be done from the snapshot. A snapshot is taken on the first read of a readonly
+     * transaction if the GammaStm has snapshot reads enabled. If no snapshot could be taken because all reader
+     * slots are in use, the transaction does normal reads.
+     *
+     * @param lockMode the LockMode of the read.
+     * @param hasReads if the transaction already has done normal reads.
+     * @return true if the read should be done from the snapshot.
+     * @see org.multiverse.stms.gamma.GammaStmConfig#snapshotReadsEnabled
+     */
+    public final boolean isSnapshotRead(final int lockMode, final boolean hasReads) {
+        if (snapshotSlot >= 0) {
+            return lockMode == LOCKMODE_NONE;
+        }
+
+        final GammaTxnConfig config = this.config;
+        if (!config.readonly || lockMode != LOCKMODE_NONE || config.readLockModeAsInt != LOCKMODE_NONE) {
+            return false;
+        }
+
+        //a snapshot can't be mixed with normal reads done earlier.
+        if (hasReads) {
+            return false;
+        }
+
+        final SnapshotClock clock = config.stm.snapshotClock;
+        if (clock == null) {
+            return false;
+        }
+
+        final int slot = clock.register();
+        if (slot < 0) {
+            return false;
+        }
+
+        snapshotClock = clock;
+        snapshotSlot = slot;
+        snapshotTimestamp = clock.getSnapshot(slot);
+        return true;
+    }
+
+    /**
+     * Releases the snapshot of the transaction (if it has one), so that the versions only needed by this transaction
+     * can be reclaimed.
+     */
+    protected final void releaseSnapshot() {
+        if (snapshotSlot >= 0) {
+            snapshotClock.unregister(snapshotSlot);
+            snapshotClock = null;
+            snapshotSlot = -1;
+            snapshotTimestamp = -1;
+        }
+    }
+
+    public final ReadWriteConflict abortOnSnapshotReclaimed(final GammaObject object) {
+        final long snapshot = snapshotTimestamp;
+        abortIfAlive();
+        lockConflict = false;
+
+        if (attempt == config.maxRetries || !config.controlFlowErrorsReused) {
+            return new ReadWriteConflict(
+                    format("[%s] Failed transaction, reason: the version of object [%s] for snapshot %s already " +
+                            "has been reclaimed", config.familyName, toDebugString(object), snapshot));
+        } else {
+            return ReadWriteConflict.INSTANCE;
+        }
+    }
+
+    /**
+     * Signals a conflict in the conflict domains of the transactional objects this transaction writes. A domain that
+     * is only read is not signalled, so readers in that domain don't need to do a full conflict scan. Consecutive
+     * tranlocals from the same domain only signal once.
+     *
+     * @param tranlocals the tranlocals of this transaction.
+     * @param size       the number of tranlocals in use.
+     */
+    protected final void signalCommitConflict(final Tranlocal[] tranlocals, final int size) {
+        GlobalConflictCounter signalled = null;
+        for (int k = 0; k < size; k++) {
+            final Tranlocal tranlocal = tranlocals[k];
+            if (tranlocal.mode == TRANLOCAL_READ && tranlocal.lockMode < LOCKMODE_WRITE) {
+                continue;
+            }
+
+            final GlobalConflictCounter conflictCounter = tranlocal.owner.conflictCounter;
+            //noinspection ObjectEquality
+            if (conflictCounter != signalled) {
+                signalled = conflictCounter;
+                signalled.signalConflict();
+            }
+        }
+    }
+
+    protected final void clearConflictDomains() {
+        for (int k = 0; k < domainConflictCounterCount; k++) {
+            domainConflictCounters[k] = null;
+        }
+        domainConflictCounterCount = 0;
+    }
+
 
 }
@@ -1,5 +1,6 @@
 package org.multiverse.stms.gamma.transactions;
 
+import org.multiverse.api.AdaptiveBackoffPolicy;
 import org.multiverse.api.BackoffPolicy;
 import org.multiverse.api.IsolationLevel;
 import org.multiverse.api.LockMode;
@@ -8,10 +9,12 @@ import org.multiverse.api.TraceLevel;
 import org.multiverse.api.TxnConfig;
 import org.multiverse.api.exceptions.IllegalTxnFactoryException;
 import org.multiverse.api.lifecycle.TxnListener;
+import org.multiverse.stms.gamma.AdaptiveTxnScheduler;
 import org.multiverse.stms.gamma.GammaConstants;
 import org.multiverse.stms.gamma.GammaStm;
 import org.multiverse.stms.gamma.GammaStmConfig;
 import org.multiverse.stms.gamma.GlobalConflictCounter;
+import org.multiverse.stms.gamma.TxnFamilyMetrics;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -67,9 +70,20 @@ public final class GammaTxnConfig implements TxnConfig, GammaConstants {
     public int maximumPoorMansConflictScanLength;
     public ArrayList<TxnListener> permanentListeners;
     public boolean unrepeatableReadAllowed;
+    //Integer.MAX_VALUE if the transaction never is escalated to an irrevocable transaction.
+    public int irrevocableAfterAttempts = Integer.MAX_VALUE;
+    //null if adaptive scheduling is not enabled; created on init so every family gets its own.
+    public AdaptiveTxnScheduler scheduler;
+    //null if the backoffPolicy isn't adaptive; created on init so every family gets its own statistics.
+    public AdaptiveBackoffPolicy adaptiveBackoffPolicy;
+    //null if metrics are not enabled or the family is anonymous; created on init, configs with the same family name
+    //share the metrics.
+    public TxnFamilyMetrics metrics;
 
     public GammaTxnConfig(GammaStm stm) {
         this(stm, new GammaStmConfig());
+        //so that the backoff policy configured on the GammaStmConfig also is used by the transactions.
+        this.backoffPolicy = stm.defaultBackoffPolicy;
     }
 
     public GammaTxnConfig(GammaStm stm, GammaStmConfig config) {
@@ -144,6 +158,7 @@ public final class GammaTxnConfig implements TxnConfig, GammaConstants {
         this.isFat = config.isFat;
         this.maximumPoorMansConflictScanLength = config.maximumPoorMansConflictScanLength;
         this.permanentListeners = config.permanentListeners;
+        this.irrevocableAfterAttempts = config.irrevocableAfterAttempts;
     }
 
     public GammaTxnConfig(GammaStm stm, int maxFixedLengthTransactionSize) {
@@ -257,11 +272,18 @@ public final class GammaTxnConfig implements TxnConfig, GammaConstants {
         return unmodifiableList(permanentListeners);
     }
 
+    private void learned(SpeculativeGammaConfiguration update) {
+        if (!isAnonymous) {
+            stm.speculativeConfigurationStore.learn(familyName, update);
+        }
+    }
+
     public void updateSpeculativeConfigurationToUseNonRefType() {
         while (true) {
             SpeculativeGammaConfiguration current = speculativeConfiguration.get();
             SpeculativeGammaConfiguration update = current.newWithNonRefType();
             if (speculativeConfiguration.compareAndSet(current, update)) {
+                learned(update);
                 return;
             }
         }
@@ -272,6 +294,7 @@ public final class GammaTxnConfig implements TxnConfig, GammaConstants {
             SpeculativeGammaConfiguration current = speculativeConfiguration.get();
             SpeculativeGammaConfiguration update = current.newWithListeners();
             if (speculativeConfiguration.compareAndSet(current, update)) {
+                learned(update);
                 return;
             }
         }
@@ -282,6 +305,7 @@ public final class GammaTxnConfig implements TxnConfig, GammaConstants {
             SpeculativeGammaConfiguration current = speculativeConfiguration.get();
             SpeculativeGammaConfiguration update = current.newWithAbortOnly();
             if (speculativeConfiguration.compareAndSet(current, update)) {
+                learned(update);
                 return;
             }
         }
@@ -292,6 +316,7 @@ public final class GammaTxnConfig implements TxnConfig, GammaConstants {
             SpeculativeGammaConfiguration current = speculativeConfiguration.get();
             SpeculativeGammaConfiguration update = current.newWithCommute();
             if (speculativeConfiguration.compareAndSet(current, update)) {
+                learned(update);
                 return;
             }
         }
@@ -302,6 +327,7 @@ public final class GammaTxnConfig implements TxnConfig, GammaConstants {
             SpeculativeGammaConfiguration current = speculativeConfiguration.get();
             SpeculativeGammaConfiguration update = current.newWithLocks();
             if (speculativeConfiguration.compareAndSet(current, update)) {
+                learned(update);
                 return;
             }
         }
@@ -313,6 +339,7 @@ public final class GammaTxnConfig implements TxnConfig, GammaConstants {
             SpeculativeGammaConfiguration next = current.newWithConstructedObjects();
 
             if (speculativeConfiguration.compareAndSet(current, next)) {
+                learned(next);
                 return;
             }
         }
@@ -324,6 +351,7 @@ public final class GammaTxnConfig implements TxnConfig, GammaConstants {
             SpeculativeGammaConfiguration next = current.newWithRichMansConflictScan();
 
             if (speculativeConfiguration.compareAndSet(current, next)) {
+                learned(next);
                 return;
             }
         }
@@ -335,6 +363,7 @@ public final class GammaTxnConfig implements TxnConfig, GammaConstants {
             SpeculativeGammaConfiguration next = current.newWithMinimalLength(newLength);
 
             if (speculativeConfiguration.compareAndSet(current, next)) {
+                learned(next);
                 return;
             }
         }
@@ -347,6 +376,7 @@ public final class GammaTxnConfig implements TxnConfig, GammaConstants {
             SpeculativeGammaConfiguration next = current.newWithEnsure();
 
             if (speculativeConfiguration.compareAndSet(current, next)) {
+                learned(next);
                 return;
             }
         }
@@ -390,9 +420,29 @@ public final class GammaTxnConfig implements TxnConfig, GammaConstants {
                 newSpeculativeConfiguration = newSpeculativeConfiguration.newWithRichMansConflictScan();
             }
 
+            if (speculative && !isAnonymous) {
+                //start with what the family already has learned (e.g. preloaded from a previous run).
+                final SpeculativeGammaConfiguration learned = stm.speculativeConfigurationStore.get(familyName);
+                if (learned != null) {
+                    newSpeculativeConfiguration = newSpeculativeConfiguration.newWith(learned);
+                }
+            }
+
             speculativeConfiguration.compareAndSet(null, newSpeculativeConfiguration);
         }
 
+        if (scheduler == null) {
+            scheduler = stm.newAdaptiveTxnScheduler();
+        }
+
+        if (adaptiveBackoffPolicy == null && backoffPolicy instanceof AdaptiveBackoffPolicy) {
+            adaptiveBackoffPolicy = ((AdaptiveBackoffPolicy) backoffPolicy).newFamilyInstance();
+        }
+
+        if (metrics == null) {
+            metrics = stm.newTxnFamilyMetrics(this);
+        }
+
         return this;
     }
 
@@ -459,6 +509,16 @@ public final class GammaTxnConfig implements TxnConfig, GammaConstants {
         return config;
     }
 
+    public GammaTxnConfig setIrrevocableAfterAttempts(int irrevocableAfterAttempts) {
+        if (irrevocableAfterAttempts < 0) {
+            throw new IllegalArgumentException("irrevocableAfterAttempts can't be smaller than 0");
+        }
+
+        GammaTxnConfig config = new GammaTxnConfig(this);
+        config.irrevocableAfterAttempts = irrevocableAfterAttempts;
+        return config;
+    }
+
     public GammaTxnConfig setMaximumPoorMansConflictScanLength(int maximumPoorMansConflictScanLength) {
         if (maximumPoorMansConflictScanLength < 0) {
             throw new IllegalStateException();
@@ -647,6 +707,7 @@ public final class GammaTxnConfig implements TxnConfig, GammaConstants {
                 ", isFat=" + isFat +
                 ", maximumPoorMansConflictScanLength=" + maximumPoorMansConflictScanLength +
                 ", permanentListeners=" + permanentListeners +
+                ", irrevocableAfterAttempts=" + irrevocableAfterAttempts +
                 '}';
     }
 
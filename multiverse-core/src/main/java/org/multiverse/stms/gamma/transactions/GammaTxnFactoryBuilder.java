@@ -17,6 +17,32 @@ public interface GammaTxnFactoryBuilder extends TxnFactoryBuilder {
 
     GammaTxnFactoryBuilder setFat();
 
+    /**
+     * Sets if every attempt of the transaction is executed as an irrevocable transaction. An irrevocable transaction
+     * holds the {@link org.multiverse.stms.gamma.IrrevocabilityToken} of the GammaStm, so updating transactions of
+     * other threads back off and it can't be starved. Only one irrevocable transaction can run at any given moment,
+     * so it should only be used for transactions that otherwise would not complete.
+     *
+     * <p>This only has effect on transactions executed by the {@link GammaTxnExecutor}.
+     *
+     * @param irrevocable true if the transaction always is irrevocable, false otherwise.
+     * @return the updated GammaTxnFactoryBuilder.
+     * @see #setIrrevocableAfterAttempts(int)
+     */
+    GammaTxnFactoryBuilder setIrrevocable(boolean irrevocable);
+
+    /**
+     * Sets the number of failed attempts after which the transaction is escalated to an irrevocable transaction
+     * (see {@link #setIrrevocable(boolean)}). Once escalated, the transaction is retried till it completes and
+     * the maximum number of retries doesn't apply anymore. The default is Integer.MAX_VALUE, meaning that the
+     * transaction never is escalated.
+     *
+     * @param attempts the number of failed attempts before escalating.
+     * @return the updated GammaTxnFactoryBuilder.
+     * @throws IllegalArgumentException if attempts is smaller than 0.
+     */
+    GammaTxnFactoryBuilder setIrrevocableAfterAttempts(int attempts);
+
     @Override
     GammaTxnFactoryBuilder setControlFlowErrorsReused(boolean reused);
 
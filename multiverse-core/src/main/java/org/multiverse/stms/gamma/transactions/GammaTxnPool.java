@@ -1,6 +1,7 @@
 package org.multiverse.stms.gamma.transactions;
 
 import org.multiverse.stms.gamma.GammaConstants;
+import org.multiverse.stms.gamma.PoolStatistics;
 import org.multiverse.stms.gamma.transactions.fat.FatFixedLengthGammaTxn;
 import org.multiverse.stms.gamma.transactions.fat.FatMonoGammaTxn;
 import org.multiverse.stms.gamma.transactions.fat.FatVariableLengthGammaTxn;
@@ -18,6 +19,11 @@ public final class GammaTxnPool implements GammaConstants {
     private final static boolean ENABLED = Boolean.parseBoolean(
             System.getProperty("org.multiverse.stm.gamma.transactions.GammaTxnPool.enabled", "true"));
 
+    /**
+     * The statistics of all GammaTxnPools, only collected if {@link PoolStatistics#ENABLED}.
+     */
+    public final static PoolStatistics STATISTICS = new PoolStatistics(Runtime.getRuntime().availableProcessors());
+
     private final boolean enabled;
 
     private final FatMonoGammaTxn[] poolFatMono = new FatMonoGammaTxn[10];
@@ -42,9 +48,15 @@ public final class GammaTxnPool implements GammaConstants {
      */
     public FatMonoGammaTxn takeFatMono() {
         if (!enabled || poolFatMonoIndex == -1) {
+            if (PoolStatistics.ENABLED) {
+                STATISTICS.onMiss();
+            }
             return null;
         }
 
+        if (PoolStatistics.ENABLED) {
+            STATISTICS.onHit();
+        }
         FatMonoGammaTxn tx = poolFatMono[poolFatMonoIndex];
         poolFatMono[poolFatMonoIndex] = null;
         poolFatMonoIndex--;
@@ -59,9 +71,15 @@ public final class GammaTxnPool implements GammaConstants {
      */
     public FatFixedLengthGammaTxn takeFatFixedLength() {
         if (!enabled || poolFatFixedLengthIndex == -1) {
+            if (PoolStatistics.ENABLED) {
+                STATISTICS.onMiss();
+            }
             return null;
         }
 
+        if (PoolStatistics.ENABLED) {
+            STATISTICS.onHit();
+        }
         FatFixedLengthGammaTxn tx = poolFatFixedLength[poolFatFixedLengthIndex];
         poolFatFixedLength[poolFatFixedLengthIndex] = null;
         poolFatFixedLengthIndex--;
@@ -75,9 +93,15 @@ public final class GammaTxnPool implements GammaConstants {
      */
     public LeanMonoGammaTxn takeLeanMono() {
         if (!enabled || poolLeanMonoIndex == -1) {
+            if (PoolStatistics.ENABLED) {
+                STATISTICS.onMiss();
+            }
             return null;
         }
 
+        if (PoolStatistics.ENABLED) {
+            STATISTICS.onHit();
+        }
         LeanMonoGammaTxn tx = poolLeanMono[poolLeanMonoIndex];
         poolLeanMono[poolLeanMonoIndex] = null;
         poolLeanMonoIndex--;
@@ -92,9 +116,15 @@ public final class GammaTxnPool implements GammaConstants {
      */
     public LeanFixedLengthGammaTxn takeLeanFixedLength() {
         if (!enabled || poolLeanFixedLengthIndex == -1) {
+            if (PoolStatistics.ENABLED) {
+                STATISTICS.onMiss();
+            }
             return null;
         }
 
+        if (PoolStatistics.ENABLED) {
+            STATISTICS.onHit();
+        }
         LeanFixedLengthGammaTxn tx = poolLeanFixedLength[poolLeanFixedLengthIndex];
         poolLeanFixedLength[poolLeanFixedLengthIndex] = null;
         poolLeanFixedLengthIndex--;
@@ -109,9 +139,15 @@ public final class GammaTxnPool implements GammaConstants {
      */
     public FatVariableLengthGammaTxn takeMap() {
         if (!enabled || poolFatVariableLengthIndex == -1) {
+            if (PoolStatistics.ENABLED) {
+                STATISTICS.onMiss();
+            }
             return null;
         }
 
+        if (PoolStatistics.ENABLED) {
+            STATISTICS.onHit();
+        }
         FatVariableLengthGammaTxn tx = poolFatVariableLength[poolFatVariableLengthIndex];
         poolFatVariableLength[poolFatVariableLengthIndex] = null;
         poolFatVariableLengthIndex--;
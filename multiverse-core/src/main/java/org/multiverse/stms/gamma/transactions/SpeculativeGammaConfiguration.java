@@ -167,6 +167,42 @@ public final class SpeculativeGammaConfiguration {
                 constructedObjectsDetected, true, abortOnlyDetected, true, minimalLength);
     }
 
+    /**
+     * Returns a SpeculativeGammaConfiguration that has detected everything this or the given configuration has
+     * detected, and the largest minimal length of both.
+     *
+     * @param that the SpeculativeGammaConfiguration to join with.
+     * @return the joined SpeculativeGammaConfiguration, this if that doesn't add anything.
+     */
+    public SpeculativeGammaConfiguration newWith(SpeculativeGammaConfiguration that) {
+        if ((fat || !that.fat)
+                && (listenersDetected || !that.listenersDetected)
+                && (commuteDetected || !that.commuteDetected)
+                && (nonRefTypeDetected || !that.nonRefTypeDetected)
+                && (orelseDetected || !that.orelseDetected)
+                && (locksDetected || !that.locksDetected)
+                && (constructedObjectsDetected || !that.constructedObjectsDetected)
+                && (richMansConflictScanRequired || !that.richMansConflictScanRequired)
+                && (abortOnlyDetected || !that.abortOnlyDetected)
+                && (ensureDetected || !that.ensureDetected)
+                && minimalLength >= that.minimalLength) {
+            return this;
+        }
+
+        return new SpeculativeGammaConfiguration(
+                fat || that.fat,
+                listenersDetected || that.listenersDetected,
+                commuteDetected || that.commuteDetected,
+                nonRefTypeDetected || that.nonRefTypeDetected,
+                orelseDetected || that.orelseDetected,
+                locksDetected || that.locksDetected,
+                constructedObjectsDetected || that.constructedObjectsDetected,
+                richMansConflictScanRequired || that.richMansConflictScanRequired,
+                abortOnlyDetected || that.abortOnlyDetected,
+                ensureDetected || that.ensureDetected,
+                Math.max(minimalLength, that.minimalLength));
+    }
+
     @Override
     public String toString() {
         return "SpeculativeGammaConfiguration{" +
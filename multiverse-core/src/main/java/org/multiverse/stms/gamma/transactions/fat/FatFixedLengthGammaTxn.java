@@ -3,6 +3,7 @@ package org.multiverse.stms.gamma.transactions.fat;
 import org.multiverse.api.lifecycle.TxnEvent;
 import org.multiverse.stms.gamma.GammaStm;
 import org.multiverse.stms.gamma.Listeners;
+import org.multiverse.stms.gamma.SnapshotClock;
 import org.multiverse.stms.gamma.transactionalobjects.BaseGammaTxnRef;
 import org.multiverse.stms.gamma.transactionalobjects.GammaObject;
 import org.multiverse.stms.gamma.transactionalobjects.Tranlocal;
@@ -13,12 +14,21 @@ import static org.multiverse.utils.Bugshaker.shakeBugs;
 
 /**
  * A Fat {@link org.multiverse.stms.gamma.transactions.GammaTxn} (supporting all features) but has a fixed capacity.
+ * <p/>
+ * The tranlocals are preallocated in an array and the first 'size' of them are in use, in the order the refs are
+ * opened. So a lookup, the commit and the conflict scan walk over a contiguous part of the array instead of chasing
+ * pointers through a linked list of tranlocals. In front of the array there is a 64 bit bloom filter on the identity
+ * hashes of the used tranlocals, so a ref that isn't part of the transaction (the common case when a ref is opened)
+ * normally is rejected without searching the array.
  *
  * @author Peter Veentjer.
  */
 public final class FatFixedLengthGammaTxn extends GammaTxn {
 
-    public Tranlocal head;
+    //the tranlocals, the first 'size' of them are in use.
+    public final Tranlocal[] array;
+    //the bloom filter on the identity hashes of the owners of the used tranlocals.
+    public long filter;
     public int size = 0;
     public boolean hasReads = false;
     public long localConflictCount;
@@ -34,17 +44,44 @@ public final class FatFixedLengthGammaTxn extends GammaTxn {
 
         listenersArray = new Listeners[config.maxFixedLengthTransactionSize];
 
-        Tranlocal h = null;
-        for (int k = 0; k < config.maxFixedLengthTransactionSize; k++) {
-            Tranlocal newNode = new Tranlocal();
-            if (h != null) {
-                h.previous = newNode;
-                newNode.next = h;
-            }
+        array = new Tranlocal[config.maxFixedLengthTransactionSize];
+        for (int k = 0; k < array.length; k++) {
+            array[k] = new Tranlocal();
+        }
+    }
+
+    private static long filterBits(final int hash) {
+        //a long shift only uses the lowest 6 bits of the shift distance.
+        return (1L << hash) | (1L << (hash >>> 6));
+    }
+
+    /**
+     * Checks if the ref could be opened in this transaction. If false is returned, it certainly isn't.
+     *
+     * @param ref the ref to check.
+     * @return false if the ref isn't opened in this transaction, true if it could be.
+     */
+    public final boolean mightContain(final BaseGammaTxnRef ref) {
+        final long bits = filterBits(ref.identityHashCode());
+        return (filter & bits) == bits;
+    }
 
-            h = newNode;
+    /**
+     * Takes the first unused tranlocal for the ref and adds it to the transaction. The tranlocal still needs to be
+     * initialized for the ref.
+     *
+     * @param ref the ref to take the tranlocal for.
+     * @return the tranlocal, or null if the transaction is full.
+     */
+    public final Tranlocal take(final BaseGammaTxnRef ref) {
+        if (size == array.length) {
+            return null;
         }
-        head = h;
+
+        filter |= filterBits(ref.identityHashCode());
+        final Tranlocal tranlocal = array[size];
+        size++;
+        return tranlocal;
     }
 
     @Override
@@ -68,6 +105,10 @@ public final class FatFixedLengthGammaTxn extends GammaTxn {
         if (size > 0) {
             if (hasWrites) {
                 if (status == TX_ACTIVE) {
+                    if (isBlockedByIrrevocableTxn()) {
+                        throw abortOnIrrevocableTxn();
+                    }
+
                     GammaObject o = prepareChainForCommit();
                     if (o != null) {
                         throw abortOnReadWriteConflict(o);
@@ -75,10 +116,22 @@ public final class FatFixedLengthGammaTxn extends GammaTxn {
                 }
 
                 if (commitConflict) {
-                    config.globalConflictCounter.signalConflict();
+                    signalCommitConflict(array, size);
+                }
+
+                final Listeners[] listenersArray;
+                final SnapshotClock snapshotClock = config.stm.snapshotClock;
+                if (snapshotClock == null) {
+                    listenersArray = commitChain(0, 0);
+                } else {
+                    final long timestamp = snapshotClock.reserve();
+                    try {
+                        listenersArray = commitChain(timestamp, snapshotClock.getOldestSnapshot());
+                    } finally {
+                        snapshotClock.publish(timestamp);
+                    }
                 }
 
-                final Listeners[] listenersArray = commitChain();
                 if (listenersArray != null) {
                     Listeners.openAll(listenersArray, pool);
                 }
@@ -87,20 +140,23 @@ public final class FatFixedLengthGammaTxn extends GammaTxn {
             }
         }
 
+        releaseSnapshot();
         status = TX_COMMITTED;
         notifyListeners(TxnEvent.PostCommit);
     }
 
-    private Listeners[] commitChain() {
+    private Listeners[] commitChain(final long timestamp, final long oldestSnapshot) {
         int listenersIndex = 0;
-        Tranlocal node = head;
-        do {
+        final Tranlocal[] array = this.array;
+        final int size = this.size;
+        for (int k = 0; k < size; k++) {
             if (SHAKE_BUGS) shakeBugs();
 
+            final Tranlocal node = array[k];
             final BaseGammaTxnRef owner = node.owner;
-            //if we are at the end, we can return the listenersArray.
-            if (owner == null) {
-                return listenersArray;
+
+            if (timestamp != 0 && node.isDirty) {
+                owner.installVersion(node, timestamp, oldestSnapshot);
             }
 
             final Listeners listeners = owner.commit(node, pool);
@@ -108,8 +164,7 @@ public final class FatFixedLengthGammaTxn extends GammaTxn {
                 listenersArray[listenersIndex] = listeners;
                 listenersIndex++;
             }
-            node = node.next;
-        } while (node != null);
+        }
 
         return listenersArray;
     }
@@ -130,6 +185,10 @@ public final class FatFixedLengthGammaTxn extends GammaTxn {
 
         notifyListeners(TxnEvent.PrePrepare);
 
+        if (hasWrites && isBlockedByIrrevocableTxn()) {
+            throw abortOnIrrevocableTxn();
+        }
+
         GammaObject o = prepareChainForCommit();
         if (o != null) {
             throw abortOnReadWriteConflict(o);
@@ -144,22 +203,17 @@ public final class FatFixedLengthGammaTxn extends GammaTxn {
             return null;
         }
 
-        Tranlocal node = head;
-
-        do {
+        final Tranlocal[] array = this.array;
+        final int size = this.size;
+        for (int k = 0; k < size; k++) {
+            final Tranlocal node = array[k];
             final BaseGammaTxnRef owner = node.owner;
 
-            if (owner == null) {
-                return null;
-            }
-
             if (SHAKE_BUGS) shakeBugs();
             if (!owner.prepare(this, node)) {
                 return owner;
             }
-
-            node = node.next;
-        } while (node != null);
+        }
 
         return null;
     }
@@ -175,17 +229,20 @@ public final class FatFixedLengthGammaTxn extends GammaTxn {
         }
 
         releaseChain(false);
+        releaseSnapshot();
         status = TX_ABORTED;
         notifyListeners(TxnEvent.PostAbort);
     }
 
     private void releaseChain(final boolean success) {
-        Tranlocal node = head;
-        while (node != null) {
+        final Tranlocal[] array = this.array;
+        final int size = this.size;
+        for (int k = 0; k < size; k++) {
+            final Tranlocal node = array[k];
             final BaseGammaTxnRef owner = node.owner;
 
             if (owner == null) {
-                return;
+                continue;
             }
 
             if (SHAKE_BUGS) shakeBugs();
@@ -194,29 +251,32 @@ public final class FatFixedLengthGammaTxn extends GammaTxn {
             } else {
                 owner.releaseAfterFailure(node, pool);
             }
-
-            node = node.next;
         }
     }
 
     @Override
     public final Tranlocal getRefTranlocal(final BaseGammaTxnRef ref) {
-        Tranlocal node = head;
-        while (node != null) {
+        if (!mightContain(ref)) {
+            return null;
+        }
+
+        final Tranlocal[] array = this.array;
+        //the most recently opened ref is the most likely one to be opened again, so the search starts at the end.
+        for (int k = size - 1; k >= 0; k--) {
+            final Tranlocal node = array[k];
             //noinspection ObjectEquality
             if (node.owner == ref) {
                 return node;
             }
-
-            if (node.owner == null) {
-                return null;
-            }
-
-            node = node.next;
         }
         return null;
     }
 
+    @Override
+    public final int size() {
+        return size;
+    }
+
     @Override
     public final void retry() {
         if (status != TX_ACTIVE) {
@@ -237,8 +297,10 @@ public final class FatFixedLengthGammaTxn extends GammaTxn {
         boolean furtherRegistrationNeeded = true;
         boolean atLeastOneRegistration = false;
 
-        Tranlocal tranlocal = head;
-        do {
+        final Tranlocal[] array = this.array;
+        final int size = this.size;
+        for (int k = 0; k < size; k++) {
+            final Tranlocal tranlocal = array[k];
             final BaseGammaTxnRef owner = tranlocal.owner;
 
             if (furtherRegistrationNeeded) {
@@ -258,9 +320,9 @@ public final class FatFixedLengthGammaTxn extends GammaTxn {
             }
 
             owner.releaseAfterFailure(tranlocal, pool);
-            tranlocal = tranlocal.next;
-        } while (tranlocal != null && tranlocal.owner != null);
+        }
 
+        releaseSnapshot();
         status = TX_ABORTED;
 
         if (!atLeastOneRegistration) {
@@ -295,18 +357,22 @@ public final class FatFixedLengthGammaTxn extends GammaTxn {
         status = TX_ACTIVE;
         hasWrites = false;
         size = 0;
+        filter = 0;
         remainingTimeoutNs = config.timeoutNs;
         richmansMansConflictScan = config.speculativeConfiguration.get().richMansConflictScanRequired;
         attempt = 1;
+        irrevocable = false;
         hasReads = false;
         abortOnly = false;
         commitConflict = false;
         evaluatingCommute = false;
+        clearConflictDomains();
+        releaseSnapshot();
     }
 
     @Override
     public final boolean softReset() {
-        if (attempt >= config.getMaxRetries()) {
+        if (attempt >= config.getMaxRetries() && !irrevocable) {
             return false;
         }
 
@@ -320,30 +386,16 @@ public final class FatFixedLengthGammaTxn extends GammaTxn {
         status = TX_ACTIVE;
         hasWrites = false;
         size = 0;
+        filter = 0;
         hasReads = false;
         abortOnly = false;
         attempt++;
         evaluatingCommute = false;
+        clearConflictDomains();
+        releaseSnapshot();
         return true;
     }
 
-    public final void shiftInFront(Tranlocal newHead) {
-        //noinspection ObjectEquality
-        if (newHead == head) {
-            return;
-        }
-
-
-        head.previous = newHead;
-        if (newHead.next != null) {
-            newHead.next.previous = newHead.previous;
-        }
-        newHead.previous.next = newHead.next;
-        newHead.next = head;
-        newHead.previous = null;
-        head = newHead;
-    }
-
     @Override
     public final boolean isReadConsistent(Tranlocal justAdded) {
         if (!hasReads) {
@@ -362,8 +414,9 @@ public final class FatFixedLengthGammaTxn extends GammaTxn {
             if (SHAKE_BUGS) shakeBugs();
 
             final long currentConflictCount = config.globalConflictCounter.count();
+            final boolean domainConflict = domainConflictCounterCount > 0 && updateDomainConflictCounts();
 
-            if (localConflictCount == currentConflictCount) {
+            if (localConflictCount == currentConflictCount && !domainConflict) {
                 return true;
             }
 
@@ -374,21 +427,16 @@ public final class FatFixedLengthGammaTxn extends GammaTxn {
         }
 
         //doing a full conflict scan
-        Tranlocal node = head;
-        while (node != null) {
+        final Tranlocal[] array = this.array;
+        final int size = this.size;
+        for (int k = 0; k < size; k++) {
             if (SHAKE_BUGS) shakeBugs();
 
-            //if we are at the end, we are done.
-            if (node.owner == null) {
-                break;
-            }
-
+            final Tranlocal node = array[k];
             final boolean skip = !richmansMansConflictScan && node == justAdded;
             if (!skip && node.owner.hasReadConflict(node)) {
                 return false;
             }
-
-            node = node.next;
         }
 
         return true;
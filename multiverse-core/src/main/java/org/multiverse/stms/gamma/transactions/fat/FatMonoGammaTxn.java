@@ -3,6 +3,7 @@ package org.multiverse.stms.gamma.transactions.fat;
 import org.multiverse.api.lifecycle.TxnEvent;
 import org.multiverse.stms.gamma.GammaStm;
 import org.multiverse.stms.gamma.Listeners;
+import org.multiverse.stms.gamma.SnapshotClock;
 import org.multiverse.stms.gamma.transactionalobjects.BaseGammaTxnRef;
 import org.multiverse.stms.gamma.transactionalobjects.Tranlocal;
 import org.multiverse.stms.gamma.transactions.GammaTxn;
@@ -57,6 +58,10 @@ public final class FatMonoGammaTxn extends GammaTxn {
         if (owner != null) {
             if (hasWrites) {
                 if (status == TX_ACTIVE) {
+                    if (isBlockedByIrrevocableTxn()) {
+                        throw abortOnIrrevocableTxn();
+                    }
+
                     if (!skipPrepare()) {
                         if (!owner.prepare(this, tranlocal)) {
                             throw abortOnReadWriteConflict(owner);
@@ -65,10 +70,23 @@ public final class FatMonoGammaTxn extends GammaTxn {
                 }
 
                 if (commitConflict) {
-                    config.globalConflictCounter.signalConflict();
+                    owner.conflictCounter.signalConflict();
+                }
+
+                final Listeners listeners;
+                final SnapshotClock snapshotClock = config.stm.snapshotClock;
+                if (snapshotClock == null || !tranlocal.isDirty) {
+                    listeners = owner.commit(tranlocal, pool);
+                } else {
+                    final long timestamp = snapshotClock.reserve();
+                    try {
+                        owner.installVersion(tranlocal, timestamp, snapshotClock.getOldestSnapshot());
+                        listeners = owner.commit(tranlocal, pool);
+                    } finally {
+                        snapshotClock.publish(timestamp);
+                    }
                 }
 
-                Listeners listeners = owner.commit(tranlocal, pool);
                 if (listeners != null) {
                     listeners.openAll(pool);
                 }
@@ -78,6 +96,7 @@ public final class FatMonoGammaTxn extends GammaTxn {
         }
 
         tranlocal.owner = null;
+        releaseSnapshot();
         status = TX_COMMITTED;
         notifyListeners(TxnEvent.PostCommit);
     }
@@ -97,6 +116,7 @@ public final class FatMonoGammaTxn extends GammaTxn {
         if (owner != null) {
             owner.releaseAfterFailure(tranlocal, pool);
         }
+        releaseSnapshot();
 
         notifyListeners(TxnEvent.PostAbort);
     }
@@ -119,6 +139,10 @@ public final class FatMonoGammaTxn extends GammaTxn {
 
         final BaseGammaTxnRef owner = tranlocal.owner;
         if (owner != null) {
+            if (hasWrites && isBlockedByIrrevocableTxn()) {
+                throw abortOnIrrevocableTxn();
+            }
+
             if (!owner.prepare(this, tranlocal)) {
                 throw abortOnReadWriteConflict(owner);
             }
@@ -133,6 +157,11 @@ public final class FatMonoGammaTxn extends GammaTxn {
         return tranlocal.owner == ref ? tranlocal : null;
     }
 
+    @Override
+    public final int size() {
+        return tranlocal.owner == null ? 0 : 1;
+    }
+
     @Override
     public final void retry() {
         if (status != TX_ACTIVE) {
@@ -170,6 +199,7 @@ public final class FatMonoGammaTxn extends GammaTxn {
         }
 
         owner.releaseAfterFailure(tranlocal, pool);
+        releaseSnapshot();
 
         status = TX_ABORTED;
 
@@ -182,7 +212,7 @@ public final class FatMonoGammaTxn extends GammaTxn {
 
     @Override
     public final boolean softReset() {
-        if (attempt >= config.getMaxRetries()) {
+        if (attempt >= config.getMaxRetries() && !irrevocable) {
             return false;
         }
 
@@ -198,6 +228,7 @@ public final class FatMonoGammaTxn extends GammaTxn {
         abortOnly = false;
         commitConflict = false;
         evaluatingCommute = false;
+        releaseSnapshot();
         return true;
     }
 
@@ -213,9 +244,11 @@ public final class FatMonoGammaTxn extends GammaTxn {
         hasWrites = false;
         remainingTimeoutNs = config.timeoutNs;
         attempt = 1;
+        irrevocable = false;
         abortOnly = false;
         commitConflict = false;
         evaluatingCommute = false;
+        releaseSnapshot();
     }
 
     @Override
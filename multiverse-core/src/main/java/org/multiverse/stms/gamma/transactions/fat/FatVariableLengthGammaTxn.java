@@ -3,6 +3,7 @@ package org.multiverse.stms.gamma.transactions.fat;
 import org.multiverse.api.lifecycle.TxnEvent;
 import org.multiverse.stms.gamma.GammaStm;
 import org.multiverse.stms.gamma.Listeners;
+import org.multiverse.stms.gamma.SnapshotClock;
 import org.multiverse.stms.gamma.transactionalobjects.BaseGammaTxnRef;
 import org.multiverse.stms.gamma.transactionalobjects.GammaObject;
 import org.multiverse.stms.gamma.transactionalobjects.Tranlocal;
@@ -12,10 +13,33 @@ import org.multiverse.stms.gamma.transactions.SpeculativeGammaConfiguration;
 
 import static org.multiverse.utils.Bugshaker.shakeBugs;
 
+/**
+ * A fat {@link GammaTxn} that can contain an unbounded number of transactional objects.
+ * <p/>
+ * The tranlocals are stored densely in the order they are opened in the {@link #array} (so the first {@link #size}
+ * entries are used) and are found using a separate open addressing index with linear probing. The index has a
+ * power of two length and is at least twice as large as the array, so it is never more than half full and a probe
+ * sequence is short. Commit, abort, retry and the conflict scan only iterate over the used part of the array and
+ * growing the array doesn't need to move the tranlocals around, only the index is rebuilt (if it has become too
+ * small). The index and the filter are kept when the transaction is reset and only the slots of the attached
+ * tranlocals are cleared, so a reset doesn't depend on the capacity the transaction has grown to.
+ * <p/>
+ * In front of the index there is a bloom filter on the identity hashes of the attached tranlocals (with 8 bits per
+ * tranlocal when the array is full), so a lookup of a ref that isn't part of the transaction, the common case when a
+ * ref is opened, normally is rejected without touching the index and the tranlocals.
+ *
+ * @author Peter Veentjer.
+ */
 @SuppressWarnings({"OverlyComplexClass"})
 public final class FatVariableLengthGammaTxn extends GammaTxn {
 
     public Tranlocal[] array;
+    //a slot contains the position in the array + 1, 0 means the slot is free.
+    public int[] index;
+    //the bloom filter on the identity hashes of the attached tranlocals, the length is a power of two.
+    public long[] filter;
+    //the identity hashes of the attached tranlocals by position, so a reset only needs to clear the used slots.
+    public int[] hashes;
     public int size = 0;
     public boolean hasReads = false;
     public long localConflictCount;
@@ -29,6 +53,28 @@ public final class FatVariableLengthGammaTxn extends GammaTxn {
         this.array = new Tranlocal[config.minimalArrayTreeSize];
     }
 
+    private static int indexLength(int arrayLength) {
+        int length = 2;
+        while (length < 2 * arrayLength) {
+            length <<= 1;
+        }
+        return length;
+    }
+
+    private static int slot(int hash, int mask) {
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private static int filterLength(int indexLength) {
+        //4 bits per slot of the index.
+        return indexLength < 16 ? 1 : indexLength >> 4;
+    }
+
+    private static long filterBits(int hash) {
+        //a long shift only uses the lowest 6 bits of the shift distance.
+        return (1L << hash) | (1L << (hash >>> 6));
+    }
+
     @Override
     public final void commit() {
         if (status == TX_COMMITTED) {
@@ -50,6 +96,10 @@ public final class FatVariableLengthGammaTxn extends GammaTxn {
         if (size > 0) {
             if (hasWrites) {
                 if (status == TX_ACTIVE) {
+                    if (isBlockedByIrrevocableTxn()) {
+                        throw abortOnIrrevocableTxn();
+                    }
+
                     GammaObject conflictingObject = doPrepare();
                     if (conflictingObject != null) {
                         throw abortOnReadWriteConflict(conflictingObject);
@@ -57,10 +107,21 @@ public final class FatVariableLengthGammaTxn extends GammaTxn {
                 }
 
                 if (commitConflict) {
-                    config.globalConflictCounter.signalConflict();
+                    signalCommitConflict(array, size);
                 }
 
-                Listeners[] listenersArray = commitArray();
+                final Listeners[] listenersArray;
+                final SnapshotClock snapshotClock = config.stm.snapshotClock;
+                if (snapshotClock == null) {
+                    listenersArray = commitArray(0, 0);
+                } else {
+                    final long timestamp = snapshotClock.reserve();
+                    try {
+                        listenersArray = commitArray(timestamp, snapshotClock.getOldestSnapshot());
+                    } finally {
+                        snapshotClock.publish(timestamp);
+                    }
+                }
 
                 if (listenersArray != null) {
                     Listeners.openAll(listenersArray, pool);
@@ -71,26 +132,26 @@ public final class FatVariableLengthGammaTxn extends GammaTxn {
             }
         }
 
+        releaseSnapshot();
         status = TX_COMMITTED;
         notifyListeners(TxnEvent.PostCommit);
     }
 
-    private Listeners[] commitArray() {
+    private Listeners[] commitArray(final long timestamp, final long oldestSnapshot) {
         Listeners[] listenersArray = null;
 
         int listenersIndex = 0;
         int itemCount = 0;
         //first write everything without releasing
-        for (int k = 0; k < array.length; k++) {
+        for (int k = 0; k < size; k++) {
             if (SHAKE_BUGS) shakeBugs();
 
             final Tranlocal tranlocal = array[k];
-
-            if (tranlocal == null) {
-                continue;
+            final BaseGammaTxnRef owner = tranlocal.owner;
+            if (timestamp != 0 && tranlocal.isDirty) {
+                owner.installVersion(tranlocal, timestamp, oldestSnapshot);
             }
 
-            final BaseGammaTxnRef owner = tranlocal.owner;
             final Listeners listeners = owner.commit(tranlocal, pool);
 
             if (listeners != null) {
@@ -108,8 +169,7 @@ public final class FatVariableLengthGammaTxn extends GammaTxn {
     }
 
     private void releaseArray(boolean success) {
-        for (int k = 0; k < array.length; k++) {
-
+        for (int k = 0; k < size; k++) {
             final Tranlocal tranlocal = array[k];
 
             if (tranlocal != null) {
@@ -143,6 +203,10 @@ public final class FatVariableLengthGammaTxn extends GammaTxn {
         notifyListeners(TxnEvent.PrePrepare);
 
         if (hasWrites) {
+            if (isBlockedByIrrevocableTxn()) {
+                throw abortOnIrrevocableTxn();
+            }
+
             final GammaObject conflictingObject = doPrepare();
             if (conflictingObject != null) {
                 throw abortOnReadWriteConflict(conflictingObject);
@@ -158,15 +222,10 @@ public final class FatVariableLengthGammaTxn extends GammaTxn {
             return null;
         }
 
-        for (int k = 0; k < array.length; k++) {
+        for (int k = 0; k < size; k++) {
             if (SHAKE_BUGS) shakeBugs();
 
             final Tranlocal tranlocal = array[k];
-
-            if (tranlocal == null) {
-                continue;
-            }
-
             final BaseGammaTxnRef owner = tranlocal.owner;
 
             if (!owner.prepare(this, tranlocal)) {
@@ -191,6 +250,7 @@ public final class FatVariableLengthGammaTxn extends GammaTxn {
             releaseArray(false);
         }
 
+        releaseSnapshot();
         status = TX_ABORTED;
 
         notifyListeners(TxnEvent.PostAbort);
@@ -235,12 +295,8 @@ public final class FatVariableLengthGammaTxn extends GammaTxn {
         boolean furtherRegistrationNeeded = true;
         boolean atLeastOneRegistration = false;
 
-        for (int k = 0; k < array.length; k++) {
+        for (int k = 0; k < size; k++) {
             final Tranlocal tranlocal = array[k];
-            if (tranlocal == null) {
-                continue;
-            }
-
             array[k] = null;
 
             final BaseGammaTxnRef owner = tranlocal.owner;
@@ -265,6 +321,7 @@ public final class FatVariableLengthGammaTxn extends GammaTxn {
             pool.put(tranlocal);
         }
 
+        releaseSnapshot();
         status = TX_ABORTED;
 
         if (!atLeastOneRegistration) {
@@ -276,18 +333,20 @@ public final class FatVariableLengthGammaTxn extends GammaTxn {
 
     @Override
     public final boolean softReset() {
-        if (attempt >= config.getMaxRetries()) {
+        if (attempt >= config.getMaxRetries() && !irrevocable) {
             return false;
         }
 
         status = TX_ACTIVE;
         hasReads = false;
         hasWrites = false;
-        size = 0;
+        clearAttached();
         abortOnly = false;
         attempt++;
         commitConflict = false;
         evaluatingCommute = false;
+        clearConflictDomains();
+        releaseSnapshot();
         if (listeners != null) {
             listeners.clear();
             pool.putArrayList(listeners);
@@ -302,26 +361,68 @@ public final class FatVariableLengthGammaTxn extends GammaTxn {
         status = TX_ACTIVE;
         hasReads = false;
         hasWrites = false;
-        size = 0;
+        clearAttached();
         abortOnly = false;
 
         attempt = 1;
+        irrevocable = false;
         remainingTimeoutNs = config.timeoutNs;
-        //todo: only change when the array size is different.
-        if (array != null) {
-            pool.putTranlocalArray(array);
+        //the tranlocal array is pooled, but an index that has grown is kept (it is cleared in O(size)), so growing
+        //the array again doesn't need to allocate and rebuild the index.
+        if (array == null || array.length != config.minimalArrayTreeSize) {
+            if (array != null) {
+                pool.putTranlocalArray(array);
+            }
+            array = pool.takeTranlocalArray(config.minimalArrayTreeSize);
+        }
+        final int indexLength = indexLength(array.length);
+        if (index == null || index.length < indexLength) {
+            index = new int[indexLength];
+            filter = new long[filterLength(indexLength)];
+        }
+        if (hashes == null || hashes.length < array.length) {
+            hashes = new int[array.length];
         }
-        array = pool.takeTranlocalArray(config.minimalArrayTreeSize);
         final SpeculativeGammaConfiguration speculativeConfig = config.speculativeConfiguration.get();
         richmansMansConflictScan = speculativeConfig.richMansConflictScanRequired;
         commitConflict = false;
         evaluatingCommute = false;
+        clearConflictDomains();
+        releaseSnapshot();
         if (listeners != null) {
             listeners.clear();
             pool.putArrayList(listeners);
             listeners = null;
         }
+    }
+
+    /**
+     * Removes the attached tranlocals from the array, the index and the bloom filter. Only the slots used by the first
+     * {@link #size} entries are cleared, so the cost depends on the size of the transaction and not on the capacity it
+     * has grown to.
+     */
+    private void clearAttached() {
+        if (size == 0) {
+            return;
+        }
+
+        final int[] index = this.index;
+        final int mask = index.length - 1;
+        final int filterMask = filter.length - 1;
+        for (int k = 0; k < size; k++) {
+            array[k] = null;
+
+            final int hash = hashes[k];
+            filter[(hash >>> 12) & filterMask] = 0;
 
+            //the entry is somewhere in the probe sequence of its hash; slots of entries cleared before are skipped.
+            int slot = slot(hash, mask);
+            while (index[slot] != k + 1) {
+                slot = (slot + 1) & mask;
+            }
+            index[slot] = 0;
+        }
+        size = 0;
     }
 
     @Override
@@ -349,8 +450,9 @@ public final class FatVariableLengthGammaTxn extends GammaTxn {
             if (SHAKE_BUGS) shakeBugs();
 
             final long conflictCount = config.globalConflictCounter.count();
+            final boolean domainConflict = domainConflictCounterCount > 0 && updateDomainConflictCounts();
 
-            if (localConflictCount == conflictCount) {
+            if (localConflictCount == conflictCount && !domainConflict) {
                 return true;
             }
 
@@ -361,13 +463,13 @@ public final class FatVariableLengthGammaTxn extends GammaTxn {
         }
 
         //doing a full conflict scan
-        for (int k = 0; k < array.length; k++) {
+        for (int k = 0; k < size; k++) {
             if (SHAKE_BUGS) shakeBugs();
 
             final Tranlocal tranlocal = array[k];
 
             //noinspection ObjectEquality
-            final boolean skip = tranlocal == null || (!richmansMansConflictScan && justAdded == tranlocal);
+            final boolean skip = !richmansMansConflictScan && justAdded == tranlocal;
 
             if (!skip && tranlocal.owner.hasReadConflict(tranlocal)) {
                 return false;
@@ -381,75 +483,88 @@ public final class FatVariableLengthGammaTxn extends GammaTxn {
         return (size * 1.0f) / array.length;
     }
 
+    @Override
     public final int size() {
         return size;
     }
 
     public final int indexOf(final BaseGammaTxnRef ref, final int hash) {
-        int jump = 0;
-        boolean goLeft = true;
+        final long bits = filterBits(hash);
+        if ((filter[(hash >>> 12) & (filter.length - 1)] & bits) != bits) {
+            return -1;
+        }
+
+        final int[] index = this.index;
+        final int mask = index.length - 1;
+        int slot = slot(hash, mask);
 
-        do {
-            final int offset = goLeft ? -jump : jump;
-            final int index = (hash + offset) % array.length;
+        while (true) {
+            final int position = index[slot];
+            if (position == 0) {
+                return -1;
+            }
 
-            final Tranlocal current = array[index];
-            if (current == null || current.owner == null) {
+            final Tranlocal current = array[position - 1];
+            if (current == null) {
+                //the array is released (after an abort or retry).
                 return -1;
             }
 
             //noinspection ObjectEquality
             if (current.owner == ref) {
-                return index;
+                return position - 1;
             }
 
-            final int currentHash = current.owner.identityHashCode();
-            goLeft = currentHash > hash;
-            jump = jump == 0 ? 1 : jump * 2;
-        } while (jump < array.length);
-
-        return -1;
+            slot = (slot + 1) & mask;
+        }
     }
 
+    /**
+     * Attaches the tranlocal at the end of the array. The caller is responsible for incrementing the size.
+     *
+     * @param tranlocal the Tranlocal to attach.
+     * @param hash      the identity hash of the owner of the tranlocal.
+     */
     public final void attach(final Tranlocal tranlocal, final int hash) {
-        int jump = 0;
-        boolean goLeft = true;
-
-        do {
-            final int offset = goLeft ? -jump : jump;
-            final int index = (hash + offset) % array.length;
+        if (size == array.length) {
+            expand();
+        }
 
-            Tranlocal current = array[index];
-            if (current == null) {
-                array[index] = tranlocal;
-                return;
-            }
+        array[size] = tranlocal;
+        hashes[size] = hash;
+        insert(hash, size + 1);
+    }
 
-            final int currentHash = current.owner.identityHashCode();
-            goLeft = currentHash > hash;
-            jump = jump == 0 ? 1 : jump * 2;
-        } while (jump < array.length);
+    private void insert(final int hash, final int position) {
+        filter[(hash >>> 12) & (filter.length - 1)] |= filterBits(hash);
 
-        expand();
-        attach(tranlocal, hash);
+        final int mask = index.length - 1;
+        int slot = slot(hash, mask);
+        while (index[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        index[slot] = position;
     }
 
     private void expand() {
-        Tranlocal[] oldArray = array;
-        int newSize = oldArray.length * 2;
-        array = pool.takeTranlocalArray(newSize);
+        final Tranlocal[] oldArray = array;
+        array = pool.takeTranlocalArray(oldArray.length * 2);
+        System.arraycopy(oldArray, 0, array, 0, size);
+        pool.putTranlocalArray(oldArray);
 
-        for (int k = 0; k < oldArray.length; k++) {
-            final Tranlocal tranlocal = oldArray[k];
+        if (hashes.length < array.length) {
+            final int[] oldHashes = hashes;
+            hashes = new int[array.length];
+            System.arraycopy(oldHashes, 0, hashes, 0, size);
+        }
 
-            if (tranlocal == null) {
-                continue;
+        final int indexLength = indexLength(array.length);
+        if (indexLength > index.length) {
+            index = new int[indexLength];
+            filter = new long[filterLength(indexLength)];
+            for (int k = 0; k < size; k++) {
+                insert(hashes[k], k + 1);
             }
-
-            oldArray[k] = null;
-            attach(tranlocal, tranlocal.owner.identityHashCode());
         }
-
-        pool.putTranlocalArray(oldArray);
     }
 }
@@ -2,6 +2,7 @@ package org.multiverse.stms.gamma.transactions.lean;
 
 import org.multiverse.stms.gamma.GammaStm;
 import org.multiverse.stms.gamma.Listeners;
+import org.multiverse.stms.gamma.SnapshotClock;
 import org.multiverse.stms.gamma.transactionalobjects.BaseGammaTxnRef;
 import org.multiverse.stms.gamma.transactionalobjects.GammaObject;
 import org.multiverse.stms.gamma.transactionalobjects.Tranlocal;
@@ -13,10 +14,15 @@ import static org.multiverse.utils.Bugshaker.shakeBugs;
 
 /**
  * A Lean GammaTxn that is optimized for a fixed number of GammaTxnRefs.
+ * <p/>
+ * The tranlocals are preallocated in an array and the first 'size' of them are in use, in the order the refs are
+ * opened. So a lookup, the commit and the conflict scan walk over a contiguous part of the array instead of chasing
+ * pointers through a linked list of tranlocals.
  */
 public final class LeanFixedLengthGammaTxn extends GammaTxn {
 
-    public Tranlocal head;
+    //the tranlocals, the first 'size' of them are in use.
+    public final Tranlocal[] array;
     public int size = 0;
     public boolean hasReads = false;
     public final Listeners[] listenersArray;
@@ -31,17 +37,10 @@ public final class LeanFixedLengthGammaTxn extends GammaTxn {
 
         listenersArray = new Listeners[config.maxFixedLengthTransactionSize];
 
-        Tranlocal h = null;
-        for (int k = 0; k < config.maxFixedLengthTransactionSize; k++) {
-            Tranlocal newNode = new Tranlocal();
-            if (h != null) {
-                h.previous = newNode;
-                newNode.next = h;
-            }
-
-            h = newNode;
+        array = new Tranlocal[config.maxFixedLengthTransactionSize];
+        for (int k = 0; k < array.length; k++) {
+            array[k] = new Tranlocal();
         }
-        head = h;
     }
 
     @Override
@@ -63,6 +62,10 @@ public final class LeanFixedLengthGammaTxn extends GammaTxn {
 
         if (hasWrites) {
             if (s == TX_ACTIVE) {
+                if (isBlockedByIrrevocableTxn()) {
+                    throw abortOnIrrevocableTxn();
+                }
+
                 GammaObject conflictingObject = prepareChainForCommit();
                 if (conflictingObject != null) {
                     throw abortOnReadWriteConflict(conflictingObject);
@@ -70,26 +73,20 @@ public final class LeanFixedLengthGammaTxn extends GammaTxn {
             }
 
             if (commitConflict) {
-                config.globalConflictCounter.signalConflict();
+                signalCommitConflict(array, size);
             }
 
-            int listenersIndex = 0;
-            Tranlocal node = head;
-            do {
-                final BaseGammaTxnRef owner = node.owner;
-
-                if (owner == null) {
-                    break;
-                }
-                if (SHAKE_BUGS) shakeBugs();
-
-                final Listeners listeners = owner.leanCommit(node);
-                if (listeners != null) {
-                    listenersArray[listenersIndex] = listeners;
-                    listenersIndex++;
+            final SnapshotClock snapshotClock = config.stm.snapshotClock;
+            if (snapshotClock == null) {
+                commitChain(0, 0);
+            } else {
+                final long timestamp = snapshotClock.reserve();
+                try {
+                    commitChain(timestamp, snapshotClock.getOldestSnapshot());
+                } finally {
+                    snapshotClock.publish(timestamp);
                 }
-                node = node.next;
-            } while (node != null);
+            }
 
             if (listenersArray != null) {
                 Listeners.openAll(listenersArray, pool);
@@ -101,6 +98,28 @@ public final class LeanFixedLengthGammaTxn extends GammaTxn {
         status = TX_COMMITTED;
     }
 
+    private void commitChain(final long timestamp, final long oldestSnapshot) {
+        int listenersIndex = 0;
+        final Tranlocal[] array = this.array;
+        final int size = this.size;
+        for (int k = 0; k < size; k++) {
+            final Tranlocal node = array[k];
+            final BaseGammaTxnRef owner = node.owner;
+
+            if (SHAKE_BUGS) shakeBugs();
+
+            if (timestamp != 0 && node.mode != TRANLOCAL_READ) {
+                owner.installVersion(node, timestamp, oldestSnapshot);
+            }
+
+            final Listeners listeners = owner.leanCommit(node);
+            if (listeners != null) {
+                listenersArray[listenersIndex] = listeners;
+                listenersIndex++;
+            }
+        }
+    }
+
     @Override
     public final void prepare() {
         if (status == TX_PREPARED) {
@@ -111,6 +130,10 @@ public final class LeanFixedLengthGammaTxn extends GammaTxn {
             throw abortPrepareOnBadStatus();
         }
 
+        if (hasWrites && isBlockedByIrrevocableTxn()) {
+            throw abortOnIrrevocableTxn();
+        }
+
         final GammaObject conflictingObject = prepareChainForCommit();
         if (conflictingObject != null) {
             throw abortOnReadWriteConflict(conflictingObject);
@@ -121,14 +144,12 @@ public final class LeanFixedLengthGammaTxn extends GammaTxn {
 
     @SuppressWarnings({"BooleanMethodIsAlwaysInverted"})
     private GammaObject prepareChainForCommit() {
-        Tranlocal node = head;
-        do {
+        final Tranlocal[] array = this.array;
+        final int size = this.size;
+        for (int k = 0; k < size; k++) {
+            final Tranlocal node = array[k];
             final BaseGammaTxnRef owner = node.owner;
 
-            if (owner == null) {
-                return null;
-            }
-
             if (SHAKE_BUGS) shakeBugs();
 
             if (node.mode == TRANLOCAL_READ) {
@@ -156,9 +177,7 @@ public final class LeanFixedLengthGammaTxn extends GammaTxn {
             if (owner.version != version) {
                 return owner;
             }
-
-            node = node.next;
-        } while (node != null);
+        }
 
         return null;
     }
@@ -178,12 +197,14 @@ public final class LeanFixedLengthGammaTxn extends GammaTxn {
     }
 
     private void releaseChainForAbort() {
-        Tranlocal node = head;
-        do {
+        final Tranlocal[] array = this.array;
+        final int size = this.size;
+        for (int k = 0; k < size; k++) {
+            final Tranlocal node = array[k];
             final BaseGammaTxnRef owner = node.owner;
 
             if (owner == null) {
-                return;
+                continue;
             }
 
             if (SHAKE_BUGS) shakeBugs();
@@ -203,46 +224,44 @@ public final class LeanFixedLengthGammaTxn extends GammaTxn {
             node.owner = null;
             node.ref_oldValue = null;
             node.ref_value = null;
-            node = node.next;
-        } while (node != null);
+            node.hasCopiedRefValue = false;
+        }
     }
 
     private void releaseReadonlyChain() {
-        Tranlocal node = head;
-        do {
-            final BaseGammaTxnRef owner = node.owner;
-
-            if (owner == null) {
-                return;
-            }
+        final Tranlocal[] array = this.array;
+        final int size = this.size;
+        for (int k = 0; k < size; k++) {
+            final Tranlocal node = array[k];
 
             if (SHAKE_BUGS) shakeBugs();
 
             node.owner = null;
             node.ref_oldValue = null;
             node.ref_value = null;
-            node = node.next;
-        } while (node != null);
+            node.hasCopiedRefValue = false;
+        }
     }
 
     @Override
     public final Tranlocal getRefTranlocal(final BaseGammaTxnRef ref) {
-        Tranlocal node = head;
-        do {
+        final Tranlocal[] array = this.array;
+        //the most recently opened ref is the most likely one to be opened again, so the search starts at the end.
+        for (int k = size - 1; k >= 0; k--) {
+            final Tranlocal node = array[k];
             //noinspection ObjectEquality
             if (node.owner == ref) {
                 return node;
             }
-
-            if (node.owner == null) {
-                return null;
-            }
-
-            node = node.next;
-        } while (node != null);
+        }
         return null;
     }
 
+    @Override
+    public final int size() {
+        return size;
+    }
+
     @Override
     public final void retry() {
         if (status != TX_ACTIVE) {
@@ -263,8 +282,10 @@ public final class LeanFixedLengthGammaTxn extends GammaTxn {
         boolean furtherRegistrationNeeded = true;
         boolean atLeastOneRegistration = false;
 
-        Tranlocal tranlocal = head;
-        do {
+        final Tranlocal[] array = this.array;
+        final int size = this.size;
+        for (int k = 0; k < size; k++) {
+            final Tranlocal tranlocal = array[k];
             final BaseGammaTxnRef owner = tranlocal.owner;
 
             if (furtherRegistrationNeeded) {
@@ -284,8 +305,7 @@ public final class LeanFixedLengthGammaTxn extends GammaTxn {
             }
 
             owner.releaseAfterFailure(tranlocal, pool);
-            tranlocal = tranlocal.next;
-        } while (tranlocal != null && tranlocal.owner != null);
+        }
 
         status = TX_ABORTED;
 
@@ -317,13 +337,14 @@ public final class LeanFixedLengthGammaTxn extends GammaTxn {
         size = 0;
         remainingTimeoutNs = config.timeoutNs;
         attempt = 1;
+        irrevocable = false;
         commitConflict = false;
         hasReads = false;
     }
 
     @Override
     public final boolean softReset() {
-        if (attempt >= config.getMaxRetries()) {
+        if (attempt >= config.getMaxRetries() && !irrevocable) {
             return false;
         }
 
@@ -336,22 +357,6 @@ public final class LeanFixedLengthGammaTxn extends GammaTxn {
         return true;
     }
 
-    public final void shiftInFront(Tranlocal newHead) {
-        //noinspection ObjectEquality
-        if (newHead == head) {
-            return;
-        }
-
-        head.previous = newHead;
-        if (newHead.next != null) {
-            newHead.next.previous = newHead.previous;
-        }
-        newHead.previous.next = newHead.next;
-        newHead.next = head;
-        newHead.previous = null;
-        head = newHead;
-    }
-
     @Override
     public void initLocalConflictCounter() {
         //ignore
@@ -2,6 +2,7 @@ package org.multiverse.stms.gamma.transactions.lean;
 
 import org.multiverse.stms.gamma.GammaStm;
 import org.multiverse.stms.gamma.Listeners;
+import org.multiverse.stms.gamma.SnapshotClock;
 import org.multiverse.stms.gamma.transactionalobjects.BaseGammaTxnRef;
 import org.multiverse.stms.gamma.transactionalobjects.Tranlocal;
 import org.multiverse.stms.gamma.transactions.GammaTxn;
@@ -59,6 +60,7 @@ public final class LeanMonoGammaTxn extends GammaTxn {
         if (!hasWrites) {
             tranlocal.owner = null;
             tranlocal.ref_value = null;
+            tranlocal.hasCopiedRefValue = false;
             status = TX_COMMITTED;
             return;
         }
@@ -67,6 +69,10 @@ public final class LeanMonoGammaTxn extends GammaTxn {
 
         //if the transaction still is active, we need to prepare the transaction.
         if (status == TX_ACTIVE) {
+            if (isBlockedByIrrevocableTxn()) {
+                throw abortOnIrrevocableTxn();
+            }
+
             if (owner.version != version) {
                 throw abortOnReadWriteConflict(owner);
             }
@@ -92,12 +98,21 @@ public final class LeanMonoGammaTxn extends GammaTxn {
         }
 
         if (commitConflict) {
-            config.globalConflictCounter.signalConflict();
+            owner.conflictCounter.signalConflict();
         }
 
         if(SHAKE_BUGS) shakeBugs();
-        owner.ref_value = tranlocal.ref_value;
-        owner.version = version + 1;
+        final SnapshotClock snapshotClock = config.stm.snapshotClock;
+        if (snapshotClock == null) {
+            owner.ref_value = tranlocal.ref_value;
+            owner.version = version + 1;
+        } else {
+            final long timestamp = snapshotClock.reserve();
+            owner.installVersion(tranlocal, timestamp, snapshotClock.getOldestSnapshot());
+            owner.ref_value = tranlocal.ref_value;
+            owner.version = version + 1;
+            snapshotClock.publish(timestamp);
+        }
 
         Listeners listeners = owner.listeners;
 
@@ -111,6 +126,7 @@ public final class LeanMonoGammaTxn extends GammaTxn {
         //we need to set them to null to prevent memory leaks.
         tranlocal.ref_value = null;
         tranlocal.ref_oldValue = null;
+        tranlocal.hasCopiedRefValue = false;
 
         if (listeners != null) {
             listeners.openAll(pool);
@@ -148,6 +164,10 @@ public final class LeanMonoGammaTxn extends GammaTxn {
 
         final BaseGammaTxnRef owner = tranlocal.owner;
         if (owner != null) {
+            if (hasWrites && isBlockedByIrrevocableTxn()) {
+                throw abortOnIrrevocableTxn();
+            }
+
             if (!owner.prepare(this, tranlocal)) {
                 throw abortOnReadWriteConflict(owner);
             }
@@ -162,6 +182,11 @@ public final class LeanMonoGammaTxn extends GammaTxn {
         return tranlocal.owner == ref ? tranlocal : null;
     }
 
+    @Override
+    public final int size() {
+        return tranlocal.owner == null ? 0 : 1;
+    }
+
     @Override
     public final void retry() {
         if (status != TX_ACTIVE) {
@@ -211,7 +236,7 @@ public final class LeanMonoGammaTxn extends GammaTxn {
 
     @Override
     public final boolean softReset() {
-        if (attempt >= config.getMaxRetries()) {
+        if (attempt >= config.getMaxRetries() && !irrevocable) {
             return false;
         }
 
@@ -229,6 +254,7 @@ public final class LeanMonoGammaTxn extends GammaTxn {
         hasWrites = false;
         remainingTimeoutNs = config.timeoutNs;
         attempt = 1;
+        irrevocable = false;
     }
 
     @Override
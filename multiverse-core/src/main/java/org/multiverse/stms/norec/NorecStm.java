@@ -0,0 +1,162 @@
+package org.multiverse.stms.norec;
+
+import org.multiverse.api.GlobalStmInstance;
+import org.multiverse.api.LockMode;
+import org.multiverse.api.Stm;
+import org.multiverse.api.exceptions.LockedException;
+import org.multiverse.stms.clock.BaseClockTxnRef;
+import org.multiverse.stms.clock.ClockStm;
+import org.multiverse.stms.clock.ClockStmConfig;
+import org.multiverse.stms.clock.ClockStmUtils;
+import org.multiverse.stms.clock.ClockTxnConfig;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.String.format;
+
+/**
+ * An {@link Stm} implementation based on the NOrec algorithm: there are no ownership records, but a single global
+ * sequence lock combined with value based validation. Reads don't do any cas or write to shared memory, which
+ * makes it a good fit for small read-mostly transactions on machines with only a few cores. All updating commits
+ * are serialized on the sequence lock, so it doesn't scale for write heavy workloads.
+ * <p/>
+ * The NorecStm can be selected as the {@link GlobalStmInstance} by setting the system property
+ * 'org.multiverse.api.GlobalStmInstance.factoryMethod' to 'org.multiverse.stms.norec.NorecStm.createFast'.
+ * <p/>
+ * Besides the limitations of every {@link ClockStm}, there are no locks on the object level: every LockMode
+ * besides {@link LockMode#None} acquires the global sequence lock, so it locks all objects at once. Other
+ * transactions and atomic operations don't wait for it longer than the spinCount, but fail with a
+ * {@link org.multiverse.api.exceptions.ReadWriteConflict} or a {@link LockedException} instead.
+ *
+ * @author Peter Veentjer.
+ */
+public final class NorecStm extends ClockStm {
+
+    /**
+     * Creates a NorecStm implementation. This method probably will be invoked by the {@link GlobalStmInstance}.
+     *
+     * @return the created NorecStm.
+     */
+    @SuppressWarnings({"UnusedDeclaration"})
+    public static NorecStm createFast() {
+        return new NorecStm();
+    }
+
+    //the global sequence lock; odd while it is owned by a committing writer or by a transaction that locked.
+    public final AtomicLong seqLock = new AtomicLong();
+
+    public NorecStm() {
+        this(new ClockStmConfig());
+    }
+
+    public NorecStm(final ClockStmConfig config) {
+        super(config);
+    }
+
+    @Override
+    public final NorecTxn newTxn(final ClockTxnConfig config) {
+        return new NorecTxn(config);
+    }
+
+    @Override
+    public final NorecTxn newDefaultTxn() {
+        return new NorecTxn(this);
+    }
+
+    /**
+     * Waits till the global sequence lock is not owned. The wait is bounded since the sequence lock can be held
+     * for a complete transaction (when a LockMode is used), or even by the calling thread itself.
+     *
+     * @param spinCount the maximum number of spins.
+     * @return the even value of the sequence lock, or -1 if it still was owned after spinCount spins.
+     */
+    public final long awaitEvenSeqLock(final int spinCount) {
+        int spin = spinCount;
+        for (; ;) {
+            final long sequence = seqLock.get();
+            if ((sequence & 1) == 0) {
+                return sequence;
+            }
+
+            if (spin-- == 0) {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Acquires the global sequence lock for an atomic operation.
+     *
+     * @param ref the ref the atomic operation is executed on (only used for the error).
+     * @return the value of the sequence lock before it was acquired.
+     * @throws LockedException if the sequence lock could not be acquired.
+     */
+    public final long acquireSeqLock(final BaseClockTxnRef ref) {
+        for (; ;) {
+            final long sequence = awaitEvenSeqLock(spinCount);
+            if (sequence == -1) {
+                throw new LockedException(
+                        format("Failed to execute atomic operation on '%s', reason: the global sequence lock is owned",
+                                ClockStmUtils.toDebugString(ref)));
+            }
+
+            if (seqLock.compareAndSet(sequence, sequence + 1)) {
+                return sequence;
+            }
+        }
+    }
+
+    /**
+     * Releases the global sequence lock acquired by {@link #acquireSeqLock(BaseClockTxnRef)}.
+     *
+     * @param sequence the value returned by acquireSeqLock.
+     * @param changed  if something has been written. If not, the sequence lock gets its old value back, so running
+     *                 transactions don't need to revalidate.
+     */
+    public final void releaseSeqLock(final long sequence, final boolean changed) {
+        if (changed) {
+            seqLock.set(sequence + 2);
+            retryMonitor.signal();
+        } else {
+            seqLock.set(sequence);
+        }
+    }
+
+    @Override
+    public final long lockAtomic(final BaseClockTxnRef ref) {
+        return acquireSeqLock(ref);
+    }
+
+    @Override
+    public final void unlockAtomic(final BaseClockTxnRef ref, final long sequence, final boolean changed) {
+        releaseSeqLock(sequence, changed);
+    }
+
+    @Override
+    public final long atomicGetLong(final BaseClockTxnRef ref) {
+        //a single value doesn't need the sequence lock, a volatile read is enough.
+        return ref.long_value;
+    }
+
+    @Override
+    public final Object atomicGetObject(final BaseClockTxnRef ref) {
+        return ref.ref_value;
+    }
+
+    /**
+     * Returns the number of updating commits done on the NorecStm. Objects have no version of their own.
+     *
+     * @param ref the ref.
+     * @return the version.
+     */
+    @Override
+    public final long getVersion(final BaseClockTxnRef ref) {
+        return seqLock.get() >>> 1;
+    }
+
+    @Override
+    public final LockMode atomicGetLockMode(final BaseClockTxnRef ref) {
+        //while the sequence lock is owned, nobody else can change the object.
+        return (seqLock.get() & 1) == 0 ? LockMode.None : LockMode.Exclusive;
+    }
+}
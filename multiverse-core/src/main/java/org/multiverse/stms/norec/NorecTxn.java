@@ -0,0 +1,214 @@
+package org.multiverse.stms.norec;
+
+import org.multiverse.api.Txn;
+import org.multiverse.api.exceptions.ReadWriteConflict;
+import org.multiverse.stms.clock.BaseClockTxnRef;
+import org.multiverse.stms.clock.ClockTranlocal;
+import org.multiverse.stms.clock.ClockTxn;
+import org.multiverse.stms.clock.ClockTxnConfig;
+
+/**
+ * The {@link Txn} of the {@link NorecStm}. It is based on the NOrec algorithm of Dalessandro, Spear and Scott:
+ * <ol>
+ * <li>when the transaction starts, it takes a snapshot of the global sequence lock. If it is odd (so a writer is
+ * committing), the last even value is taken and the first read waits for the writer.</li>
+ * <li>every read remembers the value that was read. If the sequence lock has changed since the snapshot, the
+ * transaction revalidates the values of all its reads and takes a new snapshot.</li>
+ * <li>an updating commit acquires the sequence lock using a cas from the snapshot to snapshot+1 (revalidating
+ * when the cas fails), writes the dirty values and releases the sequence lock with snapshot+2.</li>
+ * <li>a readonly commit is free since all reads are consistent with the last snapshot.</li>
+ * </ol>
+ * There are no ownership records, so reads don't cause any cas or shared writes; only updating commits write
+ * shared memory. This makes it very cheap for small read-mostly transactions on machines with a few cores, but
+ * all writers are serialized on the sequence lock.
+ * <p/>
+ * There are no locks on the object level either, so a LockMode other than None acquires the global sequence lock
+ * for the rest of the transaction. It gives the requested guarantee (nobody else can commit a change), but all
+ * other transactions that read or commit in the meantime fail with a ReadWriteConflict once they have spun
+ * spinCount times, so it should be used sparingly.
+ *
+ * @author Peter Veentjer.
+ */
+public final class NorecTxn extends ClockTxn {
+
+    //the even value of the global sequence lock all reads are consistent with.
+    public long snapshot;
+    //true if the global sequence lock is owned by this transaction (after a prepare or an explicit lock).
+    public boolean ownsSeqLock;
+
+    public NorecTxn(final NorecStm stm) {
+        this(stm.defaultConfig);
+    }
+
+    public NorecTxn(final ClockTxnConfig config) {
+        super(config);
+    }
+
+    private NorecStm norecStm() {
+        return (NorecStm) stm;
+    }
+
+    /**
+     * Checks if the value read by the transaction is still the current value of the owner.
+     *
+     * @param tranlocal the tranlocal to check.
+     * @return true if the read is still valid.
+     */
+    private static boolean isReadValid(final ClockTranlocal tranlocal) {
+        final BaseClockTxnRef owner = tranlocal.owner;
+        //noinspection ObjectEquality
+        return owner.type == TYPE_REF
+                ? owner.ref_value == tranlocal.ref_oldValue
+                : owner.long_value == tranlocal.long_oldValue;
+    }
+
+    @Override
+    protected void load(final ClockTranlocal tranlocal, final BaseClockTxnRef ref) {
+        final NorecStm stm = norecStm();
+        long long_value = ref.long_value;
+        Object ref_value = ref.ref_value;
+        //if the sequence lock has changed, the value could be inconsistent with the earlier reads. If this
+        //transaction owns the sequence lock, nobody else can have changed anything.
+        while (!ownsSeqLock && stm.seqLock.get() != snapshot) {
+            snapshot = validate(ref);
+            long_value = ref.long_value;
+            ref_value = ref.ref_value;
+        }
+
+        tranlocal.owner = ref;
+        tranlocal.long_value = long_value;
+        tranlocal.long_oldValue = long_value;
+        tranlocal.ref_value = ref_value;
+        tranlocal.ref_oldValue = ref_value;
+    }
+
+    /**
+     * Checks if all the values read so far still are the current values, and returns the value of the global
+     * sequence lock they are consistent with.
+     *
+     * @param ref the ref that caused the validation (only used for the error).
+     * @return the new snapshot.
+     * @throws ReadWriteConflict if one of the reads has been changed, or if the sequence lock is owned for longer
+     *                           than the spinCount.
+     */
+    private long validate(final BaseClockTxnRef ref) {
+        final NorecStm stm = norecStm();
+        for (; ;) {
+            final long sequence = stm.awaitEvenSeqLock(config.spinCount);
+            if (sequence == -1) {
+                throw abortOnReadWriteConflict(ref);
+            }
+
+            for (int k = 0; k < size; k++) {
+                if (!isReadValid(tranlocals[k])) {
+                    throw abortOnReadWriteConflict(ref);
+                }
+            }
+
+            if (stm.seqLock.get() == sequence) {
+                return sequence;
+            }
+        }
+    }
+
+    @Override
+    public boolean hasReadChanged() {
+        for (int k = 0; k < size; k++) {
+            if (!isReadValid(tranlocals[k])) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected void lock(final ClockTranlocal tranlocal) {
+        //there are no locks on the object level, so the global sequence lock is acquired.
+        if (!ownsSeqLock) {
+            acquireSeqLock();
+        }
+        tranlocal.isLocked = true;
+    }
+
+    /**
+     * Acquires the global sequence lock. When the sequence lock has moved since the snapshot, the reads are
+     * revalidated first.
+     */
+    private void acquireSeqLock() {
+        while (!norecStm().seqLock.compareAndSet(snapshot, snapshot + 1)) {
+            snapshot = validate(null);
+        }
+        ownsSeqLock = true;
+    }
+
+    /**
+     * Releases the global sequence lock.
+     *
+     * @param changed if a change has been written.
+     */
+    private void releaseSeqLock(final boolean changed) {
+        for (int k = 0; k < size; k++) {
+            tranlocals[k].isLocked = false;
+        }
+
+        ownsSeqLock = false;
+        if (changed) {
+            norecStm().seqLock.set(snapshot + 2);
+            stm.retryMonitor.signal();
+        } else {
+            norecStm().seqLock.set(snapshot);
+        }
+    }
+
+    @Override
+    protected void releaseLocks() {
+        if (ownsSeqLock) {
+            releaseSeqLock(false);
+        }
+    }
+
+    @Override
+    protected void doPrepare() {
+        //after a prepare the commit is not allowed to fail, so an updating transaction already needs to own the
+        //sequence lock. A readonly transaction can't fail on commit.
+        if (hasDirtyWrites() && !ownsSeqLock) {
+            acquireSeqLock();
+        }
+    }
+
+    @Override
+    protected void doCommit() {
+        if (!hasDirtyWrites()) {
+            releaseLocks();
+            return;
+        }
+
+        if (!ownsSeqLock) {
+            acquireSeqLock();
+        }
+
+        for (int k = 0; k < size; k++) {
+            final ClockTranlocal tranlocal = tranlocals[k];
+            if (!tranlocal.isWrite) {
+                continue;
+            }
+
+            final BaseClockTxnRef owner = tranlocal.owner;
+            if (owner.type == TYPE_REF) {
+                owner.ref_value = tranlocal.ref_value;
+            } else {
+                owner.long_value = tranlocal.long_value;
+            }
+        }
+
+        releaseSeqLock(true);
+    }
+
+    @Override
+    protected void begin() {
+        //begin doesn't wait for an owned sequence lock, since it can't fail with a ReadWriteConflict. The last even
+        //value is used; if the owner releases without a change it still is valid, otherwise the first read
+        //revalidates and a commit can't acquire the sequence lock using it.
+        snapshot = norecStm().seqLock.get() & ~1L;
+    }
+}
@@ -0,0 +1,180 @@
+package org.multiverse.stms.tl2;
+
+import org.multiverse.api.GlobalStmInstance;
+import org.multiverse.api.LockMode;
+import org.multiverse.api.Stm;
+import org.multiverse.api.exceptions.LockedException;
+import org.multiverse.stms.clock.BaseClockTxnRef;
+import org.multiverse.stms.clock.ClockStm;
+import org.multiverse.stms.clock.ClockStmConfig;
+import org.multiverse.stms.clock.ClockStmUtils;
+import org.multiverse.stms.clock.ClockTxnConfig;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+import static java.lang.String.format;
+
+/**
+ * An {@link Stm} implementation based on the TL2 algorithm: a global version clock is used for validating the
+ * reads and every transactional object has a versioned lock. Compared to the GammaStm it doesn't need a conflict
+ * counter or a full read set scan when it encounters a change; a read only needs to be compared against the
+ * read version of the transaction. It makes it possible to compare the GammaStm against a well known design,
+ * using the same api.
+ * <p/>
+ * The versioned lock is the orec of the {@link BaseClockTxnRef}: the lowest bit indicates if the object is locked,
+ * the other bits contain the version; the value of the global version clock of the commit that last updated the
+ * object.
+ * <p/>
+ * The Tl2Stm can be selected as the {@link GlobalStmInstance} by setting the system property
+ * 'org.multiverse.api.GlobalStmInstance.factoryMethod' to 'org.multiverse.stms.tl2.Tl2Stm.createFast'.
+ * <p/>
+ * Besides the limitations of every {@link ClockStm}, all lock modes besides {@link LockMode#None} are translated
+ * to an exclusive commit lock.
+ *
+ * @author Peter Veentjer.
+ */
+public final class Tl2Stm extends ClockStm {
+
+    /**
+     * The lowest bit of the versioned lock of a transactional object; the remaining bits contain the version.
+     */
+    public static final long MASK_LOCKED = 1;
+
+    private static final AtomicLongFieldUpdater<BaseClockTxnRef> orecUpdater
+            = AtomicLongFieldUpdater.newUpdater(BaseClockTxnRef.class, "orec");
+
+    /**
+     * Creates a Tl2Stm implementation. This method probably will be invoked by the {@link GlobalStmInstance}.
+     *
+     * @return the created Tl2Stm.
+     */
+    @SuppressWarnings({"UnusedDeclaration"})
+    public static Tl2Stm createFast() {
+        return new Tl2Stm();
+    }
+
+    public static boolean isLocked(final long orec) {
+        return (orec & MASK_LOCKED) != 0;
+    }
+
+    public static long getVersion(final long orec) {
+        return orec >>> 1;
+    }
+
+    /**
+     * Tries to lock the ref if it still has the expected version.
+     *
+     * @param ref     the ref to lock.
+     * @param version the expected version.
+     * @return true if the lock was acquired, false otherwise.
+     */
+    public static boolean tryLock(final BaseClockTxnRef ref, final long version) {
+        final long expected = version << 1;
+        return ref.orec == expected && orecUpdater.compareAndSet(ref, expected, expected | MASK_LOCKED);
+    }
+
+    /**
+     * Releases the lock and sets the version. Should only be called by the owner of the lock.
+     *
+     * @param ref     the locked ref.
+     * @param version the version to set.
+     */
+    public static void unlock(final BaseClockTxnRef ref, final long version) {
+        ref.orec = version << 1;
+    }
+
+    public final AtomicLong globalClock = new AtomicLong();
+
+    public Tl2Stm() {
+        this(new ClockStmConfig());
+    }
+
+    public Tl2Stm(final ClockStmConfig config) {
+        super(config);
+    }
+
+    @Override
+    public final Tl2Txn newTxn(final ClockTxnConfig config) {
+        return new Tl2Txn(config);
+    }
+
+    @Override
+    public final Tl2Txn newDefaultTxn() {
+        return new Tl2Txn(this);
+    }
+
+    @Override
+    public final long lockAtomic(final BaseClockTxnRef ref) {
+        int spin = spinCount;
+        for (; ;) {
+            final long current = ref.orec;
+            if (!isLocked(current)) {
+                if (orecUpdater.compareAndSet(ref, current, current | MASK_LOCKED)) {
+                    return getVersion(current);
+                }
+            } else if (spin-- == 0) {
+                throw new LockedException(
+                        format("Failed to execute atomic operation on '%s', reason: the object is locked",
+                                ClockStmUtils.toDebugString(ref)));
+            }
+        }
+    }
+
+    @Override
+    public final void unlockAtomic(final BaseClockTxnRef ref, final long version, final boolean changed) {
+        if (!changed) {
+            unlock(ref, version);
+            return;
+        }
+
+        unlock(ref, globalClock.incrementAndGet());
+        retryMonitor.signal();
+    }
+
+    @Override
+    public final long atomicGetLong(final BaseClockTxnRef ref) {
+        int spin = spinCount;
+        for (; ;) {
+            final long current = ref.orec;
+            if (!isLocked(current)) {
+                final long value = ref.long_value;
+                if (ref.orec == current) {
+                    return value;
+                }
+            } else if (spin-- == 0) {
+                throw new LockedException(
+                        format("Failed to execute atomicGet on '%s', reason: the object is locked",
+                                ClockStmUtils.toDebugString(ref)));
+            }
+        }
+    }
+
+    @Override
+    public final Object atomicGetObject(final BaseClockTxnRef ref) {
+        int spin = spinCount;
+        for (; ;) {
+            final long current = ref.orec;
+            if (!isLocked(current)) {
+                final Object value = ref.ref_value;
+                if (ref.orec == current) {
+                    return value;
+                }
+            } else if (spin-- == 0) {
+                throw new LockedException(
+                        format("Failed to execute atomicGet on '%s', reason: the object is locked",
+                                ClockStmUtils.toDebugString(ref)));
+            }
+        }
+    }
+
+    @Override
+    public final long getVersion(final BaseClockTxnRef ref) {
+        return getVersion(ref.orec);
+    }
+
+    @Override
+    public final LockMode atomicGetLockMode(final BaseClockTxnRef ref) {
+        return isLocked(ref.orec) ? LockMode.Exclusive : LockMode.None;
+    }
+}
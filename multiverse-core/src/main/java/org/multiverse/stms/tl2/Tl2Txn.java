@@ -0,0 +1,197 @@
+package org.multiverse.stms.tl2;
+
+import org.multiverse.api.Txn;
+import org.multiverse.stms.clock.BaseClockTxnRef;
+import org.multiverse.stms.clock.ClockTranlocal;
+import org.multiverse.stms.clock.ClockTxn;
+import org.multiverse.stms.clock.ClockTxnConfig;
+
+/**
+ * The {@link Txn} of the {@link Tl2Stm}. It is based on the TL2 algorithm of Dice, Shalev and Shavit:
+ * <ol>
+ * <li>when the transaction starts, the read version is taken from the global version clock.</li>
+ * <li>every object read must be unlocked and have a version not newer than the read version. If a newer version
+ * is found, the read version is extended to the current value of the clock after the read set has been
+ * revalidated.</li>
+ * <li>an updating commit locks the write set, increments the global version clock to get the write version,
+ * validates the read set (not needed if nobody committed in between), writes and releases the locks using the
+ * write version.</li>
+ * <li>a readonly commit is free since all reads already are consistent with the read version.</li>
+ * </ol>
+ *
+ * @author Peter Veentjer.
+ */
+public final class Tl2Txn extends ClockTxn {
+
+    public long readVersion;
+
+    public Tl2Txn(final Tl2Stm stm) {
+        this(stm.defaultConfig);
+    }
+
+    public Tl2Txn(final ClockTxnConfig config) {
+        super(config);
+    }
+
+    private Tl2Stm tl2Stm() {
+        return (Tl2Stm) stm;
+    }
+
+    @Override
+    protected void load(final ClockTranlocal tranlocal, final BaseClockTxnRef ref) {
+        int spin = config.spinCount;
+        for (; ;) {
+            final long orec = ref.orec;
+            if (Tl2Stm.isLocked(orec)) {
+                if (spin-- == 0) {
+                    throw abortOnReadWriteConflict(ref);
+                }
+                continue;
+            }
+
+            final long long_value = ref.long_value;
+            final Object ref_value = ref.ref_value;
+
+            if (ref.orec != orec) {
+                continue;
+            }
+
+            final long version = Tl2Stm.getVersion(orec);
+            if (version > readVersion && !extendReadVersion()) {
+                throw abortOnReadWriteConflict(ref);
+            }
+
+            tranlocal.owner = ref;
+            tranlocal.version = version;
+            tranlocal.long_value = long_value;
+            tranlocal.long_oldValue = long_value;
+            tranlocal.ref_value = ref_value;
+            tranlocal.ref_oldValue = ref_value;
+            return;
+        }
+    }
+
+    /**
+     * Tries to move the read version forward to the current value of the global version clock. This is only
+     * allowed if none of the objects read so far has been changed.
+     *
+     * @return true if the read version was extended, false otherwise.
+     */
+    private boolean extendReadVersion() {
+        final long newReadVersion = tl2Stm().globalClock.get();
+        if (!isReadSetValid()) {
+            return false;
+        }
+
+        readVersion = newReadVersion;
+        return true;
+    }
+
+    private boolean isReadSetValid() {
+        for (int k = 0; k < size; k++) {
+            final ClockTranlocal tranlocal = tranlocals[k];
+            if (!tranlocal.isLocked && tranlocal.owner.orec != tranlocal.version << 1) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean hasReadChanged() {
+        for (int k = 0; k < size; k++) {
+            final ClockTranlocal tranlocal = tranlocals[k];
+            if (Tl2Stm.getVersion(tranlocal.owner.orec) != tranlocal.version) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    protected void lock(final ClockTranlocal tranlocal) {
+        final BaseClockTxnRef owner = tranlocal.owner;
+        int spin = config.spinCount;
+        for (; ;) {
+            if (Tl2Stm.tryLock(owner, tranlocal.version)) {
+                tranlocal.isLocked = true;
+                return;
+            }
+
+            final long orec = owner.orec;
+            if (Tl2Stm.getVersion(orec) != tranlocal.version || spin-- == 0) {
+                throw abortOnReadWriteConflict(owner);
+            }
+        }
+    }
+
+    @Override
+    protected void releaseLocks() {
+        for (int k = 0; k < size; k++) {
+            final ClockTranlocal tranlocal = tranlocals[k];
+            if (tranlocal.isLocked) {
+                tranlocal.isLocked = false;
+                Tl2Stm.unlock(tranlocal.owner, tranlocal.version);
+            }
+        }
+    }
+
+    @Override
+    protected void doPrepare() {
+        //after a prepare the commit is not allowed to fail, so the reads are locked as well.
+        for (int k = 0; k < size; k++) {
+            final ClockTranlocal tranlocal = tranlocals[k];
+            if (!tranlocal.isLocked) {
+                lock(tranlocal);
+            }
+        }
+    }
+
+    @Override
+    protected void doCommit() {
+        if (!hasDirtyWrites()) {
+            releaseLocks();
+            return;
+        }
+
+        for (int k = 0; k < size; k++) {
+            final ClockTranlocal tranlocal = tranlocals[k];
+            if (tranlocal.isWrite && !tranlocal.isLocked) {
+                lock(tranlocal);
+            }
+        }
+
+        final long writeVersion = tl2Stm().globalClock.incrementAndGet();
+        //if nobody committed since the transaction started, the reads can't have been changed.
+        if (writeVersion != readVersion + 1 && !isReadSetValid()) {
+            throw abortOnReadWriteConflict(null);
+        }
+
+        for (int k = 0; k < size; k++) {
+            final ClockTranlocal tranlocal = tranlocals[k];
+            if (!tranlocal.isLocked) {
+                continue;
+            }
+
+            final BaseClockTxnRef owner = tranlocal.owner;
+            tranlocal.isLocked = false;
+            if (tranlocal.isWrite) {
+                if (owner.type == TYPE_REF) {
+                    owner.ref_value = tranlocal.ref_value;
+                } else {
+                    owner.long_value = tranlocal.long_value;
+                }
+                Tl2Stm.unlock(owner, writeVersion);
+            } else {
+                Tl2Stm.unlock(owner, tranlocal.version);
+            }
+        }
+
+        stm.retryMonitor.signal();
+    }
+
+    @Override
+    protected void begin() {
+        readVersion = tl2Stm().globalClock.get();
+    }
+}
@@ -0,0 +1,92 @@
+package org.multiverse.api;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class AdaptiveBackoffPolicyTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenMinWindowTooSmall() {
+        new AdaptiveBackoffPolicy(0, 100, 1000, 10, 100);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenMaxWindowSmallerThanMinWindow() {
+        new AdaptiveBackoffPolicy(100, 10, 1000, 10, 100);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenMaxDelaySmallerThanMaxWindow() {
+        new AdaptiveBackoffPolicy(10, 100, 50, 10, 100);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenYieldLimitSmallerThanSpinLimit() {
+        new AdaptiveBackoffPolicy(10, 100, 1000, 100, 10);
+    }
+
+    @Test
+    public void whenNoContention_thenDelaysWithinMinWindow() {
+        AdaptiveBackoffPolicy policy = new AdaptiveBackoffPolicy(100, 10000, 1000000, 0, 0);
+
+        assertEquals(0, policy.getContention());
+        for (int k = 0; k < 100; k++) {
+            long delayNs = policy.calcDelayNs(1);
+            assertTrue(delayNs >= 0);
+            assertTrue(delayNs < 100);
+        }
+    }
+
+    @Test
+    public void whenAborts_thenContentionIncreases() {
+        AdaptiveBackoffPolicy policy = new AdaptiveBackoffPolicy(1, 10, 100, 100, 100);
+
+        for (int k = 0; k < 100; k++) {
+            policy.delayUninterruptible(1);
+        }
+
+        assertTrue(policy.getContention() > 90);
+    }
+
+    @Test
+    public void whenCommits_thenContentionDecreases() {
+        AdaptiveBackoffPolicy policy = new AdaptiveBackoffPolicy(1, 10, 100, 100, 100);
+        for (int k = 0; k < 100; k++) {
+            policy.delayUninterruptible(1);
+        }
+
+        for (int k = 0; k < 200; k++) {
+            policy.signalCommit();
+        }
+
+        assertEquals(0, policy.getContention());
+    }
+
+    @Test
+    public void whenMoreAttempts_thenWindowGrowsUntilMaxDelay() {
+        AdaptiveBackoffPolicy policy = new AdaptiveBackoffPolicy(100, 100, 1000, 0, 0);
+
+        long maxDelayNs = 0;
+        for (int k = 0; k < 1000; k++) {
+            long delayNs = policy.calcDelayNs(Integer.MAX_VALUE);
+            assertTrue(delayNs < 1000);
+            maxDelayNs = Math.max(maxDelayNs, delayNs);
+        }
+
+        assertTrue(maxDelayNs >= 100);
+    }
+
+    @Test
+    public void whenNewFamilyInstance_thenOwnStatistics() {
+        AdaptiveBackoffPolicy policy = new AdaptiveBackoffPolicy(1, 10, 100, 100, 100);
+        for (int k = 0; k < 100; k++) {
+            policy.delayUninterruptible(1);
+        }
+
+        AdaptiveBackoffPolicy familyPolicy = policy.newFamilyInstance();
+
+        assertNotSame(policy, familyPolicy);
+        assertEquals(0, familyPolicy.getContention());
+    }
+}
@@ -0,0 +1,60 @@
+package org.multiverse.api.blocking;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.multiverse.TestUtils.*;
+
+public class ParkingRetryLatch_openTest {
+    @Before
+       public void setUp(){
+           clearCurrentThreadInterruptedStatus();
+       }
+
+    @Test
+    public void whenAlreadyOpenAndDifferentEra() {
+        ParkingRetryLatch latch = new ParkingRetryLatch();
+        long era = latch.getEra();
+        latch.open(era);
+
+        latch.open(era + 1);
+
+        assertEquals(era, latch.getEra());
+        assertOpen(latch);
+    }
+
+    @Test
+    public void whenAlreadyOpenAndSameEra() {
+        ParkingRetryLatch latch = new ParkingRetryLatch();
+        long era = latch.getEra();
+        latch.open(era);
+
+        latch.open(era);
+
+        assertEquals(era, latch.getEra());
+        assertOpen(latch);
+    }
+
+    @Test
+    public void whenClosedAndDifferentEra() {
+        ParkingRetryLatch latch = new ParkingRetryLatch();
+        long era = latch.getEra();
+
+        latch.open(era + 1);
+
+        assertEquals(era, latch.getEra());
+        assertClosed(latch);
+    }
+
+    @Test
+    public void whenClosedAndSameEra() {
+        ParkingRetryLatch latch = new ParkingRetryLatch();
+        long era = latch.getEra();
+
+        latch.open(era);
+
+        assertEquals(era, latch.getEra());
+        assertOpen(latch);
+    }
+}
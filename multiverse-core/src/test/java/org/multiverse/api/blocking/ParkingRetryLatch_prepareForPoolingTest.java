@@ -0,0 +1,30 @@
+package org.multiverse.api.blocking;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.multiverse.TestUtils.assertClosed;
+
+public class ParkingRetryLatch_prepareForPoolingTest {
+
+    @Test
+    public void whenClosed() {
+        ParkingRetryLatch latch = new ParkingRetryLatch();
+        long era = latch.getEra();
+        latch.reset();
+
+        assertClosed(latch);
+        assertEquals(era + 1, latch.getEra());
+    }
+
+    @Test
+    public void whenOpen() {
+        ParkingRetryLatch latch = new ParkingRetryLatch();
+        long era = latch.getEra();
+        latch.open(era);
+
+        latch.reset();
+        assertClosed(latch);
+        assertEquals(era + 1, latch.getEra());
+    }
+}
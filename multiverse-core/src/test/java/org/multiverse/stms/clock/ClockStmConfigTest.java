@@ -0,0 +1,39 @@
+package org.multiverse.stms.clock;
+
+import org.junit.Test;
+
+public class ClockStmConfigTest {
+
+    @Test
+    public void whenValid() {
+        new ClockStmConfig().validate();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void spinCount_whenSmallerThanZero() {
+        ClockStmConfig config = new ClockStmConfig();
+        config.spinCount = -1;
+        config.validate();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void minimalTransactionSize_whenSmallerThanOne() {
+        ClockStmConfig config = new ClockStmConfig();
+        config.minimalTransactionSize = 0;
+        config.validate();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void backoffPolicy_whenNull() {
+        ClockStmConfig config = new ClockStmConfig();
+        config.backoffPolicy = null;
+        config.validate();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void timeoutNs_whenSmallerThanZero() {
+        ClockStmConfig config = new ClockStmConfig();
+        config.timeoutNs = -1;
+        config.validate();
+    }
+}
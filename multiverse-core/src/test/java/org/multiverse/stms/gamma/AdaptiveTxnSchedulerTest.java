@@ -0,0 +1,206 @@
+package org.multiverse.stms.gamma;
+
+import org.junit.Test;
+import org.multiverse.TestThread;
+import org.multiverse.api.Txn;
+import org.multiverse.api.TxnExecutor;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.multiverse.TestUtils.*;
+
+public class AdaptiveTxnSchedulerTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenCloseThresholdTooLarge() {
+        new AdaptiveTxnScheduler(100, 10, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenOpenThresholdNotSmallerThanCloseThreshold() {
+        new AdaptiveTxnScheduler(50, 50, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenConcurrencyTooSmall() {
+        new AdaptiveTxnScheduler(50, 10, 0);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void whenInvalidStmConfig() {
+        GammaStmConfig config = new GammaStmConfig();
+        config.adaptiveSchedulingOpenThreshold = 60;
+        new GammaStm(config);
+    }
+
+    @Test
+    public void whenNotEnabled_thenNoScheduler() {
+        GammaStm stm = new GammaStm();
+        assertNull(stm.newAdaptiveTxnScheduler());
+        assertNull(stm.newTxnFactoryBuilder().newTransactionFactory().getConfig().scheduler);
+    }
+
+    @Test
+    public void whenEnabled_thenSchedulerPerFamily() {
+        GammaStm stm = newStm();
+
+        GammaTxnConfig config1 = stm.newTxnFactoryBuilder().setFamilyName("a").newTransactionFactory().getConfig();
+        GammaTxnConfig config2 = stm.newTxnFactoryBuilder().setFamilyName("b").newTransactionFactory().getConfig();
+
+        assertNotNull(config1.scheduler);
+        assertNotNull(config2.scheduler);
+        assertNotSame(config1.scheduler, config2.scheduler);
+    }
+
+    @Test
+    public void whenOpen_thenEnterDoesNotPass() {
+        AdaptiveTxnScheduler scheduler = new AdaptiveTxnScheduler(50, 10, 1);
+
+        assertFalse(scheduler.isClosed());
+        assertFalse(scheduler.enter());
+        assertFalse(scheduler.enter());
+    }
+
+    @Test
+    public void whenOnlyCommits_thenRemainsOpen() {
+        AdaptiveTxnScheduler scheduler = new AdaptiveTxnScheduler(50, 10, 1);
+
+        for (int k = 0; k < 1000; k++) {
+            scheduler.onCommit();
+        }
+
+        assertFalse(scheduler.isClosed());
+        assertEquals(0, scheduler.getIntensity());
+    }
+
+    @Test
+    public void whenAbortsExceedThreshold_thenClosed() {
+        AdaptiveTxnScheduler scheduler = new AdaptiveTxnScheduler(50, 10, 1);
+
+        for (int k = 0; k < 100 && !scheduler.isClosed(); k++) {
+            scheduler.onAbort();
+        }
+
+        assertTrue(scheduler.isClosed());
+        assertTrue(scheduler.getIntensity() >= 50);
+        assertEquals(1, scheduler.getCloseCount());
+        assertTrue(scheduler.enter());
+        scheduler.exit();
+    }
+
+    @Test
+    public void whenIntensityDropsBelowOpenThreshold_thenOpened() {
+        AdaptiveTxnScheduler scheduler = new AdaptiveTxnScheduler(50, 10, 1);
+        for (int k = 0; k < 100; k++) {
+            scheduler.onAbort();
+        }
+        assertTrue(scheduler.isClosed());
+
+        //dropping below the close threshold isn't enough.
+        while (scheduler.getIntensity() > 30) {
+            scheduler.onCommit();
+        }
+        assertTrue(scheduler.isClosed());
+
+        for (int k = 0; k < 100; k++) {
+            scheduler.onCommit();
+        }
+
+        assertFalse(scheduler.isClosed());
+        assertEquals(1, scheduler.getCloseCount());
+    }
+
+    @Test
+    public void whenClosed_thenTransactionsAreSerialized() {
+        final AdaptiveTxnScheduler scheduler = new AdaptiveTxnScheduler(50, 10, 1);
+        for (int k = 0; k < 100; k++) {
+            scheduler.onAbort();
+        }
+
+        assertTrue(scheduler.enter());
+
+        TestThread thread = new TestThread() {
+            @Override
+            public void doRun() throws Exception {
+                assertTrue(scheduler.enter());
+                scheduler.exit();
+            }
+        };
+        thread.start();
+
+        sleepMs(200);
+        assertAlive(thread);
+
+        scheduler.exit();
+        joinAll(thread);
+    }
+
+    @Test
+    public void whenReadWriteConflicts_thenExecutorInformsScheduler() {
+        GammaStm stm = newStm();
+        final GammaTxnLong ref = new GammaTxnLong(stm);
+        final AtomicInteger attempts = new AtomicInteger();
+
+        TxnExecutor executor = stm.newTxnFactoryBuilder()
+                .setSpeculative(false)
+                .setMaxRetries(1000)
+                .newTxnExecutor();
+
+        AdaptiveTxnScheduler scheduler = ((AbstractGammaTxnExecutor) executor).scheduler;
+        assertNotNull(scheduler);
+
+        executor.execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                ref.get();
+                if (attempts.incrementAndGet() <= 20) {
+                    ref.atomicIncrementAndGet(1);
+                }
+                ref.increment();
+            }
+        });
+
+        assertTrue(scheduler.getCloseCount() > 0);
+        assertEquals(21, ref.atomicGet());
+    }
+
+    @Test
+    public void integrationTest() {
+        final GammaStm stm = newStm();
+        final GammaTxnLong ref = new GammaTxnLong(stm);
+        final TxnExecutor executor = stm.newTxnFactoryBuilder().newTxnExecutor();
+
+        final int transactionCount = 10000;
+        TestThread[] threads = new TestThread[4];
+        for (int k = 0; k < threads.length; k++) {
+            threads[k] = new TestThread("IncThread-" + k) {
+                @Override
+                public void doRun() throws Exception {
+                    for (int i = 0; i < transactionCount; i++) {
+                        executor.execute(new TxnVoidCallable() {
+                            @Override
+                            public void call(Txn tx) throws Exception {
+                                ref.increment();
+                            }
+                        });
+                    }
+                }
+            };
+        }
+
+        startAll(threads);
+        joinAll(threads);
+
+        assertEquals(threads.length * transactionCount, ref.atomicGet());
+    }
+
+    private static GammaStm newStm() {
+        GammaStmConfig config = new GammaStmConfig();
+        config.adaptiveSchedulingEnabled = true;
+        return new GammaStm(config);
+    }
+}
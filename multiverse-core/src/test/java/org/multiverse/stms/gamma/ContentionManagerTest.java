@@ -0,0 +1,339 @@
+package org.multiverse.stms.gamma;
+
+import org.junit.Test;
+import org.multiverse.TestThread;
+import org.multiverse.api.LockMode;
+import org.multiverse.api.Txn;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.api.exceptions.ReadWriteConflict;
+import org.multiverse.stms.gamma.transactionalobjects.AbstractGammaObject;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+import org.multiverse.stms.gamma.transactions.fat.FatMonoGammaTxn;
+import org.multiverse.stms.gamma.transactions.fat.FatVariableLengthGammaTxn;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.multiverse.TestUtils.*;
+import static org.multiverse.stms.gamma.GammaTestUtils.assertRefHasExclusiveLock;
+
+public class ContentionManagerTest implements GammaConstants {
+
+    private static GammaStm newStm(ContentionManager contentionManager) {
+        GammaStmConfig config = new GammaStmConfig();
+        config.contentionManager = contentionManager;
+        return new GammaStm(config);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void karma_whenNegativeMaxLockRetries() {
+        new KarmaContentionManager(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void polka_whenTooLargeExponent() {
+        new PolkaContentionManager(16, 1000, 31);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void polka_whenZeroBaseDelay() {
+        new PolkaContentionManager(16, 0, 16);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void greedy_whenNegativeMaxLockRetries() {
+        new GreedyContentionManager(-1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void timestamp_whenZeroInterval() {
+        new TimestampContentionManager(0, 10);
+    }
+
+    @Test
+    public void whenNoContentionManager_thenDefault() {
+        GammaStm stm = new GammaStm();
+        assertNull(stm.getContentionManager());
+    }
+
+    @Test
+    public void karma_whenLockAcquired_thenKarmaIncreasedAndStoredInObject() {
+        GammaStm stm = newStm(new KarmaContentionManager());
+        GammaTxnLong ref1 = new GammaTxnLong(stm);
+        GammaTxnLong ref2 = new GammaTxnLong(stm);
+
+        GammaTxn tx = new FatVariableLengthGammaTxn(stm);
+        assertEquals(0, tx.contentionPriority);
+
+        ref1.getAndLock(tx, LockMode.Write);
+        ref2.getAndLock(tx, LockMode.Exclusive);
+
+        assertEquals(2, tx.contentionPriority);
+        assertEquals(1, ref1.lockOwnerPriority);
+        assertEquals(2, ref2.lockOwnerPriority);
+        tx.abort();
+    }
+
+    @Test
+    public void karma_whenRetried_thenKarmaKept() {
+        GammaStm stm = newStm(new KarmaContentionManager());
+        GammaTxnLong ref = new GammaTxnLong(stm);
+
+        GammaTxn tx = new FatMonoGammaTxn(stm);
+        ref.getAndLock(tx, LockMode.Write);
+        tx.abort();
+        tx.softReset();
+
+        assertEquals(1, tx.contentionPriority);
+
+        tx.init(tx.config);
+        assertEquals(0, tx.contentionPriority);
+    }
+
+    @Test
+    public void karma_whenLessKarmaThanOwner_thenAbortedImmediately() {
+        CountingContentionManager contentionManager = new CountingContentionManager(new KarmaContentionManager());
+        GammaStm stm = newStm(contentionManager);
+        GammaTxnLong ref = new GammaTxnLong(stm);
+
+        GammaTxn owner = new FatVariableLengthGammaTxn(stm);
+        ref.getAndLock(owner, LockMode.Exclusive);
+
+        GammaTxn tx = new FatVariableLengthGammaTxn(stm);
+        try {
+            ref.getAndLock(tx, LockMode.Exclusive);
+            fail();
+        } catch (ReadWriteConflict expected) {
+        }
+
+        assertEquals(1, contentionManager.failures.get());
+        assertRefHasExclusiveLock(ref, owner);
+        owner.abort();
+    }
+
+    @Test
+    public void karma_whenMoreKarmaThanOwner_thenRetriedAsOftenAsTheDifference() {
+        CountingContentionManager contentionManager = new CountingContentionManager(new KarmaContentionManager());
+        GammaStm stm = newStm(contentionManager);
+        GammaTxnLong ref = new GammaTxnLong(stm);
+
+        GammaTxn owner = new FatVariableLengthGammaTxn(stm);
+        ref.getAndLock(owner, LockMode.Exclusive);
+
+        GammaTxn tx = new FatVariableLengthGammaTxn(stm);
+        tx.contentionPriority = 3;
+        try {
+            ref.getAndLock(tx, LockMode.Exclusive);
+            fail();
+        } catch (ReadWriteConflict expected) {
+        }
+
+        //the karma difference is 2, so 2 retries and the third failure causes the abort.
+        assertEquals(3, contentionManager.failures.get());
+        owner.abort();
+    }
+
+    @Test
+    public void greedy_whenOlderThanOwner_thenWaitsForLock() {
+        final GammaStm stm = newStm(new GreedyContentionManager(Integer.MAX_VALUE));
+        final GammaTxnLong ref = new GammaTxnLong(stm);
+
+        final GammaTxn tx = new FatVariableLengthGammaTxn(stm);
+        final GammaTxn owner = new FatVariableLengthGammaTxn(stm);
+        assertTrue(tx.contentionPriority > owner.contentionPriority);
+        ref.getAndLock(owner, LockMode.Exclusive);
+
+        TestThread thread = new TestThread() {
+            @Override
+            public void doRun() throws Exception {
+                ref.getAndLock(tx, LockMode.Exclusive);
+            }
+        };
+        thread.start();
+
+        sleepMs(200);
+        assertAlive(thread);
+
+        owner.abort();
+        joinAll(thread);
+        assertRefHasExclusiveLock(ref, tx);
+        tx.abort();
+    }
+
+    @Test
+    public void greedy_whenYoungerThanOwner_thenAbortedImmediately() {
+        CountingContentionManager contentionManager = new CountingContentionManager(new GreedyContentionManager());
+        GammaStm stm = newStm(contentionManager);
+        GammaTxnLong ref = new GammaTxnLong(stm);
+
+        GammaTxn owner = new FatVariableLengthGammaTxn(stm);
+        GammaTxn tx = new FatVariableLengthGammaTxn(stm);
+        ref.getAndLock(owner, LockMode.Exclusive);
+
+        try {
+            ref.getAndLock(tx, LockMode.Exclusive);
+            fail();
+        } catch (ReadWriteConflict expected) {
+        }
+
+        assertEquals(1, contentionManager.failures.get());
+        owner.abort();
+    }
+
+    @Test
+    public void timestamp_whenOlderThanOwner_thenWaitsMaxIntervals() {
+        CountingContentionManager contentionManager = new CountingContentionManager(new TimestampContentionManager(1000, 5));
+        GammaStm stm = newStm(contentionManager);
+        GammaTxnLong ref = new GammaTxnLong(stm);
+
+        GammaTxn tx = new FatVariableLengthGammaTxn(stm);
+        GammaTxn owner = new FatVariableLengthGammaTxn(stm);
+        ref.getAndLock(owner, LockMode.Exclusive);
+
+        try {
+            ref.getAndLock(tx, LockMode.Exclusive);
+            fail();
+        } catch (ReadWriteConflict expected) {
+        }
+
+        assertEquals(6, contentionManager.failures.get());
+        owner.abort();
+    }
+
+    @Test
+    public void timestamp_whenYoungerThanOwner_thenWaitsSingleInterval() {
+        CountingContentionManager contentionManager = new CountingContentionManager(new TimestampContentionManager(1000, 5));
+        GammaStm stm = newStm(contentionManager);
+        GammaTxnLong ref = new GammaTxnLong(stm);
+
+        GammaTxn owner = new FatVariableLengthGammaTxn(stm);
+        GammaTxn tx = new FatVariableLengthGammaTxn(stm);
+        ref.getAndLock(owner, LockMode.Exclusive);
+
+        try {
+            ref.getAndLock(tx, LockMode.Exclusive);
+            fail();
+        } catch (ReadWriteConflict expected) {
+        }
+
+        assertEquals(2, contentionManager.failures.get());
+        owner.abort();
+    }
+
+    @Test
+    public void whenReadWriteConflict_thenContentionManagerInformedInsteadOfBackoff() {
+        CountingContentionManager contentionManager = new CountingContentionManager(new KarmaContentionManager());
+        final GammaStm stm = newStm(contentionManager);
+        final GammaTxnLong ref = new GammaTxnLong(stm);
+        final AtomicInteger attempts = new AtomicInteger();
+
+        stm.newTxnFactoryBuilder()
+                .setSpeculative(false)
+                .newTxnExecutor()
+                .execute(new TxnVoidCallable() {
+                    @Override
+                    public void call(Txn tx) throws Exception {
+                        ref.get();
+                        if (attempts.incrementAndGet() <= 2) {
+                            ref.atomicIncrementAndGet(1);
+                        }
+                        ref.increment();
+                    }
+                });
+
+        assertEquals(2, contentionManager.aborts.get());
+        assertEquals(3, ref.atomicGet());
+    }
+
+    @Test
+    public void integrationTest_karma() {
+        integrationTest(new KarmaContentionManager());
+    }
+
+    @Test
+    public void integrationTest_polka() {
+        integrationTest(new PolkaContentionManager());
+    }
+
+    @Test
+    public void integrationTest_greedy() {
+        integrationTest(new GreedyContentionManager());
+    }
+
+    @Test
+    public void integrationTest_timestamp() {
+        integrationTest(new TimestampContentionManager());
+    }
+
+    private void integrationTest(ContentionManager contentionManager) {
+        final GammaStm stm = newStm(contentionManager);
+        final GammaTxnLong[] refs = new GammaTxnLong[5];
+        for (int k = 0; k < refs.length; k++) {
+            refs[k] = new GammaTxnLong(stm);
+        }
+
+        final int transactionCount = 2000;
+        TestThread[] threads = new TestThread[3];
+        for (int k = 0; k < threads.length; k++) {
+            threads[k] = new TestThread("IncThread-" + k) {
+                @Override
+                public void doRun() throws Exception {
+                    for (int i = 0; i < transactionCount; i++) {
+                        stm.getDefaultTxnExecutor().execute(new TxnVoidCallable() {
+                            @Override
+                            public void call(Txn tx) throws Exception {
+                                //the refs are locked in a different order, so transactions can wait for each other.
+                                int offset = randomInt(refs.length);
+                                for (int j = 0; j < refs.length; j++) {
+                                    GammaTxnLong ref = refs[(offset + j) % refs.length];
+                                    ref.getAndLock(tx, LockMode.Write);
+                                    ref.increment();
+                                }
+                            }
+                        });
+                    }
+                }
+            };
+        }
+
+        startAll(threads);
+        joinAll(threads);
+
+        for (GammaTxnLong ref : refs) {
+            assertEquals(threads.length * transactionCount, ref.atomicGet());
+        }
+    }
+
+    static class CountingContentionManager implements ContentionManager {
+        private final ContentionManager target;
+        final AtomicInteger failures = new AtomicInteger();
+        final AtomicInteger aborts = new AtomicInteger();
+
+        CountingContentionManager(ContentionManager target) {
+            this.target = target;
+        }
+
+        @Override
+        public void onStart(GammaTxn tx) {
+            target.onStart(tx);
+        }
+
+        @Override
+        public void onLockAcquired(GammaTxn tx) {
+            target.onLockAcquired(tx);
+        }
+
+        @Override
+        public boolean onLockFailure(GammaTxn tx, AbstractGammaObject object, int failures) {
+            this.failures.incrementAndGet();
+            return target.onLockFailure(tx, object, failures);
+        }
+
+        @Override
+        public void onAbort(GammaTxn tx) {
+            aborts.incrementAndGet();
+            target.onAbort(tx);
+        }
+    }
+}
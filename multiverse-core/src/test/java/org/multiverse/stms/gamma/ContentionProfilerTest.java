@@ -0,0 +1,309 @@
+package org.multiverse.stms.gamma;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.api.LockMode;
+import org.multiverse.api.Txn;
+import org.multiverse.api.TxnExecutor;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+import org.multiverse.stms.gamma.transactionalobjects.Tranlocal;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+import static org.multiverse.stms.gamma.GammaStmUtils.toDebugString;
+
+public class ContentionProfilerTest implements GammaConstants {
+
+    private GammaStm stm;
+
+    @Before
+    public void setUp() {
+        stm = new GammaStm();
+        clearThreadLocalTxn();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenCapacityTooSmall() {
+        new ContentionProfiler(0, 1, false);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenSampleRateTooSmall() {
+        new ContentionProfiler(1, 0, false);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenStripesTooSmall() {
+        new ContentionProfiler(1, 1, false, 0);
+    }
+
+    @Test
+    public void whenStripesLargerThanCapacity_thenLimited() {
+        assertEquals(4, new ContentionProfiler(4, 1, false, 16).getStripeCount());
+        assertEquals(4, new ContentionProfiler(6, 1, false, 16).getStripeCount());
+        assertEquals(1, new ContentionProfiler(1, 1, false, 16).getStripeCount());
+        assertEquals(4, new ContentionProfiler(64, 1, false, 3).getStripeCount());
+    }
+
+    @Test
+    public void whenStriped_thenAllStripesReported() {
+        ContentionProfiler profiler = new ContentionProfiler(64, 1, false, 4);
+        GammaTxnLong[] refs = new GammaTxnLong[8];
+        for (int k = 0; k < refs.length; k++) {
+            refs[k] = new GammaTxnLong(stm);
+            record(profiler, refs[k], k + 1);
+        }
+
+        List<ContentionProfiler.HotRef> top = profiler.getTop(10);
+        assertEquals(refs.length, top.size());
+        for (int k = 0; k < refs.length; k++) {
+            assertSame(refs[refs.length - 1 - k], top.get(k).object);
+            assertEquals(refs.length - k, top.get(k).aborts);
+        }
+
+        profiler.reset();
+        assertTrue(profiler.getTop(10).isEmpty());
+    }
+
+    @Test
+    public void whenNotEnabled() {
+        assertNull(stm.getContentionProfiler());
+    }
+
+    @Test
+    public void whenEnabled() {
+        GammaStmConfig config = new GammaStmConfig();
+        config.contentionProfilingEnabled = true;
+        config.contentionProfilerCapacity = 10;
+        config.contentionProfilerSampleRate = 4;
+        GammaStm stm = new GammaStm(config);
+
+        ContentionProfiler profiler = stm.getContentionProfiler();
+        assertNotNull(profiler);
+        assertEquals(10, profiler.getCapacity());
+        assertEquals(4, profiler.getSampleRate());
+        assertFalse(profiler.isAllocationSitesEnabled());
+    }
+
+    @Test
+    public void whenEventsRecorded() {
+        ContentionProfiler profiler = new ContentionProfiler(10, 1, false, 1);
+        GammaTxnLong ref = new GammaTxnLong(stm);
+
+        profiler.onAbort(ref);
+        profiler.onAbort(ref);
+        profiler.onLockFailure(ref);
+        profiler.onReadConflict(ref);
+
+        List<ContentionProfiler.HotRef> top = profiler.getTop(10);
+        assertEquals(1, top.size());
+        ContentionProfiler.HotRef hotRef = top.get(0);
+        assertSame(ref, hotRef.object);
+        assertEquals(2, hotRef.aborts);
+        assertEquals(1, hotRef.lockFailures);
+        assertEquals(1, hotRef.readConflicts);
+        assertEquals(0, hotRef.error);
+        assertEquals(4, hotRef.total);
+    }
+
+    @Test
+    public void whenSampled_thenEventsAreWeighted() {
+        ContentionProfiler profiler = new ContentionProfiler(10, 8, false, 1);
+        GammaTxnLong ref = new GammaTxnLong(stm);
+
+        for (int k = 0; k < 8000; k++) {
+            profiler.onAbort(ref);
+        }
+
+        ContentionProfiler.HotRef hotRef = profiler.getTop(1).get(0);
+        assertEquals(0, hotRef.aborts % 8);
+        assertTrue("aborts was " + hotRef.aborts, hotRef.aborts > 4000 && hotRef.aborts < 16000);
+    }
+
+    @Test
+    public void getTop_sortedByTotal() {
+        ContentionProfiler profiler = new ContentionProfiler(10, 1, false, 1);
+        GammaTxnLong ref1 = new GammaTxnLong(stm);
+        GammaTxnLong ref2 = new GammaTxnLong(stm);
+        GammaTxnLong ref3 = new GammaTxnLong(stm);
+
+        record(profiler, ref1, 2);
+        record(profiler, ref2, 5);
+        record(profiler, ref3, 3);
+
+        List<ContentionProfiler.HotRef> top = profiler.getTop(2);
+        assertEquals(2, top.size());
+        assertSame(ref2, top.get(0).object);
+        assertSame(ref3, top.get(1).object);
+    }
+
+    @Test
+    public void whenFull_thenMinimumReplaced() {
+        ContentionProfiler profiler = new ContentionProfiler(2, 1, false, 1);
+        GammaTxnLong ref1 = new GammaTxnLong(stm);
+        GammaTxnLong ref2 = new GammaTxnLong(stm);
+        GammaTxnLong ref3 = new GammaTxnLong(stm);
+
+        record(profiler, ref1, 5);
+        record(profiler, ref2, 2);
+        record(profiler, ref3, 1);
+
+        List<ContentionProfiler.HotRef> top = profiler.getTop(10);
+        assertEquals(2, top.size());
+        assertSame(ref1, top.get(0).object);
+        assertEquals(5, top.get(0).total);
+        assertSame(ref3, top.get(1).object);
+        assertEquals(1, top.get(1).aborts);
+        assertEquals(2, top.get(1).error);
+        assertEquals(3, top.get(1).total);
+    }
+
+    @Test
+    public void whenHeavyHitterBetweenNoise_thenKept() {
+        ContentionProfiler profiler = new ContentionProfiler(4, 1, false, 1);
+        GammaTxnLong hot = new GammaTxnLong(stm);
+
+        for (int k = 0; k < 100; k++) {
+            profiler.onAbort(hot);
+            profiler.onAbort(new GammaTxnLong(stm));
+        }
+
+        assertSame(hot, profiler.getTop(1).get(0).object);
+        assertEquals(100, profiler.getTop(1).get(0).aborts);
+    }
+
+    @Test
+    public void reset() {
+        ContentionProfiler profiler = new ContentionProfiler(10, 1, false, 1);
+        GammaTxnLong ref = new GammaTxnLong(stm);
+        profiler.setName(ref, "ref");
+        profiler.onAbort(ref);
+
+        profiler.reset();
+
+        assertTrue(profiler.getTop(10).isEmpty());
+        assertEquals("ref", profiler.getName(ref));
+    }
+
+    @Test
+    public void getName() {
+        ContentionProfiler profiler = new ContentionProfiler(10, 1, false, 1);
+        GammaTxnLong ref = new GammaTxnLong(stm);
+
+        assertEquals(toDebugString(ref), profiler.getName(ref));
+
+        profiler.setName(ref, "balance");
+        assertEquals("balance", profiler.getName(ref));
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void setName_whenNullName() {
+        new ContentionProfiler(10, 1, false, 1).setName(new GammaTxnLong(stm), null);
+    }
+
+    @Test
+    public void whenAllocationSitesEnabled() {
+        GammaStmConfig config = new GammaStmConfig();
+        config.contentionProfilingEnabled = true;
+        config.contentionProfilerAllocationSites = true;
+        GammaStm stm = new GammaStm(config);
+
+        GammaTxnLong ref = new GammaTxnLong(stm);
+
+        String name = stm.getContentionProfiler().getName(ref);
+        assertTrue(name, name.contains(ContentionProfilerTest.class.getName() + ".whenAllocationSitesEnabled"));
+    }
+
+    @Test
+    public void dump() {
+        ContentionProfiler profiler = new ContentionProfiler(10, 1, false, 1);
+        GammaTxnLong ref = new GammaTxnLong(stm);
+        profiler.setName(ref, "balance");
+        record(profiler, ref, 3);
+
+        String dump = profiler.dump(10);
+
+        String[] lines = dump.split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].startsWith("rank"));
+        assertTrue(lines[1].startsWith("1"));
+        assertTrue(lines[1].trim().endsWith("balance"));
+    }
+
+    @Test
+    public void whenReadWriteConflict_thenAbortAttributed() {
+        final GammaStm stm = newProfilingStm();
+        final GammaTxnLong ref = new GammaTxnLong(stm);
+        final AtomicInteger attempts = new AtomicInteger();
+        TxnExecutor executor = stm.newTxnFactoryBuilder()
+                .setSpeculative(false)
+                .newTxnExecutor();
+
+        executor.execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                ref.get();
+                if (attempts.incrementAndGet() == 1) {
+                    ref.atomicIncrementAndGet(1);
+                }
+                ref.increment();
+            }
+        });
+
+        List<ContentionProfiler.HotRef> top = stm.getContentionProfiler().getTop(10);
+        assertEquals(1, top.size());
+        assertSame(ref, top.get(0).object);
+        assertEquals(1, top.get(0).aborts);
+    }
+
+    @Test
+    public void whenLockedByOtherTransaction_thenLockFailureAttributed() {
+        GammaStm stm = newProfilingStm();
+        GammaTxnLong ref = new GammaTxnLong(stm);
+        GammaTxn otherTx = stm.newDefaultTxn();
+        ref.getLock().acquire(otherTx, LockMode.Exclusive);
+
+        int result = ref.arriveAndLock(0, LOCKMODE_EXCLUSIVE);
+
+        assertEquals(FAILURE, result);
+        ContentionProfiler.HotRef hotRef = stm.getContentionProfiler().getTop(1).get(0);
+        assertSame(ref, hotRef.object);
+        assertEquals(1, hotRef.lockFailures);
+    }
+
+    @Test
+    public void whenReadConflict_thenAttributed() {
+        GammaStm stm = newProfilingStm();
+        GammaTxnLong ref = new GammaTxnLong(stm);
+        GammaTxn tx = stm.newDefaultTxn();
+        Tranlocal tranlocal = ref.openForRead(tx, LOCKMODE_NONE);
+
+        assertFalse(ref.hasReadConflict(tranlocal));
+        assertTrue(stm.getContentionProfiler().getTop(1).isEmpty());
+
+        ref.atomicIncrementAndGet(1);
+
+        assertTrue(ref.hasReadConflict(tranlocal));
+        ContentionProfiler.HotRef hotRef = stm.getContentionProfiler().getTop(1).get(0);
+        assertSame(ref, hotRef.object);
+        assertEquals(1, hotRef.readConflicts);
+    }
+
+    private static GammaStm newProfilingStm() {
+        GammaStmConfig config = new GammaStmConfig();
+        config.contentionProfilingEnabled = true;
+        config.contentionProfilerSampleRate = 1;
+        return new GammaStm(config);
+    }
+
+    private static void record(ContentionProfiler profiler, GammaTxnLong ref, int count) {
+        for (int k = 0; k < count; k++) {
+            profiler.onAbort(ref);
+        }
+    }
+}
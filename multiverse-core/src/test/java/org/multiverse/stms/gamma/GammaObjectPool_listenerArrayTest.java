@@ -3,6 +3,8 @@ package org.multiverse.stms.gamma;
 import org.junit.Before;
 import org.junit.Test;
 
+import static org.junit.Assert.*;
+
 public class GammaObjectPool_listenerArrayTest {
     private GammaObjectPool pool;
 
@@ -15,4 +17,42 @@ public class GammaObjectPool_listenerArrayTest {
     public void whenNullPutInPool_thenNullPointerException() {
         pool.putListenersArray(null);
     }
+
+    @Test
+    public void whenPoolEmpty_thenNewArrayWithMinimalSize() {
+        Listeners[] array = pool.takeListenersArray(10);
+
+        assertEquals(10, array.length);
+    }
+
+    @Test
+    public void whenPutAndTaken_thenSameArray() {
+        Listeners[] array = new Listeners[10];
+        pool.putListenersArray(array);
+
+        assertSame(array, pool.takeListenersArray(5));
+        assertNotSame(array, pool.takeListenersArray(5));
+    }
+
+    @Test
+    public void whenPooledArrayTooSmall_thenNewArray() {
+        Listeners[] array = new Listeners[10];
+        pool.putListenersArray(array);
+
+        Listeners[] result = pool.takeListenersArray(20);
+
+        assertNotSame(array, result);
+        assertEquals(20, result.length);
+        assertSame(array, pool.takeListenersArray(10));
+    }
+
+    @Test
+    public void whenSmallerArrayPut_thenLargestKept() {
+        Listeners[] large = new Listeners[20];
+        Listeners[] small = new Listeners[10];
+        pool.putListenersArray(large);
+        pool.putListenersArray(small);
+
+        assertSame(large, pool.takeListenersArray(10));
+    }
 }
@@ -57,6 +57,16 @@ public class GammaObjectPool_tranlocalArrayTest implements GammaConstants {
         normalScenario(100);
     }
 
+    @Test
+    public void whenArrayTooLarge_thenNotPooled() {
+        Tranlocal[] array = new Tranlocal[8193];
+        pool.putTranlocalArray(array);
+
+        Tranlocal[] result = pool.takeTranlocalArray(array.length);
+        assertNotSame(array, result);
+        assertEquals(array.length, result.length);
+    }
+
     public void normalScenario(int size) {
         Tranlocal[] array = new Tranlocal[size];
         pool.putTranlocalArray(array);
@@ -118,4 +118,25 @@ public class GammaStmConfigTest {
         config.timeoutNs = -1;
         config.validate();
     }
+
+    @Test(expected = IllegalStateException.class)
+    public void conflictCounterStripes_whenSmallerThanOne() {
+        GammaStmConfig config = new GammaStmConfig();
+        config.conflictCounterStripes = 0;
+        config.validate();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void maxVersionChainLength_whenSmallerThanOne() {
+        GammaStmConfig config = new GammaStmConfig();
+        config.maxVersionChainLength = 0;
+        config.validate();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void snapshotReaderSlots_whenSmallerThanOne() {
+        GammaStmConfig config = new GammaStmConfig();
+        config.snapshotReaderSlots = 0;
+        config.validate();
+    }
 }
@@ -0,0 +1,199 @@
+package org.multiverse.stms.gamma;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.api.exceptions.ReadWriteConflict;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnRef;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
+import org.multiverse.stms.gamma.transactions.fat.FatFixedLengthGammaTxn;
+import org.multiverse.stms.gamma.transactions.fat.FatVariableLengthGammaTxn;
+
+import static org.junit.Assert.*;
+import static org.multiverse.TestUtils.assertIsAborted;
+import static org.multiverse.TestUtils.assertIsActive;
+import static org.multiverse.stms.gamma.GammaTestUtils.causeLotsOfConflicts;
+
+public class GammaStm_conflictDomainTest implements GammaConstants {
+
+    private GammaStm stm;
+
+    @Before
+    public void setUp() {
+        stm = new GammaStm();
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void getConflictDomain_whenNullName() {
+        stm.getConflictDomain(null);
+    }
+
+    @Test
+    public void getConflictDomain_whenSameName_thenSameCounter() {
+        GlobalConflictCounter counter1 = stm.getConflictDomain("a");
+        GlobalConflictCounter counter2 = stm.getConflictDomain("a");
+        GlobalConflictCounter counter3 = stm.getConflictDomain("b");
+
+        assertSame(counter1, counter2);
+        assertNotSame(counter1, counter3);
+        assertNotSame(stm.getGlobalConflictCounter(), counter1);
+    }
+
+    @Test
+    public void defaultRefFactory_usesGlobalConflictCounter() {
+        GammaTxnLong ref = stm.getDefaultRefFactory().newTxnLong(0);
+
+        assertSame(stm.getGlobalConflictCounter(), ref.conflictCounter);
+    }
+
+    @Test
+    public void setConflictDomain() {
+        GammaTxnRefFactory factory = stm.getTxRefFactoryBuilder()
+                .setConflictDomain("a")
+                .build();
+
+        GammaTxnLong ref1 = factory.newTxnLong(0);
+        GammaTxnRef<String> ref2 = factory.newTxnRef("foo");
+
+        assertSame(stm.getConflictDomain("a"), ref1.conflictCounter);
+        assertSame(stm.getConflictDomain("a"), ref2.conflictCounter);
+    }
+
+    @Test
+    public void setConflictDomain_whenConflictInDomain_thenSignalledOnDomainOnly() {
+        GammaTxnLong ref = stm.getTxRefFactoryBuilder()
+                .setConflictDomain("a")
+                .build()
+                .newTxnLong(0);
+
+        GammaTxnConfig config = new GammaTxnConfig(stm)
+                .setMaximumPoorMansConflictScanLength(0);
+        FatVariableLengthGammaTxn tx = new FatVariableLengthGammaTxn(config);
+        ref.openForRead(tx, LOCKMODE_NONE);
+
+        long globalCount = stm.getGlobalConflictCounter().count();
+        long domainCount = stm.getConflictDomain("a").count();
+
+        ref.atomicIncrementAndGet(1);
+
+        assertEquals(globalCount, stm.getGlobalConflictCounter().count());
+        assertEquals(domainCount + 1, stm.getConflictDomain("a").count());
+        tx.abort();
+    }
+
+    @Test
+    public void readConsistency_whenConflictInReadDomain_thenConflictDetected() {
+        GammaTxnRefFactory factory = stm.getTxRefFactoryBuilder()
+                .setConflictDomain("a")
+                .build();
+        GammaTxnLong ref1 = factory.newTxnLong(0);
+        GammaTxnLong ref2 = factory.newTxnLong(0);
+
+        GammaTxnConfig config = new GammaTxnConfig(stm)
+                .setMaximumPoorMansConflictScanLength(0);
+        FatVariableLengthGammaTxn tx = new FatVariableLengthGammaTxn(config);
+        ref1.openForRead(tx, LOCKMODE_NONE);
+
+        ref1.atomicIncrementAndGet(1);
+
+        try {
+            ref2.openForRead(tx, LOCKMODE_NONE);
+            fail();
+        } catch (ReadWriteConflict expected) {
+        }
+
+        assertIsAborted(tx);
+    }
+
+    @Test
+    public void readConsistency_whenConflictInOtherDomain_thenNoConflictScan() {
+        GammaTxnRefFactory factory = stm.getTxRefFactoryBuilder()
+                .setConflictDomain("a")
+                .build();
+        GammaTxnLong ref1 = factory.newTxnLong(0);
+        GammaTxnLong ref2 = factory.newTxnLong(0);
+
+        GammaTxnConfig config = new GammaTxnConfig(stm)
+                .setMaximumPoorMansConflictScanLength(0);
+        FatVariableLengthGammaTxn tx = new FatVariableLengthGammaTxn(config);
+        ref1.openForRead(tx, LOCKMODE_NONE);
+        long localConflictCount = tx.localConflictCount;
+        long domainConflictCount = tx.domainConflictCounts[0];
+
+        stm.getConflictDomain("b").signalConflict();
+
+        ref2.openForRead(tx, LOCKMODE_NONE);
+
+        assertIsActive(tx);
+        assertEquals(1, tx.domainConflictCounterCount);
+        assertSame(stm.getConflictDomain("a"), tx.domainConflictCounters[0]);
+        assertEquals(domainConflictCount, tx.domainConflictCounts[0]);
+        assertEquals(localConflictCount, tx.localConflictCount);
+    }
+
+    @Test
+    public void readConsistency_whenConflictInDefaultDomain_thenRescan() {
+        GammaTxnLong ref1 = stm.getTxRefFactoryBuilder()
+                .setConflictDomain("a")
+                .build()
+                .newTxnLong(0);
+        GammaTxnLong ref2 = new GammaTxnLong(stm);
+
+        GammaTxnConfig config = new GammaTxnConfig(stm)
+                .setMaximumPoorMansConflictScanLength(0);
+        FatVariableLengthGammaTxn tx = new FatVariableLengthGammaTxn(config);
+        ref1.openForRead(tx, LOCKMODE_NONE);
+
+        causeLotsOfConflicts(stm);
+        long newConflictCount = stm.getGlobalConflictCounter().count();
+
+        ref2.openForRead(tx, LOCKMODE_NONE);
+
+        assertIsActive(tx);
+        assertEquals(newConflictCount, tx.localConflictCount);
+    }
+
+    @Test
+    public void commit_whenCommitConflict_thenOnlyWrittenDomainSignalled_variableLength() {
+        GammaTxnConfig config = new GammaTxnConfig(stm)
+                .setMaximumPoorMansConflictScanLength(0);
+        commit_whenCommitConflict_thenOnlyWrittenDomainSignalled(new FatVariableLengthGammaTxn(config));
+    }
+
+    @Test
+    public void commit_whenCommitConflict_thenOnlyWrittenDomainSignalled_fixedLength() {
+        GammaTxnConfig config = new GammaTxnConfig(stm)
+                .setMaximumPoorMansConflictScanLength(0);
+        commit_whenCommitConflict_thenOnlyWrittenDomainSignalled(new FatFixedLengthGammaTxn(config));
+    }
+
+    private void commit_whenCommitConflict_thenOnlyWrittenDomainSignalled(GammaTxn tx) {
+        GammaTxnLong readRef = stm.getTxRefFactoryBuilder()
+                .setConflictDomain("a")
+                .build()
+                .newTxnLong(0);
+        GammaTxnLong writtenRef = stm.getTxRefFactoryBuilder()
+                .setConflictDomain("b")
+                .build()
+                .newTxnLong(0);
+
+        readRef.openForRead(tx, LOCKMODE_NONE);
+        writtenRef.openForWrite(tx, LOCKMODE_NONE).long_value++;
+
+        //a reader of the written ref, so the commit causes a conflict.
+        GammaTxnConfig readerConfig = new GammaTxnConfig(stm)
+                .setMaximumPoorMansConflictScanLength(0);
+        FatVariableLengthGammaTxn reader = new FatVariableLengthGammaTxn(readerConfig);
+        writtenRef.openForRead(reader, LOCKMODE_NONE);
+
+        long countA = stm.getConflictDomain("a").count();
+        long countB = stm.getConflictDomain("b").count();
+
+        tx.commit();
+
+        assertEquals(countA, stm.getConflictDomain("a").count());
+        assertEquals(countB + 1, stm.getConflictDomain("b").count());
+        reader.abort();
+    }
+}
@@ -0,0 +1,95 @@
+package org.multiverse.stms.gamma;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.api.Txn;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.stms.gamma.transactionalobjects.*;
+
+import static org.junit.Assert.*;
+import static org.multiverse.TestUtils.assertInstanceof;
+
+public class GammaStm_paddedRefsTest implements GammaConstants {
+
+    private GammaStm stm;
+
+    @Before
+    public void setUp() {
+        stm = new GammaStm();
+    }
+
+    @Test
+    public void whenNotPadded() {
+        GammaTxnRefFactory factory = stm.getTxRefFactoryBuilder().build();
+
+        assertSame(GammaTxnLong.class, factory.newTxnLong(0).getClass());
+        assertSame(GammaTxnRef.class, factory.newTxnRef(null).getClass());
+    }
+
+    @Test
+    public void whenPadded() {
+        GammaTxnRefFactory factory = stm.getTxRefFactoryBuilder()
+                .setPadded(true)
+                .build();
+
+        assertInstanceof(PaddedGammaTxnLong.class, factory.newTxnLong(0));
+        assertInstanceof(PaddedGammaTxnInteger.class, factory.newTxnInteger(0));
+        assertInstanceof(PaddedGammaTxnBoolean.class, factory.newTxnBoolean(false));
+        assertInstanceof(PaddedGammaTxnDouble.class, factory.newTxnDouble(0));
+        assertInstanceof(PaddedGammaTxnRef.class, factory.newTxnRef(null));
+    }
+
+    @Test
+    public void whenPaddedAndConflictDomain_thenBothApplied() {
+        GammaTxnRefFactory factory = stm.getTxRefFactoryBuilder()
+                .setPadded(true)
+                .setConflictDomain("a")
+                .build();
+
+        GammaTxnLong ref = factory.newTxnLong(0);
+
+        assertInstanceof(PaddedGammaTxnLong.class, ref);
+        assertSame(stm.getConflictDomain("a"), ref.conflictCounter);
+    }
+
+    @Test
+    public void setPadded_whenNoChange_thenSameBuilder() {
+        GammaTxnRefFactoryBuilder builder = stm.getTxRefFactoryBuilder();
+
+        assertSame(builder, builder.setPadded(false));
+        assertNotSame(builder, builder.setPadded(true));
+    }
+
+    @Test
+    public void whenPadded_thenInitialValuesSet() {
+        GammaTxnRefFactory factory = stm.getTxRefFactoryBuilder()
+                .setPadded(true)
+                .build();
+
+        assertEquals(10, factory.newTxnLong(10).atomicGet());
+        assertEquals(20, factory.newTxnInteger(20).atomicGet());
+        assertTrue(factory.newTxnBoolean(true).atomicGet());
+        assertEquals(1.5, factory.newTxnDouble(1.5).atomicGet(), 0.0);
+        assertEquals("foo", factory.newTxnRef("foo").atomicGet());
+    }
+
+    @Test
+    public void whenPadded_thenUsableInTransaction() {
+        GammaTxnRefFactory factory = stm.getTxRefFactoryBuilder()
+                .setPadded(true)
+                .build();
+        final GammaTxnLong ref1 = factory.newTxnLong(0);
+        final GammaTxnRef<String> ref2 = factory.newTxnRef("foo");
+
+        stm.getDefaultTxnExecutor().execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                ref1.increment();
+                ref2.set(ref2.get() + "bar");
+            }
+        });
+
+        assertEquals(1, ref1.atomicGet());
+        assertEquals("foobar", ref2.atomicGet());
+    }
+}
@@ -0,0 +1,311 @@
+package org.multiverse.stms.gamma;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.TestThread;
+import org.multiverse.api.Txn;
+import org.multiverse.api.TxnExecutor;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.api.exceptions.ReadWriteConflict;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnRef;
+import org.multiverse.stms.gamma.transactionalobjects.GammaVersion;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
+import org.multiverse.stms.gamma.transactions.fat.FatFixedLengthGammaTxn;
+import org.multiverse.stms.gamma.transactions.fat.FatMonoGammaTxn;
+import org.multiverse.stms.gamma.transactions.fat.FatVariableLengthGammaTxn;
+
+import static org.junit.Assert.*;
+import static org.multiverse.TestUtils.*;
+
+public class GammaStm_snapshotReadsTest implements GammaConstants {
+
+    private GammaStm stm;
+
+    @Before
+    public void setUp() {
+        stm = newSnapshotStm(8);
+    }
+
+    private static GammaStm newSnapshotStm(int maxVersionChainLength) {
+        GammaStmConfig config = new GammaStmConfig();
+        config.snapshotReadsEnabled = true;
+        config.maxVersionChainLength = maxVersionChainLength;
+        return new GammaStm(config);
+    }
+
+    private static int versionChainLength(GammaTxnLong ref) {
+        int length = 0;
+        for (GammaVersion node = ref.versions; node != null; node = node.previous) {
+            length++;
+        }
+        return length;
+    }
+
+    private void updateBoth(GammaTxnLong ref1, GammaTxnLong ref2, long value) {
+        GammaTxn tx = stm.newDefaultTxn();
+        ref1.set(tx, value);
+        ref2.set(tx, value);
+        tx.commit();
+    }
+
+    @Test
+    public void whenNotEnabled() {
+        GammaStm stm = new GammaStm();
+
+        assertNull(stm.getSnapshotClock());
+    }
+
+    @Test
+    public void whenNotEnabled_thenReadonlyTransactionConflicts() {
+        GammaStm stm = new GammaStm();
+        GammaTxnLong ref1 = new GammaTxnLong(stm, 1);
+        GammaTxnLong ref2 = new GammaTxnLong(stm, 1);
+
+        FatVariableLengthGammaTxn tx = new FatVariableLengthGammaTxn(new GammaTxnConfig(stm).setReadonly(true));
+        ref1.get(tx);
+
+        GammaTxn updateTx = stm.newDefaultTxn();
+        ref1.set(updateTx, 2);
+        ref2.set(updateTx, 2);
+        updateTx.commit();
+
+        try {
+            ref2.get(tx);
+            fail();
+        } catch (ReadWriteConflict expected) {
+        }
+
+        assertIsAborted(tx);
+    }
+
+    @Test
+    public void fatVariableLength_whenConcurrentUpdate_thenSnapshotRead() {
+        GammaTxnLong ref1 = new GammaTxnLong(stm, 1);
+        GammaTxnLong ref2 = new GammaTxnLong(stm, 1);
+
+        FatVariableLengthGammaTxn tx = new FatVariableLengthGammaTxn(new GammaTxnConfig(stm).setReadonly(true));
+        assertEquals(1, ref1.get(tx));
+
+        updateBoth(ref1, ref2, 2);
+
+        assertEquals(1, ref2.get(tx));
+        assertEquals(1, ref1.get(tx));
+        tx.commit();
+
+        assertIsCommitted(tx);
+        assertEquals(2, ref1.atomicGet());
+        assertEquals(2, ref2.atomicGet());
+    }
+
+    @Test
+    public void fatFixedLength_whenConcurrentUpdate_thenSnapshotRead() {
+        GammaTxnLong ref1 = new GammaTxnLong(stm, 1);
+        GammaTxnLong ref2 = new GammaTxnLong(stm, 1);
+
+        FatFixedLengthGammaTxn tx = new FatFixedLengthGammaTxn(new GammaTxnConfig(stm).setReadonly(true));
+        assertEquals(1, ref1.get(tx));
+
+        updateBoth(ref1, ref2, 2);
+
+        assertEquals(1, ref2.get(tx));
+        tx.commit();
+
+        assertIsCommitted(tx);
+    }
+
+    @Test
+    public void fatMono_whenConcurrentUpdate_thenSnapshotRead() {
+        GammaTxnRef<String> ref = new GammaTxnRef<String>(stm, "foo");
+
+        FatMonoGammaTxn tx = new FatMonoGammaTxn(new GammaTxnConfig(stm).setReadonly(true));
+        assertEquals("foo", ref.get(tx));
+
+        ref.atomicSet("bar");
+
+        assertEquals("foo", ref.get(tx));
+        tx.commit();
+
+        assertIsCommitted(tx);
+        assertEquals("bar", ref.atomicGet());
+    }
+
+    @Test
+    public void whenSnapshotTakenBeforeUpdate_thenUpdateNotVisible() {
+        GammaTxnLong ref1 = new GammaTxnLong(stm, 1);
+        GammaTxnLong ref2 = new GammaTxnLong(stm, 1);
+        GammaTxnLong ref3 = new GammaTxnLong(stm, 1);
+
+        FatVariableLengthGammaTxn tx = new FatVariableLengthGammaTxn(new GammaTxnConfig(stm).setReadonly(true));
+        ref3.get(tx);
+
+        ref1.atomicIncrementAndGet(1);
+        updateBoth(ref1, ref2, 10);
+
+        assertEquals(1, ref1.get(tx));
+        assertEquals(1, ref2.get(tx));
+        tx.commit();
+    }
+
+    @Test
+    public void whenUpdateTransaction_thenNoSnapshotRead() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 1);
+
+        FatVariableLengthGammaTxn tx = new FatVariableLengthGammaTxn(stm);
+        ref.get(tx);
+
+        assertEquals(-1, tx.snapshotSlot);
+        tx.abort();
+    }
+
+    @Test
+    public void whenCommitOrAbort_thenSnapshotReleased() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 1);
+        GammaTxnConfig config = new GammaTxnConfig(stm).setReadonly(true);
+
+        FatVariableLengthGammaTxn tx = new FatVariableLengthGammaTxn(config);
+        ref.get(tx);
+        assertTrue(tx.snapshotSlot >= 0);
+        tx.commit();
+        assertEquals(-1, tx.snapshotSlot);
+
+        tx = new FatVariableLengthGammaTxn(config);
+        ref.get(tx);
+        tx.abort();
+        assertEquals(-1, tx.snapshotSlot);
+    }
+
+    @Test
+    public void whenNoReaders_thenOldVersionsReclaimed() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 0);
+
+        for (int k = 0; k < 10; k++) {
+            ref.atomicIncrementAndGet(1);
+        }
+
+        assertEquals(2, versionChainLength(ref));
+        assertEquals(10, ref.versions.long_value);
+    }
+
+    @Test
+    public void whenActiveReader_thenVersionsKeptUntilReaderCompletes() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 0);
+
+        FatVariableLengthGammaTxn tx = new FatVariableLengthGammaTxn(new GammaTxnConfig(stm).setReadonly(true));
+        ref.get(tx);
+
+        for (int k = 0; k < 5; k++) {
+            ref.atomicIncrementAndGet(1);
+        }
+
+        assertEquals(6, versionChainLength(ref));
+
+        tx.commit();
+        ref.atomicIncrementAndGet(1);
+
+        assertEquals(2, versionChainLength(ref));
+    }
+
+    @Test
+    public void whenVersionChainLengthExceeded_thenReadWriteConflict() {
+        GammaStm stm = newSnapshotStm(2);
+        GammaTxnLong ref1 = new GammaTxnLong(stm, 0);
+        GammaTxnLong ref2 = new GammaTxnLong(stm, 0);
+
+        FatVariableLengthGammaTxn tx = new FatVariableLengthGammaTxn(new GammaTxnConfig(stm).setReadonly(true));
+        ref1.get(tx);
+
+        for (int k = 0; k < 3; k++) {
+            ref2.atomicIncrementAndGet(1);
+        }
+
+        assertEquals(2, versionChainLength(ref2));
+
+        try {
+            ref2.get(tx);
+            fail();
+        } catch (ReadWriteConflict expected) {
+        }
+
+        assertIsAborted(tx);
+        assertEquals(-1, tx.snapshotSlot);
+    }
+
+    @Test
+    public void whenAllReaderSlotsTaken_thenNormalRead() {
+        GammaStmConfig config = new GammaStmConfig();
+        config.snapshotReadsEnabled = true;
+        config.snapshotReaderSlots = 1;
+        GammaStm stm = new GammaStm(config);
+        GammaTxnLong ref = new GammaTxnLong(stm, 1);
+        GammaTxnConfig txConfig = new GammaTxnConfig(stm).setReadonly(true);
+
+        FatVariableLengthGammaTxn tx1 = new FatVariableLengthGammaTxn(txConfig);
+        ref.get(tx1);
+        FatVariableLengthGammaTxn tx2 = new FatVariableLengthGammaTxn(txConfig);
+        ref.get(tx2);
+
+        assertTrue(tx1.snapshotSlot >= 0);
+        assertEquals(-1, tx2.snapshotSlot);
+        assertTrue(tx2.hasReads);
+        tx1.commit();
+        tx2.commit();
+    }
+
+    @Test
+    public void integrationTest_readonlyTransactionsNeverConflict() {
+        //the chain needs to be long enough to survive all updates done during a single readonly transaction.
+        stm = newSnapshotStm(10000);
+        final GammaTxnLong[] accounts = new GammaTxnLong[10];
+        for (int k = 0; k < accounts.length; k++) {
+            accounts[k] = new GammaTxnLong(stm, 100);
+        }
+
+        final TxnExecutor updateExecutor = stm.newTxnFactoryBuilder().newTxnExecutor();
+        final TxnExecutor readonlyExecutor = stm.newTxnFactoryBuilder()
+                .setReadonly(true)
+                .setSpeculative(false)
+                .setMaxRetries(0)
+                .newTxnExecutor();
+
+        TestThread updateThread = new TestThread("UpdateThread") {
+            @Override
+            public void doRun() throws Exception {
+                for (int k = 0; k < 20000; k++) {
+                    final int from = randomInt(accounts.length);
+                    final int to = randomInt(accounts.length);
+                    updateExecutor.execute(new TxnVoidCallable() {
+                        @Override
+                        public void call(Txn tx) throws Exception {
+                            accounts[from].decrement(tx, 1);
+                            accounts[to].increment(tx, 1);
+                        }
+                    });
+                }
+            }
+        };
+
+        TestThread readThread = new TestThread("ReadThread") {
+            @Override
+            public void doRun() throws Exception {
+                for (int k = 0; k < 5000; k++) {
+                    readonlyExecutor.execute(new TxnVoidCallable() {
+                        @Override
+                        public void call(Txn tx) throws Exception {
+                            long sum = 0;
+                            for (GammaTxnLong account : accounts) {
+                                sum += account.get(tx);
+                                Thread.yield();
+                            }
+                            assertEquals(accounts.length * 100, sum);
+                        }
+                    });
+                }
+            }
+        };
+
+        startAll(updateThread, readThread);
+        joinAll(updateThread, readThread);
+    }
+}
@@ -0,0 +1,100 @@
+package org.multiverse.stms.gamma;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.api.AdaptiveBackoffPolicy;
+import org.multiverse.api.Txn;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+
+public class GammaTxnExecutor_adaptiveBackoffTest {
+
+    private AdaptiveBackoffPolicy prototype;
+    private GammaStm stm;
+
+    @Before
+    public void setUp() {
+        prototype = new AdaptiveBackoffPolicy(1, 10, 100, 100, 100);
+        GammaStmConfig config = new GammaStmConfig();
+        config.backoffPolicy = prototype;
+        stm = new GammaStm(config);
+        clearThreadLocalTxn();
+    }
+
+    @Test
+    public void whenNotAdaptive_thenConfiguredPolicyUsed() {
+        AbstractGammaTxnExecutor executor = (AbstractGammaTxnExecutor) new GammaStm().newTxnFactoryBuilder()
+                .newTxnExecutor();
+
+        assertNull(executor.adaptiveBackoffPolicy);
+        assertSame(executor.txnConfig.backoffPolicy, executor.backoffPolicy);
+    }
+
+    @Test
+    public void whenAdaptive_thenEveryFamilyGetsItsOwnInstance() {
+        AbstractGammaTxnExecutor executor1 = (AbstractGammaTxnExecutor) stm.newTxnFactoryBuilder()
+                .setFamilyName("family1")
+                .newTxnExecutor();
+        AbstractGammaTxnExecutor executor2 = (AbstractGammaTxnExecutor) stm.newTxnFactoryBuilder()
+                .setFamilyName("family2")
+                .newTxnExecutor();
+
+        assertNotNull(executor1.adaptiveBackoffPolicy);
+        assertNotNull(executor2.adaptiveBackoffPolicy);
+        assertNotSame(prototype, executor1.adaptiveBackoffPolicy);
+        assertNotSame(executor1.adaptiveBackoffPolicy, executor2.adaptiveBackoffPolicy);
+        assertSame(executor1.adaptiveBackoffPolicy, executor1.backoffPolicy);
+    }
+
+    @Test
+    public void whenConflicts_thenOnlyContentionOfFamilyIncreased() {
+        final GammaTxnLong ref = new GammaTxnLong(stm);
+        final AtomicInteger attempts = new AtomicInteger();
+
+        AbstractGammaTxnExecutor executor = (AbstractGammaTxnExecutor) stm.newTxnFactoryBuilder()
+                .setSpeculative(false)
+                .setMaxRetries(100)
+                .newTxnExecutor();
+
+        executor.execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                ref.get();
+                if (attempts.incrementAndGet() <= 20) {
+                    ref.atomicIncrementAndGet(1);
+                }
+                ref.increment();
+            }
+        });
+
+        assertEquals(21, ref.atomicGet());
+        assertTrue(executor.adaptiveBackoffPolicy.getContention() > 50);
+        assertEquals(0, prototype.getContention());
+    }
+
+    @Test
+    public void whenCommits_thenContentionDecreases() {
+        final GammaTxnLong ref = new GammaTxnLong(stm);
+        AbstractGammaTxnExecutor executor = (AbstractGammaTxnExecutor) stm.newTxnFactoryBuilder()
+                .newTxnExecutor();
+
+        for (int k = 0; k < 50; k++) {
+            executor.adaptiveBackoffPolicy.delayUninterruptible(1);
+        }
+        int contention = executor.adaptiveBackoffPolicy.getContention();
+
+        executor.execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                ref.increment();
+            }
+        });
+
+        assertTrue(executor.adaptiveBackoffPolicy.getContention() < contention);
+    }
+}
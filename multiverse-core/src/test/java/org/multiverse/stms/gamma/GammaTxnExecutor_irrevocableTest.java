@@ -0,0 +1,260 @@
+package org.multiverse.stms.gamma;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.TestThread;
+import org.multiverse.api.Txn;
+import org.multiverse.api.TxnExecutor;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.api.exceptions.ReadWriteConflict;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
+import org.multiverse.stms.gamma.transactions.fat.FatVariableLengthGammaTxn;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.multiverse.TestUtils.*;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+
+public class GammaTxnExecutor_irrevocableTest implements GammaConstants {
+
+    private GammaStm stm;
+
+    @Before
+    public void setUp() {
+        stm = new GammaStm();
+        clearThreadLocalTxn();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenNegativeIrrevocableAfterAttempts() {
+        stm.newTxnFactoryBuilder().setIrrevocableAfterAttempts(-1);
+    }
+
+    @Test
+    public void whenIrrevocable_thenFatTxnExecutor() {
+        TxnExecutor executor = stm.newTxnFactoryBuilder()
+                .setIrrevocable(true)
+                .newTxnExecutor();
+
+        assertInstanceof(FatGammaTxnExecutor.class, executor);
+        assertEquals(0, stm.newTxnFactoryBuilder().setIrrevocable(true).getConfig().irrevocableAfterAttempts);
+    }
+
+    @Test
+    public void whenNotIrrevocable_thenTokenNotAcquired() {
+        final GammaTxnLong ref = new GammaTxnLong(stm);
+
+        stm.getDefaultTxnExecutor().execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                assertNull(stm.getIrrevocabilityToken().owner);
+                assertFalse(((GammaTxn) tx).irrevocable);
+                ref.increment();
+            }
+        });
+
+        assertEquals(1, ref.atomicGet());
+    }
+
+    @Test
+    public void whenIrrevocable_thenTokenHeldWhileExecuting() {
+        final GammaTxnLong ref = new GammaTxnLong(stm);
+
+        TxnExecutor executor = stm.newTxnFactoryBuilder()
+                .setIrrevocable(true)
+                .newTxnExecutor();
+
+        executor.execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                assertSame(Thread.currentThread(), stm.getIrrevocabilityToken().owner);
+                assertTrue(((GammaTxn) tx).irrevocable);
+                ref.increment();
+            }
+        });
+
+        assertNull(stm.getIrrevocabilityToken().owner);
+        assertEquals(1, ref.atomicGet());
+    }
+
+    @Test
+    public void whenIrrevocableAfterAttempts_thenEscalated() {
+        final GammaTxnLong ref = new GammaTxnLong(stm);
+        final List<Boolean> irrevocableAttempts = new ArrayList<Boolean>();
+
+        TxnExecutor executor = stm.newTxnFactoryBuilder()
+                .setSpeculative(false)
+                .setIrrevocableAfterAttempts(2)
+                .newTxnExecutor();
+
+        executor.execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                irrevocableAttempts.add(stm.getIrrevocabilityToken().owner != null);
+                ref.get();
+                if (irrevocableAttempts.size() <= 2) {
+                    //an atomic operation is not held back by the irrevocable transaction, so causes a conflict.
+                    ref.atomicIncrementAndGet(1);
+                }
+                ref.increment();
+            }
+        });
+
+        assertEquals(3, irrevocableAttempts.size());
+        assertFalse(irrevocableAttempts.get(0));
+        assertFalse(irrevocableAttempts.get(1));
+        assertTrue(irrevocableAttempts.get(2));
+        assertEquals(3, ref.atomicGet());
+        assertNull(stm.getIrrevocabilityToken().owner);
+    }
+
+    @Test
+    public void whenIrrevocable_thenMaxRetriesDoesNotApply() {
+        final GammaTxnLong ref = new GammaTxnLong(stm);
+        final AtomicInteger attempts = new AtomicInteger();
+
+        TxnExecutor executor = stm.newTxnFactoryBuilder()
+                .setSpeculative(false)
+                .setMaxRetries(2)
+                .setIrrevocable(true)
+                .newTxnExecutor();
+
+        executor.execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                ref.get();
+                if (attempts.incrementAndGet() <= 5) {
+                    ref.atomicIncrementAndGet(1);
+                }
+                ref.increment();
+            }
+        });
+
+        assertEquals(6, attempts.get());
+        assertEquals(6, ref.atomicGet());
+    }
+
+    @Test
+    public void whenTokenHeldByOtherThread_thenUpdatingCommitAborted() {
+        final GammaTxnLong ref = new GammaTxnLong(stm, 10);
+        acquireTokenByOtherThread();
+
+        FatVariableLengthGammaTxn tx = new FatVariableLengthGammaTxn(stm);
+        ref.increment(tx);
+
+        try {
+            tx.commit();
+            fail();
+        } catch (ReadWriteConflict expected) {
+        }
+
+        assertIsAborted(tx);
+        assertEquals(10, ref.atomicGet());
+    }
+
+    @Test
+    public void whenTokenHeldByOtherThread_thenReadonlyCommitSucceeds() {
+        final GammaTxnLong ref = new GammaTxnLong(stm, 10);
+        acquireTokenByOtherThread();
+
+        FatVariableLengthGammaTxn tx = new FatVariableLengthGammaTxn(new GammaTxnConfig(stm).setReadonly(true));
+        assertEquals(10, ref.get(tx));
+        tx.commit();
+
+        assertIsCommitted(tx);
+    }
+
+    @Test
+    public void whenTokenHeldByOtherThread_thenUpdatingTransactionWaits() {
+        final GammaTxnLong ref = new GammaTxnLong(stm);
+        stm.getIrrevocabilityToken().acquire();
+
+        TestThread updateThread = new TestThread() {
+            @Override
+            public void doRun() throws Exception {
+                stm.getDefaultTxnExecutor().execute(new TxnVoidCallable() {
+                    @Override
+                    public void call(Txn tx) throws Exception {
+                        ref.increment();
+                    }
+                });
+            }
+        };
+        updateThread.start();
+
+        sleepMs(500);
+        assertAlive(updateThread);
+        assertEquals(0, ref.atomicGet());
+
+        stm.getIrrevocabilityToken().release();
+
+        joinAll(updateThread);
+        assertEquals(1, ref.atomicGet());
+    }
+
+    @Test
+    public void integrationTest_whenLargeTransactionStarved_thenCompletesAfterEscalation() {
+        final GammaTxnLong[] refs = new GammaTxnLong[100];
+        for (int k = 0; k < refs.length; k++) {
+            refs[k] = new GammaTxnLong(stm);
+        }
+
+        final AtomicBoolean stop = new AtomicBoolean();
+        TestThread[] updateThreads = new TestThread[2];
+        for (int k = 0; k < updateThreads.length; k++) {
+            updateThreads[k] = new TestThread("UpdateThread-" + k) {
+                @Override
+                public void doRun() throws Exception {
+                    while (!stop.get()) {
+                        final GammaTxnLong ref = refs[randomInt(refs.length)];
+                        stm.getDefaultTxnExecutor().execute(new TxnVoidCallable() {
+                            @Override
+                            public void call(Txn tx) throws Exception {
+                                ref.increment();
+                            }
+                        });
+                    }
+                }
+            };
+        }
+
+        startAll(updateThreads);
+
+        TxnExecutor executor = stm.newTxnFactoryBuilder()
+                .setMaxRetries(10)
+                .setIrrevocableAfterAttempts(3)
+                .newTxnExecutor();
+        try {
+            executor.execute(new TxnVoidCallable() {
+                @Override
+                public void call(Txn tx) throws Exception {
+                    for (GammaTxnLong ref : refs) {
+                        ref.increment();
+                        Thread.yield();
+                    }
+                }
+            });
+        } finally {
+            stop.set(true);
+        }
+
+        joinAll(updateThreads);
+    }
+
+    private void acquireTokenByOtherThread() {
+        TestThread thread = new TestThread() {
+            @Override
+            public void doRun() throws Exception {
+                stm.getIrrevocabilityToken().acquire();
+            }
+        };
+        startAll(thread);
+        joinAll(thread);
+    }
+}
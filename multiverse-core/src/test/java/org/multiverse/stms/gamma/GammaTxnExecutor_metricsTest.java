@@ -0,0 +1,214 @@
+package org.multiverse.stms.gamma;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.api.LockMode;
+import org.multiverse.api.Txn;
+import org.multiverse.api.TxnExecutor;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+
+public class GammaTxnExecutor_metricsTest {
+
+    private GammaStm stm;
+
+    @Before
+    public void setUp() {
+        GammaStmConfig config = new GammaStmConfig();
+        config.txnMetricsEnabled = true;
+        config.txnMetricsStripes = 2;
+        stm = new GammaStm(config);
+        clearThreadLocalTxn();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void whenZeroStripes_thenIllegalStateException() {
+        GammaStmConfig config = new GammaStmConfig();
+        config.txnMetricsStripes = 0;
+        config.validate();
+    }
+
+    @Test
+    public void whenNotEnabled_thenNoMetrics() {
+        GammaStm stm = new GammaStm();
+        AbstractGammaTxnExecutor executor = (AbstractGammaTxnExecutor) stm.newTxnFactoryBuilder()
+                .setFamilyName("foo")
+                .newTxnExecutor();
+
+        assertNull(executor.metrics);
+        assertNull(stm.getTxnFamilyMetrics("foo"));
+        assertTrue(stm.getAllTxnFamilyMetrics().isEmpty());
+    }
+
+    @Test
+    public void whenAnonymous_thenNoMetrics() {
+        final GammaTxnLong ref = new GammaTxnLong(stm);
+        for (int k = 0; k < 10; k++) {
+            TxnExecutor executor = stm.newTxnFactoryBuilder().newTxnExecutor();
+            assertNull(((AbstractGammaTxnExecutor) executor).metrics);
+
+            executor.execute(new TxnVoidCallable() {
+                @Override
+                public void call(Txn tx) throws Exception {
+                    ref.increment();
+                }
+            });
+        }
+
+        assertEquals(10, ref.atomicGet());
+        assertTrue(stm.getAllTxnFamilyMetrics().isEmpty());
+    }
+
+    @Test
+    public void whenSameFamilyName_thenMetricsShared() {
+        AbstractGammaTxnExecutor executor1 = (AbstractGammaTxnExecutor) stm.newTxnFactoryBuilder()
+                .setFamilyName("foo")
+                .newTxnExecutor();
+        AbstractGammaTxnExecutor executor2 = (AbstractGammaTxnExecutor) stm.newTxnFactoryBuilder()
+                .setFamilyName("foo")
+                .setReadonly(true)
+                .newTxnExecutor();
+        AbstractGammaTxnExecutor executor3 = (AbstractGammaTxnExecutor) stm.newTxnFactoryBuilder()
+                .setFamilyName("bar")
+                .newTxnExecutor();
+
+        assertNotNull(executor1.metrics);
+        assertSame(executor1.metrics, executor2.metrics);
+        assertNotSame(executor1.metrics, executor3.metrics);
+        assertSame(executor1.metrics, stm.getTxnFamilyMetrics("foo"));
+        assertSame(executor3.metrics, stm.getAllTxnFamilyMetrics().get("bar"));
+    }
+
+    @Test
+    public void whenCommitted() {
+        final GammaTxnLong ref = new GammaTxnLong(stm);
+        TxnExecutor executor = stm.newTxnFactoryBuilder()
+                .setFamilyName("foo")
+                .newTxnExecutor();
+
+        for (int k = 0; k < 10; k++) {
+            executor.execute(new TxnVoidCallable() {
+                @Override
+                public void call(Txn tx) throws Exception {
+                    ref.increment();
+                }
+            });
+        }
+
+        TxnFamilyMetrics metrics = stm.getTxnFamilyMetrics("foo");
+        assertEquals(10, metrics.getStarts());
+        assertEquals(10, metrics.getCommits());
+        assertEquals(1, metrics.getAttemptsPerCommit(), 0);
+        assertTrue(metrics.getLatencyPercentileNs(100) > 0);
+    }
+
+    @Test
+    public void whenReadWriteConflict() {
+        final GammaTxnLong ref = new GammaTxnLong(stm);
+        final AtomicInteger attempts = new AtomicInteger();
+        TxnExecutor executor = stm.newTxnFactoryBuilder()
+                .setFamilyName("foo")
+                .setSpeculative(false)
+                .newTxnExecutor();
+
+        executor.execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                ref.get();
+                if (attempts.incrementAndGet() <= 2) {
+                    ref.atomicIncrementAndGet(1);
+                }
+                ref.increment();
+            }
+        });
+
+        TxnFamilyMetrics metrics = stm.getTxnFamilyMetrics("foo");
+        assertEquals(1, metrics.getStarts());
+        assertEquals(1, metrics.getCommits());
+        assertEquals(3, metrics.getCommittedAttempts());
+        assertEquals(2, metrics.getReadWriteConflicts());
+        assertEquals(0, metrics.getLockedAborts());
+    }
+
+    @Test
+    public void whenLockedByOtherTransaction() {
+        final GammaTxnLong ref = new GammaTxnLong(stm);
+        final GammaTxn otherTx = stm.newDefaultTxn();
+        ref.getLock().acquire(otherTx, LockMode.Exclusive);
+
+        TxnExecutor executor = stm.newTxnFactoryBuilder()
+                .setFamilyName("foo")
+                .setSpeculative(false)
+                .newTxnExecutor();
+
+        executor.execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                if (otherTx.isAlive()) {
+                    try {
+                        ref.get();
+                    } finally {
+                        otherTx.abort();
+                    }
+                }
+                ref.increment();
+            }
+        });
+
+        TxnFamilyMetrics metrics = stm.getTxnFamilyMetrics("foo");
+        assertEquals(1, metrics.getCommits());
+        assertEquals(1, metrics.getLockedAborts());
+        assertEquals(0, metrics.getReadWriteConflicts());
+    }
+
+    @Test
+    public void whenSpeculativeFailure() {
+        final GammaTxnLong ref1 = new GammaTxnLong(stm);
+        final GammaTxnLong ref2 = new GammaTxnLong(stm);
+        TxnExecutor executor = stm.newTxnFactoryBuilder()
+                .setFamilyName("foo")
+                .setSpeculative(true)
+                .newTxnExecutor();
+
+        executor.execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                ref1.increment();
+                ref2.increment();
+            }
+        });
+
+        TxnFamilyMetrics metrics = stm.getTxnFamilyMetrics("foo");
+        assertEquals(1, metrics.getCommits());
+        assertTrue(metrics.getSpeculativeFailures() > 0);
+    }
+
+    @Test
+    public void whenRetry() {
+        final GammaTxnLong ref = new GammaTxnLong(stm);
+        TxnExecutor executor = stm.newTxnFactoryBuilder()
+                .setFamilyName("foo")
+                .setSpeculative(false)
+                .newTxnExecutor();
+
+        executor.execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                if (ref.get() == 0) {
+                    ref.atomicIncrementAndGet(1);
+                    tx.retry();
+                }
+            }
+        });
+
+        TxnFamilyMetrics metrics = stm.getTxnFamilyMetrics("foo");
+        assertEquals(1, metrics.getCommits());
+        assertEquals(1, metrics.getRetries());
+    }
+}
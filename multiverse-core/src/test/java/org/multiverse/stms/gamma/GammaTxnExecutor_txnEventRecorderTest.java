@@ -0,0 +1,228 @@
+package org.multiverse.stms.gamma;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.api.LockMode;
+import org.multiverse.api.Txn;
+import org.multiverse.api.TxnExecutor;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.api.exceptions.ReadWriteConflict;
+import org.multiverse.api.exceptions.RetryError;
+import org.multiverse.api.exceptions.SpeculativeConfigurationError;
+import org.multiverse.stms.gamma.transactionalobjects.GammaObject;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+
+import java.util.LinkedList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+
+public class GammaTxnExecutor_txnEventRecorderTest {
+
+    private GammaStm stm;
+    private RecordingTxnEventRecorder recorder;
+
+    @Before
+    public void setUp() {
+        recorder = new RecordingTxnEventRecorder();
+        GammaStmConfig config = new GammaStmConfig();
+        config.txnEventRecorder = recorder;
+        stm = new GammaStm(config);
+        clearThreadLocalTxn();
+    }
+
+    @Test
+    public void whenNoRecorder() {
+        AbstractGammaTxnExecutor executor = (AbstractGammaTxnExecutor) new GammaStm().newTxnFactoryBuilder()
+                .newTxnExecutor();
+
+        assertNull(executor.eventRecorder);
+    }
+
+    @Test
+    public void whenCommitted() {
+        final GammaTxnLong ref1 = new GammaTxnLong(stm);
+        final GammaTxnLong ref2 = new GammaTxnLong(stm);
+        TxnExecutor executor = stm.newTxnFactoryBuilder()
+                .setFamilyName("foo")
+                .setSpeculative(false)
+                .newTxnExecutor();
+
+        executor.execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                ref1.get();
+                ref2.increment();
+            }
+        });
+
+        assertEquals(2, recorder.events.size());
+        assertEquals("begin foo 1", recorder.events.get(0));
+        assertEquals("commit foo 1 2", recorder.events.get(1));
+        assertTrue(recorder.lastDurationNs >= 0);
+    }
+
+    @Test
+    public void whenReadWriteConflict() {
+        final GammaTxnLong ref = new GammaTxnLong(stm);
+        final AtomicInteger attempts = new AtomicInteger();
+        TxnExecutor executor = stm.newTxnFactoryBuilder()
+                .setFamilyName("foo")
+                .setSpeculative(false)
+                .newTxnExecutor();
+
+        executor.execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                ref.get();
+                if (attempts.incrementAndGet() == 1) {
+                    ref.atomicIncrementAndGet(1);
+                }
+                ref.increment();
+            }
+        });
+
+        assertEquals("begin foo 1", recorder.events.get(0));
+        assertEquals("conflict foo 1 false", recorder.events.get(1));
+        assertEquals("abort foo 1 ReadWriteConflict", recorder.events.get(2));
+        assertEquals("begin foo 2", recorder.events.get(3));
+        assertEquals("commit foo 2 1", recorder.events.get(4));
+        assertSame(ref, recorder.conflictObject);
+    }
+
+    @Test
+    public void whenLockedByOtherTransaction() {
+        final GammaTxnLong ref = new GammaTxnLong(stm);
+        final GammaTxn otherTx = stm.newDefaultTxn();
+        ref.getLock().acquire(otherTx, LockMode.Exclusive);
+
+        TxnExecutor executor = stm.newTxnFactoryBuilder()
+                .setFamilyName("foo")
+                .setSpeculative(false)
+                .newTxnExecutor();
+
+        executor.execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                if (otherTx.isAlive()) {
+                    try {
+                        ref.get();
+                    } finally {
+                        otherTx.abort();
+                    }
+                }
+            }
+        });
+
+        assertTrue(recorder.events.contains("conflict foo 1 true"));
+        assertSame(ref, recorder.conflictObject);
+    }
+
+    @Test
+    public void whenSpeculativeFailure() {
+        final GammaTxnLong ref1 = new GammaTxnLong(stm);
+        final GammaTxnLong ref2 = new GammaTxnLong(stm);
+        TxnExecutor executor = stm.newTxnFactoryBuilder()
+                .setFamilyName("foo")
+                .setSpeculative(true)
+                .newTxnExecutor();
+
+        executor.execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                ref1.increment();
+                ref2.increment();
+            }
+        });
+
+        assertTrue(recorder.events.contains("abort foo 1 SpeculativeConfigurationError"));
+        assertTrue(recorder.events.contains("upgrade foo 1"));
+        assertTrue(recorder.events.getLast().startsWith("commit foo"));
+        assertNotSame(recorder.failedTx, recorder.upgradedTx);
+    }
+
+    @Test
+    public void whenRetry() {
+        final GammaTxnLong ref = new GammaTxnLong(stm);
+        TxnExecutor executor = stm.newTxnFactoryBuilder()
+                .setFamilyName("foo")
+                .setSpeculative(false)
+                .newTxnExecutor();
+
+        executor.execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                if (ref.get() == 0) {
+                    ref.atomicIncrementAndGet(1);
+                    tx.retry();
+                }
+            }
+        });
+
+        assertEquals("begin foo 1", recorder.events.get(0));
+        assertEquals("abort foo 1 RetryError", recorder.events.get(1));
+        assertEquals("retrywait foo 1", recorder.events.get(2));
+        assertEquals("begin foo 2", recorder.events.get(3));
+        assertEquals("commit foo 2 1", recorder.events.get(4));
+    }
+
+    static class RecordingTxnEventRecorder implements TxnEventRecorder {
+        final LinkedList<String> events = new LinkedList<String>();
+        volatile long lastDurationNs = -1;
+        volatile GammaObject conflictObject;
+        volatile GammaTxn failedTx;
+        volatile GammaTxn upgradedTx;
+
+        private void add(GammaTxn tx, String event, Object... args) {
+            StringBuilder sb = new StringBuilder(event)
+                    .append(' ').append(tx.config.familyName)
+                    .append(' ').append(tx.getAttempt());
+            for (Object arg : args) {
+                sb.append(' ').append(arg);
+            }
+            synchronized (events) {
+                events.add(sb.toString());
+            }
+        }
+
+        @Override
+        public void onBegin(GammaTxn tx) {
+            add(tx, "begin");
+        }
+
+        @Override
+        public void onCommit(GammaTxn tx, int size, long durationNs) {
+            lastDurationNs = durationNs;
+            add(tx, "commit", size);
+        }
+
+        @Override
+        public void onAbort(GammaTxn tx, Throwable cause) {
+            String causeName = cause instanceof ReadWriteConflict ? "ReadWriteConflict"
+                    : cause instanceof SpeculativeConfigurationError ? "SpeculativeConfigurationError"
+                    : cause instanceof RetryError ? "RetryError"
+                    : String.valueOf(cause);
+            add(tx, "abort", causeName);
+        }
+
+        @Override
+        public void onReadWriteConflict(GammaTxn tx, GammaObject object, boolean locked) {
+            conflictObject = object;
+            add(tx, "conflict", locked);
+        }
+
+        @Override
+        public void onSpeculativeUpgrade(GammaTxn failedTx, GammaTxn upgradedTx) {
+            this.failedTx = failedTx;
+            this.upgradedTx = upgradedTx;
+            add(upgradedTx, "upgrade");
+        }
+
+        @Override
+        public void onRetryWait(GammaTxn tx, long waitNs) {
+            add(tx, "retrywait");
+        }
+    }
+}
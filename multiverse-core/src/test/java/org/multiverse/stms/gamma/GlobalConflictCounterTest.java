@@ -0,0 +1,80 @@
+package org.multiverse.stms.gamma;
+
+import org.junit.Test;
+import org.multiverse.TestThread;
+
+import static org.junit.Assert.*;
+import static org.multiverse.TestUtils.joinAll;
+import static org.multiverse.TestUtils.startAll;
+
+public class GlobalConflictCounterTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_whenZeroStripes() {
+        new GlobalConflictCounter(0);
+    }
+
+    @Test
+    public void constructor_whenStripesNotPowerOfTwo_thenRoundedUp() {
+        GlobalConflictCounter counter = new GlobalConflictCounter(5);
+
+        assertEquals(8, counter.getStripeCount());
+        assertEquals(0, counter.count());
+    }
+
+    @Test
+    public void signalConflict_whenSingleStripe() {
+        GlobalConflictCounter counter = new GlobalConflictCounter();
+        long snapshot = counter.count();
+
+        counter.signalConflict();
+
+        assertEquals(snapshot + 1, counter.count());
+        assertTrue(counter.hasChangedSince(snapshot));
+        assertFalse(counter.hasChangedSince(counter.count()));
+    }
+
+    @Test
+    public void signalConflict_whenStriped() {
+        GlobalConflictCounter counter = new GlobalConflictCounter(16);
+        long snapshot = counter.count();
+
+        counter.signalConflict();
+
+        assertEquals(snapshot + 1, counter.count());
+        assertTrue(counter.hasChangedSince(snapshot));
+    }
+
+    @Test
+    public void signalConflict_whenStripedAndMultipleThreads_thenChangeVisibleToEveryone() {
+        final GlobalConflictCounter counter = new GlobalConflictCounter(4);
+        final long snapshot = counter.count();
+
+        SignalThread[] threads = new SignalThread[8];
+        for (int k = 0; k < threads.length; k++) {
+            threads[k] = new SignalThread(k, counter);
+        }
+
+        startAll(threads);
+        joinAll(threads);
+
+        assertTrue(counter.hasChangedSince(snapshot));
+        assertTrue(counter.count() > snapshot);
+    }
+
+    class SignalThread extends TestThread {
+        private final GlobalConflictCounter counter;
+
+        SignalThread(int id, GlobalConflictCounter counter) {
+            super("SignalThread-" + id);
+            this.counter = counter;
+        }
+
+        @Override
+        public void doRun() throws Exception {
+            for (int k = 0; k < 1000; k++) {
+                counter.signalConflict();
+            }
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package org.multiverse.stms.gamma;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.TestThread;
+
+import static org.junit.Assert.*;
+import static org.multiverse.TestUtils.*;
+
+public class IrrevocabilityTokenTest {
+
+    private IrrevocabilityToken token;
+
+    @Before
+    public void setUp() {
+        token = new IrrevocabilityToken();
+    }
+
+    @Test
+    public void whenCreated() {
+        assertNull(token.owner);
+        assertFalse(token.isHeldByOtherThread());
+    }
+
+    @Test
+    public void acquire() {
+        boolean result = token.acquire();
+
+        assertTrue(result);
+        assertSame(Thread.currentThread(), token.owner);
+        assertFalse(token.isHeldByOtherThread());
+    }
+
+    @Test
+    public void acquire_whenAlreadyOwner() {
+        token.acquire();
+
+        boolean result = token.acquire();
+
+        assertFalse(result);
+        assertSame(Thread.currentThread(), token.owner);
+    }
+
+    @Test
+    public void release() {
+        token.acquire();
+
+        token.release();
+
+        assertNull(token.owner);
+    }
+
+    @Test
+    public void acquire_whenHeldByOtherThread_thenWaitsTillReleased() {
+        token.acquire();
+
+        TestThread thread = new TestThread() {
+            @Override
+            public void doRun() throws Exception {
+                assertTrue(token.isHeldByOtherThread());
+                token.acquire();
+                assertFalse(token.isHeldByOtherThread());
+                token.release();
+            }
+        };
+        thread.start();
+
+        sleepMs(200);
+        assertAlive(thread);
+
+        token.release();
+        joinAll(thread);
+        assertNull(token.owner);
+    }
+
+    @Test
+    public void awaitRelease_whenNotHeld() {
+        token.awaitRelease();
+    }
+
+    @Test
+    public void awaitRelease_whenHeldByCallingThread() {
+        token.acquire();
+
+        token.awaitRelease();
+
+        assertSame(Thread.currentThread(), token.owner);
+    }
+
+    @Test
+    public void awaitRelease_whenHeldByOtherThread() {
+        token.acquire();
+
+        TestThread thread = new TestThread() {
+            @Override
+            public void doRun() throws Exception {
+                token.awaitRelease();
+                assertNull(token.owner);
+            }
+        };
+        thread.start();
+
+        sleepMs(200);
+        assertAlive(thread);
+
+        token.release();
+        joinAll(thread);
+    }
+}
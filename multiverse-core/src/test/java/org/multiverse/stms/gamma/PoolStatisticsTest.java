@@ -0,0 +1,47 @@
+package org.multiverse.stms.gamma;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class PoolStatisticsTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenZeroStripes_thenIllegalArgumentException() {
+        new PoolStatistics(0);
+    }
+
+    @Test
+    public void whenNothingTaken() {
+        PoolStatistics statistics = new PoolStatistics(4);
+
+        assertEquals(0, statistics.getHits());
+        assertEquals(0, statistics.getMisses());
+        assertEquals(0, statistics.getHitRate(), 0);
+    }
+
+    @Test
+    public void whenHitsAndMisses() {
+        PoolStatistics statistics = new PoolStatistics(4);
+        statistics.onHit();
+        statistics.onHit();
+        statistics.onHit();
+        statistics.onMiss();
+
+        assertEquals(3, statistics.getHits());
+        assertEquals(1, statistics.getMisses());
+        assertEquals(75, statistics.getHitRate(), 0);
+    }
+
+    @Test
+    public void whenReset() {
+        PoolStatistics statistics = new PoolStatistics(2);
+        statistics.onHit();
+        statistics.onMiss();
+
+        statistics.reset();
+
+        assertEquals(0, statistics.getHits());
+        assertEquals(0, statistics.getMisses());
+    }
+}
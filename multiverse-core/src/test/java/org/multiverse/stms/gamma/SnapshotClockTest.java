@@ -0,0 +1,108 @@
+package org.multiverse.stms.gamma;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class SnapshotClockTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_whenZeroSlots() {
+        new SnapshotClock(0, 10);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void constructor_whenNegativeSpinCount() {
+        new SnapshotClock(1, -1);
+    }
+
+    @Test
+    public void reserveAndPublish() {
+        SnapshotClock clock = new SnapshotClock(4, 10);
+
+        long timestamp = clock.reserve();
+
+        assertEquals(1, timestamp);
+        assertEquals(0, clock.getPublished());
+
+        clock.publish(timestamp);
+
+        assertEquals(1, clock.getPublished());
+    }
+
+    @Test
+    public void publish_whenPreviousNotPublished_thenWaits() throws InterruptedException {
+        final SnapshotClock clock = new SnapshotClock(4, 10);
+        final long first = clock.reserve();
+        final long second = clock.reserve();
+
+        Thread thread = new Thread() {
+            public void run() {
+                clock.publish(second);
+            }
+        };
+        thread.start();
+        thread.join(100);
+
+        assertTrue(thread.isAlive());
+        assertEquals(0, clock.getPublished());
+
+        clock.publish(first);
+        thread.join();
+
+        assertEquals(second, clock.getPublished());
+    }
+
+    @Test
+    public void register() {
+        SnapshotClock clock = new SnapshotClock(4, 10);
+        clock.publish(clock.reserve());
+
+        int slot = clock.register();
+
+        assertTrue(slot >= 0);
+        assertEquals(1, clock.getSnapshot(slot));
+    }
+
+    @Test
+    public void register_whenAllSlotsTaken() {
+        SnapshotClock clock = new SnapshotClock(2, 10);
+
+        int slot1 = clock.register();
+        int slot2 = clock.register();
+
+        assertTrue(slot1 != slot2);
+        assertEquals(-1, clock.register());
+
+        clock.unregister(slot1);
+
+        assertEquals(slot1, clock.register());
+    }
+
+    @Test
+    public void getOldestSnapshot_whenNoReaders() {
+        SnapshotClock clock = new SnapshotClock(4, 10);
+        clock.publish(clock.reserve());
+        clock.publish(clock.reserve());
+
+        assertEquals(2, clock.getOldestSnapshot());
+    }
+
+    @Test
+    public void getOldestSnapshot_whenReaders() {
+        SnapshotClock clock = new SnapshotClock(4, 10);
+        clock.publish(clock.reserve());
+        int slot1 = clock.register();
+        clock.publish(clock.reserve());
+        int slot2 = clock.register();
+        clock.publish(clock.reserve());
+
+        assertEquals(1, clock.getOldestSnapshot());
+
+        clock.unregister(slot1);
+        assertEquals(2, clock.getOldestSnapshot());
+
+        clock.unregister(slot2);
+        assertEquals(3, clock.getOldestSnapshot());
+    }
+}
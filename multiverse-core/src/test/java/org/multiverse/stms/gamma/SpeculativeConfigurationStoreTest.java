@@ -0,0 +1,288 @@
+package org.multiverse.stms.gamma;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.api.Txn;
+import org.multiverse.api.TxnExecutor;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+import org.multiverse.stms.gamma.transactions.SpeculativeGammaConfiguration;
+import org.multiverse.stms.gamma.transactions.fat.FatMonoGammaTxn;
+import org.multiverse.stms.gamma.transactions.lean.LeanMonoGammaTxn;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.LinkedList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.multiverse.TestUtils.assertInstanceof;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+
+public class SpeculativeConfigurationStoreTest {
+
+    private SpeculativeConfigurationStore store;
+    private File file;
+
+    @Before
+    public void setUp() throws IOException {
+        store = new SpeculativeConfigurationStore();
+        file = File.createTempFile("speculative", ".properties");
+        file.delete();
+        clearThreadLocalTxn();
+    }
+
+    @After
+    public void tearDown() {
+        file.delete();
+        new File(file.getPath() + ".tmp").delete();
+    }
+
+    @Test
+    public void whenNothingLearned() {
+        assertNull(store.get("foo"));
+        assertTrue(store.getAll().isEmpty());
+    }
+
+    @Test
+    public void learn_whenFirst() {
+        SpeculativeGammaConfiguration config = new SpeculativeGammaConfiguration().newWithNonRefType();
+
+        store.learn("foo", config);
+
+        assertSame(config, store.get("foo"));
+    }
+
+    @Test
+    public void learn_whenAlreadyLearned_thenJoined() {
+        store.learn("foo", new SpeculativeGammaConfiguration().newWithNonRefType().newWithMinimalLength(5));
+        store.learn("foo", new SpeculativeGammaConfiguration().newWithCommute().newWithMinimalLength(2));
+
+        SpeculativeGammaConfiguration found = store.get("foo");
+        assertTrue(found.fat);
+        assertTrue(found.nonRefTypeDetected);
+        assertTrue(found.commuteDetected);
+        assertFalse(found.listenersDetected);
+        assertEquals(5, found.minimalLength);
+    }
+
+    @Test
+    public void learn_whenNothingNew_thenUnchanged() {
+        SpeculativeGammaConfiguration config = new SpeculativeGammaConfiguration().newWithNonRefType();
+        store.learn("foo", config);
+
+        store.learn("foo", new SpeculativeGammaConfiguration());
+
+        assertSame(config, store.get("foo"));
+    }
+
+    @Test
+    public void encodeAndDecode_whenNothingDetected() {
+        SpeculativeGammaConfiguration config = new SpeculativeGammaConfiguration();
+
+        String encoded = SpeculativeConfigurationStore.encode(config);
+
+        assertEquals("minimalLength=1", encoded);
+        assertSameFeatures(config, SpeculativeConfigurationStore.decode(encoded));
+    }
+
+    @Test
+    public void encodeAndDecode_whenEverythingDetected() {
+        SpeculativeGammaConfiguration config = new SpeculativeGammaConfiguration(
+                true, true, true, true, true, true, true, true, true, true, 20);
+
+        String encoded = SpeculativeConfigurationStore.encode(config);
+
+        assertSameFeatures(config, SpeculativeConfigurationStore.decode(encoded));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decode_whenUnknownFeature() {
+        SpeculativeConfigurationStore.decode("fat,banana");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void decode_whenInvalidMinimalLength() {
+        SpeculativeConfigurationStore.decode("minimalLength=abc");
+    }
+
+    @Test
+    public void saveAndLoad_stream() throws IOException {
+        store.learn("foo", new SpeculativeGammaConfiguration().newWithListeners());
+        store.learn("bar", new SpeculativeGammaConfiguration().newWithMinimalLength(3));
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        store.save(out);
+
+        SpeculativeConfigurationStore loaded = new SpeculativeConfigurationStore();
+        loaded.load(new ByteArrayInputStream(out.toByteArray()));
+
+        assertEquals(2, loaded.getAll().size());
+        assertSameFeatures(store.get("foo"), loaded.get("foo"));
+        assertSameFeatures(store.get("bar"), loaded.get("bar"));
+    }
+
+    @Test
+    public void load_whenFileNotExists() throws IOException {
+        store.load(file);
+
+        assertTrue(store.getAll().isEmpty());
+    }
+
+    @Test
+    public void saveAndLoad_file() throws IOException {
+        store.learn("foo", new SpeculativeGammaConfiguration().newWithOrElse());
+        store.save(file);
+        store.learn("foo", new SpeculativeGammaConfiguration().newWithLocks());
+        store.save(file);
+
+        SpeculativeConfigurationStore loaded = new SpeculativeConfigurationStore();
+        loaded.load(file);
+
+        assertTrue(loaded.get("foo").orelseDetected);
+        assertTrue(loaded.get("foo").locksDetected);
+        assertFalse(new File(file.getPath() + ".tmp").exists());
+    }
+
+    @Test
+    public void whenFamilyLearns_thenStored() {
+        GammaStm stm = new GammaStm();
+        final GammaTxnLong ref = new GammaTxnLong(stm);
+
+        newExecutor(stm, "foo").execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                ref.increment();
+            }
+        });
+
+        SpeculativeGammaConfiguration learned = stm.getSpeculativeConfigurationStore().get("foo");
+        assertNotNull(learned);
+        assertTrue(learned.commuteDetected);
+    }
+
+    @Test
+    public void whenAnonymousFamilyLearns_thenNotStored() {
+        GammaStm stm = new GammaStm();
+        final GammaTxnLong ref = new GammaTxnLong(stm);
+
+        stm.newTxnFactoryBuilder()
+                .setSpeculative(true)
+                .newTxnExecutor()
+                .execute(new TxnVoidCallable() {
+                    @Override
+                    public void call(Txn tx) throws Exception {
+                        ref.increment();
+                    }
+                });
+
+        assertTrue(stm.getSpeculativeConfigurationStore().getAll().isEmpty());
+    }
+
+    @Test
+    public void load_whenOnlyTmpFileExists_thenTmpFileLoaded() throws IOException {
+        store.learn("foo", new SpeculativeGammaConfiguration().newWithOrElse());
+        store.save(file);
+        //a crash between deleting the old file and renaming the new one.
+        assertTrue(file.renameTo(new File(file.getPath() + ".tmp")));
+
+        SpeculativeConfigurationStore loaded = new SpeculativeConfigurationStore();
+        loaded.load(file);
+
+        assertTrue(loaded.get("foo").orelseDetected);
+    }
+
+    @Test
+    public void load_whenOnlyIncompleteTmpFileExists_thenNothingLoaded() throws IOException {
+        FileOutputStream out = new FileOutputStream(file.getPath() + ".tmp");
+        out.write("foo=fat\nbar=fat,lis".getBytes("ISO-8859-1"));
+        out.close();
+
+        store.load(file);
+
+        assertTrue(store.getAll().isEmpty());
+    }
+
+    @Test
+    public void load_whenFileAndTmpFileExist_thenFileLoaded() throws IOException {
+        store.learn("foo", new SpeculativeGammaConfiguration().newWithOrElse());
+        store.save(file);
+        FileOutputStream out = new FileOutputStream(file.getPath() + ".tmp");
+        out.write("bar=fat".getBytes("ISO-8859-1"));
+        out.close();
+
+        SpeculativeConfigurationStore loaded = new SpeculativeConfigurationStore();
+        loaded.load(file);
+
+        assertEquals(1, loaded.getAll().size());
+        assertTrue(loaded.get("foo").orelseDetected);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void saveSpeculativeConfigurations_whenNoFileConfigured() {
+        new GammaStm().saveSpeculativeConfigurations();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void whenPreloadFileCorrupt() throws IOException {
+        FileOutputStream out = new FileOutputStream(file);
+        out.write("foo=banana".getBytes("ISO-8859-1"));
+        out.close();
+
+        GammaStmConfig config = new GammaStmConfig();
+        config.speculativeConfigurationFile = file.getPath();
+        new GammaStm(config);
+    }
+
+    @Test
+    public void whenWarmRestart_thenNoSpeculativeFailures() {
+        GammaStmConfig config = new GammaStmConfig();
+        config.speculativeConfigurationFile = file.getPath();
+
+        GammaStm coldStm = new GammaStm(config);
+        List<GammaTxn> coldTransactions = executeIncrement(coldStm);
+        assertEquals(2, coldTransactions.size());
+        assertInstanceof(LeanMonoGammaTxn.class, coldTransactions.get(0));
+        assertInstanceof(FatMonoGammaTxn.class, coldTransactions.get(1));
+        coldStm.saveSpeculativeConfigurations();
+
+        GammaStm warmStm = new GammaStm(config);
+        List<GammaTxn> warmTransactions = executeIncrement(warmStm);
+        assertEquals(1, warmTransactions.size());
+        assertInstanceof(FatMonoGammaTxn.class, warmTransactions.get(0));
+    }
+
+    private static List<GammaTxn> executeIncrement(GammaStm stm) {
+        final GammaTxnLong ref = new GammaTxnLong(stm);
+        final List<GammaTxn> transactions = new LinkedList<GammaTxn>();
+
+        newExecutor(stm, "increment").execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                transactions.add((GammaTxn) tx);
+                ref.increment();
+            }
+        });
+
+        assertEquals(1, ref.atomicGet());
+        return transactions;
+    }
+
+    private static TxnExecutor newExecutor(GammaStm stm, String familyName) {
+        return stm.newTxnFactoryBuilder()
+                .setFamilyName(familyName)
+                .setSpeculative(true)
+                .setControlFlowErrorsReused(false)
+                .setDirtyCheckEnabled(false)
+                .newTxnExecutor();
+    }
+
+    private static void assertSameFeatures(SpeculativeGammaConfiguration expected, SpeculativeGammaConfiguration found) {
+        assertEquals(expected.toString(), found.toString());
+    }
+}
@@ -0,0 +1,59 @@
+package org.multiverse.stms.gamma;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class StripedCountersTest {
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenZeroStripes_thenIllegalArgumentException() {
+        new StripedCounters(0, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenZeroCountersPerStripe_thenIllegalArgumentException() {
+        new StripedCounters(1, 0);
+    }
+
+    @Test
+    public void whenStripesNotPowerOfTwo_thenRoundedUp() {
+        StripedCounters counters = new StripedCounters(5, 3);
+
+        assertEquals(8, counters.getStripeCount());
+        assertEquals(3, counters.getCountersPerStripe());
+    }
+
+    @Test
+    public void whenSingleStripe_thenStripeIsZero() {
+        StripedCounters counters = new StripedCounters(1, 1);
+
+        assertEquals(0, counters.stripe());
+    }
+
+    @Test
+    public void whenUpdated_thenSummedOverStripes() {
+        StripedCounters counters = new StripedCounters(4, 2);
+        counters.increment(0, 0);
+        counters.increment(3, 0);
+        counters.add(2, 1, 10);
+        assertTrue(counters.compareAndSet(1, 1, 0, 5));
+        assertFalse(counters.compareAndSet(1, 1, 0, 6));
+
+        assertEquals(2, counters.sum(0));
+        assertEquals(15, counters.sum(1));
+        assertEquals(1, counters.get(3, 0));
+    }
+
+    @Test
+    public void whenReset() {
+        StripedCounters counters = new StripedCounters(2, 2);
+        counters.increment(0, 0);
+        counters.increment(1, 1);
+
+        counters.reset();
+
+        assertEquals(0, counters.sum(0));
+        assertEquals(0, counters.sum(1));
+    }
+}
@@ -0,0 +1,121 @@
+package org.multiverse.stms.gamma;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.multiverse.stms.gamma.TxnFamilyMetrics.getBucketLowerBoundNs;
+
+public class TxnFamilyMetricsTest {
+
+    @Test(expected = NullPointerException.class)
+    public void whenNullFamilyName_thenNullPointerException() {
+        new TxnFamilyMetrics(null, 1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenZeroStripes_thenIllegalArgumentException() {
+        new TxnFamilyMetrics("foo", 0);
+    }
+
+    @Test
+    public void whenStripesNotPowerOfTwo_thenRoundedUp() {
+        assertEquals(1, new TxnFamilyMetrics("foo", 1).getStripeCount());
+        assertEquals(4, new TxnFamilyMetrics("foo", 3).getStripeCount());
+        assertEquals(8, new TxnFamilyMetrics("foo", 8).getStripeCount());
+    }
+
+    @Test
+    public void whenCreated_thenEverythingZero() {
+        TxnFamilyMetrics metrics = new TxnFamilyMetrics("foo", 4);
+
+        assertEquals("foo", metrics.getFamilyName());
+        assertEquals(0, metrics.getStarts());
+        assertEquals(0, metrics.getCommits());
+        assertEquals(0, metrics.getCommittedAttempts());
+        assertEquals(0, metrics.getAttemptsPerCommit(), 0);
+        assertEquals(0, metrics.getReadWriteConflicts());
+        assertEquals(0, metrics.getLockedAborts());
+        assertEquals(0, metrics.getSpeculativeFailures());
+        assertEquals(0, metrics.getRetries());
+        assertEquals(0, metrics.getLatencyPercentileNs(99));
+    }
+
+    @Test
+    public void whenEventsSignalled() {
+        TxnFamilyMetrics metrics = new TxnFamilyMetrics("foo", 4);
+
+        long startNs = metrics.onStart();
+        metrics.onReadWriteConflict(false);
+        metrics.onReadWriteConflict(true);
+        metrics.onReadWriteConflict(true);
+        metrics.onSpeculativeFailure();
+        metrics.onRetry();
+        metrics.onCommit(5, startNs);
+        metrics.onCommit(1, metrics.onStart());
+
+        assertEquals(2, metrics.getStarts());
+        assertEquals(2, metrics.getCommits());
+        assertEquals(6, metrics.getCommittedAttempts());
+        assertEquals(3, metrics.getAttemptsPerCommit(), 0);
+        assertEquals(1, metrics.getReadWriteConflicts());
+        assertEquals(2, metrics.getLockedAborts());
+        assertEquals(1, metrics.getSpeculativeFailures());
+        assertEquals(1, metrics.getRetries());
+
+        long recorded = 0;
+        for (long count : metrics.getLatencyHistogram()) {
+            recorded += count;
+        }
+        assertEquals(2, recorded);
+    }
+
+    @Test
+    public void whenReset_thenEverythingZero() {
+        TxnFamilyMetrics metrics = new TxnFamilyMetrics("foo", 2);
+        metrics.onCommit(1, metrics.onStart());
+        metrics.onRetry();
+
+        metrics.reset();
+
+        assertEquals(0, metrics.getStarts());
+        assertEquals(0, metrics.getCommits());
+        assertEquals(0, metrics.getRetries());
+        assertEquals(0, metrics.getLatencyPercentileNs(50));
+    }
+
+    @Test
+    public void bucketIndex() {
+        assertEquals(0, TxnFamilyMetrics.bucketIndex(-1));
+        assertEquals(0, TxnFamilyMetrics.bucketIndex(0));
+        assertEquals(3, TxnFamilyMetrics.bucketIndex(3));
+        assertEquals(4, TxnFamilyMetrics.bucketIndex(4));
+        assertEquals(7, TxnFamilyMetrics.bucketIndex(7));
+        assertEquals(8, TxnFamilyMetrics.bucketIndex(8));
+        assertEquals(8, TxnFamilyMetrics.bucketIndex(9));
+        assertEquals(9, TxnFamilyMetrics.bucketIndex(10));
+        assertEquals(TxnFamilyMetrics.BUCKET_COUNT - 1, TxnFamilyMetrics.bucketIndex(Long.MAX_VALUE));
+    }
+
+    @Test
+    public void bucketLowerBound() {
+        assertEquals(0, getBucketLowerBoundNs(0));
+        assertEquals(3, getBucketLowerBoundNs(3));
+        assertEquals(4, getBucketLowerBoundNs(4));
+        assertEquals(8, getBucketLowerBoundNs(8));
+        assertEquals(10, getBucketLowerBoundNs(9));
+
+        for (int bucket = 0; bucket < TxnFamilyMetrics.BUCKET_COUNT; bucket++) {
+            assertEquals(bucket, TxnFamilyMetrics.bucketIndex(getBucketLowerBoundNs(bucket)));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenBucketTooLarge_thenIllegalArgumentException() {
+        getBucketLowerBoundNs(TxnFamilyMetrics.BUCKET_COUNT);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenPercentileTooLarge_thenIllegalArgumentException() {
+        new TxnFamilyMetrics("foo", 1).getLatencyPercentileNs(101);
+    }
+}
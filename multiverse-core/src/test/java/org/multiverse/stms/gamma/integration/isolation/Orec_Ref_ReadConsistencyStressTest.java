@@ -352,12 +352,7 @@ public class Orec_Ref_ReadConsistencyStressTest implements GammaConstants {
         private void fullRead() {
             for (int k = 0; k < refs.length; k++) {
                 GammaTxnRef ref = refs[k];
-                Tranlocal tranlocal = tx.head;
-
-                while (tranlocal.owner != null) {
-                    tranlocal = tranlocal.next;
-                }
-                tx.size++;
+                Tranlocal tranlocal = tx.take(ref);
 
                 if (!tx.hasReads) {
                     tx.localConflictCount = stm.globalConflictCounter.count();
@@ -0,0 +1,212 @@
+package org.multiverse.stms.gamma.jmx;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.TestThread;
+import org.multiverse.api.Txn;
+import org.multiverse.api.TxnExecutor;
+import org.multiverse.api.blocking.ParkingRetryLatch;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.GammaStmConfig;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+import static org.multiverse.TestUtils.*;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+
+public class GammaStmMBeansTest {
+
+    private static final String JMX_NAME = "GammaStmMBeansTest";
+
+    private MBeanServer server;
+    private GammaStm stm;
+
+    @Before
+    public void setUp() {
+        server = ManagementFactory.getPlatformMBeanServer();
+        GammaStmConfig config = new GammaStmConfig();
+        config.jmxEnabled = true;
+        config.jmxName = JMX_NAME;
+        stm = new GammaStm(config);
+        clearThreadLocalTxn();
+    }
+
+    @After
+    public void tearDown() {
+        stm.unregisterMBeans();
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void whenNullJmxName_thenIllegalStateException() {
+        GammaStmConfig config = new GammaStmConfig();
+        config.jmxEnabled = true;
+        config.jmxName = null;
+        config.validate();
+    }
+
+    @Test
+    public void whenNotEnabled_thenNothingRegistered() {
+        new GammaStm();
+
+        assertFalse(server.isRegistered(GammaStmMBeans.newStmObjectName("GammaStm")));
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void whenNameAlreadyUsed_thenIllegalStateException() {
+        GammaStmConfig config = new GammaStmConfig();
+        config.jmxEnabled = true;
+        config.jmxName = JMX_NAME;
+        new GammaStm(config);
+    }
+
+    @Test
+    public void whenDefaultName_thenMultipleStmsRegistered() {
+        GammaStmConfig config1 = new GammaStmConfig();
+        config1.jmxEnabled = true;
+        GammaStm stm1 = new GammaStm(config1);
+
+        GammaStmConfig config2 = new GammaStmConfig();
+        config2.jmxEnabled = true;
+        GammaStm stm2 = new GammaStm(config2);
+
+        try {
+            assertFalse(config1.jmxName.equals(config2.jmxName));
+            assertTrue(server.isRegistered(GammaStmMBeans.newStmObjectName(config1.jmxName)));
+            assertTrue(server.isRegistered(GammaStmMBeans.newStmObjectName(config2.jmxName)));
+        } finally {
+            stm1.unregisterMBeans();
+            stm2.unregisterMBeans();
+        }
+    }
+
+    @Test
+    public void whenEnabled_thenStmMonitorRegistered() throws Exception {
+        ObjectName name = GammaStmMBeans.newStmObjectName(JMX_NAME);
+
+        assertTrue(server.isRegistered(name));
+        assertEquals(stm.getGlobalConflictCounter().count(), server.getAttribute(name, "GlobalConflictCount"));
+        assertEquals(ParkingRetryLatch.getWaitingThreadCount(), server.getAttribute(name, "RetryLatchWaitingThreads"));
+        assertNotNull(server.getAttribute(name, "ObjectPoolHitRate"));
+        assertNotNull(server.getAttribute(name, "TxnPoolHitRate"));
+        server.invoke(name, "resetStatistics", null, null);
+    }
+
+    @Test
+    public void whenTransactionExecuted_thenFamilyMonitorRegistered() throws Exception {
+        final GammaTxnLong ref = new GammaTxnLong(stm);
+        TxnExecutor executor = stm.newTxnFactoryBuilder()
+                .setFamilyName("increment")
+                .newTxnExecutor();
+
+        for (int k = 0; k < 5; k++) {
+            executor.execute(new TxnVoidCallable() {
+                @Override
+                public void call(Txn tx) throws Exception {
+                    ref.increment();
+                }
+            });
+        }
+
+        ObjectName name = GammaStmMBeans.newTxnFamilyObjectName(JMX_NAME, "increment");
+        assertTrue(server.isRegistered(name));
+        assertEquals("increment", server.getAttribute(name, "FamilyName"));
+        assertEquals(5L, server.getAttribute(name, "Starts"));
+        assertEquals(5L, server.getAttribute(name, "Commits"));
+        assertEquals(0L, server.getAttribute(name, "Aborts"));
+        assertTrue((Double) server.getAttribute(name, "CommitsPerSecond") > 0);
+        assertTrue((Long) server.getAttribute(name, "LatencyP99Ns") > 0);
+        assertNotNull(server.getAttribute(name, "SpeculativeConfiguration"));
+
+        String[] familyNames = (String[]) server.getAttribute(GammaStmMBeans.newStmObjectName(JMX_NAME), "TxnFamilyNames");
+        assertTrue(Arrays.asList(familyNames).contains("increment"));
+
+        server.invoke(name, "reset", null, null);
+        assertEquals(0L, server.getAttribute(name, "Commits"));
+    }
+
+    @Test
+    public void whenResetAllTxnFamilyMetrics() throws Exception {
+        final GammaTxnLong ref = new GammaTxnLong(stm);
+        stm.newTxnFactoryBuilder()
+                .setFamilyName("increment")
+                .newTxnExecutor()
+                .execute(new TxnVoidCallable() {
+                    @Override
+                    public void call(Txn tx) throws Exception {
+                        ref.increment();
+                    }
+                });
+
+        server.invoke(GammaStmMBeans.newStmObjectName(JMX_NAME), "resetAllTxnFamilyMetrics", null, null);
+
+        assertEquals(0, stm.getTxnFamilyMetrics("increment").getCommits());
+    }
+
+    @Test
+    public void whenThreadWaitingOnRetry_thenWaitingThreadCounted() throws Exception {
+        final GammaTxnLong ref = new GammaTxnLong(stm);
+        final ObjectName name = GammaStmMBeans.newStmObjectName(JMX_NAME);
+        final int initialWaiting = ParkingRetryLatch.getWaitingThreadCount();
+
+        TestThread thread = new TestThread() {
+            @Override
+            public void doRun() throws Exception {
+                stm.getDefaultTxnExecutor().execute(new TxnVoidCallable() {
+                    @Override
+                    public void call(Txn tx) throws Exception {
+                        ref.await(1);
+                    }
+                });
+            }
+        };
+        thread.start();
+
+        sleepMs(500);
+        assertEquals(initialWaiting + 1, server.getAttribute(name, "RetryLatchWaitingThreads"));
+
+        ref.atomicSet(1);
+        joinAll(thread);
+        assertEquals(initialWaiting, server.getAttribute(name, "RetryLatchWaitingThreads"));
+    }
+
+    @Test
+    public void whenAnonymousFamily_thenNoMBeanRegistered() throws Exception {
+        stm.getDefaultTxnExecutor().execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+            }
+        });
+
+        ObjectName familyPattern = new ObjectName(
+                GammaStmMBeans.DOMAIN + ":type=TxnFamily,stm=" + ObjectName.quote(JMX_NAME) + ",*");
+        assertTrue(server.queryNames(familyPattern, null).isEmpty());
+    }
+
+    @Test
+    public void whenUnregistered_thenMBeansRemoved() throws Exception {
+        stm.newTxnFactoryBuilder()
+                .setFamilyName("increment")
+                .newTxnExecutor()
+                .execute(new TxnVoidCallable() {
+                    @Override
+                    public void call(Txn tx) throws Exception {
+                    }
+                });
+
+        ObjectName familyPattern = new ObjectName(
+                GammaStmMBeans.DOMAIN + ":type=TxnFamily,stm=" + ObjectName.quote(JMX_NAME) + ",*");
+        assertFalse(server.queryNames(familyPattern, null).isEmpty());
+
+        stm.unregisterMBeans();
+
+        assertFalse(server.isRegistered(GammaStmMBeans.newStmObjectName(JMX_NAME)));
+        assertTrue(server.queryNames(familyPattern, null).isEmpty());
+    }
+}
@@ -0,0 +1,222 @@
+package org.multiverse.stms.gamma.transactionalobjects;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.api.exceptions.RetryError;
+import org.multiverse.api.predicates.LongPredicate;
+import org.multiverse.api.predicates.Predicate;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+
+import static org.junit.Assert.*;
+import static org.multiverse.TestUtils.assertIsAborted;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+import static org.multiverse.api.predicates.LongPredicate.newLargerThanOrEqualsPredicate;
+
+public class BaseGammaTxnRef_awaitPredicateWakeupTest {
+
+    private GammaStm stm;
+
+    @Before
+    public void setUp() {
+        stm = new GammaStm();
+        clearThreadLocalTxn();
+    }
+
+    @Test
+    public void txnLong_whenWriteDoesNotSatisfyPredicate_thenListenerNotOpenedAndStillRegistered() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 0);
+        GammaTxn tx = awaitAndRetry(ref, newLargerThanOrEqualsPredicate(10));
+
+        ref.atomicSet(5);
+
+        assertFalse(tx.retryListener.isOpen());
+        assertNotNull(ref.listeners);
+    }
+
+    @Test
+    public void txnLong_whenWriteSatisfiesPredicate_thenListenerOpened() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 0);
+        GammaTxn tx = awaitAndRetry(ref, newLargerThanOrEqualsPredicate(10));
+
+        ref.atomicSet(5);
+        ref.atomicSet(10);
+
+        assertTrue(tx.retryListener.isOpen());
+        assertNull(ref.listeners);
+    }
+
+    @Test
+    public void txnLong_whenTransactionalWriteSatisfiesPredicate_thenListenerOpened() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 0);
+        GammaTxn tx = awaitAndRetry(ref, newLargerThanOrEqualsPredicate(10));
+
+        GammaTxn updateTx = stm.newDefaultTxn();
+        ref.set(updateTx, 1);
+        updateTx.commit();
+        assertFalse(tx.retryListener.isOpen());
+
+        updateTx = stm.newDefaultTxn();
+        ref.set(updateTx, 20);
+        updateTx.commit();
+        assertTrue(tx.retryListener.isOpen());
+    }
+
+    @Test
+    public void txnLong_whenAwaitForValue_thenOnlyOpenedOnThatValue() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 0);
+        GammaTxn tx = stm.newDefaultTxn();
+        try {
+            ref.await(tx, 2);
+            fail();
+        } catch (RetryError expected) {
+        }
+
+        ref.atomicSet(1);
+        assertFalse(tx.retryListener.isOpen());
+
+        ref.atomicSet(2);
+        assertTrue(tx.retryListener.isOpen());
+    }
+
+    @Test
+    public void txnLong_whenRefAlreadyReadBeforeAwait_thenOpenedOnEveryWrite() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 0);
+        GammaTxn tx = stm.newDefaultTxn();
+        ref.get(tx);
+        try {
+            ref.await(tx, newLargerThanOrEqualsPredicate(10));
+            fail();
+        } catch (RetryError expected) {
+        }
+
+        ref.atomicSet(5);
+
+        assertTrue(tx.retryListener.isOpen());
+    }
+
+    @Test
+    public void txnLong_whenOtherRefChanges_thenOpened() {
+        GammaTxnLong otherRef = new GammaTxnLong(stm, 0);
+        GammaTxnLong ref = new GammaTxnLong(stm, 0);
+        GammaTxn tx = stm.newDefaultTxn();
+        otherRef.get(tx);
+        try {
+            ref.await(tx, newLargerThanOrEqualsPredicate(10));
+            fail();
+        } catch (RetryError expected) {
+        }
+
+        otherRef.atomicSet(1);
+
+        assertTrue(tx.retryListener.isOpen());
+    }
+
+    @Test
+    public void txnLong_whenPredicateThrowsException_thenListenerOpened() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 0);
+        GammaTxn tx = awaitAndRetry(ref, new LongPredicate() {
+            @Override
+            public boolean evaluate(long current) {
+                if (current == 0) {
+                    return false;
+                }
+                throw new IllegalStateException();
+            }
+        });
+
+        ref.atomicSet(1);
+
+        assertTrue(tx.retryListener.isOpen());
+    }
+
+    @Test
+    public void txnLong_whenPredicateThrowsError_thenListenerOpenedAndWriteCommitted() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 0);
+        GammaTxn tx = awaitAndRetry(ref, new LongPredicate() {
+            @Override
+            public boolean evaluate(long current) {
+                if (current == 0) {
+                    return false;
+                }
+                throw new AssertionError();
+            }
+        });
+
+        GammaTxn updateTx = stm.newDefaultTxn();
+        ref.set(updateTx, 1);
+        updateTx.commit();
+
+        assertTrue(tx.retryListener.isOpen());
+        assertNull(ref.listeners);
+        assertEquals(1, ref.atomicGet());
+        assertFalse(ref.hasExclusiveLock());
+    }
+
+    @Test
+    public void txnLong_whenListenerOfPassedEra_thenDroppedOnWrite() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 0);
+        GammaTxn tx = awaitAndRetry(ref, newLargerThanOrEqualsPredicate(10));
+
+        tx.retryListener.reset();
+        ref.atomicSet(1);
+
+        assertNull(ref.listeners);
+    }
+
+    @Test
+    public void txnRef_whenWriteDoesNotSatisfyPredicate_thenListenerNotOpened() {
+        GammaTxnRef<String> ref = new GammaTxnRef<String>(stm, null);
+        GammaTxn tx = stm.newDefaultTxn();
+        try {
+            ref.await(tx, new Predicate<String>() {
+                @Override
+                public boolean evaluate(String value) {
+                    return "go".equals(value);
+                }
+            });
+            fail();
+        } catch (RetryError expected) {
+        }
+
+        assertIsAborted(tx);
+
+        ref.atomicSet("wait");
+        assertFalse(tx.retryListener.isOpen());
+        assertNotNull(ref.listeners);
+
+        ref.atomicSet("go");
+        assertTrue(tx.retryListener.isOpen());
+    }
+
+    @Test
+    public void txnRef_whenAwaitForValue_thenOnlyOpenedOnThatValue() {
+        String value = "go";
+        GammaTxnRef<String> ref = new GammaTxnRef<String>(stm, null);
+        GammaTxn tx = stm.newDefaultTxn();
+        try {
+            ref.await(tx, value);
+            fail();
+        } catch (RetryError expected) {
+        }
+
+        ref.atomicSet("wait");
+        assertFalse(tx.retryListener.isOpen());
+
+        ref.atomicSet(value);
+        assertTrue(tx.retryListener.isOpen());
+    }
+
+    private GammaTxn awaitAndRetry(GammaTxnLong ref, LongPredicate predicate) {
+        GammaTxn tx = stm.newDefaultTxn();
+        try {
+            ref.await(tx, predicate);
+            fail();
+        } catch (RetryError expected) {
+        }
+
+        assertIsAborted(tx);
+        assertFalse(tx.retryListener.isOpen());
+        return tx;
+    }
+}
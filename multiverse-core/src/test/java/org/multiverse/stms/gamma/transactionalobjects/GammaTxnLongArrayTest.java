@@ -0,0 +1,225 @@
+package org.multiverse.stms.gamma.transactionalobjects;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.api.exceptions.ReadWriteConflict;
+import org.multiverse.stms.gamma.GammaConstants;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+import static org.multiverse.TestUtils.assertIsAborted;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+import static org.multiverse.stms.gamma.GammaTestUtils.assertSurplus;
+
+public class GammaTxnLongArrayTest implements GammaConstants {
+
+    private GammaStm stm;
+
+    @Before
+    public void setUp() {
+        stm = new GammaStm();
+        clearThreadLocalTxn();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenNegativeLength_thenIllegalArgumentException() {
+        new GammaTxnLongArray(stm, -1);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenStripeSizeZero_thenIllegalArgumentException() {
+        new GammaTxnLongArray(stm, 10, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenStripeSizeTooLarge_thenIllegalArgumentException() {
+        new GammaTxnLongArray(stm, 10, GammaTxnLongArray.MAX_STRIPE_SIZE + 1);
+    }
+
+    @Test
+    public void whenCreated() {
+        GammaTxnLongArray array = new GammaTxnLongArray(stm, 10, 3);
+
+        assertEquals(10, array.length());
+        assertEquals(4, array.getStripeSize());
+        for (int k = 0; k < 10; k++) {
+            assertEquals(0, array.atomicGet(k));
+        }
+        assertEquals(4, array.getStripe(0).getLongFieldCount());
+        assertEquals(2, array.getStripe(9).getLongFieldCount());
+    }
+
+    @Test
+    public void whenEmpty() {
+        GammaTxnLongArray array = new GammaTxnLongArray(stm, 0);
+
+        assertEquals(0, array.length());
+        array.getRange(stm.newDefaultTxn(), 0, new long[0], 0, 0);
+    }
+
+    @Test
+    public void whenCreatedWithFactory() {
+        GammaTxnLongArray array = stm.getDefaultRefFactory().newTxnLongArray(100, 16);
+
+        assertEquals(100, array.length());
+        assertEquals(16, array.getStripeSize());
+    }
+
+    @Test
+    public void whenElementsOfSameStripe_thenStripeShared() {
+        GammaTxnLongArray array = new GammaTxnLongArray(stm, 10, 4);
+
+        assertSame(array.getStripe(4), array.getStripe(7));
+        assertNotSame(array.getStripe(3), array.getStripe(4));
+    }
+
+    @Test
+    public void whenIndexOutOfRange_thenIndexOutOfBoundsException() {
+        GammaTxnLongArray array = new GammaTxnLongArray(stm, 10, 4);
+        GammaTxn tx = stm.newDefaultTxn();
+
+        try {
+            array.get(tx, 10);
+            fail();
+        } catch (IndexOutOfBoundsException expected) {
+        }
+
+        try {
+            array.set(tx, -1, 1);
+            fail();
+        } catch (IndexOutOfBoundsException expected) {
+        }
+
+        try {
+            array.getRange(tx, 8, new long[4], 0, 4);
+            fail();
+        } catch (IndexOutOfBoundsException expected) {
+        }
+
+        try {
+            array.setRange(tx, 0, new long[4], 1, 4);
+            fail();
+        } catch (IndexOutOfBoundsException expected) {
+        }
+    }
+
+    @Test
+    public void whenElementsUpdatedAndCommitted() {
+        GammaTxnLongArray array = new GammaTxnLongArray(stm, 10, 4);
+
+        GammaTxn tx = stm.newDefaultTxn();
+        array.set(tx, 1, 10);
+        array.set(tx, 9, 90);
+        assertEquals(11, array.incrementAndGet(tx, 1, 1));
+
+        assertEquals(11, array.get(tx, 1));
+        assertEquals(90, array.get(tx, 9));
+        assertEquals(0, array.atomicGet(1));
+        assertEquals(2, tx.size());
+
+        tx.commit();
+
+        assertEquals(11, array.atomicGet(1));
+        assertEquals(90, array.atomicGet(9));
+        assertEquals(0, array.atomicGet(0));
+        assertSurplus(array.getStripe(1), 0);
+    }
+
+    @Test
+    public void whenIncrementedWithZero_thenStripeOnlyRead() {
+        GammaTxnLongArray array = new GammaTxnLongArray(stm, 10, 4);
+
+        GammaTxn tx = stm.newDefaultTxn();
+        assertEquals(0, array.incrementAndGet(tx, 1, 0));
+
+        assertTrue(tx.getRefTranlocal(array.getStripe(1)).isRead());
+        assertFalse(tx.hasWrites());
+    }
+
+    @Test
+    public void whenAborted_thenUpdatesDiscarded() {
+        GammaTxnLongArray array = new GammaTxnLongArray(stm, 10, 4);
+
+        GammaTxn tx = stm.newDefaultTxn();
+        array.set(tx, 1, 10);
+        tx.abort();
+
+        assertIsAborted(tx);
+        assertEquals(0, array.atomicGet(1));
+    }
+
+    @Test
+    public void getRange() {
+        GammaTxnLongArray array = new GammaTxnLongArray(stm, 10, 4);
+        GammaTxn tx = stm.newDefaultTxn();
+        for (int k = 0; k < 10; k++) {
+            array.set(tx, k, k + 1);
+        }
+        tx.commit();
+
+        tx = stm.newDefaultTxn();
+        long[] dest = new long[8];
+        array.getRange(tx, 2, dest, 1, 7);
+
+        assertEquals("[0, 3, 4, 5, 6, 7, 8, 9]", Arrays.toString(dest));
+        assertEquals(3, tx.size());
+    }
+
+    @Test
+    public void setRange() {
+        GammaTxnLongArray array = new GammaTxnLongArray(stm, 10, 4);
+
+        GammaTxn tx = stm.newDefaultTxn();
+        array.setRange(tx, 3, new long[]{1, 2, 3, 4, 5, 6}, 1, 5);
+        assertEquals(2, tx.size());
+        tx.commit();
+
+        long[] result = new long[10];
+        for (int k = 0; k < 10; k++) {
+            result[k] = array.atomicGet(k);
+        }
+        assertEquals("[0, 0, 0, 2, 3, 4, 5, 6, 0, 0]", Arrays.toString(result));
+    }
+
+    @Test
+    public void whenDifferentStripesUpdatedConcurrently_thenNoConflict() {
+        GammaTxnLongArray array = new GammaTxnLongArray(stm, 10, 4);
+
+        GammaTxn tx = stm.newDefaultTxn();
+        array.set(tx, 0, 10);
+
+        GammaTxn otherTx = stm.newDefaultTxn();
+        array.set(otherTx, 4, 40);
+        otherTx.commit();
+
+        tx.commit();
+
+        assertEquals(10, array.atomicGet(0));
+        assertEquals(40, array.atomicGet(4));
+    }
+
+    @Test
+    public void whenSameStripeUpdatedConcurrently_thenReadWriteConflict() {
+        GammaTxnLongArray array = new GammaTxnLongArray(stm, 10, 4);
+
+        GammaTxn tx = stm.newDefaultTxn();
+        array.set(tx, 0, 10);
+
+        GammaTxn otherTx = stm.newDefaultTxn();
+        array.set(otherTx, 1, 20);
+        otherTx.commit();
+
+        try {
+            tx.commit();
+            fail();
+        } catch (ReadWriteConflict expected) {
+        }
+
+        assertIsAborted(tx);
+        assertEquals(0, array.atomicGet(0));
+        assertEquals(20, array.atomicGet(1));
+    }
+}
@@ -0,0 +1,100 @@
+package org.multiverse.stms.gamma.transactionalobjects;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.stms.gamma.GammaConstants;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+
+import static org.junit.Assert.*;
+import static org.multiverse.TestUtils.assertIsAborted;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+
+public class GammaTxnRefArrayTest implements GammaConstants {
+
+    private GammaStm stm;
+
+    @Before
+    public void setUp() {
+        stm = new GammaStm();
+        clearThreadLocalTxn();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenNegativeLength_thenIllegalArgumentException() {
+        new GammaTxnRefArray<String>(stm, -1);
+    }
+
+    @Test
+    public void whenCreated() {
+        GammaTxnRefArray<String> array = new GammaTxnRefArray<String>(stm, 10, 4);
+
+        assertEquals(10, array.length());
+        assertEquals(4, array.getStripeSize());
+        for (int k = 0; k < 10; k++) {
+            assertNull(array.atomicGet(k));
+        }
+        assertEquals(2, array.getStripe(9).getRefFieldCount());
+    }
+
+    @Test
+    public void whenCreatedWithFactory() {
+        GammaTxnRefArray<String> array = stm.getDefaultRefFactory().newTxnRefArray(100, 16);
+
+        assertEquals(100, array.length());
+        assertEquals(16, array.getStripeSize());
+    }
+
+    @Test(expected = IndexOutOfBoundsException.class)
+    public void whenIndexOutOfRange_thenIndexOutOfBoundsException() {
+        GammaTxnRefArray<String> array = new GammaTxnRefArray<String>(stm, 10, 4);
+
+        array.get(stm.newDefaultTxn(), 10);
+    }
+
+    @Test
+    public void whenElementsUpdatedAndCommitted() {
+        GammaTxnRefArray<String> array = new GammaTxnRefArray<String>(stm, 10, 4);
+
+        GammaTxn tx = stm.newDefaultTxn();
+        array.set(tx, 1, "foo");
+        array.set(tx, 9, "bar");
+
+        assertEquals("foo", array.get(tx, 1));
+        assertNull(array.atomicGet(1));
+
+        tx.commit();
+
+        assertEquals("foo", array.atomicGet(1));
+        assertEquals("bar", array.atomicGet(9));
+        assertNull(array.atomicGet(0));
+    }
+
+    @Test
+    public void whenAborted_thenUpdatesDiscarded() {
+        GammaTxnRefArray<String> array = new GammaTxnRefArray<String>(stm, 10, 4);
+
+        GammaTxn tx = stm.newDefaultTxn();
+        array.set(tx, 1, "foo");
+        tx.abort();
+
+        assertIsAborted(tx);
+        assertNull(array.atomicGet(1));
+    }
+
+    @Test
+    public void getRangeAndSetRange() {
+        GammaTxnRefArray<String> array = new GammaTxnRefArray<String>(stm, 10, 4);
+
+        GammaTxn tx = stm.newDefaultTxn();
+        array.setRange(tx, 2, new String[]{"a", "b", "c", "d", "e"}, 0, 5);
+        tx.commit();
+
+        tx = stm.newDefaultTxn();
+        String[] dest = new String[7];
+        array.getRange(tx, 1, dest, 0, 7);
+
+        assertArrayEquals(new String[]{null, "a", "b", "c", "d", "e", null}, dest);
+        assertEquals(2, tx.size());
+    }
+}
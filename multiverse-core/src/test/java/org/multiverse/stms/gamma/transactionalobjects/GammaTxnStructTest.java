@@ -0,0 +1,256 @@
+package org.multiverse.stms.gamma.transactionalobjects;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.api.exceptions.ReadWriteConflict;
+import org.multiverse.stms.gamma.GammaConstants;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+import org.multiverse.stms.gamma.transactions.lean.LeanMonoGammaTxn;
+
+import static org.junit.Assert.*;
+import static org.multiverse.TestUtils.assertIsAborted;
+import static org.multiverse.TestUtils.assertOrecValue;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+import static org.multiverse.stms.gamma.GammaTestUtils.*;
+
+public class GammaTxnStructTest implements GammaConstants {
+
+    private GammaStm stm;
+
+    @Before
+    public void setUp() {
+        stm = new GammaStm();
+        clearThreadLocalTxn();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenNegativeLongFieldCount_thenIllegalArgumentException() {
+        new GammaTxnStruct(stm, -1, 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenNegativeRefFieldCount_thenIllegalArgumentException() {
+        new GammaTxnStruct(stm, 0, -1);
+    }
+
+    @Test
+    public void whenCreated_thenFieldsInitialized() {
+        GammaTxnStruct struct = new GammaTxnStruct(stm, 2, 3);
+
+        assertEquals(2, struct.getLongFieldCount());
+        assertEquals(3, struct.getRefFieldCount());
+        assertEquals(VERSION_UNCOMMITTED + 1, struct.getVersion());
+        assertEquals(0, struct.atomicGetLong(1));
+        assertNull(struct.atomicGetRef(2));
+        assertSurplus(struct, 0);
+        assertLockMode(struct, LOCKMODE_NONE);
+    }
+
+    @Test
+    public void whenCreatedWithFactory() {
+        GammaTxnStruct struct = stm.getTxRefFactoryBuilder().setPadded(true).build().newTxnStruct(1, 1);
+
+        assertEquals(1, struct.getLongFieldCount());
+        assertEquals(1, struct.getRefFieldCount());
+        assertEquals(VERSION_UNCOMMITTED + 1, struct.getVersion());
+    }
+
+    @Test
+    public void whenIndexOutOfRange_thenIndexOutOfBoundsException() {
+        GammaTxnStruct struct = new GammaTxnStruct(stm, 2, 0);
+        GammaTxn tx = stm.newDefaultTxn();
+
+        try {
+            struct.getLong(tx, 2);
+            fail();
+        } catch (IndexOutOfBoundsException expected) {
+        }
+
+        try {
+            struct.setRef(tx, 0, "foo");
+            fail();
+        } catch (IndexOutOfBoundsException expected) {
+        }
+    }
+
+    @Test
+    public void whenFieldsUpdatedAndCommitted() {
+        GammaTxnStruct struct = new GammaTxnStruct(stm, 2, 1);
+        long initialVersion = struct.getVersion();
+
+        GammaTxn tx = stm.newDefaultTxn();
+        struct.setLong(tx, 0, 10);
+        struct.setLong(tx, 1, 20);
+        struct.setRef(tx, 0, "foo");
+
+        assertEquals(10, struct.getLong(tx, 0));
+        assertEquals(20, struct.getLong(tx, 1));
+        assertEquals("foo", struct.getRef(tx, 0));
+        assertEquals(0, struct.atomicGetLong(0));
+        assertNull(struct.atomicGetRef(0));
+
+        tx.commit();
+
+        assertEquals(initialVersion + 1, struct.getVersion());
+        assertEquals(10, struct.atomicGetLong(0));
+        assertEquals(20, struct.atomicGetLong(1));
+        assertEquals("foo", struct.atomicGetRef(0));
+        assertSurplus(struct, 0);
+        assertLockMode(struct, LOCKMODE_NONE);
+    }
+
+    @Test
+    public void whenUpdatedInLeanTxn() {
+        GammaTxnStruct struct = new GammaTxnStruct(stm, 1, 1);
+
+        GammaTxn tx = new LeanMonoGammaTxn(stm);
+        struct.setLong(tx, 0, 10);
+        struct.setRef(tx, 0, "foo");
+        tx.commit();
+
+        assertEquals(10, struct.atomicGetLong(0));
+        assertEquals("foo", struct.atomicGetRef(0));
+        assertEquals(VERSION_UNCOMMITTED + 2, struct.getVersion());
+    }
+
+    @Test
+    public void whenTranlocalReused_thenCommittedValueNotChanged() {
+        GammaTxnStruct struct = new GammaTxnStruct(stm, 1, 0);
+
+        GammaTxn tx = new LeanMonoGammaTxn(stm);
+        struct.setLong(tx, 0, 10);
+        tx.commit();
+
+        tx.hardReset();
+        struct.setLong(tx, 0, 20);
+        assertEquals(10, struct.atomicGetLong(0));
+        tx.abort();
+
+        assertEquals(10, struct.atomicGetLong(0));
+    }
+
+    @Test
+    public void whenCommitted_thenPreviousValueNotChanged() {
+        GammaTxnStruct struct = new GammaTxnStruct(stm, 1, 0);
+        Object initialFields = struct.ref_value;
+
+        GammaTxn tx = stm.newDefaultTxn();
+        struct.setLong(tx, 0, 10);
+        tx.commit();
+
+        assertNotSame(initialFields, struct.ref_value);
+        assertEquals(0, ((GammaTxnStruct.Fields) initialFields).longs[0]);
+
+        tx = stm.newDefaultTxn();
+        struct.setLong(tx, 0, 20);
+        assertEquals(10, struct.atomicGetLong(0));
+        tx.commit();
+
+        assertEquals(20, struct.atomicGetLong(0));
+    }
+
+    @Test
+    public void whenAborted_thenUpdatesDiscarded() {
+        GammaTxnStruct struct = new GammaTxnStruct(stm, 1, 1);
+        long initialVersion = struct.getVersion();
+
+        GammaTxn tx = stm.newDefaultTxn();
+        struct.setLong(tx, 0, 10);
+        struct.setRef(tx, 0, "foo");
+        tx.abort();
+
+        assertIsAborted(tx);
+        assertEquals(initialVersion, struct.getVersion());
+        assertEquals(0, struct.atomicGetLong(0));
+        assertNull(struct.atomicGetRef(0));
+        assertSurplus(struct, 0);
+    }
+
+    @Test
+    public void whenSameValueWritten_thenNotDirty() {
+        GammaTxnStruct struct = new GammaTxnStruct(stm, 1, 1);
+        Object initialFields = struct.ref_value;
+        long initialVersion = struct.getVersion();
+
+        GammaTxn tx = stm.newDefaultTxn();
+        struct.setLong(tx, 0, 0);
+        struct.setRef(tx, 0, null);
+        tx.commit();
+
+        assertSame(initialFields, struct.ref_value);
+        assertEquals(initialVersion, struct.getVersion());
+    }
+
+    @Test
+    public void whenManyFieldsUpdated_thenSingleTranlocalAndSingleArrive() {
+        GammaTxnStruct struct = new GammaTxnStruct(stm, 5, 0);
+        GammaTxn tx = stm.newDefaultTxn();
+
+        for (int k = 0; k < 5; k++) {
+            struct.setLong(tx, k, k + 1);
+        }
+
+        assertEquals(1, tx.size());
+        tx.commit();
+
+        for (int k = 0; k < 5; k++) {
+            assertEquals(k + 1, struct.atomicGetLong(k));
+        }
+        assertSurplus(struct, 0);
+    }
+
+    @Test
+    public void whenConstructedInTxn() {
+        GammaTxn tx = stm.newDefaultTxn();
+        GammaTxnStruct struct = new GammaTxnStruct(tx, 1, 1);
+        struct.setLong(tx, 0, 10);
+        struct.setRef(tx, 0, "foo");
+
+        assertLockMode(struct, LOCKMODE_EXCLUSIVE);
+        tx.commit();
+
+        assertEquals(10, struct.atomicGetLong(0));
+        assertEquals("foo", struct.atomicGetRef(0));
+        assertSurplus(struct, 0);
+        assertLockMode(struct, LOCKMODE_NONE);
+    }
+
+    @Test
+    public void whenConcurrentlyUpdated_thenReadWriteConflict() {
+        GammaTxnStruct struct = new GammaTxnStruct(stm, 2, 0);
+
+        GammaTxn tx = stm.newDefaultTxn();
+        struct.setLong(tx, 0, 10);
+
+        GammaTxn otherTx = stm.newDefaultTxn();
+        struct.setLong(otherTx, 1, 20);
+        otherTx.commit();
+        long orecValue = struct.orec;
+
+        try {
+            tx.commit();
+            fail();
+        } catch (ReadWriteConflict expected) {
+        }
+
+        assertIsAborted(tx);
+        assertEquals(0, struct.atomicGetLong(0));
+        assertEquals(20, struct.atomicGetLong(1));
+        assertOrecValue(struct, orecValue);
+    }
+
+    @Test
+    public void toDebugString() {
+        GammaTxnStruct struct = new GammaTxnStruct(stm, 1, 1);
+
+        assertTrue(struct.toDebugString().contains("value=[longs=[0], refs=[null]]"));
+    }
+
+    @Test
+    public void atomicToString() {
+        GammaTxnStruct struct = new GammaTxnStruct(stm, 2, 1);
+
+        assertEquals("[longs=[0, 0], refs=[null]]", struct.atomicToString());
+    }
+}
@@ -0,0 +1,294 @@
+package org.multiverse.stms.gamma.transactionalobjects;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.api.exceptions.PanicError;
+import org.multiverse.stms.gamma.GammaConstants;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.GammaStmConfig;
+import org.multiverse.stms.gamma.transactions.GammaTxn;
+import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
+import org.multiverse.stms.gamma.transactions.fat.FatVariableLengthGammaTxn;
+
+import static org.junit.Assert.*;
+import static org.multiverse.TestUtils.*;
+import static org.multiverse.stms.gamma.GammaTestUtils.*;
+
+public class ReadIndicatorTest implements GammaConstants {
+
+    private GammaStm stm;
+
+    @Before
+    public void setUp() {
+        stm = new GammaStm();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void whenNoSlots_thenIllegalArgumentException() {
+        new ReadIndicator(0);
+    }
+
+    @Test
+    public void whenSlotsNotPowerOfTwo_thenRoundedUp() {
+        assertEquals(1, new ReadIndicator(1).getSlotCount());
+        assertEquals(4, new ReadIndicator(3).getSlotCount());
+        assertEquals(16, new ReadIndicator(16).getSlotCount());
+    }
+
+    @Test
+    public void whenFirstArriveOnSlot_thenArriveOnOrec() {
+        GammaTxnLong ref = new GammaTxnLong(stm);
+        ReadIndicator indicator = ref.___installReadIndicator();
+
+        int result = indicator.arrive(ref, 0, 1);
+
+        assertHasMasks(result, MASK_SUCCESS);
+        assertNotHasMasks(result, MASK_UNREGISTERED, MASK_CONFLICT);
+        assertEquals(1, indicator.getReaderCount(0));
+        assertSurplus(ref, 1);
+    }
+
+    @Test
+    public void whenMoreArrivesOnSlot_thenOrecNotChanged() {
+        GammaTxnLong ref = new GammaTxnLong(stm);
+        ReadIndicator indicator = ref.___installReadIndicator();
+        indicator.arrive(ref, 0, 1);
+        long orecValue = ref.orec;
+
+        int result = indicator.arrive(ref, 0, 1);
+
+        assertHasMasks(result, MASK_SUCCESS);
+        assertNotHasMasks(result, MASK_UNREGISTERED, MASK_CONFLICT);
+        assertEquals(2, indicator.getReaderCount(0));
+        assertOrecValue(ref, orecValue);
+    }
+
+    @Test
+    public void whenArrivesOnDifferentSlots_thenEverySlotArrivesOnOrec() {
+        GammaTxnLong ref = new GammaTxnLong(stm);
+        ReadIndicator indicator = new ReadIndicator(2);
+        ref.readIndicator = indicator;
+
+        indicator.arrive(ref, 0, 1);
+        indicator.arrive(ref, 1, 1);
+        indicator.arrive(ref, 1, 1);
+
+        assertSurplus(ref, 2);
+        assertEquals(1, indicator.getReaderCount(0));
+        assertEquals(2, indicator.getReaderCount(1));
+    }
+
+    @Test
+    public void whenExclusiveLocked_thenFailure() {
+        GammaTxnLong ref = new GammaTxnLong(stm);
+        ReadIndicator indicator = ref.___installReadIndicator();
+        indicator.arrive(ref, 0, 1);
+        ref.arriveAndLock(1, LOCKMODE_EXCLUSIVE);
+        long orecValue = ref.orec;
+
+        int result = indicator.arrive(ref, 0, 1);
+
+        assertFailure(result);
+        assertEquals(1, indicator.getReaderCount(0));
+        assertOrecValue(ref, orecValue);
+    }
+
+    @Test
+    public void whenReadBiased_thenUnregisteredAndSlotUntouched() {
+        GammaTxnLong ref = makeReadBiased(new GammaTxnLong(stm));
+        ReadIndicator indicator = ref.___installReadIndicator();
+
+        int result = indicator.arrive(ref, 0, 1);
+
+        assertHasMasks(result, MASK_SUCCESS, MASK_UNREGISTERED);
+        assertTrue(indicator.isEmpty());
+        assertReadBiased(ref);
+    }
+
+    @Test
+    public void whenDepartNotLastReaderOfSlot_thenOrecNotChanged() {
+        GammaTxnLong ref = new GammaTxnLong(stm);
+        ReadIndicator indicator = ref.___installReadIndicator();
+        indicator.arrive(ref, 0, 1);
+        indicator.arrive(ref, 0, 1);
+        long orecValue = ref.orec;
+
+        indicator.departAfterReading(ref, 0);
+
+        assertEquals(1, indicator.getReaderCount(0));
+        assertOrecValue(ref, orecValue);
+    }
+
+    @Test
+    public void whenDepartLastReaderOfSlot_thenDepartFromOrec() {
+        GammaTxnLong ref = new GammaTxnLong(stm);
+        ReadIndicator indicator = ref.___installReadIndicator();
+        indicator.arrive(ref, 0, 1);
+        indicator.arrive(ref, 0, 1);
+
+        indicator.departAfterFailure(ref, 0);
+        indicator.departAfterReading(ref, 0);
+
+        assertTrue(indicator.isEmpty());
+        assertSurplus(ref, 0);
+        assertReadonlyCount(ref, 1);
+        assertLockMode(ref, LOCKMODE_NONE);
+    }
+
+    @Test
+    public void whenDepartWithoutArrive_thenPanicError() {
+        GammaTxnLong ref = new GammaTxnLong(stm);
+        ReadIndicator indicator = ref.___installReadIndicator();
+
+        try {
+            indicator.departAfterReading(ref, 0);
+            fail();
+        } catch (PanicError expected) {
+        }
+
+        assertSurplus(ref, 0);
+    }
+
+    @Test
+    public void whenExclusiveLockAcquiredWhileReadersOnSlot_thenConflict() {
+        GammaTxnLong ref = new GammaTxnLong(stm);
+        ReadIndicator indicator = ref.___installReadIndicator();
+        indicator.arrive(ref, 0, 1);
+        indicator.arrive(ref, 0, 1);
+
+        int result = ref.arriveAndLock(1, LOCKMODE_EXCLUSIVE);
+
+        assertHasMasks(result, MASK_SUCCESS, MASK_CONFLICT);
+    }
+
+    @Test
+    public void lockAfterReadIndicatorArrive_whenOnlyReader_thenArriveMovedToOrecAndNoConflict() {
+        GammaTxnLong ref = new GammaTxnLong(stm);
+        ReadIndicator indicator = ref.___installReadIndicator();
+        indicator.arrive(ref, 0, 1);
+
+        int result = ref.lockAfterReadIndicatorArrive(1, LOCKMODE_EXCLUSIVE, 0);
+
+        assertHasMasks(result, MASK_SUCCESS);
+        assertNotHasMasks(result, MASK_CONFLICT, MASK_UNREGISTERED);
+        assertTrue(indicator.isEmpty());
+        assertSurplus(ref, 1);
+        assertLockMode(ref, LOCKMODE_EXCLUSIVE);
+    }
+
+    @Test
+    public void lockAfterReadIndicatorArrive_whenOtherReaderOnSameSlot_thenConflict() {
+        GammaTxnLong ref = new GammaTxnLong(stm);
+        ReadIndicator indicator = ref.___installReadIndicator();
+        indicator.arrive(ref, 0, 1);
+        indicator.arrive(ref, 0, 1);
+
+        int result = ref.lockAfterReadIndicatorArrive(1, LOCKMODE_EXCLUSIVE, 0);
+
+        assertHasMasks(result, MASK_SUCCESS, MASK_CONFLICT);
+        assertEquals(1, indicator.getReaderCount(0));
+        assertSurplus(ref, 2);
+        assertLockMode(ref, LOCKMODE_EXCLUSIVE);
+    }
+
+    @Test
+    public void lockAfterReadIndicatorArrive_whenLocked_thenFailure() {
+        GammaTxnLong ref = new GammaTxnLong(stm);
+        ReadIndicator indicator = ref.___installReadIndicator();
+        indicator.arrive(ref, 0, 1);
+        ref.arriveAndLock(1, LOCKMODE_WRITE);
+        long orecValue = ref.orec;
+
+        int result = ref.lockAfterReadIndicatorArrive(1, LOCKMODE_EXCLUSIVE, 0);
+
+        assertFailure(result);
+        assertEquals(1, indicator.getReaderCount(0));
+        assertOrecValue(ref, orecValue);
+    }
+
+    @Test
+    public void whenArriveUncontended_thenReadIndicatorNotInstalled() {
+        GammaStmConfig config = new GammaStmConfig();
+        config.readIndicatorSlots = 4;
+        stm = new GammaStm(config);
+        GammaTxnLong ref = new GammaTxnLong(stm);
+
+        ref.arrive(1);
+
+        assertNull(ref.readIndicator);
+    }
+
+    @Test
+    public void whenInstalled_thenSlotCountFromConfig() {
+        GammaStmConfig config = new GammaStmConfig();
+        config.readIndicatorSlots = 4;
+        stm = new GammaStm(config);
+        GammaTxnLong ref = new GammaTxnLong(stm);
+
+        assertEquals(4, ref.___installReadIndicator().getSlotCount());
+        assertSame(ref.readIndicator, ref.___installReadIndicator());
+    }
+
+    @Test
+    public void whenTransactionReadsAndCommits_thenReadIndicatorDeparted() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 10);
+        ReadIndicator indicator = ref.___installReadIndicator();
+
+        GammaTxn tx = newArrivingTxn();
+        Tranlocal tranlocal = ref.openForRead(tx, LOCKMODE_NONE);
+
+        assertTrue(tranlocal.hasDepartObligation);
+        assertEquals(indicator.slot() + 1, tranlocal.readIndicatorSlot);
+        assertEquals(1, indicator.getReaderCount(indicator.slot()));
+
+        tx.commit();
+
+        assertEquals(0, tranlocal.readIndicatorSlot);
+        assertTrue(indicator.isEmpty());
+        assertSurplus(ref, 0);
+        assertLockMode(ref, LOCKMODE_NONE);
+    }
+
+    @Test
+    public void whenTransactionReadsAndAborts_thenReadIndicatorDeparted() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 10);
+        ReadIndicator indicator = ref.___installReadIndicator();
+
+        GammaTxn tx = newArrivingTxn();
+        ref.openForRead(tx, LOCKMODE_NONE);
+        tx.abort();
+
+        assertTrue(indicator.isEmpty());
+        assertSurplus(ref, 0);
+        assertLockMode(ref, LOCKMODE_NONE);
+    }
+
+    @Test
+    public void whenTransactionReadsAndThenWrites_thenArriveMovedToOrec() {
+        GammaTxnLong ref = new GammaTxnLong(stm, 10);
+        ReadIndicator indicator = ref.___installReadIndicator();
+
+        GammaTxn tx = newArrivingTxn();
+        ref.openForRead(tx, LOCKMODE_NONE);
+        Tranlocal tranlocal = ref.openForWrite(tx, LOCKMODE_EXCLUSIVE);
+
+        assertEquals(0, tranlocal.readIndicatorSlot);
+        assertTrue(tranlocal.hasDepartObligation);
+        assertTrue(indicator.isEmpty());
+        assertSurplus(ref, 1);
+        assertLockMode(ref, LOCKMODE_EXCLUSIVE);
+
+        tranlocal.long_value++;
+        tx.commit();
+
+        assertEquals(11, ref.atomicGet());
+        assertSurplus(ref, 0);
+        assertLockMode(ref, LOCKMODE_NONE);
+    }
+
+    private GammaTxn newArrivingTxn() {
+        GammaTxnConfig config = new GammaTxnConfig(stm)
+                .setMaximumPoorMansConflictScanLength(0);
+        return new FatVariableLengthGammaTxn(config);
+    }
+}
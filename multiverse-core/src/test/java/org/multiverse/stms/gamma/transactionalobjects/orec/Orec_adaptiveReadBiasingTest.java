@@ -0,0 +1,160 @@
+package org.multiverse.stms.gamma.transactionalobjects.orec;
+
+import org.junit.Test;
+import org.multiverse.stms.gamma.GammaConstants;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.GammaStmConfig;
+import org.multiverse.stms.gamma.transactionalobjects.AbstractGammaObject;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.multiverse.stms.gamma.GammaTestUtils.*;
+
+public class Orec_adaptiveReadBiasingTest implements GammaConstants {
+
+    private GammaStm newStm(boolean adaptive) {
+        GammaStmConfig config = new GammaStmConfig();
+        config.readBiasedThreshold = 16;
+        config.adaptiveReadBiasingEnabled = adaptive;
+        return new GammaStm(config);
+    }
+
+    private static void read(AbstractGammaObject orec, int count) {
+        for (int k = 0; k < count; k++) {
+            orec.arrive(1);
+            if (!orec.isReadBiased()) {
+                orec.departAfterReading();
+            }
+        }
+    }
+
+    private static void update(AbstractGammaObject orec) {
+        orec.arriveAndLock(1, LOCKMODE_EXCLUSIVE);
+        orec.departAfterUpdateAndUnlock();
+    }
+
+    @Test
+    public void whenBecomesReadBiased_thenModeChangeCounted() {
+        AbstractGammaObject orec = new GammaTxnLong(newStm(false));
+
+        makeReadBiased(orec);
+
+        assertEquals(1, orec.getModeChangeCount());
+    }
+
+    @Test
+    public void whenReadBiasedUpdated_thenModeChangeCounted() {
+        AbstractGammaObject orec = makeReadBiased(new GammaTxnLong(newStm(false)));
+
+        update(orec);
+
+        assertWriteBiased(orec);
+        assertEquals(2, orec.getModeChangeCount());
+    }
+
+    @Test
+    public void whenUpdateBiasedUpdated_thenNoModeChange() {
+        AbstractGammaObject orec = new GammaTxnLong(newStm(true));
+        read(orec, 4);
+
+        update(orec);
+
+        assertEquals(0, orec.getModeChangeCount());
+        assertEquals(16, orec.getReadBiasedThreshold());
+    }
+
+    @Test
+    public void whenNotAdaptive_thenThresholdNotChanged() {
+        AbstractGammaObject orec = makeReadBiased(new GammaTxnLong(newStm(false)));
+
+        update(orec);
+
+        assertEquals(16, orec.getReadBiasedThreshold());
+    }
+
+    @Test
+    public void whenReadBiasedUpdated_thenThresholdDoubled() {
+        AbstractGammaObject orec = makeReadBiased(new GammaTxnLong(newStm(true)));
+
+        update(orec);
+
+        assertEquals(32, orec.getReadBiasedThreshold());
+        read(orec, 31);
+        assertWriteBiased(orec);
+        read(orec, 1);
+        assertReadBiased(orec);
+    }
+
+    @Test
+    public void whenThresholdDoubled_thenLimitedToMaximum() {
+        GammaStmConfig config = new GammaStmConfig();
+        config.readBiasedThreshold = 1000;
+        config.adaptiveReadBiasingEnabled = true;
+        AbstractGammaObject orec = makeReadBiased(new GammaTxnLong(new GammaStm(config)));
+
+        update(orec);
+
+        assertEquals(1023, orec.getReadBiasedThreshold());
+    }
+
+    @Test
+    public void whenMostlyReadBetweenUpdates_thenThresholdDecays() {
+        AbstractGammaObject orec = new GammaTxnLong(newStm(true));
+        makeReadBiased(orec);
+        update(orec);
+        makeReadBiased(orec);
+        update(orec);
+        assertEquals(64, orec.getReadBiasedThreshold());
+
+        read(orec, 47);
+        update(orec);
+        assertEquals(64, orec.getReadBiasedThreshold());
+
+        read(orec, 48);
+        update(orec);
+        assertEquals(48, orec.getReadBiasedThreshold());
+
+        read(orec, 36);
+        update(orec);
+        assertEquals(36, orec.getReadBiasedThreshold());
+
+        for (int k = 0; k < 10; k++) {
+            read(orec, orec.getReadBiasedThreshold() - 1);
+            update(orec);
+        }
+        assertEquals(16, orec.getReadBiasedThreshold());
+        assertWriteBiased(orec);
+    }
+
+    @Test
+    public void whenMostlyUpdated_thenThresholdDoesNotDecay() {
+        AbstractGammaObject orec = new GammaTxnLong(newStm(true));
+        makeReadBiased(orec);
+        update(orec);
+
+        for (int k = 0; k < 10; k++) {
+            read(orec, 2);
+            update(orec);
+        }
+
+        assertEquals(32, orec.getReadBiasedThreshold());
+    }
+
+    @Test
+    public void whenAlternatingShortPhases_thenLessModeChanges() {
+        int nonAdaptiveModeChanges = alternatingPhases(newStm(false));
+        int adaptiveModeChanges = alternatingPhases(newStm(true));
+
+        assertEquals(40, nonAdaptiveModeChanges);
+        assertEquals(4, adaptiveModeChanges);
+    }
+
+    private static int alternatingPhases(GammaStm stm) {
+        AbstractGammaObject orec = new GammaTxnLong(stm);
+        for (int phase = 0; phase < 20; phase++) {
+            read(orec, 40);
+            update(orec);
+        }
+        return orec.getModeChangeCount();
+    }
+}
@@ -4,6 +4,7 @@ import org.junit.Before;
 import org.junit.Test;
 import org.multiverse.api.exceptions.PanicError;
 import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.GammaStmConfig;
 import org.multiverse.stms.gamma.transactionalobjects.AbstractGammaObject;
 import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
 
@@ -167,4 +168,25 @@ public class Orec_departAfterReadingTest {
 
         assertOrecValue(orec, orecValue);
     }
+
+    @Test
+    public void whenReadonlyCountLargerThan511_thenNotLost() {
+        GammaStmConfig config = new GammaStmConfig();
+        config.readBiasedThreshold = 1000;
+        AbstractGammaObject orec = new GammaTxnLong(new GammaStm(config));
+
+        for (int k = 0; k < 999; k++) {
+            orec.arrive(1);
+            orec.departAfterReading();
+        }
+
+        assertReadonlyCount(orec, 999);
+        assertWriteBiased(orec);
+
+        orec.arrive(1);
+        orec.departAfterReading();
+
+        assertReadBiased(orec);
+        assertSurplus(orec, 0);
+    }
 }
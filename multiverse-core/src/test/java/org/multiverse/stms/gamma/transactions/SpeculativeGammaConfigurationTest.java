@@ -176,4 +176,30 @@ public class SpeculativeGammaConfigurationTest {
         assertTrue(config.constructedObjectsDetected);
         assertEquals(1, config.minimalLength);
     }
+
+    @Test
+    public void newWith() {
+        SpeculativeGammaConfiguration config = new SpeculativeGammaConfiguration()
+                .newWithNonRefType()
+                .newWithMinimalLength(3)
+                .newWith(new SpeculativeGammaConfiguration().newWithOrElse().newWithMinimalLength(2));
+
+        assertTrue(config.fat);
+        assertTrue(config.nonRefTypeDetected);
+        assertFalse(config.commuteDetected);
+        assertTrue(config.orelseDetected);
+        assertFalse(config.listenersDetected);
+        assertFalse(config.locksDetected);
+        assertFalse(config.abortOnlyDetected);
+        assertFalse(config.ensureDetected);
+        assertFalse(config.constructedObjectsDetected);
+        assertEquals(3, config.minimalLength);
+    }
+
+    @Test
+    public void newWith_whenNothingNew() {
+        SpeculativeGammaConfiguration config = new SpeculativeGammaConfiguration().newWithCommute();
+
+        assertSame(config, config.newWith(new SpeculativeGammaConfiguration()));
+    }
 }
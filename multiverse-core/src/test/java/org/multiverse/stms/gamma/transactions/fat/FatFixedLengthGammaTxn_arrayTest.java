@@ -0,0 +1,151 @@
+package org.multiverse.stms.gamma.transactions.fat;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.api.exceptions.SpeculativeConfigurationError;
+import org.multiverse.stms.gamma.GammaConstants;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+import org.multiverse.stms.gamma.transactionalobjects.Tranlocal;
+import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
+
+import static org.junit.Assert.*;
+import static org.multiverse.TestUtils.assertIsAborted;
+import static org.multiverse.TestUtils.assertIsCommitted;
+
+public class FatFixedLengthGammaTxn_arrayTest implements GammaConstants {
+
+    private GammaStm stm;
+
+    @Before
+    public void setUp() {
+        stm = new GammaStm();
+    }
+
+    @Test
+    public void whenCreated_thenArrayPreallocated() {
+        FatFixedLengthGammaTxn tx = newTransaction(10);
+
+        assertEquals(10, tx.array.length);
+        assertEquals(0, tx.size());
+        for (Tranlocal tranlocal : tx.array) {
+            assertNotNull(tranlocal);
+        }
+    }
+
+    @Test
+    public void whenReopened_thenSameTranlocal() {
+        FatFixedLengthGammaTxn tx = newTransaction(20);
+        GammaTxnLong[] refs = newRefs(20);
+
+        Tranlocal[] tranlocals = new Tranlocal[refs.length];
+        for (int k = 0; k < refs.length; k++) {
+            tranlocals[k] = refs[k].openForRead(tx, LOCKMODE_NONE);
+        }
+
+        for (int k = 0; k < refs.length; k++) {
+            assertSame(tranlocals[k], refs[k].openForWrite(tx, LOCKMODE_NONE));
+            assertSame(tranlocals[k], tx.getRefTranlocal(refs[k]));
+        }
+        assertEquals(refs.length, tx.size());
+    }
+
+    @Test
+    public void whenOpened_thenStoredDenselyInOpenOrder() {
+        FatFixedLengthGammaTxn tx = newTransaction(10);
+        GammaTxnLong[] refs = newRefs(3);
+
+        for (GammaTxnLong ref : refs) {
+            ref.openForWrite(tx, LOCKMODE_NONE);
+        }
+        refs[0].openForRead(tx, LOCKMODE_NONE);
+
+        for (int k = 0; k < refs.length; k++) {
+            assertSame(refs[k], tx.array[k].owner);
+        }
+        for (int k = refs.length; k < tx.array.length; k++) {
+            assertNull(tx.array[k].owner);
+        }
+    }
+
+    @Test
+    public void whenFull_thenNothingTaken() {
+        FatFixedLengthGammaTxn tx = newTransaction(5);
+        GammaTxnLong[] refs = newRefs(5);
+        for (GammaTxnLong ref : refs) {
+            ref.openForRead(tx, LOCKMODE_NONE);
+        }
+
+        assertNull(tx.take(new GammaTxnLong(stm)));
+        assertEquals(5, tx.size());
+    }
+
+    @Test
+    public void whenFull_thenTooSmallDetected() {
+        FatFixedLengthGammaTxn tx = newTransaction(5);
+        GammaTxnLong[] refs = newRefs(5);
+        for (GammaTxnLong ref : refs) {
+            ref.openForWrite(tx, LOCKMODE_NONE);
+        }
+
+        GammaTxnLong other = new GammaTxnLong(stm);
+        try {
+            other.openForRead(tx, LOCKMODE_NONE);
+            fail();
+        } catch (SpeculativeConfigurationError expected) {
+        }
+
+        assertIsAborted(tx);
+    }
+
+    @Test
+    public void whenAborted_thenTranlocalsReleased() {
+        FatFixedLengthGammaTxn tx = newTransaction(10);
+        GammaTxnLong[] refs = newRefs(10);
+        for (GammaTxnLong ref : refs) {
+            ref.openForWrite(tx, LOCKMODE_NONE);
+        }
+        tx.abort();
+
+        assertTrue(tx.softReset());
+
+        assertEquals(0, tx.size());
+        for (Tranlocal tranlocal : tx.array) {
+            assertNull(tranlocal.owner);
+        }
+    }
+
+    @Test
+    public void whenCommitted_thenTranlocalsReleased() {
+        FatFixedLengthGammaTxn tx = newTransaction(10);
+        GammaTxnLong[] refs = newRefs(10);
+        for (GammaTxnLong ref : refs) {
+            ref.openForWrite(tx, LOCKMODE_NONE).long_value++;
+        }
+        tx.commit();
+        assertIsCommitted(tx);
+
+        tx.hardReset();
+
+        assertEquals(0, tx.size());
+        for (Tranlocal tranlocal : tx.array) {
+            assertNull(tranlocal.owner);
+        }
+        for (GammaTxnLong ref : refs) {
+            assertEquals(1, ref.atomicGet());
+        }
+    }
+
+    private FatFixedLengthGammaTxn newTransaction(int maxSize) {
+        GammaTxnConfig config = new GammaTxnConfig(stm, maxSize);
+        return new FatFixedLengthGammaTxn(config);
+    }
+
+    private GammaTxnLong[] newRefs(int count) {
+        GammaTxnLong[] refs = new GammaTxnLong[count];
+        for (int k = 0; k < count; k++) {
+            refs[k] = new GammaTxnLong(stm);
+        }
+        return refs;
+    }
+}
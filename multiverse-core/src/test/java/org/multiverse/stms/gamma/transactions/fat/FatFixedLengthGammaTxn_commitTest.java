@@ -12,10 +12,8 @@ public class FatFixedLengthGammaTxn_commitTest extends FatGammaTxn_commitTest<Fa
 
     @Override
     protected void assertCleaned(FatFixedLengthGammaTxn tx) {
-        Tranlocal node = tx.head;
-        while (node != null) {
+        for (Tranlocal node : tx.array) {
             assertNull(node.owner);
-            node = node.next;
         }
     }
 
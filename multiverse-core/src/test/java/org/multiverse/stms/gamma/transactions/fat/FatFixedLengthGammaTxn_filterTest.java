@@ -0,0 +1,119 @@
+package org.multiverse.stms.gamma.transactions.fat;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.stms.gamma.GammaConstants;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
+
+import static org.junit.Assert.*;
+import static org.multiverse.TestUtils.assertIsCommitted;
+
+public class FatFixedLengthGammaTxn_filterTest implements GammaConstants {
+
+    private GammaStm stm;
+
+    @Before
+    public void setUp() {
+        stm = new GammaStm();
+    }
+
+    @Test
+    public void whenCreated_thenFilterEmpty() {
+        FatFixedLengthGammaTxn tx = newTransaction(10);
+
+        assertEquals(0, tx.filter);
+        assertFalse(tx.mightContain(new GammaTxnLong(stm)));
+    }
+
+    @Test
+    public void whenOpened_thenMightContain() {
+        FatFixedLengthGammaTxn tx = newTransaction(10);
+        GammaTxnLong[] refs = newRefs(10);
+
+        for (GammaTxnLong ref : refs) {
+            ref.openForRead(tx, LOCKMODE_NONE);
+        }
+
+        for (GammaTxnLong ref : refs) {
+            assertTrue(tx.mightContain(ref));
+        }
+    }
+
+    @Test
+    public void whenNotOpened_thenNotFound() {
+        FatFixedLengthGammaTxn tx = newTransaction(10);
+        GammaTxnLong[] refs = newRefs(5);
+        for (GammaTxnLong ref : refs) {
+            ref.openForRead(tx, LOCKMODE_NONE);
+        }
+
+        GammaTxnLong other = new GammaTxnLong(stm);
+
+        assertNull(tx.getRefTranlocal(other));
+    }
+
+    @Test
+    public void whenFalsePositivesPossible_thenLookupStillCorrect() {
+        FatFixedLengthGammaTxn tx = newTransaction(20);
+        GammaTxnLong[] refs = newRefs(20);
+        for (GammaTxnLong ref : refs) {
+            ref.openForRead(tx, LOCKMODE_NONE);
+        }
+
+        for (int k = 0; k < 100; k++) {
+            assertNull(tx.getRefTranlocal(new GammaTxnLong(stm)));
+        }
+        for (GammaTxnLong ref : refs) {
+            assertSame(ref, tx.getRefTranlocal(ref).owner);
+        }
+    }
+
+    @Test
+    public void whenSoftReset_thenFilterCleared() {
+        FatFixedLengthGammaTxn tx = newTransaction(10);
+        GammaTxnLong[] refs = newRefs(10);
+        for (GammaTxnLong ref : refs) {
+            ref.openForWrite(tx, LOCKMODE_NONE);
+        }
+        tx.abort();
+
+        assertTrue(tx.softReset());
+
+        assertEquals(0, tx.filter);
+        assertNull(tx.getRefTranlocal(refs[0]));
+    }
+
+    @Test
+    public void whenHardReset_thenFilterCleared() {
+        FatFixedLengthGammaTxn tx = newTransaction(10);
+        GammaTxnLong[] refs = newRefs(10);
+        for (GammaTxnLong ref : refs) {
+            ref.openForWrite(tx, LOCKMODE_NONE).long_value++;
+        }
+        tx.commit();
+        assertIsCommitted(tx);
+
+        tx.hardReset();
+
+        assertEquals(0, tx.filter);
+        for (GammaTxnLong ref : refs) {
+            assertEquals(1, ref.atomicGet());
+            assertNull(tx.getRefTranlocal(ref));
+        }
+    }
+
+    private FatFixedLengthGammaTxn newTransaction(int maxSize) {
+        GammaTxnConfig config = new GammaTxnConfig(stm, maxSize);
+        return new FatFixedLengthGammaTxn(config);
+    }
+
+    private GammaTxnLong[] newRefs(int count) {
+        GammaTxnLong[] refs = new GammaTxnLong[count];
+        for (int k = 0; k < count; k++) {
+            refs[k] = new GammaTxnLong(stm);
+        }
+        return refs;
+    }
+}
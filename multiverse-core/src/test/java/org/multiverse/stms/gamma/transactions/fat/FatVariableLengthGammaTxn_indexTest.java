@@ -0,0 +1,275 @@
+package org.multiverse.stms.gamma.transactions.fat;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.api.exceptions.ReadWriteConflict;
+import org.multiverse.stms.gamma.GammaConstants;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnLong;
+import org.multiverse.stms.gamma.transactionalobjects.Tranlocal;
+import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
+
+import static org.junit.Assert.*;
+import static org.multiverse.TestUtils.assertIsAborted;
+import static org.multiverse.TestUtils.assertIsCommitted;
+
+public class FatVariableLengthGammaTxn_indexTest implements GammaConstants {
+
+    private GammaStm stm;
+
+    @Before
+    public void setUp() {
+        stm = new GammaStm();
+    }
+
+    @Test
+    public void whenCreated_thenIndexIsPowerOfTwoAndAtLeastTwiceTheArray() {
+        FatVariableLengthGammaTxn tx = newTransaction();
+
+        assertPowerOfTwo(tx.index.length);
+        assertTrue(tx.index.length >= 2 * tx.array.length);
+        assertPowerOfTwo(tx.filter.length);
+    }
+
+    @Test
+    public void whenOpened_thenStoredDenselyInOpenOrder() {
+        FatVariableLengthGammaTxn tx = newTransaction();
+        GammaTxnLong[] refs = newRefs(100);
+
+        Tranlocal[] tranlocals = new Tranlocal[refs.length];
+        for (int k = 0; k < refs.length; k++) {
+            tranlocals[k] = refs[k].openForRead(tx, LOCKMODE_NONE);
+        }
+
+        assertEquals(refs.length, tx.size());
+        for (int k = 0; k < refs.length; k++) {
+            assertSame(tranlocals[k], tx.array[k]);
+            assertEquals(k, tx.indexOf(refs[k], refs[k].identityHashCode()));
+        }
+        for (int k = refs.length; k < tx.array.length; k++) {
+            assertNull(tx.array[k]);
+        }
+        assertPowerOfTwo(tx.index.length);
+        assertTrue(tx.index.length >= 2 * tx.array.length);
+    }
+
+    @Test
+    public void whenNotOpened_thenNotFound() {
+        FatVariableLengthGammaTxn tx = newTransaction();
+        GammaTxnLong[] refs = newRefs(50);
+        for (GammaTxnLong ref : refs) {
+            ref.openForRead(tx, LOCKMODE_NONE);
+        }
+
+        GammaTxnLong other = new GammaTxnLong(stm);
+
+        assertEquals(-1, tx.indexOf(other, other.identityHashCode()));
+        assertNull(tx.getRefTranlocal(other));
+    }
+
+    @Test
+    public void whenHashesCollide_thenAllFound() {
+        GammaTxnConfig config = new GammaTxnConfig(stm);
+        //large enough so the index is not rebuilt using the real hashes.
+        config.minimalArrayTreeSize = 64;
+        FatVariableLengthGammaTxn tx = new FatVariableLengthGammaTxn(config);
+        GammaTxnLong[] refs = newRefs(20);
+
+        for (int k = 0; k < refs.length; k++) {
+            Tranlocal tranlocal = tx.pool.take(refs[k]);
+            tranlocal.owner = refs[k];
+            //all tranlocals are attached with the same hash, so they all end up in the same probe sequence.
+            tx.attach(tranlocal, 42);
+            tx.size++;
+        }
+
+        for (int k = 0; k < refs.length; k++) {
+            assertEquals(k, tx.indexOf(refs[k], 42));
+        }
+    }
+
+    @Test
+    public void whenAborted_thenNothingFound() {
+        FatVariableLengthGammaTxn tx = newTransaction();
+        GammaTxnLong[] refs = newRefs(10);
+        for (GammaTxnLong ref : refs) {
+            ref.openForWrite(tx, LOCKMODE_NONE);
+        }
+
+        tx.abort();
+
+        assertIsAborted(tx);
+        for (GammaTxnLong ref : refs) {
+            assertEquals(-1, tx.indexOf(ref, ref.identityHashCode()));
+        }
+    }
+
+    @Test
+    public void whenSoftReset_thenIndexCleared() {
+        FatVariableLengthGammaTxn tx = newTransaction();
+        GammaTxnLong[] refs = newRefs(100);
+        for (GammaTxnLong ref : refs) {
+            ref.openForWrite(tx, LOCKMODE_NONE);
+        }
+        tx.abort();
+
+        assertTrue(tx.softReset());
+
+        assertEquals(0, tx.size());
+        for (int slot : tx.index) {
+            assertEquals(0, slot);
+        }
+        for (long word : tx.filter) {
+            assertEquals(0, word);
+        }
+
+        Tranlocal tranlocal = refs[5].openForRead(tx, LOCKMODE_NONE);
+        assertSame(tranlocal, tx.array[0]);
+        assertEquals(-1, tx.indexOf(refs[6], refs[6].identityHashCode()));
+    }
+
+    @Test
+    public void whenHardReset_thenArrayPooledAndGrownIndexKeptAndCleared() {
+        FatVariableLengthGammaTxn tx = newTransaction();
+        GammaTxnLong[] refs = newRefs(1000);
+        for (GammaTxnLong ref : refs) {
+            ref.openForRead(tx, LOCKMODE_NONE);
+        }
+        tx.commit();
+        int[] index = tx.index;
+        long[] filter = tx.filter;
+
+        tx.hardReset();
+
+        assertEquals(0, tx.size());
+        assertEquals(tx.config.minimalArrayTreeSize, tx.array.length);
+        assertSame(index, tx.index);
+        assertSame(filter, tx.filter);
+        for (int slot : tx.index) {
+            assertEquals(0, slot);
+        }
+        for (long word : tx.filter) {
+            assertEquals(0, word);
+        }
+        for (GammaTxnLong ref : refs) {
+            assertEquals(-1, tx.indexOf(ref, ref.identityHashCode()));
+        }
+    }
+
+    @Test
+    public void whenGrownAgainAfterHardReset_thenIndexNotReallocated() {
+        FatVariableLengthGammaTxn tx = newTransaction();
+        GammaTxnLong[] refs = newRefs(1000);
+        for (GammaTxnLong ref : refs) {
+            ref.openForRead(tx, LOCKMODE_NONE);
+        }
+        tx.commit();
+        int[] index = tx.index;
+
+        tx.hardReset();
+        for (GammaTxnLong ref : refs) {
+            ref.openForRead(tx, LOCKMODE_NONE);
+        }
+
+        assertSame(index, tx.index);
+        for (int k = 0; k < refs.length; k++) {
+            assertEquals(k, tx.indexOf(refs[k], refs[k].identityHashCode()));
+        }
+        tx.commit();
+        assertIsCommitted(tx);
+    }
+
+    @Test
+    public void whenExpanded_thenFilterRebuilt() {
+        FatVariableLengthGammaTxn tx = newTransaction();
+        int initialFilterLength = tx.filter.length;
+        GammaTxnLong[] refs = newRefs(5000);
+        for (GammaTxnLong ref : refs) {
+            ref.openForRead(tx, LOCKMODE_NONE);
+        }
+
+        assertTrue(tx.filter.length > initialFilterLength);
+        assertPowerOfTwo(tx.filter.length);
+        for (int k = 0; k < refs.length; k++) {
+            assertEquals(k, tx.indexOf(refs[k], refs[k].identityHashCode()));
+        }
+    }
+
+    @Test
+    public void whenManyNotOpened_thenMostRejectedByFilter() {
+        FatVariableLengthGammaTxn tx = newTransaction();
+        GammaTxnLong[] refs = newRefs(1000);
+        for (GammaTxnLong ref : refs) {
+            ref.openForRead(tx, LOCKMODE_NONE);
+        }
+
+        int mask = tx.filter.length - 1;
+        int passed = 0;
+        GammaTxnLong[] others = newRefs(1000);
+        for (GammaTxnLong other : others) {
+            int hash = other.identityHashCode();
+            long bits = (1L << hash) | (1L << (hash >>> 6));
+            if ((tx.filter[(hash >>> 12) & mask] & bits) == bits) {
+                passed++;
+            }
+            assertEquals(-1, tx.indexOf(other, hash));
+        }
+
+        //with at least 8 bits per tranlocal the false positive rate is a lot lower than 50%.
+        assertTrue("passed " + passed, passed < others.length / 2);
+    }
+
+    @Test
+    public void whenManyUpdates_thenCommitWritesAll() {
+        FatVariableLengthGammaTxn tx = newTransaction();
+        GammaTxnLong[] refs = newRefs(5000);
+        for (GammaTxnLong ref : refs) {
+            ref.openForWrite(tx, LOCKMODE_NONE).long_value++;
+        }
+
+        tx.commit();
+
+        assertIsCommitted(tx);
+        for (GammaTxnLong ref : refs) {
+            assertEquals(1, ref.atomicGet());
+        }
+    }
+
+    @Test
+    public void whenManyReadsAndConflict_thenDetected() {
+        FatVariableLengthGammaTxn tx = newTransaction();
+        GammaTxnLong[] refs = newRefs(2000);
+        for (GammaTxnLong ref : refs) {
+            ref.openForRead(tx, LOCKMODE_NONE);
+        }
+
+        refs[1500].atomicIncrementAndGet(1);
+
+        GammaTxnLong last = new GammaTxnLong(stm);
+        try {
+            last.openForRead(tx, LOCKMODE_NONE);
+            fail();
+        } catch (ReadWriteConflict expected) {
+        }
+
+        assertIsAborted(tx);
+    }
+
+    private FatVariableLengthGammaTxn newTransaction() {
+        GammaTxnConfig config = new GammaTxnConfig(stm)
+                .setMaximumPoorMansConflictScanLength(10000);
+        return new FatVariableLengthGammaTxn(config);
+    }
+
+    private GammaTxnLong[] newRefs(int count) {
+        GammaTxnLong[] refs = new GammaTxnLong[count];
+        for (int k = 0; k < count; k++) {
+            refs[k] = new GammaTxnLong(stm);
+        }
+        return refs;
+    }
+
+    private static void assertPowerOfTwo(int value) {
+        assertTrue(value + " is not a power of two", value > 0 && (value & (value - 1)) == 0);
+    }
+}
@@ -0,0 +1,158 @@
+package org.multiverse.stms.gamma.transactions.lean;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.api.exceptions.ReadWriteConflict;
+import org.multiverse.api.exceptions.SpeculativeConfigurationError;
+import org.multiverse.stms.gamma.GammaConstants;
+import org.multiverse.stms.gamma.GammaStm;
+import org.multiverse.stms.gamma.transactionalobjects.GammaTxnRef;
+import org.multiverse.stms.gamma.transactionalobjects.Tranlocal;
+import org.multiverse.stms.gamma.transactions.GammaTxnConfig;
+
+import static org.junit.Assert.*;
+import static org.multiverse.TestUtils.assertIsAborted;
+import static org.multiverse.TestUtils.assertIsCommitted;
+
+public class LeanFixedLengthGammaTxn_arrayTest implements GammaConstants {
+
+    private GammaStm stm;
+
+    @Before
+    public void setUp() {
+        stm = new GammaStm();
+    }
+
+    @Test
+    public void whenOpened_thenStoredDenselyInOpenOrder() {
+        LeanFixedLengthGammaTxn tx = newTransaction(10);
+        GammaTxnRef<String>[] refs = newRefs(4);
+
+        Tranlocal[] tranlocals = new Tranlocal[refs.length];
+        for (int k = 0; k < refs.length; k++) {
+            tranlocals[k] = refs[k].openForRead(tx, LOCKMODE_NONE);
+        }
+
+        assertEquals(refs.length, tx.size());
+        for (int k = 0; k < refs.length; k++) {
+            assertSame(tranlocals[k], tx.array[k]);
+            assertSame(refs[k], tx.array[k].owner);
+        }
+        for (int k = refs.length; k < tx.array.length; k++) {
+            assertNull(tx.array[k].owner);
+        }
+    }
+
+    @Test
+    public void whenReopened_thenSameTranlocal() {
+        LeanFixedLengthGammaTxn tx = newTransaction(10);
+        GammaTxnRef<String>[] refs = newRefs(10);
+
+        Tranlocal[] tranlocals = new Tranlocal[refs.length];
+        for (int k = 0; k < refs.length; k++) {
+            tranlocals[k] = refs[k].openForRead(tx, LOCKMODE_NONE);
+        }
+
+        for (int k = 0; k < refs.length; k++) {
+            assertSame(tranlocals[k], refs[k].openForWrite(tx, LOCKMODE_NONE));
+            assertSame(tranlocals[k], tx.getRefTranlocal(refs[k]));
+        }
+        assertEquals(refs.length, tx.size());
+    }
+
+    @Test
+    public void whenFull_thenTooSmallDetected() {
+        LeanFixedLengthGammaTxn tx = newTransaction(3);
+        GammaTxnRef<String>[] refs = newRefs(3);
+        for (GammaTxnRef<String> ref : refs) {
+            ref.openForRead(tx, LOCKMODE_NONE);
+        }
+
+        GammaTxnRef<String> other = new GammaTxnRef<String>(stm);
+        try {
+            other.openForRead(tx, LOCKMODE_NONE);
+            fail();
+        } catch (SpeculativeConfigurationError expected) {
+        }
+
+        assertIsAborted(tx);
+        assertCleaned(tx);
+    }
+
+    @Test
+    public void whenLoadFailsOnLock_thenTranlocalReleased() {
+        LeanFixedLengthGammaTxn tx = newTransaction(10);
+        GammaTxnRef<String> ref1 = new GammaTxnRef<String>(stm);
+        GammaTxnRef<String> ref2 = new GammaTxnRef<String>(stm);
+        ref1.openForRead(tx, LOCKMODE_NONE);
+
+        LeanFixedLengthGammaTxn otherTx = newTransaction(10);
+        ref2.openForRead(otherTx, LOCKMODE_NONE);
+        ref2.arriveAndExclusiveLock(1);
+
+        try {
+            ref2.openForRead(tx, LOCKMODE_NONE);
+            fail();
+        } catch (ReadWriteConflict expected) {
+        }
+
+        assertIsAborted(tx);
+        assertCleaned(tx);
+    }
+
+    @Test
+    public void whenMultipleUpdates_thenCommitWritesAll() {
+        LeanFixedLengthGammaTxn tx = newTransaction(10);
+        GammaTxnRef<String>[] refs = newRefs(5);
+        for (GammaTxnRef<String> ref : refs) {
+            ref.openForRead(tx, LOCKMODE_NONE);
+        }
+        for (GammaTxnRef<String> ref : refs) {
+            ref.openForWrite(tx, LOCKMODE_NONE).ref_value = "foo";
+        }
+
+        tx.commit();
+
+        assertIsCommitted(tx);
+        assertCleaned(tx);
+        for (GammaTxnRef<String> ref : refs) {
+            assertEquals("foo", ref.atomicGet());
+        }
+    }
+
+    @Test
+    public void whenHardReset_thenEmpty() {
+        LeanFixedLengthGammaTxn tx = newTransaction(10);
+        GammaTxnRef<String>[] refs = newRefs(5);
+        for (GammaTxnRef<String> ref : refs) {
+            ref.openForRead(tx, LOCKMODE_NONE);
+        }
+        tx.commit();
+
+        tx.hardReset();
+
+        assertEquals(0, tx.size());
+        for (GammaTxnRef<String> ref : refs) {
+            assertNull(tx.getRefTranlocal(ref));
+        }
+    }
+
+    private void assertCleaned(LeanFixedLengthGammaTxn tx) {
+        for (Tranlocal tranlocal : tx.array) {
+            assertNull(tranlocal.owner);
+        }
+    }
+
+    private LeanFixedLengthGammaTxn newTransaction(int maxSize) {
+        return new LeanFixedLengthGammaTxn(new GammaTxnConfig(stm, maxSize));
+    }
+
+    @SuppressWarnings({"unchecked"})
+    private GammaTxnRef<String>[] newRefs(int count) {
+        GammaTxnRef<String>[] refs = new GammaTxnRef[count];
+        for (int k = 0; k < count; k++) {
+            refs[k] = new GammaTxnRef<String>(stm);
+        }
+        return refs;
+    }
+}
@@ -0,0 +1,89 @@
+package org.multiverse.stms.norec;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.TestThread;
+import org.multiverse.api.Txn;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.api.exceptions.RetryTimeoutException;
+import org.multiverse.stms.clock.ClockTxnLong;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.multiverse.TestUtils.*;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+
+public class NorecTxnExecutor_blockingTest {
+
+    private NorecStm stm;
+
+    @Before
+    public void setUp() {
+        stm = new NorecStm();
+        clearThreadLocalTxn();
+    }
+
+    @Test
+    public void test() {
+        final ClockTxnLong ref = new ClockTxnLong(stm);
+
+        WaitThread t = new WaitThread(ref);
+        t.start();
+
+        sleepMs(1000);
+        assertAlive(t);
+
+        stm.getDefaultTxnExecutor().execute(new TxnVoidCallable() {
+            @Override
+            public void call(Txn tx) throws Exception {
+                ref.set(tx, 1);
+            }
+        });
+
+        joinAll(t);
+        assertEquals(2, ref.atomicGet());
+        assertEquals(0, stm.retryMonitor.getWaiterCount());
+    }
+
+    @Test
+    public void whenTimeout() {
+        final ClockTxnLong ref = new ClockTxnLong(stm);
+
+        try {
+            stm.newTxnFactoryBuilder()
+                    .setTimeoutNs(TimeUnit.MILLISECONDS.toNanos(100))
+                    .newTxnExecutor()
+                    .execute(new TxnVoidCallable() {
+                        @Override
+                        public void call(Txn tx) throws Exception {
+                            ref.await(tx, 1);
+                        }
+                    });
+            fail();
+        } catch (RetryTimeoutException expected) {
+        }
+
+        assertEquals(0, stm.retryMonitor.getWaiterCount());
+    }
+
+    class WaitThread extends TestThread {
+        final ClockTxnLong ref;
+
+        public WaitThread(ClockTxnLong ref) {
+            this.ref = ref;
+        }
+
+        @Override
+        public void doRun() throws Exception {
+            stm.getDefaultTxnExecutor().execute(new TxnVoidCallable() {
+                @Override
+                public void call(Txn tx) throws Exception {
+                    ref.await(tx, 1);
+                    ref.increment(tx);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,312 @@
+package org.multiverse.stms.norec;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.api.LockMode;
+import org.multiverse.api.exceptions.LockedException;
+import org.multiverse.api.exceptions.ReadWriteConflict;
+import org.multiverse.api.exceptions.ReadonlyException;
+import org.multiverse.stms.clock.ClockTxnInteger;
+import org.multiverse.stms.clock.ClockTxnLong;
+import org.multiverse.stms.clock.ClockTxnRef;
+
+import static org.junit.Assert.*;
+import static org.multiverse.TestUtils.*;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+
+public class NorecTxnTest {
+
+    private NorecStm stm;
+
+    @Before
+    public void setUp() {
+        stm = new NorecStm();
+        clearThreadLocalTxn();
+    }
+
+    @Test
+    public void whenCommitWithWrite_thenSeqLockIncreased() {
+        ClockTxnLong ref = new ClockTxnLong(stm, 10);
+        long sequence = stm.seqLock.get();
+
+        NorecTxn tx = stm.newDefaultTxn();
+        ref.set(tx, 20);
+        tx.commit();
+
+        assertIsCommitted(tx);
+        assertEquals(20, ref.atomicGet());
+        assertEquals(sequence + 2, stm.seqLock.get());
+        assertFalse(tx.ownsSeqLock);
+    }
+
+    @Test
+    public void whenReadonlyCommit_thenSeqLockUnchanged() {
+        ClockTxnLong ref = new ClockTxnLong(stm, 10);
+        long sequence = stm.seqLock.get();
+
+        NorecTxn tx = stm.newDefaultTxn();
+        assertEquals(10, ref.get(tx));
+        tx.commit();
+
+        assertIsCommitted(tx);
+        assertEquals(sequence, stm.seqLock.get());
+    }
+
+    @Test
+    public void whenNoDirtyWrite_thenTreatedAsRead() {
+        ClockTxnLong ref = new ClockTxnLong(stm, 10);
+        long sequence = stm.seqLock.get();
+
+        NorecTxn tx = stm.newDefaultTxn();
+        ref.set(tx, 10);
+        tx.commit();
+
+        assertEquals(sequence, stm.seqLock.get());
+    }
+
+    @Test
+    public void whenAtomicSetWithoutChange_thenSeqLockRestored() {
+        ClockTxnLong ref = new ClockTxnLong(stm, 10);
+        long sequence = stm.seqLock.get();
+
+        ref.atomicSet(10);
+
+        assertEquals(sequence, stm.seqLock.get());
+    }
+
+    @Test
+    public void whenReadChanged_thenReadWriteConflict() {
+        ClockTxnLong ref1 = new ClockTxnLong(stm, 1);
+        ClockTxnLong ref2 = new ClockTxnLong(stm, 2);
+
+        NorecTxn tx = stm.newDefaultTxn();
+        ref1.get(tx);
+        ref2.set(tx, 3);
+
+        ref1.atomicSet(100);
+
+        try {
+            tx.commit();
+            fail();
+        } catch (ReadWriteConflict expected) {
+        }
+
+        assertIsAborted(tx);
+        assertEquals(2, ref2.atomicGet());
+        assertEquals(0, stm.seqLock.get() & 1);
+    }
+
+    @Test
+    public void whenOtherRefChanged_thenRevalidatedWithoutConflict() {
+        ClockTxnLong ref1 = new ClockTxnLong(stm, 1);
+        ClockTxnLong ref2 = new ClockTxnLong(stm, 2);
+        ClockTxnLong ref3 = new ClockTxnLong(stm, 3);
+
+        NorecTxn tx = stm.newDefaultTxn();
+        ref1.get(tx);
+        ref3.atomicSet(30);
+
+        assertEquals(2, ref2.get(tx));
+        assertEquals(stm.seqLock.get(), tx.snapshot);
+        ref2.increment(tx);
+        tx.commit();
+
+        assertIsCommitted(tx);
+        assertEquals(3, ref2.atomicGet());
+    }
+
+    @Test
+    public void whenChangedBackToSameValue_thenNoConflict() {
+        ClockTxnRef<String> ref = new ClockTxnRef<String>(stm, "foo");
+        ClockTxnLong other = new ClockTxnLong(stm, 1);
+
+        NorecTxn tx = stm.newDefaultTxn();
+        ref.get(tx);
+        ref.atomicSet("bar");
+        ref.atomicSet("foo");
+
+        other.increment(tx);
+        tx.commit();
+
+        assertIsCommitted(tx);
+        assertEquals(2, other.atomicGet());
+    }
+
+    @Test
+    public void whenPrepared_thenSeqLockOwned() {
+        ClockTxnLong ref = new ClockTxnLong(stm, 1);
+        long sequence = stm.seqLock.get();
+
+        NorecTxn tx = stm.newDefaultTxn();
+        ref.increment(tx);
+        tx.prepare();
+
+        assertTrue(tx.ownsSeqLock);
+        assertEquals(sequence + 1, stm.seqLock.get());
+
+        tx.commit();
+        assertIsCommitted(tx);
+        assertEquals(2, ref.atomicGet());
+        assertEquals(sequence + 2, stm.seqLock.get());
+    }
+
+    @Test
+    public void whenPreparedAndAborted_thenSeqLockRestored() {
+        ClockTxnLong ref = new ClockTxnLong(stm, 1);
+        long sequence = stm.seqLock.get();
+
+        NorecTxn tx = stm.newDefaultTxn();
+        ref.increment(tx);
+        tx.prepare();
+        tx.abort();
+
+        assertIsAborted(tx);
+        assertEquals(1, ref.atomicGet());
+        assertEquals(sequence, stm.seqLock.get());
+    }
+
+    @Test
+    public void whenLockAcquired_thenSeqLockOwned() {
+        ClockTxnLong ref = new ClockTxnLong(stm, 1);
+        long sequence = stm.seqLock.get();
+
+        NorecTxn tx = stm.newDefaultTxn();
+        ref.getLock().acquire(tx, LockMode.Exclusive);
+
+        assertTrue(tx.ownsSeqLock);
+        assertEquals(sequence + 1, stm.seqLock.get());
+        assertEquals(LockMode.Exclusive, ref.getLock().getLockMode(tx));
+        assertEquals(LockMode.Exclusive, ref.atomicGetLockMode());
+
+        tx.commit();
+
+        assertIsCommitted(tx);
+        assertFalse(tx.ownsSeqLock);
+        assertEquals(sequence, stm.seqLock.get());
+        assertEquals(LockMode.None, ref.atomicGetLockMode());
+    }
+
+    @Test
+    public void whenLockAcquiredAndWritten_thenCommitted() {
+        ClockTxnLong ref = new ClockTxnLong(stm, 1);
+        ClockTxnLong other = new ClockTxnLong(stm, 10);
+        long sequence = stm.seqLock.get();
+
+        NorecTxn tx = stm.newDefaultTxn();
+        ref.getAndLock(tx, LockMode.Write);
+        ref.increment(tx);
+        assertEquals(10, other.get(tx));
+        tx.commit();
+
+        assertIsCommitted(tx);
+        assertEquals(2, ref.atomicGet());
+        assertEquals(sequence + 2, stm.seqLock.get());
+    }
+
+    @Test
+    public void whenLockAcquiredAndAborted_thenSeqLockRestored() {
+        ClockTxnLong ref = new ClockTxnLong(stm, 1);
+        long sequence = stm.seqLock.get();
+
+        NorecTxn tx = stm.newDefaultTxn();
+        ref.setAndLock(tx, 2, LockMode.Exclusive);
+        tx.abort();
+
+        assertIsAborted(tx);
+        assertEquals(1, ref.atomicGet());
+        assertEquals(sequence, stm.seqLock.get());
+        assertEquals(LockMode.None, ref.getLock().getLockMode(tx));
+    }
+
+    @Test
+    public void whenSeqLockOwnedByOther_thenBeginDoesntWaitAndReadFails() {
+        ClockTxnLong ref = new ClockTxnLong(stm, 1);
+        NorecTxn lockOwner = stm.newDefaultTxn();
+        ref.getLock().acquire(lockOwner, LockMode.Exclusive);
+
+        NorecTxn tx = stm.newDefaultTxn();
+        try {
+            ref.get(tx);
+            fail();
+        } catch (ReadWriteConflict expected) {
+        }
+
+        assertIsAborted(tx);
+        assertIsActive(lockOwner);
+        assertTrue(lockOwner.ownsSeqLock);
+    }
+
+    @Test
+    public void whenSeqLockReleasedWithoutChange_thenSnapshotStillValid() {
+        ClockTxnLong ref = new ClockTxnLong(stm, 1);
+        NorecTxn lockOwner = stm.newDefaultTxn();
+        ref.getLock().acquire(lockOwner, LockMode.Exclusive);
+
+        NorecTxn tx = stm.newDefaultTxn();
+        lockOwner.commit();
+
+        ref.set(tx, 2);
+        tx.commit();
+
+        assertIsCommitted(tx);
+        assertEquals(2, ref.atomicGet());
+    }
+
+    @Test
+    public void whenLockOwnedByTransactionOfSameThread_thenAtomicOperationFails() {
+        ClockTxnLong ref = new ClockTxnLong(stm, 1);
+        NorecTxn tx = stm.newDefaultTxn();
+        ref.getLock().acquire(tx, LockMode.Exclusive);
+        long sequence = stm.seqLock.get();
+
+        try {
+            ref.atomicSet(2);
+            fail();
+        } catch (LockedException expected) {
+        }
+
+        assertEquals(sequence, stm.seqLock.get());
+        tx.commit();
+        assertEquals(1, ref.atomicGet());
+    }
+
+    @Test
+    public void whenReadonly_thenWriteFails() {
+        ClockTxnLong ref = new ClockTxnLong(stm, 1);
+        NorecTxn tx = (NorecTxn) stm.newTxnFactoryBuilder()
+                .setReadonly(true)
+                .newTransactionFactory()
+                .newTxn();
+
+        try {
+            ref.set(tx, 10);
+            fail();
+        } catch (ReadonlyException expected) {
+        }
+
+        assertIsAborted(tx);
+        assertEquals(1, ref.atomicGet());
+    }
+
+    @Test
+    public void whenManyRefs_thenIndexUsed() {
+        ClockTxnInteger[] refs = new ClockTxnInteger[100];
+        for (int k = 0; k < refs.length; k++) {
+            refs[k] = new ClockTxnInteger(stm, k);
+        }
+
+        NorecTxn tx = stm.newDefaultTxn();
+        for (ClockTxnInteger ref : refs) {
+            ref.increment(tx);
+        }
+        for (ClockTxnInteger ref : refs) {
+            assertNotNull(tx.find(ref));
+        }
+        assertEquals(refs.length, tx.size);
+        tx.commit();
+
+        for (int k = 0; k < refs.length; k++) {
+            assertEquals(k + 1, refs[k].atomicGet());
+        }
+    }
+}
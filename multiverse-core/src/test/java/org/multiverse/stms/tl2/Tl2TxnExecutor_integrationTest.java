@@ -0,0 +1,81 @@
+package org.multiverse.stms.tl2;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.TestThread;
+import org.multiverse.api.Txn;
+import org.multiverse.api.TxnExecutor;
+import org.multiverse.api.callables.TxnLongCallable;
+import org.multiverse.api.callables.TxnVoidCallable;
+import org.multiverse.stms.clock.ClockTxnLong;
+
+import static org.junit.Assert.assertEquals;
+import static org.multiverse.TestUtils.*;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+
+public class Tl2TxnExecutor_integrationTest {
+
+    private Tl2Stm stm;
+
+    @Before
+    public void setUp() {
+        stm = new Tl2Stm();
+        clearThreadLocalTxn();
+    }
+
+    @Test
+    public void whenConcurrentTransfers_thenTotalPreserved() {
+        final ClockTxnLong[] accounts = new ClockTxnLong[10];
+        for (int k = 0; k < accounts.length; k++) {
+            accounts[k] = new ClockTxnLong(stm, 1000);
+        }
+
+        final TxnExecutor executor = stm.getDefaultTxnExecutor();
+        TransferThread[] threads = new TransferThread[4];
+        for (int k = 0; k < threads.length; k++) {
+            threads[k] = new TransferThread(k, accounts, executor);
+        }
+
+        startAll(threads);
+        joinAll(threads);
+
+        long total = executor.execute(new TxnLongCallable() {
+            @Override
+            public long call(Txn tx) throws Exception {
+                long sum = 0;
+                for (ClockTxnLong account : accounts) {
+                    sum += account.get(tx);
+                }
+                return sum;
+            }
+        });
+
+        assertEquals(accounts.length * 1000, total);
+    }
+
+    class TransferThread extends TestThread {
+        private final ClockTxnLong[] accounts;
+        private final TxnExecutor executor;
+
+        TransferThread(int id, ClockTxnLong[] accounts, TxnExecutor executor) {
+            super("TransferThread-" + id);
+            this.accounts = accounts;
+            this.executor = executor;
+        }
+
+        @Override
+        public void doRun() throws Exception {
+            for (int k = 0; k < 10000; k++) {
+                final ClockTxnLong from = accounts[randomInt(accounts.length)];
+                final ClockTxnLong to = accounts[randomInt(accounts.length)];
+                executor.execute(new TxnVoidCallable() {
+                    @Override
+                    public void call(Txn tx) throws Exception {
+                        from.decrement(tx, 10);
+                        to.increment(tx, 10);
+                    }
+                });
+            }
+        }
+    }
+}
@@ -0,0 +1,232 @@
+package org.multiverse.stms.tl2;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.multiverse.api.LockMode;
+import org.multiverse.api.exceptions.ReadWriteConflict;
+import org.multiverse.api.exceptions.ReadonlyException;
+import org.multiverse.stms.clock.ClockTxnDouble;
+import org.multiverse.stms.clock.ClockTxnInteger;
+import org.multiverse.stms.clock.ClockTxnLong;
+import org.multiverse.stms.clock.ClockTxnRef;
+
+import static org.junit.Assert.*;
+import static org.multiverse.TestUtils.*;
+import static org.multiverse.api.TxnThreadLocal.clearThreadLocalTxn;
+
+public class Tl2TxnTest {
+
+    private Tl2Stm stm;
+
+    @Before
+    public void setUp() {
+        stm = new Tl2Stm();
+        clearThreadLocalTxn();
+    }
+
+    @Test
+    public void whenCommitWithWrite_thenVersionTakenFromGlobalClock() {
+        ClockTxnLong ref = new ClockTxnLong(stm, 10);
+        long clock = stm.globalClock.get();
+
+        Tl2Txn tx = stm.newDefaultTxn();
+        ref.set(tx, 20);
+        tx.commit();
+
+        assertIsCommitted(tx);
+        assertEquals(20, ref.atomicGet());
+        assertEquals(clock + 1, stm.globalClock.get());
+        assertEquals(clock + 1, ref.getVersion());
+        assertEquals(LockMode.None, ref.atomicGetLockMode());
+    }
+
+    @Test
+    public void whenReadonlyCommit_thenGlobalClockNotIncreased() {
+        ClockTxnLong ref = new ClockTxnLong(stm, 10);
+        long clock = stm.globalClock.get();
+
+        Tl2Txn tx = stm.newDefaultTxn();
+        assertEquals(10, ref.get(tx));
+        tx.commit();
+
+        assertIsCommitted(tx);
+        assertEquals(clock, stm.globalClock.get());
+    }
+
+    @Test
+    public void whenNoDirtyWrite_thenTreatedAsRead() {
+        ClockTxnLong ref = new ClockTxnLong(stm, 10);
+        long version = ref.getVersion();
+        long clock = stm.globalClock.get();
+
+        Tl2Txn tx = stm.newDefaultTxn();
+        ref.set(tx, 10);
+        tx.commit();
+
+        assertEquals(version, ref.getVersion());
+        assertEquals(clock, stm.globalClock.get());
+    }
+
+    @Test
+    public void whenAbort_thenChangesDiscarded() {
+        ClockTxnRef<String> ref = new ClockTxnRef<String>(stm, "foo");
+
+        Tl2Txn tx = stm.newDefaultTxn();
+        ref.set(tx, "bar");
+        ref.getLock().acquire(tx, LockMode.Exclusive);
+        tx.abort();
+
+        assertIsAborted(tx);
+        assertEquals("foo", ref.atomicGet());
+        assertEquals(LockMode.None, ref.atomicGetLockMode());
+    }
+
+    @Test
+    public void whenReadConflict_thenReadWriteConflict() {
+        ClockTxnLong ref1 = new ClockTxnLong(stm, 1);
+        ClockTxnLong ref2 = new ClockTxnLong(stm, 2);
+
+        Tl2Txn tx = stm.newDefaultTxn();
+        ref1.get(tx);
+        ref2.set(tx, 3);
+
+        ref1.atomicSet(100);
+
+        try {
+            tx.commit();
+            fail();
+        } catch (ReadWriteConflict expected) {
+        }
+
+        assertIsAborted(tx);
+        assertEquals(2, ref2.atomicGet());
+        assertEquals(LockMode.None, ref2.atomicGetLockMode());
+    }
+
+    @Test
+    public void whenNewerVersionReadAndReadSetUnchanged_thenReadVersionExtended() {
+        ClockTxnLong ref1 = new ClockTxnLong(stm, 1);
+        ClockTxnLong ref2 = new ClockTxnLong(stm, 2);
+
+        Tl2Txn tx = stm.newDefaultTxn();
+        ref1.get(tx);
+        ref2.atomicSet(20);
+
+        assertEquals(20, ref2.get(tx));
+        assertEquals(stm.globalClock.get(), tx.readVersion);
+        tx.commit();
+        assertIsCommitted(tx);
+    }
+
+    @Test
+    public void whenNewerVersionReadAndReadSetChanged_thenReadWriteConflict() {
+        ClockTxnLong ref1 = new ClockTxnLong(stm, 1);
+        ClockTxnLong ref2 = new ClockTxnLong(stm, 2);
+
+        Tl2Txn tx = stm.newDefaultTxn();
+        ref1.get(tx);
+        ref1.atomicSet(10);
+        ref2.atomicSet(20);
+
+        try {
+            ref2.get(tx);
+            fail();
+        } catch (ReadWriteConflict expected) {
+        }
+
+        assertIsAborted(tx);
+    }
+
+    @Test
+    public void whenLockedByOther_thenReadWriteConflict() {
+        ClockTxnLong ref = new ClockTxnLong(stm, 1);
+
+        Tl2Txn otherTx = stm.newDefaultTxn();
+        ref.getLock().acquire(otherTx, LockMode.Write);
+
+        Tl2Txn tx = stm.newDefaultTxn();
+        try {
+            ref.get(tx);
+            fail();
+        } catch (ReadWriteConflict expected) {
+        }
+
+        assertIsAborted(tx);
+        assertIsActive(otherTx);
+        assertEquals(LockMode.Exclusive, ref.getLock().getLockMode(otherTx));
+    }
+
+    @Test
+    public void whenPrepared_thenCommitCantFail() {
+        ClockTxnLong ref1 = new ClockTxnLong(stm, 1);
+        ClockTxnLong ref2 = new ClockTxnLong(stm, 2);
+
+        Tl2Txn tx = stm.newDefaultTxn();
+        ref1.get(tx);
+        ref2.increment(tx);
+        tx.prepare();
+
+        assertEquals(LockMode.Exclusive, ref1.atomicGetLockMode());
+        assertEquals(LockMode.Exclusive, ref2.atomicGetLockMode());
+
+        tx.commit();
+        assertIsCommitted(tx);
+        assertEquals(3, ref2.atomicGet());
+        assertEquals(LockMode.None, ref1.atomicGetLockMode());
+    }
+
+    @Test
+    public void whenReadonly_thenWriteFails() {
+        ClockTxnLong ref = new ClockTxnLong(stm, 1);
+        Tl2Txn tx = (Tl2Txn) stm.newTxnFactoryBuilder()
+                .setReadonly(true)
+                .newTransactionFactory()
+                .newTxn();
+
+        try {
+            ref.set(tx, 10);
+            fail();
+        } catch (ReadonlyException expected) {
+        }
+
+        assertIsAborted(tx);
+        assertEquals(1, ref.atomicGet());
+    }
+
+    @Test
+    public void whenManyRefs_thenIndexUsed() {
+        ClockTxnInteger[] refs = new ClockTxnInteger[100];
+        for (int k = 0; k < refs.length; k++) {
+            refs[k] = new ClockTxnInteger(stm, k);
+        }
+
+        Tl2Txn tx = stm.newDefaultTxn();
+        for (ClockTxnInteger ref : refs) {
+            ref.increment(tx);
+        }
+        for (ClockTxnInteger ref : refs) {
+            assertNotNull(tx.find(ref));
+        }
+        assertEquals(refs.length, tx.size);
+        tx.commit();
+
+        for (int k = 0; k < refs.length; k++) {
+            assertEquals(k + 1, refs[k].atomicGet());
+        }
+    }
+
+    @Test
+    public void whenSoftReset_thenTransactionCanBeReused() {
+        ClockTxnDouble ref = new ClockTxnDouble(stm, 1.5);
+
+        Tl2Txn tx = stm.newDefaultTxn();
+        ref.incrementAndGet(tx, 1);
+        tx.abort();
+
+        assertTrue(tx.softReset());
+        assertIsActive(tx);
+        assertEquals(0, tx.size);
+        assertEquals(2, tx.getAttempt());
+        assertEqualsDouble(1.5, ref.get(tx));
+    }
+}